@@ -54,6 +54,25 @@ CREATE TABLE IF NOT EXISTS stat_team_sum (
     FOREIGN KEY (team_id) REFERENCES team(id)
 );
 
+-- Create player box score table - final line of every completed game
+CREATE TABLE IF NOT EXISTS stat_player_game (
+    player_id INTEGER NOT NULL,
+    game_id INTEGER NOT NULL,
+    team_id INTEGER NOT NULL,
+    season VARCHAR(20) NOT NULL,
+    points INTEGER DEFAULT 0,
+    rebounds INTEGER DEFAULT 0,
+    assists INTEGER DEFAULT 0,
+    steals INTEGER DEFAULT 0,
+    blocks INTEGER DEFAULT 0,
+    fouls INTEGER DEFAULT 0,
+    turnovers INTEGER DEFAULT 0,
+    minutes_played DECIMAL(5,1) DEFAULT 0.0,
+    finished_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (player_id, game_id),
+    FOREIGN KEY (player_id) REFERENCES player(id)
+);
+
 -- Insert sample teams
 INSERT INTO team (id, name, city) VALUES 
 (10, 'Los Angeles Lakers', 'Los Angeles'),
@@ -91,3 +110,5 @@ ON CONFLICT (team_id, season) DO NOTHING;
 CREATE INDEX IF NOT EXISTS idx_stat_player_sum_season ON stat_player_sum(season);
 CREATE INDEX IF NOT EXISTS idx_stat_team_sum_season ON stat_team_sum(season);
 CREATE INDEX IF NOT EXISTS idx_player_team ON player(team_id);
+-- Game log pages: one player's season, walked backwards by game id
+CREATE INDEX IF NOT EXISTS idx_stat_player_game_log ON stat_player_game(player_id, season, game_id DESC);
@@ -0,0 +1,54 @@
+package com.nba.stats.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nba.stats.dto.SeasonTotals;
+
+/**
+ * Season hash decode (every Redis read and sync chunk) and encode (cache fills)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeasonTotalsCodecBenchmark {
+
+    private SeasonTotals totals;
+    private List<byte[]> hmgetValues;
+
+    @Setup
+    public void setUp() {
+        totals = new SeasonTotals(71, 1800, 550, 600, 120, 80, 180, 200, 2500.5);
+        Map<byte[], byte[]> hash = SeasonTotalsCodec.encode(totals);
+        hmgetValues = new ArrayList<>();
+        for (byte[] field : SeasonTotalsCodec.fields()) {
+            hmgetValues.add(hash.get(field));
+        }
+    }
+
+    @Benchmark
+    public SeasonTotals decode() {
+        return SeasonTotalsCodec.decode(hmgetValues);
+    }
+
+    @Benchmark
+    public Map<byte[], byte[]> encode() {
+        return SeasonTotalsCodec.encode(totals);
+    }
+}
@@ -0,0 +1,65 @@
+package com.nba.stats.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nba.stats.dto.PlayerStatsDelta;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
+
+/**
+ * Java side of delta handling - the delta itself is computed by the stat line script.
+ * Team deltas of a hot season key coalesced in memory; flushes go to a no-op stub.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeasonDeltaCoalescerBenchmark {
+
+    private static final String SEASON = "2024/25";
+
+    private SeasonDeltaCoalescer coalescer;
+    private String seasonKey;
+    private PlayerStatsDelta delta;
+
+    @Setup
+    public void setUp() {
+        RedisStatsRepository redisStub = new RedisStatsRepository(null) {
+            @Override
+            public void updateSeasonAggregates(String season, String seasonKey, PlayerStatsDelta delta) {
+                // Flush target only
+            }
+        };
+        coalescer = new SeasonDeltaCoalescer(redisStub, 64, 250, 1, 0);
+        seasonKey = RedisKeys.teamSeason(SEASON, 10);
+        delta = new PlayerStatsDelta(2, 1, 0, 0, 0, 0, 0, 0.5, 0);
+    }
+
+    @Benchmark
+    public void addHotKey() {
+        coalescer.add(SEASON, seasonKey, delta);
+    }
+
+    /**
+     * Several request threads feeding the same team key, as during a live game
+     */
+    @Benchmark
+    @Threads(4)
+    public void addHotKeyContended() {
+        coalescer.add(SEASON, seasonKey, delta);
+    }
+}
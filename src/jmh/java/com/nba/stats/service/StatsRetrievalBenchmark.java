@@ -0,0 +1,78 @@
+package com.nba.stats.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nba.stats.dto.PlayerSeasonStatsDto;
+import com.nba.stats.dto.SeasonAverages;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.dto.TeamSeasonStatsDto;
+import com.nba.stats.repository.DbStatsRepository;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.repository.RosterRepository;
+import com.nba.stats.util.RedisKeys;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * In-process part of the read path: near-cache hit, live-game check and averages.
+ * Redis is replaced by a stub, so this excludes the network round trips.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatsRetrievalBenchmark {
+
+    private static final String SEASON = "2024/25";
+
+    private StatsRetrievalServiceImpl statsRetrievalService;
+    private SeasonTotals totals;
+    private int playerId = 23;
+    private int teamId = 10;
+    private int divisor = 71;
+
+    @Setup
+    public void setUp() {
+        totals = new SeasonTotals(71, 1800, 550, 600, 120, 80, 180, 200, 2500.5);
+        SeasonStatsNearCache nearCache = new SeasonStatsNearCache(true, 1000, TimeUnit.HOURS.toMillis(1));
+        nearCache.put(RedisKeys.playerSeason(SEASON, playerId), totals);
+        nearCache.put(RedisKeys.teamSeason(SEASON, teamId), totals);
+
+        RedisStatsRepository redisStub = new RedisStatsRepository(null) {
+            @Override
+            public boolean hasLiveGame(int playerId) {
+                return false;
+            }
+        };
+        statsRetrievalService = new StatsRetrievalServiceImpl(redisStub, new DbStatsRepository(),
+                new RosterService(new RosterRepository(null)), nearCache, new SimpleMeterRegistry(), 1000);
+    }
+
+    @Benchmark
+    public PlayerSeasonStatsDto playerSeasonStatsFromNearCache() {
+        return statsRetrievalService.getPlayerSeasonStats(playerId, SEASON);
+    }
+
+    @Benchmark
+    public TeamSeasonStatsDto teamSeasonStatsFromNearCache() {
+        return statsRetrievalService.getTeamSeasonStats(teamId, SEASON);
+    }
+
+    @Benchmark
+    public SeasonAverages averages() {
+        return SeasonAverages.of(totals, divisor);
+    }
+}
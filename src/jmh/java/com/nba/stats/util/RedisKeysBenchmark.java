@@ -0,0 +1,50 @@
+package com.nba.stats.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Key builders hit several times per ingested line and per read
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisKeysBenchmark {
+
+    private String season = "2024/25";
+    private int playerId = 23;
+    private int teamId = 10;
+    private int gameId = 8123;
+
+    @Benchmark
+    public String playerSeason() {
+        return RedisKeys.playerSeason(season, playerId);
+    }
+
+    @Benchmark
+    public String teamSeason() {
+        return RedisKeys.teamSeason(season, teamId);
+    }
+
+    @Benchmark
+    public String playerGame() {
+        return RedisKeys.playerGame(gameId, playerId);
+    }
+
+    @Benchmark
+    public String teamGame() {
+        return RedisKeys.teamGame(teamId, gameId);
+    }
+}
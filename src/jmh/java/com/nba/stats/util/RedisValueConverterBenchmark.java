@@ -0,0 +1,51 @@
+package com.nba.stats.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lenient value conversion used for stat line script results and codec fallbacks
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisValueConverterBenchmark {
+
+    // Fields, not constants, so the JIT cannot fold the conversions
+    private Object intString = "1800";
+    private Object boxedInt = 1800;
+    private Object doubleString = "2500.5";
+    private Object longResult = 12L; // Lua integers arrive as Long
+
+    @Benchmark
+    public int convertToIntFromString() {
+        return RedisValueConverter.convertToInt(intString);
+    }
+
+    @Benchmark
+    public int convertToIntFromNumber() {
+        return RedisValueConverter.convertToInt(boxedInt);
+    }
+
+    @Benchmark
+    public int convertToIntFromScriptResult() {
+        return RedisValueConverter.convertToInt(longResult);
+    }
+
+    @Benchmark
+    public double convertToDoubleFromString() {
+        return RedisValueConverter.convertToDouble(doubleString);
+    }
+}
@@ -0,0 +1,42 @@
+package com.nba.stats.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.nba.stats.dto.SeasonRebuildResultDto;
+import com.nba.stats.service.SeasonRebuildService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final SeasonRebuildService seasonRebuildService;
+    @Value("${nba.current-season}")
+    private String currentSeason;
+
+    /**
+     * Recompute the player and team totals of a season (default: the current one) from the
+     * completed-game lines and the live games, e.g. POST /admin/season/rebuild?season=2024/25.
+     * 409 while another rebuild runs; any other failure is a 500.
+     */
+    @PostMapping("/season/rebuild")
+    public SeasonRebuildResultDto rebuildSeason(@RequestParam(required = false) String season) {
+        String actualSeason = (season != null) ? season : currentSeason;
+        log.info("Rebuilding season {} totals from game lines", actualSeason);
+        try {
+            return seasonRebuildService.rebuild(actualSeason);
+        } catch (SeasonRebuildService.RebuildAlreadyRunningException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+}
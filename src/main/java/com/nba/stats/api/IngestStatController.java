@@ -1,40 +1,82 @@
 package com.nba.stats.api;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.nba.stats.dto.LiveStatDto;
 import com.nba.stats.service.GameCompletionManager;
 import com.nba.stats.service.LiveStatService;
+import com.nba.stats.service.PartitionedIngestService;
+import com.nba.stats.service.SeasonStatsWarmUp;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @RestController
+@Validated
 @RequestMapping("/stat/live")
 @RequiredArgsConstructor
 @Slf4j
 public class IngestStatController {
 	private final LiveStatService service;
 	private final GameCompletionManager buzzerService;
+	// Present with nba.ingest.partitioned.enabled: routes each game to the instance owning it
+	private final Optional<PartitionedIngestService> partitionedIngest;
+	private final SeasonStatsWarmUp warmUp;
 
 	@PutMapping("/game")
-	public void putLiveStat(@Valid @RequestBody LiveStatDto stat) {
+	public void putLiveStat(@Valid @RequestBody LiveStatDto stat,
+	        @RequestHeader(name = PartitionedIngestService.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
 	    log.info("Processing live stat for player {} in game {}", stat.getPlayerId(), stat.getGameId());
-	    service.processLiveStat(stat);
+	    if (partitionedIngest.isPresent()) {
+	        partitionedIngest.get().processLiveStat(stat, forwarded);
+	    } else {
+	        service.processLiveStat(stat);
+	    }
+	}
+
+	@PutMapping("/game/batch")
+	public void putLiveStats(@RequestBody List<@Valid LiveStatDto> stats,
+	        @RequestHeader(name = PartitionedIngestService.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+	    log.info("Processing batch of {} live stats", stats.size());
+	    if (partitionedIngest.isPresent()) {
+	        partitionedIngest.get().processLiveStats(stats, forwarded);
+	    } else {
+	        service.processLiveStats(stats);
+	    }
 	}
 	
+    /**
+     * Game is about to start: load the season totals of both teams and their rosters into Redis
+     * ahead of the first lines. Not forwarded under partitioned ingest - Redis is shared.
+     */
+    @PutMapping("/game/{gameId}/tipoff")
+    public void startGame(@PathVariable int gameId, @RequestParam int homeTeamId, @RequestParam int awayTeamId) {
+        log.info("Processing tip-off of game {}, teams {} and {}", gameId, homeTeamId, awayTeamId);
+        warmUp.warmUpGame(gameId, List.of(homeTeamId, awayTeamId));
+    }
+
     // Fixed endpoint:
     @PutMapping("/game/{gameId}/complete") 
-    public void stopGame(@PathVariable int gameId) { 
+    public void stopGame(@PathVariable int gameId,
+            @RequestHeader(name = PartitionedIngestService.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) { 
         log.info("Processing finish game {}", gameId);
-        buzzerService.markGameAsCompleted(gameId);
-        
+        if (partitionedIngest.isPresent()) {
+            partitionedIngest.get().markGameAsCompleted(gameId, forwarded);
+        } else {
+            buzzerService.markGameAsCompleted(gameId);
+        }
     }	
 		
 }
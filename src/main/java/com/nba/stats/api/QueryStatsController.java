@@ -1,45 +1,151 @@
 package com.nba.stats.api;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.nba.stats.dto.PlayerCareerStatsDto;
+import com.nba.stats.dto.PlayerGameLogDto;
+import com.nba.stats.dto.PlayerSeasonStatsDto;
+import com.nba.stats.dto.StatLeaderDto;
+import com.nba.stats.dto.TeamSeasonStatsDto;
+import com.nba.stats.enums.LeaderboardStat;
 import com.nba.stats.service.StatsRetrievalService;
+import com.nba.stats.util.RedisKeys;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Map;
-
 @RestController
 @RequestMapping("/stat")
 @RequiredArgsConstructor
 @Slf4j
 public class QueryStatsController {
 
+    private static final int MAX_LEADERS = 100;
+    private static final int MAX_BULK_IDS = 500;
+    private static final int MAX_GAME_LOG_PAGE = 100;
+
     private final StatsRetrievalService statsService;
     @Value("${nba.current-season}")
     private String currentSeason;
 
+    /**
+     * Season averages of a player; with window=5 or window=10 also the averages of the last
+     * completed games
+     */
     @GetMapping("/player/{playerId}")
-    public Map<String, Object> getPlayerStats(
+    public PlayerSeasonStatsDto getPlayerStats(
     		@PathVariable int playerId,
-    		@RequestParam(required = false) String season) { 
+    		@RequestParam(required = false) String season,
+    		@RequestParam(required = false) Integer window) { 
         // Use currentSeason if season parameter is null
         String actualSeason = (season != null) ? season : currentSeason;
         log.info("Retrieving stats for player {} season {}", playerId, actualSeason);
-        return statsService.getPlayerSeasonStats(playerId, actualSeason);
+        if (window == null) {
+            return statsService.getPlayerSeasonStats(playerId, actualSeason);
+        }
+        if (!RedisKeys.RECENT_FORM_WINDOWS.contains(window)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "window must be one of " + RedisKeys.RECENT_FORM_WINDOWS);
+        }
+        return statsService.getPlayerSeasonStats(playerId, actualSeason, window);
+    }
+
+    /**
+     * Per-season averages and career totals of a player, the current season included live
+     */
+    @GetMapping("/player/{playerId}/career")
+    public PlayerCareerStatsDto getPlayerCareerStats(@PathVariable int playerId) {
+        log.info("Retrieving career stats for player {}", playerId);
+        return statsService.getPlayerCareerStats(playerId, currentSeason);
+    }
+
+    /**
+     * Completed games of a player, newest first, e.g. /stat/player/23/games?limit=20;
+     * the next page is requested with before set to the nextBefore of the previous one
+     */
+    @GetMapping("/player/{playerId}/games")
+    public PlayerGameLogDto getPlayerGameLog(
+            @PathVariable int playerId,
+            @RequestParam(required = false) String season,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_GAME_LOG_PAGE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_GAME_LOG_PAGE);
+        }
+        String actualSeason = (season != null) ? season : currentSeason;
+        log.debug("Retrieving game log of player {} season {} before game {}", playerId, actualSeason, before);
+        return statsService.getPlayerGameLog(playerId, actualSeason, before, limit);
     }
 
     @GetMapping("/team/{teamId}")
-    public Map<String, Object> getTeamStats(
+    public TeamSeasonStatsDto getTeamStats(
     		@PathVariable int teamId,
     		@RequestParam(required = false) String season) {
     	String actualSeason = (season != null) ? season : currentSeason;
     	log.info("Retrieving stats for team {} season {}", teamId, actualSeason);
         return statsService.getTeamSeasonStats(teamId, actualSeason);
     }
+
+    /**
+     * Season stats of several players in one request, e.g. /stat/players?ids=23,30,41
+     */
+    @GetMapping("/players")
+    public List<PlayerSeasonStatsDto> getPlayersStats(
+            @RequestParam List<Integer> ids,
+            @RequestParam(required = false) String season) {
+        checkBulkIds(ids);
+        String actualSeason = (season != null) ? season : currentSeason;
+        log.debug("Retrieving stats for {} players season {}", ids.size(), actualSeason);
+        return statsService.getPlayersSeasonStats(ids, actualSeason);
+    }
+
+    /**
+     * Season stats of several teams in one request, e.g. /stat/teams?ids=10,15
+     */
+    @GetMapping("/teams")
+    public List<TeamSeasonStatsDto> getTeamsStats(
+            @RequestParam List<Integer> ids,
+            @RequestParam(required = false) String season) {
+        checkBulkIds(ids);
+        String actualSeason = (season != null) ? season : currentSeason;
+        log.debug("Retrieving stats for {} teams season {}", ids.size(), actualSeason);
+        return statsService.getTeamsSeasonStats(ids, actualSeason);
+    }
+
+    /**
+     * Top players of a season in one stat, e.g. /stat/leaders?stat=points&limit=10;
+     * ranked by per-game average unless by=total
+     */
+    @GetMapping("/leaders")
+    public List<StatLeaderDto> getStatLeaders(
+            @RequestParam String stat,
+            @RequestParam(required = false) String season,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "average") String by) {
+        LeaderboardStat leaderboardStat = LeaderboardStat.fromParam(stat)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown stat: " + stat));
+        if (!"average".equals(by) && !"total".equals(by)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "by must be average or total");
+        }
+        if (limit < 1 || limit > MAX_LEADERS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LEADERS);
+        }
+        String actualSeason = (season != null) ? season : currentSeason;
+        log.debug("Retrieving {} leaders by {} for season {}", leaderboardStat.getParam(), by, actualSeason);
+        return statsService.getStatLeaders(leaderboardStat, "average".equals(by), actualSeason, limit);
+    }
+
+    private static void checkBulkIds(List<Integer> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BULK_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must hold 1 to " + MAX_BULK_IDS + " ids");
+        }
+    }
 }
@@ -1,15 +1,25 @@
 package com.nba.stats.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import com.nba.stats.service.SeasonStatsNearCache;
+import com.nba.stats.util.RedisKeys;
+
 @Configuration
 public class RedisConfig {
 
+    // The factory is a single node or, with spring.data.redis.cluster.nodes set, a Redis Cluster -
+    // the key layout of RedisKeys keeps every script call within one slot either way
     @Bean
     public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory factory) {
         StringRedisTemplate template = new StringRedisTemplate();
@@ -29,4 +39,20 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-}
\ No newline at end of file
+
+    // Subscribes the season stats near-cache to invalidations published by the stat scripts
+    @Bean
+    @ConditionalOnProperty(name = "nba.near-cache.enabled", havingValue = "true")
+    public RedisMessageListenerContainer seasonStatsListenerContainer(RedisConnectionFactory factory,
+            SeasonStatsNearCache nearCache,
+            @Value("${nba.virtual-threads.enabled:false}") boolean virtualThreads) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        if (virtualThreads) {
+            // The container starts a thread per message it dispatches
+            container.setTaskExecutor(new SimpleAsyncTaskExecutor(Thread.ofVirtual().name("season-stats-listener-", 1).factory()));
+        }
+        container.addMessageListener(nearCache, new ChannelTopic(RedisKeys.seasonStatsChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,44 @@
+package com.nba.stats.config;
+
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskSchedulerBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the blocking work on virtual threads when nba.virtual-threads.enabled is set:
+ * Tomcat request handling (and with it the synchronous @EventListener calls made from requests)
+ * and the @Scheduled jobs. Lettuce and JDBC calls then park a virtual thread instead of
+ * holding one of the 200 platform threads of the Tomcat pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "nba.virtual-threads.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+    /**
+     * One new virtual thread per request instead of the bounded Tomcat worker pool
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Scheduler for @Scheduled jobs (sync, write-behind flush) whose workers are virtual threads;
+     * pool size and shutdown still come from spring.task.scheduling.*
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(TaskSchedulerBuilder builder) {
+        ThreadPoolTaskScheduler scheduler = builder.build();
+        scheduler.setThreadFactory(Thread.ofVirtual().name("scheduling-", 1).factory());
+        return scheduler;
+    }
+}
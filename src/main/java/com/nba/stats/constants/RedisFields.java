@@ -5,29 +5,48 @@ package com.nba.stats.constants;
  */
 public final class RedisFields {
 
-	// Season stats fields (aggregated totals)
-	public static final String SUM_POINTS = "sum_points";
-	public static final String SUM_REBOUNDS = "sum_rebounds";
-	public static final String SUM_ASSISTS = "sum_assists";
-	public static final String SUM_STEALS = "sum_steals";
-	public static final String SUM_BLOCKS = "sum_blocks";
-	public static final String SUM_FOULS = "sum_fouls";
-	public static final String SUM_TURNOVERS = "sum_turnovers";
-	public static final String SUM_MINUTES = "sum_minutes";
-	public static final String GAMES_PLAYED = "games_played";
+	// Compact field codes of the season, recent-form and game snapshot hashes - short names
+	// keep every hash in Redis' listpack encoding and cost a few bytes per field instead of ~12.
+	// Minutes are stored as integer seconds (HINCRBY), never as a float.
+	public static final String GAMES_PLAYED = "gp";
+	public static final String POINTS = "pt";
+	public static final String REBOUNDS = "rb";
+	public static final String ASSISTS = "as";
+	public static final String STEALS = "st";
+	public static final String BLOCKS = "bk";
+	public static final String FOULS = "pf";
+	public static final String TURNOVERS = "to";
+	public static final String SECONDS_PLAYED = "sec";
 
-	// Individual game stats fields
-	public static final String GAME_ID = "gameId";
-	public static final String TEAM_ID = "teamId";
-	public static final String PLAYER_ID = "playerId";
-	public static final String POINTS = "points";
-	public static final String REBOUNDS = "rebounds";
-	public static final String ASSISTS = "assists";
-	public static final String STEALS = "steals";
-	public static final String BLOCKS = "blocks";
-	public static final String FOULS = "fouls";
-	public static final String TURNOVERS = "turnovers";
-	public static final String MINUTES_PLAYED = "minutesPlayed";
+	// Game snapshot only - game and player id are part of the key
+	public static final String TEAM_ID = "tid";
+	public static final String GAME_STATUS = "gs";
+	public static final String GAME_STATUS_FINISHED = "F";
+
+	// Legacy season hash fields (decimal minutes), rewritten by migrate_legacy_hash.lua
+	public static final String LEGACY_SUM_POINTS = "sum_points";
+	public static final String LEGACY_SUM_REBOUNDS = "sum_rebounds";
+	public static final String LEGACY_SUM_ASSISTS = "sum_assists";
+	public static final String LEGACY_SUM_STEALS = "sum_steals";
+	public static final String LEGACY_SUM_BLOCKS = "sum_blocks";
+	public static final String LEGACY_SUM_FOULS = "sum_fouls";
+	public static final String LEGACY_SUM_TURNOVERS = "sum_turnovers";
+	public static final String LEGACY_SUM_MINUTES = "sum_minutes";
+	public static final String LEGACY_GAMES_PLAYED = "games_played";
+
+	// Legacy game snapshot fields, rewritten by migrate_legacy_hash.lua
+	public static final String LEGACY_GAME_ID = "gameId";
+	public static final String LEGACY_TEAM_ID = "teamId";
+	public static final String LEGACY_PLAYER_ID = "playerId";
+	public static final String LEGACY_POINTS = "points";
+	public static final String LEGACY_REBOUNDS = "rebounds";
+	public static final String LEGACY_ASSISTS = "assists";
+	public static final String LEGACY_STEALS = "steals";
+	public static final String LEGACY_BLOCKS = "blocks";
+	public static final String LEGACY_FOULS = "fouls";
+	public static final String LEGACY_TURNOVERS = "turnovers";
+	public static final String LEGACY_MINUTES_PLAYED = "minutesPlayed";
+	public static final String LEGACY_GAME_STATUS = "gameStatus";
 
 	// Database/Entity fields
 	public static final String PLAYER_ID_DB = "player_id";
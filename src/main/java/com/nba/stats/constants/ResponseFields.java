@@ -14,8 +14,6 @@ public final class ResponseFields {
     public static final String TEAM_NAME = "teamName";
     public static final String UNKNOWN_PLAYER = "Unknown Player";
     public static final String UNKNOWN_TEAM = "Unknown Team";
-    public static final String PLATER_TYPE = "p";
-    public static final String TEAM_TYPE = "t";
     public static final String HAS_LIVE_GAME = "hasLiveGame";
     
     // Average statistics fields
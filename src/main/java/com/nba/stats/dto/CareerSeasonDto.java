@@ -0,0 +1,17 @@
+package com.nba.stats.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * One season of a career response - averages are flattened into the JSON object
+ */
+@AllArgsConstructor
+@Value
+public class CareerSeasonDto {
+    String season;
+    @JsonUnwrapped
+    SeasonAverages averages;
+}
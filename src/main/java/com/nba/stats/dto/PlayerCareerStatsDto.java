@@ -0,0 +1,20 @@
+package com.nba.stats.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Career stats response of a player: per-season averages oldest first, career totals and averages
+ */
+@AllArgsConstructor
+@Value
+public class PlayerCareerStatsDto {
+    int playerId;
+    String playerName;
+    boolean hasLiveGame;
+    List<CareerSeasonDto> seasons;
+    SeasonTotals careerTotals;
+    SeasonAverages careerAverages;
+}
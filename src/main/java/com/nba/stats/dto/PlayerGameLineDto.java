@@ -0,0 +1,25 @@
+package com.nba.stats.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Final box score line of a player in one completed game, as kept in stat_player_game
+ */
+@AllArgsConstructor
+@Value
+public class PlayerGameLineDto {
+    int gameId;
+    int teamId;
+    int points;
+    int rebounds;
+    int assists;
+    int steals;
+    int blocks;
+    int fouls;
+    int turnovers;
+    double minutesPlayed;
+    Instant finishedAt;
+}
@@ -0,0 +1,20 @@
+package com.nba.stats.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * One page of a player's game log, newest game first. nextBefore is the value of the
+ * before parameter for the next page, null on the last page.
+ */
+@AllArgsConstructor
+@Value
+public class PlayerGameLogDto {
+    int playerId;
+    String playerName;
+    String season;
+    List<PlayerGameLineDto> games;
+    Integer nextBefore;
+}
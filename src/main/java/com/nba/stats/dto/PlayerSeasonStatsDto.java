@@ -0,0 +1,23 @@
+package com.nba.stats.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Season stats response of a player - averages are flattened into the JSON object,
+ * recentForm is only present when a window was requested
+ */
+@AllArgsConstructor
+@Value
+public class PlayerSeasonStatsDto {
+    int playerId;
+    String playerName;
+    boolean hasLiveGame;
+    @JsonUnwrapped
+    SeasonAverages averages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    RecentFormDto recentForm;
+}
@@ -0,0 +1,17 @@
+package com.nba.stats.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Averages over a player's last completed games - gamesPlayed is below window early in the season
+ */
+@AllArgsConstructor
+@Value
+public class RecentFormDto {
+    int window;
+    @JsonUnwrapped
+    SeasonAverages averages;
+}
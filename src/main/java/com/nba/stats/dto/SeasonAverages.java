@@ -0,0 +1,43 @@
+package com.nba.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Per-game averages of season totals - property names match ResponseFields
+ */
+@AllArgsConstructor
+@Value
+@Builder
+public class SeasonAverages {
+    int gamesPlayed;
+    double avgPoints;
+    double avgRebounds;
+    double avgAssists;
+    double avgSteals;
+    double avgBlocks;
+    double avgFouls;
+    double avgTurnovers;
+    double avgMinutes;
+
+    /**
+     * Averages of the totals over divisor games; all zero when divisor is 0
+     */
+    public static SeasonAverages of(SeasonTotals totals, int divisor) {
+        if (divisor == 0) {
+            return new SeasonAverages(totals.getGamesPlayed(), 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+        }
+        double games = divisor;
+        return new SeasonAverages(
+                totals.getGamesPlayed(),
+                totals.getSumPoints() / games,
+                totals.getSumRebounds() / games,
+                totals.getSumAssists() / games,
+                totals.getSumSteals() / games,
+                totals.getSumBlocks() / games,
+                totals.getSumFouls() / games,
+                totals.getSumTurnovers() / games,
+                totals.getSumMinutes() / games);
+    }
+}
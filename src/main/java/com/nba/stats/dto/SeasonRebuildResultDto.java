@@ -0,0 +1,21 @@
+package com.nba.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Outcome of a season aggregate rebuild: how many player and team totals were rewritten,
+ * from how many completed-game and live lines, and how many were left as they are because
+ * their lines cover fewer games or their hash changed during the rebuild
+ */
+@AllArgsConstructor
+@Value
+public class SeasonRebuildResultDto {
+    String season;
+    int players;
+    int teams;
+    int gameLines;
+    int liveLines;
+    int skipped;
+    long durationMillis;
+}
@@ -0,0 +1,42 @@
+package com.nba.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Season sums of a player or team, as kept in the season hash and the stat_*_sum tables
+ */
+@AllArgsConstructor
+@Value
+@Builder
+public class SeasonTotals {
+
+    public static final SeasonTotals EMPTY = new SeasonTotals(0, 0, 0, 0, 0, 0, 0, 0, 0.0);
+
+    int gamesPlayed;
+    int sumPoints;
+    int sumRebounds;
+    int sumAssists;
+    int sumSteals;
+    int sumBlocks;
+    int sumFouls;
+    int sumTurnovers;
+    double sumMinutes;
+
+    /**
+     * Field-wise sum, e.g. to add up seasons to career totals
+     */
+    public SeasonTotals plus(SeasonTotals other) {
+        return new SeasonTotals(
+                gamesPlayed + other.gamesPlayed,
+                sumPoints + other.sumPoints,
+                sumRebounds + other.sumRebounds,
+                sumAssists + other.sumAssists,
+                sumSteals + other.sumSteals,
+                sumBlocks + other.sumBlocks,
+                sumFouls + other.sumFouls,
+                sumTurnovers + other.sumTurnovers,
+                sumMinutes + other.sumMinutes);
+    }
+}
@@ -0,0 +1,16 @@
+package com.nba.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * One row of a stat leaderboard - value is the season total or the per-game average
+ */
+@AllArgsConstructor
+@Value
+public class StatLeaderDto {
+    int rank;
+    int playerId;
+    String playerName;
+    double value;
+}
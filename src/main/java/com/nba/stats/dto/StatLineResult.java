@@ -0,0 +1,15 @@
+package com.nba.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Outcome of applying one cumulative stat line in Redis
+ */
+@AllArgsConstructor
+@Value
+public class StatLineResult {
+    boolean firstPlayerLine;   // no previous snapshot for this player in this game
+    boolean firstTeamLine;     // first line of the team in this game - team game counted
+    PlayerStatsDelta delta;    // player delta, gamesPlayed set on the first line
+}
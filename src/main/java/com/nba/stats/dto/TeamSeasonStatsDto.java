@@ -0,0 +1,18 @@
+package com.nba.stats.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Season stats response of a team - averages are flattened into the JSON object
+ */
+@AllArgsConstructor
+@Value
+public class TeamSeasonStatsDto {
+    int teamId;
+    String teamName;
+    @JsonUnwrapped
+    SeasonAverages averages;
+}
@@ -0,0 +1,52 @@
+package com.nba.stats.enums;
+
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+
+import com.nba.stats.dto.SeasonTotals;
+
+/**
+ * Stats with a season leaderboard. The declaration order is the order of the leaderboard
+ * keys passed to apply_stat_line.lua and apply_season_delta.lua - do not reorder.
+ */
+public enum LeaderboardStat {
+    POINTS("points", SeasonTotals::getSumPoints),
+    REBOUNDS("rebounds", SeasonTotals::getSumRebounds),
+    ASSISTS("assists", SeasonTotals::getSumAssists),
+    STEALS("steals", SeasonTotals::getSumSteals),
+    BLOCKS("blocks", SeasonTotals::getSumBlocks),
+    FOULS("fouls", SeasonTotals::getSumFouls),
+    TURNOVERS("turnovers", SeasonTotals::getSumTurnovers),
+    MINUTES("minutes", SeasonTotals::getSumMinutes);
+
+    private final String param;
+    private final ToDoubleFunction<SeasonTotals> total;
+
+    LeaderboardStat(String param, ToDoubleFunction<SeasonTotals> total) {
+        this.param = param;
+        this.total = total;
+    }
+
+    /**
+     * Name used in the API and in the leaderboard keys, e.g. points
+     */
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * Season total of this stat
+     */
+    public double totalOf(SeasonTotals totals) {
+        return total.applyAsDouble(totals);
+    }
+
+    public static Optional<LeaderboardStat> fromParam(String param) {
+        for (LeaderboardStat stat : values()) {
+            if (stat.param.equalsIgnoreCase(param)) {
+                return Optional.of(stat);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -6,7 +6,7 @@ import lombok.Data;
  * Event published when a player sends their first stat for a game
  */
 @Data
-public class FirstPlayerStatEvent {
+public class FirstPlayerStatEvent implements GameEvent {
     private final int playerId;
     private final int gameId;
     private final long timestamp;
@@ -0,0 +1,8 @@
+package com.nba.stats.event;
+
+/**
+ * Post-ingest event of one game - the post-ingest event bus keeps the events of a game in order
+ */
+public interface GameEvent {
+    int getGameId();
+}
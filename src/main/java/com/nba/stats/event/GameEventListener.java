@@ -1,34 +1,77 @@
 package com.nba.stats.event;
 
-import org.springframework.context.event.EventListener;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.nba.stats.service.GameSubscriptionService;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Handles game-related events
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
-public class GameEventListener {
+public class GameEventListener implements PostIngestEventListener {
     
     private final GameSubscriptionService gameSubscriptionService;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    public GameEventListener(
+            GameSubscriptionService gameSubscriptionService,
+            @Value("${nba.event-bus.subscription-attempts:5}") int maxAttempts,
+            @Value("${nba.event-bus.retry-backoff-ms:50}") long retryBackoffMs) {
+
+        this.gameSubscriptionService = gameSubscriptionService;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryBackoffMs = retryBackoffMs;
+    }
     
     /**
-     * Handle first player stat event by subscribing player to game completion
+     * Handle first player stat events by subscribing the players to game completion -
+     * one pipelined write for the whole batch. A failed write is retried with doubling backoff
+     * on the partition's worker, so a later completion of the game, which flushes the bus first,
+     * still finds the players; the last failure is rethrown with the players it leaves out.
      */
-    @EventListener
-    public void handleFirstPlayerStat(FirstPlayerStatEvent event) {
-        log.debug("First stat received for player {} in game {} - subscribing to completion", 
-                 event.getPlayerId(), event.getGameId());
-                 
-        gameSubscriptionService.subscribePlayerToGame(
-            event.getPlayerId(), 
-            event.getGameId()
-        );
+    @Override
+    public void onEvents(List<GameEvent> events) {
+        Map<Integer, List<Integer>> playersByGame = new LinkedHashMap<>();
+        for (GameEvent event : events) {
+            if (event instanceof FirstPlayerStatEvent firstStat) {
+                playersByGame.computeIfAbsent(firstStat.getGameId(), gameId -> new ArrayList<>())
+                        .add(firstStat.getPlayerId());
+            }
+        }
+        if (playersByGame.isEmpty()) {
+            return;
+        }
+        log.debug("First stats received in {} games - subscribing players to completion", playersByGame.size());
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                gameSubscriptionService.subscribePlayersToGames(playersByGame);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == maxAttempts) {
+                    throw new IllegalStateException("Failed to subscribe players " + playersByGame
+                            + " to game completion after " + attempt + " attempts", e);
+                }
+                log.warn("Failed to subscribe players of {} games to completion (attempt {} of {}), retrying in {} ms",
+                        playersByGame.size(), attempt, maxAttempts, backoffMs, e);
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while retrying subscriptions of players " + playersByGame, e);
+            }
+            backoffMs *= 2;
+        }
     }
-}
\ No newline at end of file
+}
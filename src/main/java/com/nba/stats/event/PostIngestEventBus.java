@@ -0,0 +1,294 @@
+package com.nba.stats.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process bus for post-ingest side effects, so the ingest thread returns once the season
+ * aggregates are written. Events are partitioned by game id into bounded ring buffers, each
+ * drained by a single worker that hands whole batches to every {@link PostIngestEventListener} -
+ * the events of a game keep their publish order. A full partition blocks the publisher.
+ * While the bus is not running (before start, after stop) events are delivered on the caller's thread.
+ */
+@Component
+@Slf4j
+public class PostIngestEventBus implements SmartLifecycle {
+
+    // Start before and stop after the web server, so requests always find the workers running
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long STOP_TIMEOUT_MS = 10_000;
+
+    private final ObjectProvider<PostIngestEventListener> listenerProvider;
+    private final int maxBatchSize;
+    private final boolean virtualThreads;
+    private final Partition[] partitions;
+    private final Timer deliveryTimer;
+    private final Counter deliveredEvents;
+    private volatile List<PostIngestEventListener> listeners;
+    private volatile boolean running;
+
+    public PostIngestEventBus(
+            ObjectProvider<PostIngestEventListener> listenerProvider,
+            @Value("${nba.event-bus.partitions:4}") int partitionCount,
+            @Value("${nba.event-bus.capacity:8192}") int capacity,
+            @Value("${nba.event-bus.max-batch-size:256}") int maxBatchSize,
+            @Value("${nba.virtual-threads.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+
+        // Listeners are resolved on first delivery - they may depend on beans that depend on the bus
+        this.listenerProvider = listenerProvider;
+        this.maxBatchSize = maxBatchSize;
+        this.virtualThreads = virtualThreads;
+        this.partitions = new Partition[partitionCount];
+        int ringSize = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, ringSize);
+        }
+        this.deliveryTimer = Timer.builder("nba.events.delivery")
+                .description("Delivery of one post-ingest event batch to all listeners")
+                .register(meterRegistry);
+        this.deliveredEvents = Counter.builder("nba.events.delivered")
+                .description("Post-ingest events delivered to listeners")
+                .register(meterRegistry);
+        Gauge.builder("nba.events.queue.depth", this, PostIngestEventBus::queueDepth)
+                .description("Post-ingest events published but not yet taken by a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an event on its game's partition; blocks while that partition is full
+     */
+    public void publish(GameEvent event) {
+        if (!partitionFor(event.getGameId()).offer(event)) {
+            deliver(List.of(event));
+        }
+    }
+
+    /**
+     * Wait until every event published so far for this game has been delivered
+     * (e.g. game completion reading the subscriptions). Returns false on timeout.
+     */
+    public boolean flush(int gameId, long timeoutMs) {
+        try {
+            return partitionFor(gameId).awaitDelivered(TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Events waiting in all partitions
+     */
+    public long queueDepth() {
+        long depth = 0;
+        for (Partition partition : partitions) {
+            depth += partition.size();
+        }
+        return depth;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (Partition partition : partitions) {
+            Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+            partition.worker = builder.name("post-ingest-" + partition.index).start(partition::run);
+        }
+        log.info("Started post-ingest event bus with {} partitions", partitions.length);
+    }
+
+    /**
+     * Stop taking events; workers deliver what is queued before they exit
+     */
+    @Override
+    public void stop() {
+        running = false;
+        for (Partition partition : partitions) {
+            partition.wakeUp();
+        }
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MS;
+        for (Partition partition : partitions) {
+            if (partition.worker == null) {
+                continue;
+            }
+            try {
+                partition.worker.join(Math.max(deadline - System.currentTimeMillis(), 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        log.info("Stopped post-ingest event bus, {} events left undelivered", queueDepth());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private Partition partitionFor(int gameId) {
+        return partitions[Math.floorMod(gameId, partitions.length)];
+    }
+
+    private void deliver(List<GameEvent> batch) {
+        List<PostIngestEventListener> targets = listeners;
+        if (targets == null) {
+            targets = listenerProvider.orderedStream().toList();
+            listeners = targets;
+        }
+        long start = System.nanoTime();
+        for (PostIngestEventListener listener : targets) {
+            try {
+                listener.onEvents(batch);
+            } catch (RuntimeException e) {
+                // One failing listener must not stall the partition or starve the others
+                log.error("Post-ingest listener {} failed on a batch of {} events",
+                        listener.getClass().getSimpleName(), batch.size(), e);
+            }
+        }
+        deliveryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        deliveredEvents.increment(batch.size());
+    }
+
+    /**
+     * Ring buffer of one partition: many publishers, one worker. Sequences only grow -
+     * published counts offers, taken and delivered trail it.
+     */
+    private final class Partition {
+
+        private final int index;
+        private final GameEvent[] ring;
+        private final int mask;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private final Condition deliveredUpdated = lock.newCondition();
+        private long published;
+        private long taken;
+        private long delivered;
+        private Thread worker;
+
+        private Partition(int index, int ringSize) {
+            this.index = index;
+            this.ring = new GameEvent[ringSize];
+            this.mask = ringSize - 1;
+        }
+
+        /**
+         * Queue the event, or return false when the bus is not running and the caller must deliver it
+         */
+        private boolean offer(GameEvent event) {
+            lock.lock();
+            try {
+                while (running && published - taken == ring.length) {
+                    notFull.await();
+                }
+                if (!running) {
+                    return false;
+                }
+                ring[(int) (published & mask)] = event;
+                published++;
+                notEmpty.signal();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void run() {
+            while (true) {
+                List<GameEvent> batch;
+                long batchEnd;
+                lock.lock();
+                try {
+                    while (taken == published) {
+                        if (!running) {
+                            return;
+                        }
+                        notEmpty.awaitUninterruptibly();
+                    }
+                    long end = Math.min(published, taken + maxBatchSize);
+                    batch = new ArrayList<>((int) (end - taken));
+                    for (; taken < end; taken++) {
+                        int slot = (int) (taken & mask);
+                        batch.add(ring[slot]);
+                        ring[slot] = null;
+                    }
+                    batchEnd = taken;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                deliver(batch);
+
+                lock.lock();
+                try {
+                    delivered = batchEnd;
+                    deliveredUpdated.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private boolean awaitDelivered(long timeoutNanos) throws InterruptedException {
+            lock.lock();
+            try {
+                long target = published;
+                long remaining = timeoutNanos;
+                while (delivered < target) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = deliveredUpdated.awaitNanos(remaining);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long size() {
+            lock.lock();
+            try {
+                return published - taken;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void wakeUp() {
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.nba.stats.event;
+
+import java.util.List;
+
+/**
+ * Consumer of post-ingest side effects, called by the {@link PostIngestEventBus} worker threads
+ */
+public interface PostIngestEventListener {
+
+    /**
+     * A batch of events from one bus partition in publish order - events of the same game are
+     * always delivered in order, and a game's events always arrive on the same worker thread
+     */
+    void onEvents(List<GameEvent> events);
+}
@@ -2,15 +2,23 @@ package com.nba.stats.repository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
-import com.nba.stats.util.RedisValueConverter;
+import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.dto.PlayerGameLineDto;
+import com.nba.stats.dto.SeasonTotals;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 @Slf4j
 @Repository
@@ -18,79 +26,357 @@ public class DbStatsRepository {
 	@Autowired
 	private JdbcTemplate jdbcTemplate;
 
+	// Maps the sum columns straight to primitives - no per-row column map
+	private static final RowMapper<SeasonTotals> SEASON_TOTALS_MAPPER = (rs, rowNum) -> new SeasonTotals(
+		rs.getInt("games_played"),
+		rs.getInt("sum_points"),
+		rs.getInt("sum_rebounds"),
+		rs.getInt("sum_assists"),
+		rs.getInt("sum_steals"),
+		rs.getInt("sum_blocks"),
+		rs.getInt("sum_fouls"),
+		rs.getInt("sum_turnovers"),
+		rs.getDouble("sum_minutes"));
+
 	/**
-	 * Retrieve season stats for a player from database
+	 * Retrieve season stats for a player from database, all zero for a new player
 	 */
-	public Map<String, Object> getPlayerSeasonStats(int playerId, String season) {		
+	public SeasonTotals getPlayerSeasonStats(int playerId, String season) {		
 		String sql = """
-			SELECT player_id, season, games_played, sum_points, sum_rebounds, sum_assists, sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes, updated_at
+			SELECT games_played, sum_points, sum_rebounds, sum_assists, sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes
 			FROM stat_player_sum
 			WHERE player_id = ? and season = ?
 		""";
 
-		List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, playerId, season);
-
-		if (results.isEmpty()) {
-			return createEmptyPlayerStats();
-		}
+		List<SeasonTotals> results = jdbcTemplate.query(sql, SEASON_TOTALS_MAPPER, playerId, season);
 
-		return results.get(0);
+		return results.isEmpty() ? SeasonTotals.EMPTY : results.get(0);
 	}
 
 	/**
-	 * Retrieve team stats from database
+	 * Retrieve team stats from database, all zero for a new team
 	 */
-	public Map<String, Object> getTeamSeasonStats(int teamId, String season) {		
+	public SeasonTotals getTeamSeasonStats(int teamId, String season) {		
 		String sql = """
-			SELECT team_id, season, games_played, sum_points, sum_rebounds, sum_assists, sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes, updated_at
+			SELECT games_played, sum_points, sum_rebounds, sum_assists, sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes
 			FROM stat_team_sum
 			WHERE team_id = ? and season = ?
 		""";
 
-		List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, teamId, season);
+		List<SeasonTotals> results = jdbcTemplate.query(sql, SEASON_TOTALS_MAPPER, teamId, season);
+
+		return results.isEmpty() ? SeasonTotals.EMPTY : results.get(0);
+	}
+	
+	private static final String SELECT_PLAYER_CAREER_SQL = """
+		SELECT season, games_played, sum_points, sum_rebounds, sum_assists, sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes
+		FROM stat_player_sum
+		WHERE player_id = ? and season <> ? and games_played > 0
+		ORDER BY season
+		""";
+
+	/**
+	 * Retrieve all seasons of a player except the given one (the live season) in one query,
+	 * mapped season to totals, oldest first
+	 */
+	public Map<String, SeasonTotals> getPlayerCareerStats(int playerId, String excludedSeason) {
+		Map<String, SeasonTotals> statsBySeason = new LinkedHashMap<>();
+		jdbcTemplate.query(SELECT_PLAYER_CAREER_SQL,
+			(RowCallbackHandler) rs -> statsBySeason.put(rs.getString("season"), SEASON_TOTALS_MAPPER.mapRow(rs, 0)),
+			playerId, excludedSeason);
+		return statsBySeason;
+	}
+
+	private static final String SELECT_PLAYERS_SEASON_SQL = """
+		SELECT player_id AS id, games_played, sum_points, sum_rebounds, sum_assists, sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes
+		FROM stat_player_sum
+		WHERE player_id = ANY(?) and season = ?
+		""";
 
-		if (results.isEmpty()) {
-			return createEmptyTeamStats();
+	private static final String SELECT_TEAMS_SEASON_SQL = """
+		SELECT team_id AS id, games_played, sum_points, sum_rebounds, sum_assists, sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes
+		FROM stat_team_sum
+		WHERE team_id = ANY(?) and season = ?
+		""";
+
+	/**
+	 * Retrieve season stats of many players in one query, all zero for players without a row
+	 */
+	public Map<Integer, SeasonTotals> getPlayerSeasonStats(Collection<Integer> playerIds, String season) {
+		return getSeasonStats(SELECT_PLAYERS_SEASON_SQL, playerIds, season);
+	}
+
+	/**
+	 * Retrieve season stats of many teams in one query, all zero for teams without a row
+	 */
+	public Map<Integer, SeasonTotals> getTeamSeasonStats(Collection<Integer> teamIds, String season) {
+		return getSeasonStats(SELECT_TEAMS_SEASON_SQL, teamIds, season);
+	}
+
+	private Map<Integer, SeasonTotals> getSeasonStats(String sql, Collection<Integer> ids, String season) {
+		Map<Integer, SeasonTotals> statsById = new HashMap<>();
+		if (ids.isEmpty()) {
+			return statsById;
 		}
+		// One array parameter instead of an IN list - the statement text stays the same for any number of ids
+		jdbcTemplate.query(sql, ps -> {
+			ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray()));
+			ps.setString(2, season);
+		}, (RowCallbackHandler) rs -> statsById.put(rs.getInt("id"), SEASON_TOTALS_MAPPER.mapRow(rs, 0)));
 
-		return results.get(0);
+		for (Integer id : ids) {
+			statsById.putIfAbsent(id, SeasonTotals.EMPTY);
+		}
+		return statsById;
 	}
-	
+
+	private static final String SELECT_SEASON_STATS_SQL = """
+		SELECT 'p' AS kind, player_id AS id, games_played, sum_points, sum_rebounds, sum_assists, sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes
+		FROM stat_player_sum
+		WHERE season = ?
+		UNION ALL
+		SELECT 't' AS kind, team_id AS id, games_played, sum_points, sum_rebounds, sum_assists, sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes
+		FROM stat_team_sum
+		WHERE season = ?
+		""";
+
+	// Every rostered player of the teams, all zero without a season row
+	private static final String SELECT_ROSTER_SEASON_SQL = """
+		SELECT p.id, s.games_played, s.sum_points, s.sum_rebounds, s.sum_assists, s.sum_steals, s.sum_blocks, s.sum_fouls, s.sum_turnovers, s.sum_minutes
+		FROM player p
+		LEFT JOIN stat_player_sum s ON s.player_id = p.id and s.season = ?
+		WHERE p.team_id = ANY(?)
+		""";
+
+	/**
+	 * Hand every player and every team season row of a season to its handler as it is read -
+	 * one query for both tables, no intermediate list
+	 */
+	public void forEachSeasonStats(String season, BiConsumer<Integer, SeasonTotals> playerHandler,
+			BiConsumer<Integer, SeasonTotals> teamHandler) {
+		jdbcTemplate.query(SELECT_SEASON_STATS_SQL, (RowCallbackHandler) rs -> {
+			SeasonTotals stats = SEASON_TOTALS_MAPPER.mapRow(rs, 0);
+			if ("t".equals(rs.getString("kind"))) {
+				teamHandler.accept(rs.getInt("id"), stats);
+			} else {
+				playerHandler.accept(rs.getInt("id"), stats);
+			}
+		}, season, season);
+	}
+
+	/**
+	 * Season stats of every player on the given teams' rosters (player.team_id) in one query,
+	 * mapped by player id - all zero for players without a row
+	 */
+	public Map<Integer, SeasonTotals> getRosterSeasonStats(Collection<Integer> teamIds, String season) {
+		Map<Integer, SeasonTotals> statsByPlayerId = new HashMap<>();
+		if (teamIds.isEmpty()) {
+			return statsByPlayerId;
+		}
+		// Columns of a missing row read as 0 - getInt and getDouble map SQL NULL to zero
+		jdbcTemplate.query(SELECT_ROSTER_SEASON_SQL, ps -> {
+			ps.setString(1, season);
+			ps.setArray(2, ps.getConnection().createArrayOf("integer", teamIds.toArray()));
+		}, (RowCallbackHandler) rs -> statsByPlayerId.put(rs.getInt("id"), SEASON_TOTALS_MAPPER.mapRow(rs, 0)));
+		return statsByPlayerId;
+	}
+
+	private static final String UPSERT_PLAYER_GAME_SQL = """
+		INSERT INTO stat_player_game
+		(player_id, game_id, team_id, season, points, rebounds, assists,
+		 steals, blocks, fouls, turnovers, minutes_played, finished_at)
+		VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+		ON CONFLICT (player_id, game_id)
+		DO UPDATE SET
+			team_id = EXCLUDED.team_id,
+			season = EXCLUDED.season,
+			points = EXCLUDED.points,
+			rebounds = EXCLUDED.rebounds,
+			assists = EXCLUDED.assists,
+			steals = EXCLUDED.steals,
+			blocks = EXCLUDED.blocks,
+			fouls = EXCLUDED.fouls,
+			turnovers = EXCLUDED.turnovers,
+			minutes_played = EXCLUDED.minutes_played,
+			finished_at = CURRENT_TIMESTAMP
+		""";
+
+	// Keyset page over idx_stat_player_game_log: newest game first, strictly before the given game id
+	private static final String SELECT_PLAYER_GAME_LOG_SQL = """
+		SELECT game_id, team_id, points, rebounds, assists, steals, blocks, fouls, turnovers, minutes_played, finished_at
+		FROM stat_player_game
+		WHERE player_id = ? and season = ? and game_id < ?
+		ORDER BY game_id DESC
+		LIMIT ?
+		""";
+
+	private static final RowMapper<PlayerGameLineDto> GAME_LINE_MAPPER = (rs, rowNum) -> new PlayerGameLineDto(
+		rs.getInt("game_id"),
+		rs.getInt("team_id"),
+		rs.getInt("points"),
+		rs.getInt("rebounds"),
+		rs.getInt("assists"),
+		rs.getInt("steals"),
+		rs.getInt("blocks"),
+		rs.getInt("fouls"),
+		rs.getInt("turnovers"),
+		rs.getDouble("minutes_played"),
+		rs.getTimestamp("finished_at").toInstant());
+
+	/**
+	 * Store the final lines of a completed game as one JDBC batch; completing a game again
+	 * overwrites its lines
+	 */
+	public void upsertPlayerGameLines(String season, Collection<LiveStatDto> finalLines) {
+		if (finalLines.isEmpty()) {
+			return;
+		}
+		List<Object[]> batchArgs = new ArrayList<>(finalLines.size());
+		for (LiveStatDto line : finalLines) {
+			batchArgs.add(new Object[] {
+				line.getPlayerId(), line.getGameId(), line.getTeamId(), season,
+				line.getPoints(),
+				line.getRebounds(),
+				line.getAssists(),
+				line.getSteals(),
+				line.getBlocks(),
+				line.getFouls(),
+				line.getTurnovers(),
+				line.getMinutesPlayed()
+			});
+		}
+		jdbcTemplate.batchUpdate(UPSERT_PLAYER_GAME_SQL, batchArgs);
+
+		log.debug("Upserted {} player game lines to database", finalLines.size());
+	}
+
+	/**
+	 * Up to limit games of a player in a season with a game id below beforeGameId, newest first
+	 */
+	public List<PlayerGameLineDto> getPlayerGameLog(int playerId, String season, int beforeGameId, int limit) {
+		return jdbcTemplate.query(SELECT_PLAYER_GAME_LOG_SQL, GAME_LINE_MAPPER, playerId, season, beforeGameId, limit);
+	}
+
+	// Everyone who may have played in the season: rostered, with a persisted game line or with a season row
+	private static final String SELECT_SEASON_PLAYER_IDS_SQL = """
+		SELECT id FROM player
+		UNION
+		SELECT player_id FROM stat_player_game WHERE season = ?
+		UNION
+		SELECT player_id FROM stat_player_sum WHERE season = ?
+		""";
+
+	private static final String SELECT_SEASON_TEAM_IDS_SQL = """
+		SELECT DISTINCT team_id FROM stat_player_game WHERE season = ?
+		""";
+
+	private static final String SELECT_PLAYERS_GAME_LINES_SQL = """
+		SELECT player_id, game_id, team_id, points, rebounds, assists, steals, blocks, fouls, turnovers, minutes_played
+		FROM stat_player_game
+		WHERE player_id = ANY(?) and season = ?
+		""";
+
+	private static final String SELECT_TEAMS_GAME_LINES_SQL = """
+		SELECT player_id, game_id, team_id, points, rebounds, assists, steals, blocks, fouls, turnovers, minutes_played
+		FROM stat_player_game
+		WHERE team_id = ANY(?) and season = ?
+		""";
+
+	private static final RowMapper<LiveStatDto> FINAL_LINE_MAPPER = (rs, rowNum) -> LiveStatDto.builder()
+		.playerId(rs.getInt("player_id"))
+		.gameId(rs.getInt("game_id"))
+		.teamId(rs.getInt("team_id"))
+		.points(rs.getInt("points"))
+		.rebounds(rs.getInt("rebounds"))
+		.assists(rs.getInt("assists"))
+		.steals(rs.getInt("steals"))
+		.blocks(rs.getInt("blocks"))
+		.fouls(rs.getInt("fouls"))
+		.turnovers(rs.getInt("turnovers"))
+		.minutesPlayed(rs.getDouble("minutes_played"))
+		.build();
+
+	/**
+	 * Ids of the rostered players and of the players with a persisted game line or a season row in the season
+	 */
+	public List<Integer> getSeasonPlayerIds(String season) {
+		return jdbcTemplate.queryForList(SELECT_SEASON_PLAYER_IDS_SQL, Integer.class, season, season);
+	}
+
+	/**
+	 * Ids of the teams with a persisted game line in the season
+	 */
+	public List<Integer> getSeasonTeamIds(String season) {
+		return jdbcTemplate.queryForList(SELECT_SEASON_TEAM_IDS_SQL, Integer.class, season);
+	}
+
+	/**
+	 * Final lines of every completed game of the given players in the season, in no particular order
+	 */
+	public List<LiveStatDto> getPlayerGameLines(String season, Collection<Integer> playerIds) {
+		return getGameLines(SELECT_PLAYERS_GAME_LINES_SQL, season, playerIds);
+	}
+
+	/**
+	 * Final lines of every player of the given teams in their completed games of the season
+	 */
+	public List<LiveStatDto> getTeamGameLines(String season, Collection<Integer> teamIds) {
+		return getGameLines(SELECT_TEAMS_GAME_LINES_SQL, season, teamIds);
+	}
+
+	private List<LiveStatDto> getGameLines(String sql, String season, Collection<Integer> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		return jdbcTemplate.query(sql, ps -> {
+			ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray()));
+			ps.setString(2, season);
+		}, FINAL_LINE_MAPPER);
+	}
+
+	private static final String UPSERT_PLAYER_SEASON_SQL = """
+		INSERT INTO stat_player_sum 
+		(player_id, season, games_played, sum_points, sum_rebounds, sum_assists, 
+		 sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes, updated_at)
+		VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+		ON CONFLICT (player_id, season) 
+		DO UPDATE SET
+			games_played = EXCLUDED.games_played,
+			sum_points = EXCLUDED.sum_points,
+			sum_rebounds = EXCLUDED.sum_rebounds,
+			sum_assists = EXCLUDED.sum_assists,
+			sum_steals = EXCLUDED.sum_steals,
+			sum_blocks = EXCLUDED.sum_blocks,
+			sum_fouls = EXCLUDED.sum_fouls,
+			sum_turnovers = EXCLUDED.sum_turnovers,
+			sum_minutes = EXCLUDED.sum_minutes,
+			updated_at = CURRENT_TIMESTAMP
+		""";
+
+	private static final String UPSERT_TEAM_SEASON_SQL = """
+		INSERT INTO stat_team_sum 
+		(team_id, season, games_played, sum_points, sum_rebounds, sum_assists,
+		 sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes, updated_at)
+		VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+		ON CONFLICT (team_id, season)
+		DO UPDATE SET
+			games_played = EXCLUDED.games_played,
+			sum_points = EXCLUDED.sum_points,
+			sum_rebounds = EXCLUDED.sum_rebounds,
+			sum_assists = EXCLUDED.sum_assists,
+			sum_steals = EXCLUDED.sum_steals,
+			sum_blocks = EXCLUDED.sum_blocks,
+			sum_fouls = EXCLUDED.sum_fouls,
+			sum_turnovers = EXCLUDED.sum_turnovers,
+			sum_minutes = EXCLUDED.sum_minutes,
+			updated_at = CURRENT_TIMESTAMP
+		""";
+
 	/**
 	 * Upsert player season stats (INSERT or UPDATE if exists)
 	 */
-	public void upsertPlayerSeasonStats(int playerId, String season, Map<String, Object> stats) {
-		String sql = """
-			INSERT INTO stat_player_sum 
-			(player_id, season, games_played, sum_points, sum_rebounds, sum_assists, 
-			 sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes, updated_at)
-			VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
-			ON CONFLICT (player_id, season) 
-			DO UPDATE SET
-				games_played = EXCLUDED.games_played,
-				sum_points = EXCLUDED.sum_points,
-				sum_rebounds = EXCLUDED.sum_rebounds,
-				sum_assists = EXCLUDED.sum_assists,
-				sum_steals = EXCLUDED.sum_steals,
-				sum_blocks = EXCLUDED.sum_blocks,
-				sum_fouls = EXCLUDED.sum_fouls,
-				sum_turnovers = EXCLUDED.sum_turnovers,
-				sum_minutes = EXCLUDED.sum_minutes,
-				updated_at = CURRENT_TIMESTAMP
-			""";
-
-		jdbcTemplate.update(sql,
-			playerId, season,
-			RedisValueConverter.getIntFromStatsMap(stats, "games_played"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_points"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_rebounds"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_assists"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_steals"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_blocks"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_fouls"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_turnovers"),
-			RedisValueConverter.getDoubleFromStatsMap(stats, "sum_minutes")
-		);
+	public void upsertPlayerSeasonStats(int playerId, String season, SeasonTotals stats) {
+		jdbcTemplate.update(UPSERT_PLAYER_SEASON_SQL, toUpsertArgs(playerId, season, stats));
 
 		log.debug("Upserted player {} season {} stats to database", playerId, season);
 	}
@@ -98,73 +384,55 @@ public class DbStatsRepository {
 	/**
 	 * Upsert team season stats (INSERT or UPDATE if exists)
 	 */
-	public void upsertTeamSeasonStats(int teamId, String season, Map<String, Object> stats) {
-		String sql = """
-			INSERT INTO stat_team_sum 
-			(team_id, season, games_played, sum_points, sum_rebounds, sum_assists,
-			 sum_steals, sum_blocks, sum_fouls, sum_turnovers, sum_minutes, updated_at)
-			VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
-			ON CONFLICT (team_id, season)
-			DO UPDATE SET
-				games_played = EXCLUDED.games_played,
-				sum_points = EXCLUDED.sum_points,
-				sum_rebounds = EXCLUDED.sum_rebounds,
-				sum_assists = EXCLUDED.sum_assists,
-				sum_steals = EXCLUDED.sum_steals,
-				sum_blocks = EXCLUDED.sum_blocks,
-				sum_fouls = EXCLUDED.sum_fouls,
-				sum_turnovers = EXCLUDED.sum_turnovers,
-				sum_minutes = EXCLUDED.sum_minutes,
-				updated_at = CURRENT_TIMESTAMP
-			""";
-
-		jdbcTemplate.update(sql,
-			teamId, season,
-			RedisValueConverter.getIntFromStatsMap(stats, "games_played"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_points"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_rebounds"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_assists"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_steals"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_blocks"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_fouls"),
-			RedisValueConverter.getIntFromStatsMap(stats, "sum_turnovers"),
-			RedisValueConverter.getDoubleFromStatsMap(stats, "sum_minutes")
-		);
+	public void upsertTeamSeasonStats(int teamId, String season, SeasonTotals stats) {
+		jdbcTemplate.update(UPSERT_TEAM_SEASON_SQL, toUpsertArgs(teamId, season, stats));
 
 		log.debug("Upserted team {} season {} stats to database", teamId, season);
 	}
 
 	/**
-	 * Create empty stats map for new player - with all fields
+	 * Upsert season stats of many players as one JDBC batch.
+	 * With reWriteBatchedInserts on the connection URL the driver sends it as multi-row INSERTs.
 	 */
-	private Map<String, Object> createEmptyPlayerStats() {
-		Map<String, Object> stats = new HashMap<>();
-		stats.put("games_played", 0);
-		stats.put("sum_points", 0);
-		stats.put("sum_rebounds", 0);
-		stats.put("sum_assists", 0);
-		stats.put("sum_steals", 0);
-		stats.put("sum_blocks", 0);
-		stats.put("sum_fouls", 0);
-		stats.put("sum_turnovers", 0);
-		stats.put("sum_minutes", 0.0);
-		return stats;
+	public void upsertPlayerSeasonStats(String season, Map<Integer, SeasonTotals> statsByPlayerId) {
+		if (statsByPlayerId.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(UPSERT_PLAYER_SEASON_SQL, toBatchArgs(season, statsByPlayerId));
+
+		log.debug("Upserted {} player season {} stats to database", statsByPlayerId.size(), season);
 	}
 
 	/**
-	 * Create empty stats map for new team - with all fields
+	 * Upsert season stats of many teams as one JDBC batch
 	 */
-	private Map<String, Object> createEmptyTeamStats() {
-		Map<String, Object> stats = new HashMap<>();
-		stats.put("games_played", 0);
-		stats.put("sum_points", 0);
-		stats.put("sum_rebounds", 0);
-		stats.put("sum_assists", 0);
-		stats.put("sum_steals", 0);
-		stats.put("sum_blocks", 0);
-		stats.put("sum_fouls", 0);
-		stats.put("sum_turnovers", 0);
-		stats.put("sum_minutes", 0.0);
-		return stats;
+	public void upsertTeamSeasonStats(String season, Map<Integer, SeasonTotals> statsByTeamId) {
+		if (statsByTeamId.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(UPSERT_TEAM_SEASON_SQL, toBatchArgs(season, statsByTeamId));
+
+		log.debug("Upserted {} team season {} stats to database", statsByTeamId.size(), season);
+	}
+
+	private List<Object[]> toBatchArgs(String season, Map<Integer, SeasonTotals> statsById) {
+		List<Object[]> batchArgs = new ArrayList<>(statsById.size());
+		statsById.forEach((id, stats) -> batchArgs.add(toUpsertArgs(id, season, stats)));
+		return batchArgs;
+	}
+
+	private Object[] toUpsertArgs(int id, String season, SeasonTotals stats) {
+		return new Object[] {
+			id, season,
+			stats.getGamesPlayed(),
+			stats.getSumPoints(),
+			stats.getSumRebounds(),
+			stats.getSumAssists(),
+			stats.getSumSteals(),
+			stats.getSumBlocks(),
+			stats.getSumFouls(),
+			stats.getSumTurnovers(),
+			stats.getSumMinutes()
+		};
 	}
 }
\ No newline at end of file
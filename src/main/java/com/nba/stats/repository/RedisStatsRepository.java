@@ -1,32 +1,110 @@
 package com.nba.stats.repository;
 
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Repository;
 
 import com.nba.stats.constants.RedisFields;
 import com.nba.stats.dto.LiveStatDto;
 import com.nba.stats.dto.PlayerStatsDelta;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.dto.StatLineResult;
+import com.nba.stats.enums.LeaderboardStat;
+import com.nba.stats.util.RedisKeys;
+import com.nba.stats.util.RedisValueConverter;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Season, game and leaderboard state in Redis. Works against a single node and against a
+ * Redis Cluster: every key a script call touches is in one slot bucket (see {@link RedisKeys}),
+ * and on a cluster the team side of a stat line, which lives in the team's bucket, is applied
+ * by a separate call instead of inside the player's script.
+ */
 @Repository
-@RequiredArgsConstructor
 @Slf4j
 public class RedisStatsRepository {
 
+    // Game snapshots and team-game markers only matter while the game is live
+    public static final long GAME_STATS_TTL_HOURS = 4;
+    private static final long GAME_STATS_TTL_SECONDS = TimeUnit.HOURS.toSeconds(GAME_STATS_TTL_HOURS);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> APPLY_STAT_LINE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/apply_stat_line.lua"), List.class);
+    private static final LeaderboardStat[] LEADERBOARD_STATS = LeaderboardStat.values();
+    private static final int STAT_LINE_PLAYER_KEY_COUNT = 5 + LEADERBOARD_STATS.length * 2;
+    private static final int STAT_LINE_KEY_COUNT = STAT_LINE_PLAYER_KEY_COUNT + 4;
+    private static final RedisScript<Long> APPLY_SEASON_DELTA_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/apply_season_delta.lua"), Long.class);
+    private static final RedisScript<Long> CLEAR_DIRTY_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/clear_dirty.lua"), Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> FINISH_PLAYER_GAME_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/finish_player_game.lua"), List.class);
+    private static final RedisScript<Long> MARK_DIRTY_SCRIPT =
+            RedisScript.of("return redis.call('ZADD', KEYS[1], redis.call('INCR', KEYS[2]), ARGV[1])", Long.class);
+    private static final RedisScript<Long> MIGRATE_LEGACY_HASH_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/migrate_legacy_hash.lua"), Long.class);
+    private static final RedisScript<Long> RESTORE_GAME_SNAPSHOT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/restore_game_snapshot.lua"), Long.class);
+    private static final RedisScript<Long> STORE_SEASON_IF_ABSENT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/store_season_if_absent.lua"), Long.class);
+    private static final RedisScript<Long> STORE_SEASON_IF_UNCHANGED_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/store_season_if_unchanged.lua"), Long.class);
+    private static final int MIGRATION_SCAN_COUNT = 1000;
+    private static final byte[] TEAM_GAME_MARKER = "1".getBytes(StandardCharsets.UTF_8);
+
     // Use ONLY StringRedisTemplate for consistency
     private final StringRedisTemplate stringRedisTemplate;
+    // Connected to a Redis Cluster - no script call may touch keys of two slot buckets
+    private final boolean clusterMode;
+    // Leaderboard keys in script order (total and average per stat), built once per season and bucket
+    private final Map<String, List<String>> leaderboardKeysByBucket = new ConcurrentHashMap<>();
+
+    public RedisStatsRepository(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.clusterMode = stringRedisTemplate != null
+                && stringRedisTemplate.getConnectionFactory() instanceof LettuceConnectionFactory factory
+                && factory.isClusterAware();
+    }
+
+    /**
+     * Whether the repository talks to a Redis Cluster
+     */
+    public boolean isClusterMode() {
+        return clusterMode;
+    }
 
     /**
      * Check if season stats exist in Redis
@@ -36,14 +114,17 @@ public class RedisStatsRepository {
     }
 
     /**
-     * Store season stats in Redis - FIXED to handle DB objects properly
+     * Store season stats in Redis; a player's totals also (re)seed the season leaderboards
      */
-    public void storeSeasonStats(String seasonKey, Map<String, Object> stats) {
+    public void storeSeasonStats(String seasonKey, SeasonTotals stats) {
         try {
-            // Convert all values to strings to avoid serialization issues
-            Map<String, String> stringStats = convertToStringMap(stats);
-            stringRedisTemplate.opsForHash().putAll(seasonKey, stringStats);
-            log.debug("Stored season stats in Redis: {} with {} fields", seasonKey, stringStats.size());
+            byte[] key = seasonKey.getBytes(StandardCharsets.UTF_8);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.hashCommands().hMSet(key, SeasonTotalsCodec.encode(stats));
+                addToLeaderboards(connection, seasonKey, stats);
+                return null;
+            });
+            log.debug("Stored season stats in Redis: {}", seasonKey);
         } catch (Exception e) {
             log.error("Failed to store season stats for key: {}", seasonKey, e);
             throw e;
@@ -51,18 +132,14 @@ public class RedisStatsRepository {
     }
 
     /**
-     * Get season stats from Redis
+     * Get season stats from Redis - one HMGET decoded straight into primitives, null when absent
      */
-    public Map<String, Object> getSeasonStats(String seasonKey) {
+    public SeasonTotals getSeasonStats(String seasonKey) {
         try {
-            Map<Object, Object> rawStats = stringRedisTemplate.opsForHash().entries(seasonKey);
-
-            if (rawStats.isEmpty()) {
-                return null;
-            }
-
-            // Convert back to proper types
-            return convertFromStringMap(rawStats);
+            byte[] key = seasonKey.getBytes(StandardCharsets.UTF_8);
+            List<byte[]> values = stringRedisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                    connection.hashCommands().hMGet(key, SeasonTotalsCodec.fields()));
+            return SeasonTotalsCodec.decode(values);
         } catch (Exception e) {
             log.error("Failed to get season stats for key: {}", seasonKey, e);
             return null;
@@ -70,105 +147,300 @@ public class RedisStatsRepository {
     }
 
     /**
-     * Update season aggregates with delta
-     */
-	public void updateSeasonAggregates(String seasonKey, PlayerStatsDelta delta) {
-		// ensures Redis's concurrency safety
-		stringRedisTemplate.execute(new SessionCallback<Object>() {
-			@SuppressWarnings("unchecked")
-			@Override
-			public Object execute(RedisOperations operations) {
-				operations.watch(seasonKey);
-				operations.multi();
-					// @formatter:off
-				operations.opsForHash().increment(seasonKey, RedisFields.SUM_POINTS, delta.getPoints());
-				operations.opsForHash().increment(seasonKey, RedisFields.SUM_REBOUNDS, delta.getRebounds());
-				operations.opsForHash().increment(seasonKey, RedisFields.SUM_ASSISTS, delta.getAssists());
-				operations.opsForHash().increment(seasonKey, RedisFields.SUM_STEALS, delta.getSteals());
-				operations.opsForHash().increment(seasonKey, RedisFields.SUM_BLOCKS, delta.getBlocks());
-				operations.opsForHash().increment(seasonKey, RedisFields.SUM_FOULS, delta.getFouls());
-				operations.opsForHash().increment(seasonKey, RedisFields.SUM_TURNOVERS, delta.getTurnovers());
-				operations.opsForHash().increment(seasonKey, RedisFields.SUM_MINUTES, delta.getMinutesPlayed());
-				operations.opsForHash().increment(seasonKey, RedisFields.GAMES_PLAYED, delta.getGamesPlayed());
-					// @formatter:on
-				List<Object> results = operations.exec();
-				if (results == null) {
-					log.warn("Redis transaction failed for key: {}", seasonKey);
-					throw new IllegalStateException("Transaction failed — retry required.");
-				}
-				return null;
-			}
-		});
-	}
-
-    /**
-     * Get previous game stats for delta calculation
-     */
-    public LiveStatDto getPreviousGameStats(String gameKey) {
+     * Update season aggregates with delta and mark the key dirty - one atomic script call,
+     * nothing is read first, so there is nothing to WATCH. For a player key the season
+     * leaderboards are updated by the same call.
+     */
+    public void updateSeasonAggregates(String season, String seasonKey, PlayerStatsDelta delta) {
+        int bucket = RedisKeys.slotBucketOf(seasonKey);
+        List<String> keys = new ArrayList<>(List.of(seasonKey, RedisKeys.dirtySeasonKeys(season, bucket),
+                RedisKeys.dirtyVersion(season, bucket)));
+        List<String> args = new ArrayList<>(List.of(
+                String.valueOf(delta.getPoints()),
+                String.valueOf(delta.getRebounds()),
+                String.valueOf(delta.getAssists()),
+                String.valueOf(delta.getSteals()),
+                String.valueOf(delta.getBlocks()),
+                String.valueOf(delta.getFouls()),
+                String.valueOf(delta.getTurnovers()),
+                String.valueOf(SeasonTotalsCodec.toSeconds(delta.getMinutesPlayed())),
+                String.valueOf(delta.getGamesPlayed()),
+                RedisKeys.seasonStatsChannel()));
+        String playerId = leaderboardMember(seasonKey);
+        if (playerId != null) {
+            keys.addAll(leaderboardKeys(season, bucket));
+            args.add(playerId);
+        }
+        stringRedisTemplate.execute(APPLY_SEASON_DELTA_SCRIPT, keys, args.toArray());
+    }
+
+    /**
+     * Apply one cumulative stat line in a single EVALSHA: delta against the previous snapshot,
+     * player and team season increments, team-game marker and new snapshot. On a cluster the
+     * team side is a second call, see {@link #applyStatLines(String, Collection, boolean)}.
+     */
+    public StatLineResult applyStatLine(String season, LiveStatDto liveStat) {
+        return applyStatLine(season, liveStat, true);
+    }
+
+    /**
+     * Apply one cumulative stat line; with applyTeamDelta false the team season hash is left
+     * untouched and the caller is responsible for applying the returned delta to it
+     */
+    public StatLineResult applyStatLine(String season, LiveStatDto liveStat, boolean applyTeamDelta) {
+        return applyStatLines(season, List.of(liveStat), applyTeamDelta).get(0);
+    }
+
+    /**
+     * Apply several stat lines with one pipelined EVALSHA each - one round trip for the batch.
+     * Results are returned in the iteration order of the given lines.
+     */
+    public List<StatLineResult> applyStatLines(String season, Collection<LiveStatDto> liveStats) {
+        return applyStatLines(season, liveStats, true);
+    }
+
+    /**
+     * Pipelined variant of {@link #applyStatLine(String, LiveStatDto, boolean)}. With write-behind
+     * the script only sets the team-game marker, which tells the first line of the team. On a
+     * cluster, where the team's keys are in another slot, the markers are set with SET NX in a
+     * pipeline of their own ahead of the scripts; with applyTeamDelta the team deltas are then
+     * summed per team and applied with one apply_season_delta call each.
+     */
+    @SuppressWarnings("unchecked")
+    public List<StatLineResult> applyStatLines(String season, Collection<LiveStatDto> liveStats, boolean applyTeamDelta) {
+        if (liveStats.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<LiveStatDto> lines = List.copyOf(liveStats);
+        boolean teamInScript = applyTeamDelta && !clusterMode;
+        // Set before the scripts run, so a retry of the scripts never sets them a second time
+        List<Object> teamGameMarkers = clusterMode ? setTeamGameMarkers(lines) : null;
+        List<Object> results;
         try {
-            Map<Object, Object> rawStats = stringRedisTemplate.opsForHash().entries(gameKey);
+            results = executeStatLinePipeline(season, lines, teamInScript, null);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            // Script cache was flushed (e.g. Redis restart, or a new cluster node) - load it and
+            // run again only the script calls that failed
+            log.info("Stat line script not cached in Redis, loading it");
+            loadScript(APPLY_STAT_LINE_SCRIPT);
+            results = executeStatLinePipeline(season, lines, teamInScript, pipelineResults(e));
+        }
+
+        List<StatLineResult> statLineResults = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            StatLineResult result = toStatLineResult((List<Object>) results.get(i));
+            if (teamGameMarkers != null) {
+                boolean firstTeamLine = Boolean.TRUE.equals(teamGameMarkers.get(i));
+                result = new StatLineResult(result.isFirstPlayerLine(), firstTeamLine, result.getDelta());
+            }
+            statLineResults.add(result);
+        }
+        if (applyTeamDelta && !teamInScript) {
+            applyTeamDeltas(season, lines, statLineResults);
+        }
+        return statLineResults;
+    }
+
+    // ========== PIPELINED BATCH OPERATIONS ==========
 
-            if (rawStats.isEmpty()) {
+    /**
+     * Return the subset of the given keys that exist in Redis - one pipelined round trip
+     */
+    public Set<String> findExistingKeys(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<String> orderedKeys = new ArrayList<>(keys);
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Object execute(RedisOperations operations) {
+                for (String key : orderedKeys) {
+                    operations.hasKey(key);
+                }
                 return null;
             }
+        });
 
-            // Convert string values back to proper types
-            return LiveStatDto.builder()
-                    .gameId(getIntFromMap(rawStats, RedisFields.GAME_ID))
-                    .teamId(getIntFromMap(rawStats, RedisFields.TEAM_ID))
-                    .playerId(getIntFromMap(rawStats, RedisFields.PLAYER_ID))
-                    .points(getIntFromMap(rawStats, RedisFields.POINTS))
-                    .rebounds(getIntFromMap(rawStats, RedisFields.REBOUNDS))
-                    .assists(getIntFromMap(rawStats, RedisFields.ASSISTS))
-                    .steals(getIntFromMap(rawStats, RedisFields.STEALS))
-                    .blocks(getIntFromMap(rawStats, RedisFields.BLOCKS))
-                    .fouls(getIntFromMap(rawStats, RedisFields.FOULS))
-                    .turnovers(getIntFromMap(rawStats, RedisFields.TURNOVERS))
-                    .minutesPlayed(getDoubleFromMap(rawStats, RedisFields.MINUTES_PLAYED))
-                    .build();
-        } catch (Exception e) {
-            log.error("Failed to get previous game stats for key: {}", gameKey, e);
+        Set<String> existing = new HashSet<>();
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i))) {
+                existing.add(orderedKeys.get(i));
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Store several season stats hashes in one pipelined round trip
+     */
+    public void storeAllSeasonStats(Map<String, SeasonTotals> statsBySeasonKey) {
+        if (statsBySeasonKey.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            statsBySeasonKey.forEach((seasonKey, stats) -> {
+                connection.hashCommands().hMSet(seasonKey.getBytes(StandardCharsets.UTF_8), SeasonTotalsCodec.encode(stats));
+                addToLeaderboards(connection, seasonKey, stats);
+            });
             return null;
+        });
+        log.debug("Stored {} season stats hashes in Redis", statsBySeasonKey.size());
+    }
+
+    /**
+     * Store the season stats hashes Redis does not hold, with their leaderboard entries - one
+     * pipelined store_season_if_absent call per hash, so a hash written in the meantime, e.g. by
+     * a stat line, is left alone. Returns the number of hashes stored.
+     */
+    public long storeAbsentSeasonStats(Map<String, SeasonTotals> statsBySeasonKey) {
+        if (statsBySeasonKey.isEmpty()) {
+            return 0;
+        }
+        List<Object> results;
+        try {
+            results = executeStoreSeasonPipeline(STORE_SEASON_IF_ABSENT_SCRIPT, statsBySeasonKey, null);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            // Storing only where nothing exists is idempotent - load the script and run it all again
+            log.info("Store season if absent script not cached in Redis, loading it");
+            loadScript(STORE_SEASON_IF_ABSENT_SCRIPT);
+            results = executeStoreSeasonPipeline(STORE_SEASON_IF_ABSENT_SCRIPT, statsBySeasonKey, null);
         }
+
+        long stored = 0;
+        for (Object result : results) {
+            stored += RedisValueConverter.convertToInt(result);
+        }
+        log.debug("Stored {} of {} season stats hashes in Redis", stored, statsBySeasonKey.size());
+        return stored;
     }
 
     /**
-     * Store current game stats for next delta calculation with TTL
+     * Overwrite season stats hashes, with their leaderboard entries, only where the hash's dirty
+     * version is still the one given - one pipelined store_season_if_unchanged call per hash.
+     * expectedVersions are the versions getDirtyVersions returned before the totals were
+     * computed; a key missing there must still not be dirty. Returns the keys that were stored.
      */
-    public void storeCurrentGameStats(String gameKey, LiveStatDto liveStat) {
+    public Set<String> storeUnchangedSeasonStats(Map<String, SeasonTotals> statsBySeasonKey,
+            Map<String, Long> expectedVersions) {
+        if (statsBySeasonKey.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Map<String, SeasonTotals> orderedStats = new LinkedHashMap<>(statsBySeasonKey);
+        List<Object> results;
         try {
-            Map<String, String> stats = Map.ofEntries(
-                    Map.entry(RedisFields.GAME_ID, String.valueOf(liveStat.getGameId())),
-                    Map.entry(RedisFields.TEAM_ID, String.valueOf(liveStat.getTeamId())),
-                    Map.entry(RedisFields.PLAYER_ID, String.valueOf(liveStat.getPlayerId())),
-                    Map.entry(RedisFields.POINTS, String.valueOf(liveStat.getPoints())),
-                    Map.entry(RedisFields.REBOUNDS, String.valueOf(liveStat.getRebounds())),
-                    Map.entry(RedisFields.ASSISTS, String.valueOf(liveStat.getAssists())),
-                    Map.entry(RedisFields.STEALS, String.valueOf(liveStat.getSteals())),
-                    Map.entry(RedisFields.BLOCKS, String.valueOf(liveStat.getBlocks())),
-                    Map.entry(RedisFields.FOULS, String.valueOf(liveStat.getFouls())),
-                    Map.entry(RedisFields.TURNOVERS, String.valueOf(liveStat.getTurnovers())),
-                    Map.entry(RedisFields.MINUTES_PLAYED, String.valueOf(liveStat.getMinutesPlayed()))
-            );
-
-            stringRedisTemplate.opsForHash().putAll(gameKey, stats);
-            stringRedisTemplate.expire(gameKey, 4, TimeUnit.HOURS);
-            
-            log.debug("Stored current game stats with 4h TTL: {}", gameKey);
-        } catch (Exception e) {
-            log.error("Failed to store current game stats for key: {}", gameKey, e);
-            throw e;
+            results = executeStoreSeasonPipeline(STORE_SEASON_IF_UNCHANGED_SCRIPT, orderedStats, expectedVersions);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            // A store that already happened is now a no-op, its version is unchanged - load and run it all again
+            log.info("Store season if unchanged script not cached in Redis, loading it");
+            loadScript(STORE_SEASON_IF_UNCHANGED_SCRIPT);
+            results = executeStoreSeasonPipeline(STORE_SEASON_IF_UNCHANGED_SCRIPT, orderedStats, expectedVersions);
         }
+
+        Set<String> stored = new HashSet<>();
+        int i = 0;
+        for (String seasonKey : orderedStats.keySet()) {
+            if (RedisValueConverter.convertToInt(results.get(i++)) == 1) {
+                stored.add(seasonKey);
+            }
+        }
+        log.debug("Stored {} of {} season stats hashes in Redis", stored.size(), orderedStats.size());
+        return stored;
     }
 
     /**
-     * Check if a player currently has a live game (based on TTL)
+     * Get several season stats hashes in one pipelined round trip.
+     * Keys without a hash are absent from the returned map.
+     */
+    public Map<String, SeasonTotals> getAllSeasonStats(Collection<String> seasonKeys) {
+        if (seasonKeys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> orderedKeys = new ArrayList<>(seasonKeys);
+        // Byte array result serializer - values reach the codec undecoded
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String seasonKey : orderedKeys) {
+                connection.hashCommands().hMGet(seasonKey.getBytes(StandardCharsets.UTF_8), SeasonTotalsCodec.fields());
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        Map<String, SeasonTotals> statsByKey = new HashMap<>();
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            SeasonTotals stats = SeasonTotalsCodec.decode((List<?>) results.get(i));
+            if (stats != null) {
+                statsByKey.put(orderedKeys.get(i), stats);
+            }
+        }
+        return statsByKey;
+    }
+
+    /**
+     * Top players of a season leaderboard, highest first - one pipelined ZREVRANGE WITHSCORES
+     * per slot bucket, O(buckets * (log n + limit)), merged by score, ties by the higher player
+     * id. Maps player id to total or per-game average in rank order.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Integer, Double> getLeaders(String season, LeaderboardStat stat, boolean perGame, int limit) {
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) {
+                for (int bucket = 0; bucket < RedisKeys.SLOT_BUCKETS; bucket++) {
+                    String key = perGame
+                            ? RedisKeys.leaderboardAverage(season, stat, bucket)
+                            : RedisKeys.leaderboardTotal(season, stat, bucket);
+                    operations.opsForZSet().reverseRangeWithScores(key, 0, limit - 1);
+                }
+                return null;
+            }
+        });
+
+        List<ZSetOperations.TypedTuple<String>> entries = new ArrayList<>();
+        for (Object bucketEntries : results) {
+            if (bucketEntries != null) {
+                entries.addAll((Set<ZSetOperations.TypedTuple<String>>) bucketEntries);
+            }
+        }
+        entries.sort(Comparator.comparing((ZSetOperations.TypedTuple<String> entry) -> entry.getScore())
+                .thenComparing(entry -> Integer.parseInt(entry.getValue()))
+                .reversed());
+        Map<Integer, Double> leaders = new LinkedHashMap<>();
+        for (ZSetOperations.TypedTuple<String> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            leaders.put(Integer.parseInt(entry.getValue()), entry.getScore());
+        }
+        return leaders;
+    }
+
+    /**
+     * Running sums of a player's last window completed games - one HMGET, O(1) in the number
+     * of games played. All zero before the first completed game.
+     */
+    public SeasonTotals getRecentForm(String season, int playerId, int window) {
+        byte[] key = RedisKeys.playerRecentForm(season, playerId, window).getBytes(StandardCharsets.UTF_8);
+        List<byte[]> values = stringRedisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.hashCommands().hMGet(key, SeasonTotalsCodec.fields()));
+        SeasonTotals totals = SeasonTotalsCodec.decode(values);
+        return totals != null ? totals : SeasonTotals.EMPTY;
+    }
+
+    /**
+     * Check if a player currently has a live game - lookup in the player's live-game index,
+     * ignoring games whose snapshot TTL has passed
      */
     public boolean hasLiveGame(int playerId) {
         try {
-            String pattern = "g:*:p:" + playerId;
-            Set<String> keys = stringRedisTemplate.keys(pattern);
-            return keys != null && !keys.isEmpty();
+            Long liveGames = stringRedisTemplate.opsForZSet().count(
+                    RedisKeys.playerLiveGames(playerId), System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+            return liveGames != null && liveGames > 0;
         } catch (Exception e) {
             log.error("Failed to check live game for player: {}", playerId, e);
             return false;
@@ -176,212 +448,869 @@ public class RedisStatsRepository {
     }
 
     /**
-     * Mark team-game combination as processed with TTL
+     * Subset of the given players that currently have a live game - one pipelined
+     * ZCOUNT per player, see {@link #hasLiveGame(int)}
      */
-    public void markTeamGameProcessed(int teamId, int gameId) {
-        try {
-            String teamGameKey = "team_game:" + teamId + ":" + gameId;
-            Map<String, String> marker = Map.of(
-                "processed", "true", 
-                "timestamp", String.valueOf(System.currentTimeMillis())
-            );
-            
-            stringRedisTemplate.opsForHash().putAll(teamGameKey, marker);
-            stringRedisTemplate.expire(teamGameKey, 4, TimeUnit.HOURS);
-            
-            log.debug("Marked team {} game {} as processed with 4h TTL", teamId, gameId);
-        } catch (Exception e) {
-            log.error("Failed to mark team-game as processed: team={}, game={}", teamId, gameId, e);
+    public Set<Integer> findPlayersWithLiveGame(Collection<Integer> playerIds) {
+        if (playerIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<Integer> orderedIds = new ArrayList<>(playerIds);
+        long now = System.currentTimeMillis();
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Object execute(RedisOperations operations) {
+                for (int playerId : orderedIds) {
+                    operations.opsForZSet().count(RedisKeys.playerLiveGames(playerId), now, Double.POSITIVE_INFINITY);
+                }
+                return null;
+            }
+        });
+
+        Set<Integer> withLiveGame = new HashSet<>();
+        for (int i = 0; i < orderedIds.size(); i++) {
+            Object count = results.get(i);
+            if (count instanceof Long liveGames && liveGames > 0) {
+                withLiveGame.add(orderedIds.get(i));
+            }
         }
+        return withLiveGame;
     }
 
     /**
-     * Check if team-game combination has been processed
+     * Current snapshot line of every live game of the given players - one pipelined
+     * ZRANGEBYSCORE of the live-game indexes, then one pipelined HGETALL of the snapshots.
+     * Snapshots that expired in between are left out.
      */
-    public boolean isTeamGameProcessed(int teamId, int gameId) {
-        try {
-            String teamGameKey = "team_game:" + teamId + ":" + gameId;
-            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(teamGameKey));
-        } catch (Exception e) {
-            log.error("Failed to check team-game processed status: team={}, game={}", teamId, gameId, e);
-            return false;
+    @SuppressWarnings("unchecked")
+    public List<LiveStatDto> getLiveGameLines(Collection<Integer> playerIds) {
+        if (playerIds.isEmpty()) {
+            return Collections.emptyList();
         }
+        List<Integer> orderedIds = new ArrayList<>(playerIds);
+        long now = System.currentTimeMillis();
+        List<Object> liveGames = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Object execute(RedisOperations operations) {
+                for (int playerId : orderedIds) {
+                    operations.opsForZSet().rangeByScore(RedisKeys.playerLiveGames(playerId), now, Double.POSITIVE_INFINITY);
+                }
+                return null;
+            }
+        });
+
+        List<String> gameKeys = new ArrayList<>();
+        for (int i = 0; i < orderedIds.size(); i++) {
+            if (liveGames.get(i) instanceof Set<?> gameIds) {
+                for (Object gameId : gameIds) {
+                    gameKeys.add(RedisKeys.playerGame(Integer.parseInt(gameId.toString()), orderedIds.get(i)));
+                }
+            }
+        }
+        if (gameKeys.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Object> snapshots = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Object execute(RedisOperations operations) {
+                for (String gameKey : gameKeys) {
+                    operations.opsForHash().entries(gameKey);
+                }
+                return null;
+            }
+        });
+        List<LiveStatDto> lines = new ArrayList<>(gameKeys.size());
+        for (int i = 0; i < gameKeys.size(); i++) {
+            Map<Object, Object> rawStats = (Map<Object, Object>) snapshots.get(i);
+            if (rawStats != null && !rawStats.isEmpty()) {
+                lines.add(convertToLiveStat(gameKeys.get(i), rawStats));
+            }
+        }
+        return lines;
     }
 
     /**
-     * Complete a game (remove the live game key)
+     * Finish a game for the given players - one pipeline with a finish_player_game script call
+     * per player, which also appends the final line to the player's recent games. Finishing again
+     * changes nothing and returns the same lines. Returns each player's final line from the game
+     * snapshot, in player order (null where the snapshot is gone).
      */
-    public void completeGame(int gameId, int playerId) {
+    @SuppressWarnings("unchecked")
+    public List<LiveStatDto> finishGame(String season, int gameId, List<Integer> playerIds) {
+        List<Object> results;
         try {
-            String gameKey = "g:%d:p:%d".formatted(gameId, playerId);
-            stringRedisTemplate.delete(gameKey);
-            log.debug("Completed game: {}", gameKey);
-        } catch (Exception e) {
-            log.error("Failed to complete game: gameId={}, playerId={}", gameId, playerId, e);
+            results = executeFinishGamePipeline(season, gameId, playerIds);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            // Script cache was flushed - the script is idempotent, load it and run the whole game again
+            log.info("Finish game script not cached in Redis, loading it");
+            loadScript(FINISH_PLAYER_GAME_SCRIPT);
+            results = executeFinishGamePipeline(season, gameId, playerIds);
         }
-    }
 
+        List<LiveStatDto> finalLines = new ArrayList<>(playerIds.size());
+        for (int i = 0; i < playerIds.size(); i++) {
+            Object line = results.get(i);
+            finalLines.add(line == null ? null : toFinalLine(gameId, playerIds.get(i), (List<Object>) line));
+        }
+        return finalLines;
+    }
+    
     /**
-     * Get all Redis keys matching a pattern
+     * Put back the game snapshots of lines the database already counts, where Redis has none
+     * (write-ahead log replay after Redis lost its data), and mark their teams' games as counted.
+     * One pipeline with a restore_game_snapshot call and a SET NX of the team-game marker per line.
+     * Returns the number of snapshots restored.
      */
-    public Set<String> getKeysByPattern(String pattern) {
+    public long restoreGameSnapshots(Collection<LiveStatDto> lines) {
+        List<LiveStatDto> orderedLines = new ArrayList<>(lines);
+        List<Object> results;
         try {
-            Set<String> keys = stringRedisTemplate.keys(pattern);
-            return keys != null ? keys : Collections.emptySet();
-        } catch (Exception e) {
-            log.error("Failed to get keys by pattern: {}", pattern, e);
+            results = executeRestoreSnapshotPipeline(orderedLines);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            // Restoring only where nothing exists is idempotent - load the script and run it all again
+            log.info("Restore snapshot script not cached in Redis, loading it");
+            loadScript(RESTORE_GAME_SNAPSHOT_SCRIPT);
+            results = executeRestoreSnapshotPipeline(orderedLines);
+        }
+
+        long restored = 0;
+        for (int i = 0; i < results.size(); i += 2) {
+            restored += RedisValueConverter.convertToInt(results.get(i));
+        }
+        return restored;
+    }
+    
+    /**
+     * Games among the given lines whose snapshot is marked finished - one pipelined HGET of the
+     * game status per line. A game whose snapshot is gone is not reported.
+     */
+    public Set<Integer> findFinishedGames(Collection<LiveStatDto> lines) {
+        if (lines.isEmpty()) {
             return Collections.emptySet();
         }
+        List<LiveStatDto> orderedLines = new ArrayList<>(lines);
+        byte[] field = RedisFields.GAME_STATUS.getBytes(StandardCharsets.UTF_8);
+        List<Object> statuses = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (LiveStatDto line : orderedLines) {
+                connection.hashCommands().hGet(
+                        RedisKeys.playerGame(line.getGameId(), line.getPlayerId()).getBytes(StandardCharsets.UTF_8), field);
+            }
+            return null;
+        });
+
+        Set<Integer> finishedGames = new HashSet<>();
+        for (int i = 0; i < orderedLines.size(); i++) {
+            if (RedisFields.GAME_STATUS_FINISHED.equals(statuses.get(i))) {
+                finishedGames.add(orderedLines.get(i).getGameId());
+            }
+        }
+        return finishedGames;
     }
+    
+    // ========== LEGACY FORMAT MIGRATION ==========
 
     /**
-     * Get all players who participated in a specific game
+     * Rewrite every key still in a legacy layout into the current one. Keys without a slot tag
+     * are renamed to their tagged name first, the dirty set and leaderboards of the whole season
+     * are split into their slot buckets; then hashes with long field names and decimal minutes
+     * get the compact fields: SCAN per key pattern, one pipelined migrate_legacy_hash call per
+     * page of keys. Keys already in the current layout are left alone, so running it again is
+     * cheap. Returns the number of keys rewritten.
+     * SCAN does not span the nodes of a cluster - a cluster is expected to start out empty.
      */
-    public Set<Integer> getPlayersInGame(int gameId) {
-        try {
-            String pattern = "g:" + gameId + ":p:*";
-            Set<String> keys = stringRedisTemplate.keys(pattern);
-            
-            if (keys == null || keys.isEmpty()) {
-                return Collections.emptySet();
-            }
-            
-            Set<Integer> playerIds = new HashSet<>();
-            for (String key : keys) {
-                try {
-                    String[] parts = key.split(":");
-                    if (parts.length >= 4) {
-                        int playerId = Integer.parseInt(parts[3]);
-                        playerIds.add(playerId);
-                    }
-                } catch (NumberFormatException e) {
-                    log.warn("Invalid player ID in key: {}", key);
+    public long migrateLegacyFormat() {
+        if (clusterMode) {
+            log.info("Redis Cluster - skipping the legacy format migration");
+            return 0;
+        }
+        loadScript(MIGRATE_LEGACY_HASH_SCRIPT);
+        return tagLegacyKeys("s:*", DataType.HASH, 3)
+                + tagLegacyKeys("form:*", DataType.HASH, 4)
+                + tagLegacyKeys("g:*:p:*", DataType.HASH, 3)
+                + tagLegacyKeys("recent:*", DataType.LIST, 4)
+                + tagLegacyKeys("live:p:*", DataType.ZSET, 2)
+                + tagLegacyKeys("team_game:*", DataType.STRING, 1)
+                + splitLegacyDirtySets()
+                + splitLegacyLeaderboards()
+                + migrateKeys("s:*", DataType.HASH, "sums")
+                + migrateKeys("form:*", DataType.HASH, "sums")
+                + migrateKeys("g:*:p:*", DataType.HASH, "snapshot")
+                + migrateKeys("recent:*", DataType.LIST, "recent");
+    }
+
+    // ========== DIRTY TRACKING FOR THE POSTGRES SYNC ==========
+
+    /**
+     * Current value of every bucket's dirty version counter, indexed by bucket - every later
+     * change in a bucket gets a higher version. One pipelined GET per bucket.
+     */
+    public long[] getDirtyVersionCounters(String season) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int bucket = 0; bucket < RedisKeys.SLOT_BUCKETS; bucket++) {
+                connection.stringCommands().get(RedisKeys.dirtyVersion(season, bucket).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        long[] versions = new long[RedisKeys.SLOT_BUCKETS];
+        for (int bucket = 0; bucket < versions.length; bucket++) {
+            Object version = results.get(bucket);
+            versions[bucket] = version == null ? 0 : Long.parseLong(version.toString());
+        }
+        return versions;
+    }
+
+    /**
+     * Number of season keys waiting for the sync, over all buckets
+     */
+    public long countDirtySeasonKeys(String season) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int bucket = 0; bucket < RedisKeys.SLOT_BUCKETS; bucket++) {
+                connection.zSetCommands().zCard(RedisKeys.dirtySeasonKeys(season, bucket).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        long count = 0;
+        for (Object bucketCount : results) {
+            if (bucketCount instanceof Long keys) {
+                count += keys;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Oldest dirty season keys of every bucket with version up to that bucket's entry in
+     * maxVersions, mapped to their dirty version - one pipelined ZRANGEBYSCORE per bucket with
+     * keys to sync, each taking its share of limit
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> getDirtySeasonKeys(String season, long[] maxVersions, int limit) {
+        int bucketLimit = Math.max(1, limit / RedisKeys.SLOT_BUCKETS);
+        List<Integer> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < maxVersions.length; bucket++) {
+            if (maxVersions[bucket] > 0) {
+                buckets.add(bucket);
+            }
+        }
+        Map<String, Long> dirtyKeys = new LinkedHashMap<>();
+        if (buckets.isEmpty()) {
+            return dirtyKeys;
+        }
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) {
+                for (int bucket : buckets) {
+                    operations.opsForZSet().rangeByScoreWithScores(RedisKeys.dirtySeasonKeys(season, bucket),
+                            Double.NEGATIVE_INFINITY, maxVersions[bucket], 0, bucketLimit);
                 }
+                return null;
+            }
+        });
+        for (Object entries : results) {
+            if (entries == null) {
+                continue;
+            }
+            for (ZSetOperations.TypedTuple<String> entry : (Set<ZSetOperations.TypedTuple<String>>) entries) {
+                dirtyKeys.put(entry.getValue(), entry.getScore().longValue());
             }
-            
-            return playerIds;
-        } catch (Exception e) {
-            log.error("Failed to get players in game: {}", gameId, e);
-            return Collections.emptySet();
         }
+        return dirtyKeys;
     }
-    
+
     /**
-     * Mark a season stats key as dirty (needs syncing)
+     * Dirty versions of the given season keys - one pipelined ZSCORE each, in the key's bucket;
+     * keys that are not dirty are left out
      */
-    public void markSeasonStatsDirty(String seasonKey) {
-        try {
-            String dirtyKey = "dirty:" + seasonKey;
-            stringRedisTemplate.opsForValue().set(dirtyKey, "1");
-            log.debug("Marked season stats as dirty: {}", dirtyKey);
-        } catch (Exception e) {
-            log.error("Failed to mark season stats as dirty: {}", seasonKey, e);
+    public Map<String, Long> getDirtyVersions(String season, Collection<String> seasonKeys) {
+        Map<String, Long> dirtyKeys = new LinkedHashMap<>();
+        if (seasonKeys.isEmpty()) {
+            return dirtyKeys;
         }
+        List<String> orderedKeys = new ArrayList<>(seasonKeys);
+        List<Object> versions = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Object execute(RedisOperations operations) {
+                for (String seasonKey : orderedKeys) {
+                    operations.opsForZSet().score(
+                            RedisKeys.dirtySeasonKeys(season, RedisKeys.slotBucketOf(seasonKey)), seasonKey);
+                }
+                return null;
+            }
+        });
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            if (versions.get(i) instanceof Double version) {
+                dirtyKeys.put(orderedKeys.get(i), version.longValue());
+            }
+        }
+        return dirtyKeys;
     }
 
     /**
-     * Delete dirty flag after successful sync
+     * Clear synced keys from the dirty sets - only those still at the version they had when read.
+     * One pipelined clear_dirty call per bucket.
      */
-    public void deleteDirtyFlag(String dirtyKey) {
+    public long clearDirtySeasonKeys(String season, Map<String, Long> syncedVersions) {
+        if (syncedVersions.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, List<byte[]>> argsByBucket = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : syncedVersions.entrySet()) {
+            List<byte[]> args = argsByBucket.computeIfAbsent(RedisKeys.slotBucketOf(entry.getKey()), b -> new ArrayList<>());
+            args.add(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            args.add(String.valueOf(entry.getValue()).getBytes(StandardCharsets.UTF_8));
+        }
+        List<Object> results;
         try {
-            stringRedisTemplate.delete(dirtyKey);
-            log.debug("Removed dirty flag: {}", dirtyKey);
-        } catch (Exception e) {
-            log.error("Failed to delete dirty flag: {}", dirtyKey, e);
+            results = executeClearDirtyPipeline(season, argsByBucket);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            // Clearing is idempotent - load the script and clear every bucket again
+            log.info("Clear dirty script not cached in Redis, loading it");
+            loadScript(CLEAR_DIRTY_SCRIPT);
+            results = executeClearDirtyPipeline(season, argsByBucket);
         }
+        long cleared = 0;
+        for (Object bucketCleared : results) {
+            if (bucketCleared instanceof Long keys) {
+                cleared += keys;
+            }
+        }
+        log.debug("Cleared {} of {} synced dirty keys", cleared, syncedVersions.size());
+        return cleared;
     }
 
-    // Helper methods for conversion
-    private Map<String, String> convertToStringMap(Map<String, Object> originalMap) {
-        Map<String, String> stringMap = new HashMap<>();
-        
-        for (Map.Entry<String, Object> entry : originalMap.entrySet()) {
-            String key = entry.getKey();
-            Object value = entry.getValue();
-            
-            if (value == null) {
-                stringMap.put(key, "0");
-            } else {
-                String stringValue = convertObjectToString(value);
-                stringMap.put(key, stringValue);
+    // Helper methods for the stat line script
+    /**
+     * One EVALSHA per line. With the results of a failed attempt only the calls that failed
+     * are sent again, and the results are merged into the previous ones.
+     */
+    private List<Object> executeStatLinePipeline(String season, List<LiveStatDto> lines, boolean teamInScript,
+            List<Object> previous) {
+        // Explicit EVALSHA - RedisTemplate.execute(script) falls back to a full EVAL inside pipelines
+        byte[] sha1 = APPLY_STAT_LINE_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < lines.size(); i++) {
+                if (previous == null || previous.get(i) instanceof Throwable) {
+                    List<String> keys = statLineKeys(season, lines.get(i), teamInScript);
+                    connection.scriptingCommands().evalSha(sha1, ReturnType.MULTI, keys.size(),
+                            statLineKeysAndArgs(keys, lines.get(i)));
+                }
             }
+            return null;
+        });
+        if (previous == null) {
+            return results;
         }
-        
-        return stringMap;
+        List<Object> merged = new ArrayList<>(previous);
+        Iterator<Object> retried = results.iterator();
+        for (int i = 0; i < merged.size(); i++) {
+            if (merged.get(i) instanceof Throwable) {
+                merged.set(i, retried.next());
+            }
+        }
+        return merged;
     }
 
-    private String convertObjectToString(Object value) {
-        if (value == null) {
-            return "0";
+    /**
+     * SET NX of the team-game marker per line, in one pipeline - true where the line is the
+     * first of its team in the game
+     */
+    private List<Object> setTeamGameMarkers(List<LiveStatDto> lines) {
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (LiveStatDto liveStat : lines) {
+                connection.stringCommands().set(
+                        RedisKeys.teamGame(liveStat.getTeamId(), liveStat.getGameId()).getBytes(StandardCharsets.UTF_8),
+                        TEAM_GAME_MARKER, Expiration.seconds(GAME_STATS_TTL_SECONDS), SetOption.ifAbsent());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Results of the commands of a failed pipeline, failures as exceptions - null when the
+     * failure did not come from the pipeline
+     */
+    private List<Object> pipelineResults(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisPipelineException pipelineException) {
+                return pipelineException.getPipelineResult();
+            }
         }
-        
-        // Handle BigDecimal from database
-        if (value instanceof java.math.BigDecimal) {
-            return ((java.math.BigDecimal) value).toString();
+        return null;
+    }
+
+    /**
+     * Team side of stat lines applied without it: the deltas summed per team season key, the
+     * game counted on each team's first line, one apply_season_delta call per team
+     */
+    private void applyTeamDeltas(String season, List<LiveStatDto> lines, List<StatLineResult> results) {
+        Map<String, PlayerStatsDelta> deltasByTeamKey = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            PlayerStatsDelta delta = results.get(i).getDelta();
+            PlayerStatsDelta teamDelta = new PlayerStatsDelta(delta.getPoints(), delta.getRebounds(),
+                    delta.getAssists(), delta.getSteals(), delta.getBlocks(), delta.getFouls(),
+                    delta.getTurnovers(), delta.getMinutesPlayed(), results.get(i).isFirstTeamLine() ? 1 : 0);
+            deltasByTeamKey.merge(RedisKeys.teamSeason(season, lines.get(i).getTeamId()), teamDelta,
+                    RedisStatsRepository::sumDeltas);
         }
-        
-        // Handle Timestamp from database
-        if (value instanceof java.sql.Timestamp) {
-            return String.valueOf(((java.sql.Timestamp) value).getTime());
+        deltasByTeamKey.forEach((teamKey, delta) -> updateSeasonAggregates(season, teamKey, delta));
+    }
+
+    private static PlayerStatsDelta sumDeltas(PlayerStatsDelta a, PlayerStatsDelta b) {
+        return new PlayerStatsDelta(a.getPoints() + b.getPoints(), a.getRebounds() + b.getRebounds(),
+                a.getAssists() + b.getAssists(), a.getSteals() + b.getSteals(), a.getBlocks() + b.getBlocks(),
+                a.getFouls() + b.getFouls(), a.getTurnovers() + b.getTurnovers(),
+                a.getMinutesPlayed() + b.getMinutesPlayed(), a.getGamesPlayed() + b.getGamesPlayed());
+    }
+
+    private List<Object> executeClearDirtyPipeline(String season, Map<Integer, List<byte[]>> argsByBucket) {
+        byte[] sha1 = CLEAR_DIRTY_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            argsByBucket.forEach((bucket, args) -> {
+                byte[][] keysAndArgs = new byte[1 + args.size()][];
+                keysAndArgs[0] = RedisKeys.dirtySeasonKeys(season, bucket).getBytes(StandardCharsets.UTF_8);
+                for (int i = 0; i < args.size(); i++) {
+                    keysAndArgs[1 + i] = args.get(i);
+                }
+                connection.scriptingCommands().evalSha(sha1, ReturnType.INTEGER, 1, keysAndArgs);
+            });
+            return null;
+        });
+    }
+
+    private List<Object> executeFinishGamePipeline(String season, int gameId, List<Integer> playerIds) {
+        byte[] sha1 = FINISH_PLAYER_GAME_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+        List<Integer> windows = RedisKeys.RECENT_FORM_WINDOWS;
+        int keyCount = 3 + windows.size();
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int playerId : playerIds) {
+                byte[][] keysAndArgs = new byte[keyCount + 1 + windows.size()][];
+                keysAndArgs[0] = RedisKeys.playerGame(gameId, playerId).getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[1] = RedisKeys.playerLiveGames(playerId).getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[2] = RedisKeys.playerRecentGames(season, playerId).getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[keyCount] = String.valueOf(gameId).getBytes(StandardCharsets.UTF_8);
+                for (int i = 0; i < windows.size(); i++) {
+                    keysAndArgs[3 + i] = RedisKeys.playerRecentForm(season, playerId, windows.get(i))
+                            .getBytes(StandardCharsets.UTF_8);
+                    keysAndArgs[keyCount + 1 + i] = String.valueOf(windows.get(i)).getBytes(StandardCharsets.UTF_8);
+                }
+                connection.scriptingCommands().evalSha(sha1, ReturnType.MULTI, keyCount, keysAndArgs);
+            }
+            return null;
+        });
+    }
+
+    private List<Object> executeRestoreSnapshotPipeline(List<LiveStatDto> lines) {
+        byte[] sha1 = RESTORE_GAME_SNAPSHOT_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+        byte[] ttl = String.valueOf(GAME_STATS_TTL_SECONDS).getBytes(StandardCharsets.UTF_8);
+        byte[] liveExpiry = String.valueOf(liveGameExpiry()).getBytes(StandardCharsets.UTF_8);
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (LiveStatDto line : lines) {
+                Map<String, String> fields = convertToGameStatsMap(line);
+                byte[][] keysAndArgs = new byte[5 + fields.size() * 2][];
+                keysAndArgs[0] = RedisKeys.playerGame(line.getGameId(), line.getPlayerId()).getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[1] = RedisKeys.playerLiveGames(line.getPlayerId()).getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[2] = String.valueOf(line.getGameId()).getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[3] = ttl;
+                keysAndArgs[4] = liveExpiry;
+                int i = 5;
+                for (Map.Entry<String, String> field : fields.entrySet()) {
+                    keysAndArgs[i++] = field.getKey().getBytes(StandardCharsets.UTF_8);
+                    keysAndArgs[i++] = field.getValue().getBytes(StandardCharsets.UTF_8);
+                }
+                connection.scriptingCommands().evalSha(sha1, ReturnType.INTEGER, 2, keysAndArgs);
+                connection.stringCommands().set(
+                        RedisKeys.teamGame(line.getTeamId(), line.getGameId()).getBytes(StandardCharsets.UTF_8),
+                        TEAM_GAME_MARKER, Expiration.seconds(GAME_STATS_TTL_SECONDS), SetOption.ifAbsent());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * One call per hash of store_season_if_absent, or of store_season_if_unchanged when
+     * expectedVersions is given - the latter takes the bucket's dirty set and the expected
+     * version ahead of the leaderboards and their scores
+     */
+    private List<Object> executeStoreSeasonPipeline(RedisScript<Long> script, Map<String, SeasonTotals> statsBySeasonKey,
+            Map<String, Long> expectedVersions) {
+        byte[] sha1 = script.getSha1().getBytes(StandardCharsets.UTF_8);
+        int lead = expectedVersions == null ? 1 : 2;
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            statsBySeasonKey.forEach((seasonKey, stats) -> {
+                String playerId = leaderboardMember(seasonKey);
+                String season = seasonKey.split(":")[1];
+                int bucket = RedisKeys.slotBucketOf(seasonKey);
+                // Players without a game are left out of the leaderboards, as in addToLeaderboards
+                List<String> leaderboards = playerId == null || stats.getGamesPlayed() == 0
+                        ? List.of()
+                        : leaderboardKeys(season, bucket);
+                Map<byte[], byte[]> fields = SeasonTotalsCodec.encode(stats);
+                byte[][] keysAndArgs = new byte[2 * (lead + leaderboards.size()) + fields.size() * 2][];
+                int keyCount = lead + leaderboards.size();
+                keysAndArgs[0] = seasonKey.getBytes(StandardCharsets.UTF_8);
+                keysAndArgs[keyCount] = String.valueOf(playerId).getBytes(StandardCharsets.UTF_8);
+                if (expectedVersions != null) {
+                    Long version = expectedVersions.get(seasonKey);
+                    keysAndArgs[1] = RedisKeys.dirtySeasonKeys(season, bucket).getBytes(StandardCharsets.UTF_8);
+                    keysAndArgs[keyCount + 1] = (version == null ? "" : String.valueOf(version)).getBytes(StandardCharsets.UTF_8);
+                }
+                for (int i = 0; i < LEADERBOARD_STATS.length && !leaderboards.isEmpty(); i++) {
+                    double total = LEADERBOARD_STATS[i].totalOf(stats);
+                    keysAndArgs[lead + 2 * i] = leaderboards.get(2 * i).getBytes(StandardCharsets.UTF_8);
+                    keysAndArgs[lead + 1 + 2 * i] = leaderboards.get(2 * i + 1).getBytes(StandardCharsets.UTF_8);
+                    keysAndArgs[keyCount + lead + 2 * i] = String.valueOf(total).getBytes(StandardCharsets.UTF_8);
+                    keysAndArgs[keyCount + lead + 1 + 2 * i] =
+                            String.valueOf(total / stats.getGamesPlayed()).getBytes(StandardCharsets.UTF_8);
+                }
+                int i = 2 * keyCount;
+                for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+                    keysAndArgs[i++] = field.getKey();
+                    keysAndArgs[i++] = field.getValue();
+                }
+                connection.scriptingCommands().evalSha(sha1, ReturnType.INTEGER, keyCount, keysAndArgs);
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Rename the keys matching pattern that have no slot tag yet to their tagged name, the tag
+     * of the player or team id at idIndex - one pipelined RENAMENX per page of keys. A key whose
+     * tagged name already exists is left in place.
+     */
+    private long tagLegacyKeys(String pattern, DataType type, int idIndex) {
+        List<String> untagged = scanUntagged(pattern, type);
+        long renamed = 0;
+        for (int from = 0; from < untagged.size(); from += MIGRATION_SCAN_COUNT) {
+            List<String> page = untagged.subList(from, Math.min(from + MIGRATION_SCAN_COUNT, untagged.size()));
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : page) {
+                    connection.keyCommands().renameNX(key.getBytes(StandardCharsets.UTF_8),
+                            tagged(key, key.split(":")[idIndex]).getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            for (int i = 0; i < page.size(); i++) {
+                if (Boolean.TRUE.equals(results.get(i))) {
+                    renamed++;
+                } else {
+                    log.warn("Tagged key for {} already exists, leaving the untagged key in place", page.get(i));
+                }
+            }
         }
-        
-        // Handle Date from database
-        if (value instanceof java.util.Date) {
-            return String.valueOf(((java.util.Date) value).getTime());
+        log.debug("Renamed {} keys matching {} to their slot-tagged name", renamed, pattern);
+        return renamed;
+    }
+
+    /**
+     * Move the members of season-wide dirty sets (dirty:s:{season}) into the dirty sets of their
+     * slot buckets under their tagged name, with a fresh dirty version, then drop the old set and
+     * its version counter
+     */
+    private long splitLegacyDirtySets() {
+        List<String> dirtySets = scanUntagged("dirty:s:*", DataType.ZSET);
+        for (String dirtySet : dirtySets) {
+            String season = dirtySet.substring("dirty:s:".length());
+            Set<String> seasonKeys = stringRedisTemplate.opsForZSet().range(dirtySet, 0, -1);
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @SuppressWarnings("unchecked")
+                @Override
+                public Object execute(RedisOperations operations) {
+                    for (String seasonKey : seasonKeys == null ? Set.<String>of() : seasonKeys) {
+                        String taggedKey = seasonKey.endsWith("}") ? seasonKey : tagged(seasonKey, seasonKey.split(":")[3]);
+                        int bucket = RedisKeys.slotBucketOf(taggedKey);
+                        // Scripts are sent as EVAL inside a pipeline - no NOSCRIPT to handle
+                        operations.execute(MARK_DIRTY_SCRIPT, List.of(RedisKeys.dirtySeasonKeys(season, bucket),
+                                RedisKeys.dirtyVersion(season, bucket)), taggedKey);
+                    }
+                    operations.delete(List.of(dirtySet, dirtySet + ":version"));
+                    return null;
+                }
+            });
         }
-        
-        // Handle Long (common from database)
-        if (value instanceof Long) {
-            return value.toString();
+        log.debug("Split {} season-wide dirty sets into slot buckets", dirtySets.size());
+        return dirtySets.size();
+    }
+
+    /**
+     * Move the entries of season-wide leaderboards (lead:{season}:{stat}:total and :avg) into the
+     * leaderboards of the players' slot buckets, then drop the old leaderboard
+     */
+    private long splitLegacyLeaderboards() {
+        List<String> leaderboards = scanUntagged("lead:*", DataType.ZSET);
+        for (String leaderboard : leaderboards) {
+            Set<ZSetOperations.TypedTuple<String>> entries =
+                    stringRedisTemplate.opsForZSet().rangeWithScores(leaderboard, 0, -1);
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @SuppressWarnings("unchecked")
+                @Override
+                public Object execute(RedisOperations operations) {
+                    for (ZSetOperations.TypedTuple<String> entry : entries == null
+                            ? Set.<ZSetOperations.TypedTuple<String>>of() : entries) {
+                        operations.opsForZSet().add(tagged(leaderboard, entry.getValue()), entry.getValue(), entry.getScore());
+                    }
+                    operations.delete(leaderboard);
+                    return null;
+                }
+            });
         }
-        
-        // Handle Double
-        if (value instanceof Double) {
-            return value.toString();
+        log.debug("Split {} season-wide leaderboards into slot buckets", leaderboards.size());
+        return leaderboards.size();
+    }
+
+    private List<String> scanUntagged(String pattern, DataType type) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).type(type).count(MIGRATION_SCAN_COUNT).build();
+        List<String> untagged = new ArrayList<>();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                if (!key.endsWith("}")) {
+                    untagged.add(key);
+                }
+            }
         }
-        
-        // Handle Integer
-        if (value instanceof Integer) {
-            return value.toString();
+        return untagged;
+    }
+
+    /**
+     * Untagged key with the slot tag of the given player or team id appended
+     */
+    private static String tagged(String key, String id) {
+        return key + ":" + RedisKeys.slotTag(Integer.parseInt(id));
+    }
+
+    private long migrateKeys(String pattern, DataType type, String layout) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).type(type).count(MIGRATION_SCAN_COUNT).build();
+        long migrated = 0;
+        List<String> page = new ArrayList<>(MIGRATION_SCAN_COUNT);
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                page.add(cursor.next());
+                if (page.size() == MIGRATION_SCAN_COUNT) {
+                    migrated += migratePage(page, layout);
+                    page.clear();
+                }
+            }
         }
-        
-        // Handle Boolean
-        if (value instanceof Boolean) {
-            return ((Boolean) value) ? "1" : "0";
+        if (!page.isEmpty()) {
+            migrated += migratePage(page, layout);
         }
-        
-        // Default: convert to string
-        return value.toString();
+        log.debug("Migrated {} legacy keys matching {}", migrated, pattern);
+        return migrated;
     }
 
-    private Map<String, Object> convertFromStringMap(Map<Object, Object> rawMap) {
-        Map<String, Object> result = new HashMap<>();
-        
-        for (Map.Entry<Object, Object> entry : rawMap.entrySet()) {
-            String key = entry.getKey().toString();
-            String value = entry.getValue().toString();
-            
-            Object convertedValue = convertStringValue(key, value);
-            result.put(key, convertedValue);
+    private long migratePage(List<String> keys, String layout) {
+        byte[] sha1 = MIGRATE_LEGACY_HASH_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+        byte[] layoutArg = layout.getBytes(StandardCharsets.UTF_8);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.scriptingCommands().evalSha(sha1, ReturnType.INTEGER, 1,
+                        key.getBytes(StandardCharsets.UTF_8), layoutArg);
+            }
+            return null;
+        });
+        long migrated = 0;
+        for (Object result : results) {
+            if (result instanceof Long rewritten) {
+                migrated += rewritten;
+            }
         }
-        
-        return result;
+        return migrated;
     }
 
-    private Object convertStringValue(String key, String value) {
-        try {
-            // Minutes are stored as double
-            if (key.contains("minutes") || key.equals("sum_minutes")) {
-                return Double.parseDouble(value);
-            }
-            
-            // Everything else as integer
-            return Integer.parseInt(value);
-            
-        } catch (NumberFormatException e) {
-            log.warn("Failed to convert value '{}' for key '{}', defaulting to 0", value, key);
-            return key.contains("minutes") ? 0.0 : 0;
+    private void loadScript(RedisScript<?> redisScript) {
+        byte[] script = redisScript.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+    }
+
+    private boolean isNoScriptError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Player keys, then on standalone Redis the team keys - all four with the team applied in
+     * the script, only the team-game marker without. A cluster gets the player keys only.
+     */
+    private List<String> statLineKeys(String season, LiveStatDto liveStat, boolean teamInScript) {
+        int playerBucket = RedisKeys.slotBucket(liveStat.getPlayerId());
+        List<String> keys = new ArrayList<>(STAT_LINE_KEY_COUNT);
+        keys.add(RedisKeys.playerGame(liveStat.getGameId(), liveStat.getPlayerId()));
+        keys.add(RedisKeys.playerSeason(season, liveStat.getPlayerId()));
+        keys.add(RedisKeys.playerLiveGames(liveStat.getPlayerId()));
+        keys.add(RedisKeys.dirtySeasonKeys(season, playerBucket));
+        keys.add(RedisKeys.dirtyVersion(season, playerBucket));
+        keys.addAll(leaderboardKeys(season, playerBucket));
+        if (teamInScript) {
+            int teamBucket = RedisKeys.slotBucket(liveStat.getTeamId());
+            keys.add(RedisKeys.teamSeason(season, liveStat.getTeamId()));
+            keys.add(RedisKeys.teamGame(liveStat.getTeamId(), liveStat.getGameId()));
+            keys.add(RedisKeys.dirtySeasonKeys(season, teamBucket));
+            keys.add(RedisKeys.dirtyVersion(season, teamBucket));
+        } else if (!clusterMode) {
+            keys.add(RedisKeys.teamGame(liveStat.getTeamId(), liveStat.getGameId()));
+        }
+        return keys;
+    }
+
+    // Helper methods for the leaderboards
+    private List<String> leaderboardKeys(String season, int bucket) {
+        return leaderboardKeysByBucket.computeIfAbsent(season + ":" + bucket, k -> {
+            List<String> keys = new ArrayList<>(LEADERBOARD_STATS.length * 2);
+            for (LeaderboardStat stat : LEADERBOARD_STATS) {
+                keys.add(RedisKeys.leaderboardTotal(season, stat, bucket));
+                keys.add(RedisKeys.leaderboardAverage(season, stat, bucket));
+            }
+            return List.copyOf(keys);
+        });
+    }
+
+    /**
+     * Player id of a player season key (s:2024_25:p:23:{b23} -> 23), null for team keys
+     */
+    private static String leaderboardMember(String seasonKey) {
+        String[] parts = seasonKey.split(":");
+        return parts.length == 5 && "p".equals(parts[2]) ? parts[3] : null;
+    }
+
+    /**
+     * Queue ZADDs putting a player's season totals into the leaderboards; players without
+     * a game are left out
+     */
+    private void addToLeaderboards(RedisConnection connection, String seasonKey, SeasonTotals stats) {
+        String playerId = leaderboardMember(seasonKey);
+        if (playerId == null || stats.getGamesPlayed() == 0) {
+            return;
         }
+        byte[] member = playerId.getBytes(StandardCharsets.UTF_8);
+        List<String> keys = leaderboardKeys(seasonKey.split(":")[1], RedisKeys.slotBucketOf(seasonKey));
+        for (int i = 0; i < LEADERBOARD_STATS.length; i++) {
+            double total = LEADERBOARD_STATS[i].totalOf(stats);
+            connection.zSetCommands().zAdd(keys.get(2 * i).getBytes(StandardCharsets.UTF_8), total, member);
+            connection.zSetCommands().zAdd(keys.get(2 * i + 1).getBytes(StandardCharsets.UTF_8),
+                    total / stats.getGamesPlayed(), member);
+        }
+    }
+
+    private long liveGameExpiry() {
+        return System.currentTimeMillis() + TimeUnit.HOURS.toMillis(GAME_STATS_TTL_HOURS);
+    }
+
+    private byte[][] statLineKeysAndArgs(List<String> keys, LiveStatDto liveStat) {
+        Object[] args = statLineArgs(liveStat);
+        byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+        int i = 0;
+        for (String key : keys) {
+            keysAndArgs[i++] = key.getBytes(StandardCharsets.UTF_8);
+        }
+        for (Object arg : args) {
+            keysAndArgs[i++] = ((String) arg).getBytes(StandardCharsets.UTF_8);
+        }
+        return keysAndArgs;
+    }
+
+    private Object[] statLineArgs(LiveStatDto liveStat) {
+        return new Object[] {
+                String.valueOf(GAME_STATS_TTL_SECONDS),
+                String.valueOf(liveStat.getGameId()),
+                String.valueOf(liveStat.getTeamId()),
+                String.valueOf(liveStat.getPlayerId()),
+                String.valueOf(liveStat.getPoints()),
+                String.valueOf(liveStat.getRebounds()),
+                String.valueOf(liveStat.getAssists()),
+                String.valueOf(liveStat.getSteals()),
+                String.valueOf(liveStat.getBlocks()),
+                String.valueOf(liveStat.getFouls()),
+                String.valueOf(liveStat.getTurnovers()),
+                String.valueOf(SeasonTotalsCodec.toSeconds(liveStat.getMinutesPlayed())),
+                String.valueOf(liveGameExpiry()),
+                RedisKeys.seasonStatsChannel()
+        };
+    }
+
+    private StatLineResult toStatLineResult(List<Object> raw) {
+        boolean firstPlayerLine = RedisValueConverter.convertToInt(raw.get(0)) == 1;
+        PlayerStatsDelta delta = new PlayerStatsDelta(
+                RedisValueConverter.convertToInt(raw.get(2)),
+                RedisValueConverter.convertToInt(raw.get(3)),
+                RedisValueConverter.convertToInt(raw.get(4)),
+                RedisValueConverter.convertToInt(raw.get(5)),
+                RedisValueConverter.convertToInt(raw.get(6)),
+                RedisValueConverter.convertToInt(raw.get(7)),
+                RedisValueConverter.convertToInt(raw.get(8)),
+                SeasonTotalsCodec.toMinutes(RedisValueConverter.convertToInt(raw.get(9))),
+                firstPlayerLine ? 1 : 0);
+        return new StatLineResult(firstPlayerLine, RedisValueConverter.convertToInt(raw.get(1)) == 1, delta);
+    }
+
+    private LiveStatDto toFinalLine(int gameId, int playerId, List<Object> raw) {
+        return LiveStatDto.builder()
+                .gameId(gameId)
+                .playerId(playerId)
+                .teamId(RedisValueConverter.convertToInt(raw.get(0)))
+                .points(RedisValueConverter.convertToInt(raw.get(1)))
+                .rebounds(RedisValueConverter.convertToInt(raw.get(2)))
+                .assists(RedisValueConverter.convertToInt(raw.get(3)))
+                .steals(RedisValueConverter.convertToInt(raw.get(4)))
+                .blocks(RedisValueConverter.convertToInt(raw.get(5)))
+                .fouls(RedisValueConverter.convertToInt(raw.get(6)))
+                .turnovers(RedisValueConverter.convertToInt(raw.get(7)))
+                .minutesPlayed(SeasonTotalsCodec.toMinutes(RedisValueConverter.convertToInt(raw.get(8))))
+                .build();
+    }
+
+    // Helper methods for conversion
+    private Map<String, String> convertToGameStatsMap(LiveStatDto liveStat) {
+        return Map.ofEntries(
+                Map.entry(RedisFields.TEAM_ID, String.valueOf(liveStat.getTeamId())),
+                Map.entry(RedisFields.POINTS, String.valueOf(liveStat.getPoints())),
+                Map.entry(RedisFields.REBOUNDS, String.valueOf(liveStat.getRebounds())),
+                Map.entry(RedisFields.ASSISTS, String.valueOf(liveStat.getAssists())),
+                Map.entry(RedisFields.STEALS, String.valueOf(liveStat.getSteals())),
+                Map.entry(RedisFields.BLOCKS, String.valueOf(liveStat.getBlocks())),
+                Map.entry(RedisFields.FOULS, String.valueOf(liveStat.getFouls())),
+                Map.entry(RedisFields.TURNOVERS, String.valueOf(liveStat.getTurnovers())),
+                Map.entry(RedisFields.SECONDS_PLAYED,
+                        String.valueOf(SeasonTotalsCodec.toSeconds(liveStat.getMinutesPlayed())))
+        );
+    }
+
+    /**
+     * Snapshot hash of g:{gameId}:p:{playerId}:{bN} back into a line
+     */
+    private LiveStatDto convertToLiveStat(String gameKey, Map<Object, Object> rawStats) {
+        String[] keyParts = gameKey.split(":");
+        return LiveStatDto.builder()
+                .gameId(Integer.parseInt(keyParts[1]))
+                .teamId(getIntFromMap(rawStats, RedisFields.TEAM_ID))
+                .playerId(Integer.parseInt(keyParts[3]))
+                .points(getIntFromMap(rawStats, RedisFields.POINTS))
+                .rebounds(getIntFromMap(rawStats, RedisFields.REBOUNDS))
+                .assists(getIntFromMap(rawStats, RedisFields.ASSISTS))
+                .steals(getIntFromMap(rawStats, RedisFields.STEALS))
+                .blocks(getIntFromMap(rawStats, RedisFields.BLOCKS))
+                .fouls(getIntFromMap(rawStats, RedisFields.FOULS))
+                .turnovers(getIntFromMap(rawStats, RedisFields.TURNOVERS))
+                .minutesPlayed(SeasonTotalsCodec.toMinutes(getIntFromMap(rawStats, RedisFields.SECONDS_PLAYED)))
+                .build();
     }
 
     private int getIntFromMap(Map<Object, Object> map, String key) {
@@ -401,22 +1330,4 @@ public class RedisStatsRepository {
             return 0;
         }
     }
-
-    private double getDoubleFromMap(Map<Object, Object> map, String key) {
-        Object value = map.get(key);
-        if (value == null) return 0.0;
-        
-        try {
-            if (value instanceof String) {
-                return Double.parseDouble((String) value);
-            }
-            if (value instanceof Number) {
-                return ((Number) value).doubleValue();
-            }
-            return Double.parseDouble(value.toString());
-        } catch (NumberFormatException e) {
-            log.warn("Failed to convert '{}' to double for key '{}'", value, key);
-            return 0.0;
-        }
-    }
 }
\ No newline at end of file
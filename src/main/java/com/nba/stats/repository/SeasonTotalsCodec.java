@@ -0,0 +1,137 @@
+package com.nba.stats.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.nba.stats.constants.RedisFields;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.util.RedisValueConverter;
+
+/**
+ * Reads and writes season hashes as raw bytes: HMGET of a fixed field list decoded positionally
+ * into {@link SeasonTotals}, so reads build no intermediate map and no boxed values.
+ * Minutes live in the hash as whole seconds; {@link SeasonTotals} keeps them in minutes.
+ */
+final class SeasonTotalsCodec {
+
+    // Order of the HMGET fields and of the values decode() expects
+    private static final String[] FIELD_NAMES = {
+            RedisFields.GAMES_PLAYED,
+            RedisFields.POINTS,
+            RedisFields.REBOUNDS,
+            RedisFields.ASSISTS,
+            RedisFields.STEALS,
+            RedisFields.BLOCKS,
+            RedisFields.FOULS,
+            RedisFields.TURNOVERS,
+            RedisFields.SECONDS_PLAYED
+    };
+    private static final byte[][] FIELDS = new byte[FIELD_NAMES.length][];
+
+    // Longest digit run that always fits in a long
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final double SECONDS_PER_MINUTE = 60.0;
+
+    static {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            FIELDS[i] = FIELD_NAMES[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private SeasonTotalsCodec() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Field names for HMGET, in decode order - shared, do not modify
+     */
+    static byte[][] fields() {
+        return FIELDS;
+    }
+
+    /**
+     * Totals from HMGET values in {@link #fields()} order, or null when the hash does not exist
+     * (every value missing). Missing single fields count as 0.
+     */
+    static SeasonTotals decode(List<?> values) {
+        if (values == null || isAllNull(values)) {
+            return null;
+        }
+        return new SeasonTotals(
+                parseInt(values.get(0)),
+                parseInt(values.get(1)),
+                parseInt(values.get(2)),
+                parseInt(values.get(3)),
+                parseInt(values.get(4)),
+                parseInt(values.get(5)),
+                parseInt(values.get(6)),
+                parseInt(values.get(7)),
+                toMinutes(parseInt(values.get(8))));
+    }
+
+    /**
+     * Hash fields for HMSET
+     */
+    static Map<byte[], byte[]> encode(SeasonTotals totals) {
+        Map<byte[], byte[]> hash = new LinkedHashMap<>();
+        hash.put(FIELDS[0], ascii(Integer.toString(totals.getGamesPlayed())));
+        hash.put(FIELDS[1], ascii(Integer.toString(totals.getSumPoints())));
+        hash.put(FIELDS[2], ascii(Integer.toString(totals.getSumRebounds())));
+        hash.put(FIELDS[3], ascii(Integer.toString(totals.getSumAssists())));
+        hash.put(FIELDS[4], ascii(Integer.toString(totals.getSumSteals())));
+        hash.put(FIELDS[5], ascii(Integer.toString(totals.getSumBlocks())));
+        hash.put(FIELDS[6], ascii(Integer.toString(totals.getSumFouls())));
+        hash.put(FIELDS[7], ascii(Integer.toString(totals.getSumTurnovers())));
+        hash.put(FIELDS[8], ascii(Long.toString(toSeconds(totals.getSumMinutes()))));
+        return hash;
+    }
+
+    /**
+     * Minutes as the whole seconds stored in Redis - the scripts only ever add integers,
+     * so sums do not drift the way HINCRBYFLOAT on decimal minutes did
+     */
+    static long toSeconds(double minutes) {
+        return Math.round(minutes * SECONDS_PER_MINUTE);
+    }
+
+    static double toMinutes(long seconds) {
+        return seconds / SECONDS_PER_MINUTE;
+    }
+
+    private static boolean isAllNull(List<?> values) {
+        for (Object value : values) {
+            if (value != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Integer straight from the ASCII digits; anything unusual goes through the lenient converter
+     */
+    private static int parseInt(Object value) {
+        if (!(value instanceof byte[] bytes)) {
+            return RedisValueConverter.convertToInt(value);
+        }
+        int i = bytes.length > 0 && bytes[0] == '-' ? 1 : 0;
+        if (i == bytes.length || bytes.length - i > MAX_FAST_DIGITS) {
+            return RedisValueConverter.convertToInt(new String(bytes, StandardCharsets.US_ASCII));
+        }
+        long result = 0;
+        for (; i < bytes.length; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return RedisValueConverter.convertToInt(new String(bytes, StandardCharsets.US_ASCII));
+            }
+            result = result * 10 + digit;
+        }
+        return (int) (bytes[0] == '-' ? -result : result);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
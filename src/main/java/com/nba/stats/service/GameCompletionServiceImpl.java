@@ -1,11 +1,27 @@
 package com.nba.stats.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.event.PostIngestEventBus;
+import com.nba.stats.repository.DbStatsRepository;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -13,15 +29,26 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @RequiredArgsConstructor
 public class GameCompletionServiceImpl implements GameSubscriptionService, GameCompletionManager {
+
+    // Upper bound for the game's pending subscriptions to be written before completing it
+    private static final long SUBSCRIPTION_FLUSH_TIMEOUT_MS = 5_000;
     
     private final StringRedisTemplate redisTemplate;
+    private final RedisStatsRepository redisStatsRepository;
+    private final DbStatsRepository dbStatsRepository;
+    private final PostIngestEventBus eventBus;
+    private final ScheduledSyncService scheduledSyncService;
+    private final Optional<SeasonDeltaCoalescer> seasonDeltaCoalescer; // present with nba.write-behind.enabled
+
+    @Value("${nba.current-season}")
+    private String currentSeason;
     
     /**
      * Subscribe player to game completion - store in Redis for tracking
      */
     @Override
 	public void subscribePlayerToGame(int playerId, int gameId) {
-        String gameSubscriptionKey = "game:" + gameId + ":players";
+        String gameSubscriptionKey = RedisKeys.gamePlayers(gameId);
         
         // Just add player to the set of players in this game
         redisTemplate.opsForSet().add(gameSubscriptionKey, String.valueOf(playerId));
@@ -29,54 +56,86 @@ public class GameCompletionServiceImpl implements GameSubscriptionService, GameC
         
         log.debug("Added player {} to game {} tracking", playerId, gameId);
     }
+
+    /**
+     * Subscribe several players of several games in one pipelined round trip
+     */
+    @Override
+    public void subscribePlayersToGames(Map<Integer, ? extends Collection<Integer>> playerIdsByGame) {
+        long ttlSeconds = TimeUnit.HOURS.toSeconds(4);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            playerIdsByGame.forEach((gameId, playerIds) -> {
+                byte[] gameSubscriptionKey = RedisKeys.gamePlayers(gameId).getBytes(StandardCharsets.UTF_8);
+                byte[][] members = playerIds.stream()
+                        .map(playerId -> String.valueOf(playerId).getBytes(StandardCharsets.UTF_8))
+                        .toArray(byte[][]::new);
+                connection.setCommands().sAdd(gameSubscriptionKey, members);
+                connection.keyCommands().expire(gameSubscriptionKey, ttlSeconds);
+            });
+            return null;
+        });
+
+        log.debug("Added players of {} games to game tracking", playerIdsByGame.size());
+    }
     
     /**
-     * Mark game as completed - update ALL player game snapshots
+     * Mark game as completed: one pipelined round trip finishes every player's game snapshot,
+     * live-game index entry and recent-games window sums, the final lines are stored as the game's box score in one JDBC batch,
+     * then the game's player and team season keys are queued for a priority sync so the final
+     * totals reach the database within seconds. The game's player set is dropped only once the
+     * box score is stored, so completing the game again retries a failed batch.
      */
     @Override
 	public void markGameAsCompleted(int gameId) {
-        String gameSubscriptionKey = "game:" + gameId + ":players";
+        String gameSubscriptionKey = RedisKeys.gamePlayers(gameId);
+
+        // Subscriptions are written by the post-ingest bus - let this game's pending ones land first
+        if (!eventBus.flush(gameId, SUBSCRIPTION_FLUSH_TIMEOUT_MS)) {
+            log.warn("Completing game {} before all of its pending subscriptions were written", gameId);
+        }
         
         // Get all players who participated in this game
-        Set<String> playerIds = redisTemplate.opsForSet().members(gameSubscriptionKey);
+        Set<String> members = redisTemplate.opsForSet().members(gameSubscriptionKey);
         
-        if (playerIds == null || playerIds.isEmpty()) {
+        if (members == null || members.isEmpty()) {
             log.info("Game {} completed but no players found", gameId);
             return;
         }
+        List<Integer> playerIds = members.stream().map(Integer::parseInt).toList();
         
         log.info("Marking game {} as completed for {} players", gameId, playerIds.size());
-        
-        // Update each player's game snapshot to mark game as FINISHED
-        for (String playerIdStr : playerIds) {
-            int playerId = Integer.parseInt(playerIdStr);
-            markPlayerGameAsFinished(playerId, gameId);
+        List<LiveStatDto> finalLines = redisStatsRepository.finishGame(currentSeason, gameId, playerIds);
+        if (persistBoxScore(gameId, finalLines.stream().filter(Objects::nonNull).toList())) {
+            redisTemplate.delete(gameSubscriptionKey);
         }
+
+        // Pending team deltas first, so the synced team totals include the whole game
+        seasonDeltaCoalescer.ifPresent(SeasonDeltaCoalescer::flushAll);
+        Set<String> seasonKeys = new LinkedHashSet<>();
+        for (int i = 0; i < playerIds.size(); i++) {
+            seasonKeys.add(RedisKeys.playerSeason(currentSeason, playerIds.get(i)));
+            if (finalLines.get(i) != null) {
+                seasonKeys.add(RedisKeys.teamSeason(currentSeason, finalLines.get(i).getTeamId()));
+            }
+        }
+        scheduledSyncService.requestPrioritySync(seasonKeys);
         
-        // Clean up the tracking set
-        redisTemplate.delete(gameSubscriptionKey);
-        
-        log.info("Game {} marked as completed for all players", gameId);
+        log.info("Game {} marked as completed for all players, {} season keys queued for sync", gameId, seasonKeys.size());
     }
-    
+
     /**
-     * Update the specific player's game snapshot to mark as finished
+     * Store the game's final lines in stat_player_game. A failure does not fail the completion -
+     * the player set and finished snapshots stay in Redis until their TTL, and completing the game
+     * again reads the same final lines and retries. Returns whether the lines were stored.
      */
-    private void markPlayerGameAsFinished(int playerId, int gameId) {
-        String gameKey = "g:%d:p:%d".formatted(gameId, playerId);
-        
-        // Check if the game snapshot exists
-        if (!Boolean.TRUE.equals(redisTemplate.hasKey(gameKey))) {
-            log.debug("No game snapshot found for player {} in game {}", playerId, gameId);
-            return;
+    private boolean persistBoxScore(int gameId, List<LiveStatDto> finalLines) {
+        try {
+            dbStatsRepository.upsertPlayerGameLines(currentSeason, finalLines);
+            return true;
+        } catch (DataAccessException e) {
+            log.error("Failed to store box score of game {} ({} lines), complete it again to retry",
+                    gameId, finalLines.size(), e);
+            return false;
         }
-        
-        // Update the game snapshot to mark as FINISHED
-        redisTemplate.opsForHash().put(gameKey, "gameStatus", "FINISHED");
-        
-        // Keep the TTL for cleanup, but now we have explicit status
-        // The TTL is just for cleanup, not for determining if game is live
-        
-        log.debug("Marked game {} as FINISHED for player {}", gameId, playerId);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,10 @@
 package com.nba.stats.service;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface GameSubscriptionService {
 	void subscribePlayerToGame(int playerId, int gameId);
+
+	void subscribePlayersToGames(Map<Integer, ? extends Collection<Integer>> playerIdsByGame);
 }
@@ -0,0 +1,175 @@
+package com.nba.stats.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.nba.stats.util.ConsistentHashRing;
+import com.nba.stats.util.RedisKeys;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Membership of the instances taking part in partitioned ingest, and which of them owns a game.
+ *
+ * Each instance holds a lease in Redis: its URL in a sorted set scored by lease expiry, renewed
+ * every heartbeat. Members whose lease ran out are dropped on the next heartbeat of any instance,
+ * so a crashed instance loses its games after at most one lease TTL. Games are assigned to the
+ * live members by a consistent hash ring of the game id - a member joining or leaving only moves
+ * its own share of the games. Expiry scores come from each instance's clock, so clock skew
+ * between instances must stay well below the lease TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "nba.ingest.partitioned.enabled", havingValue = "true")
+@Slf4j
+public class IngestMembership implements SmartLifecycle {
+
+    // Join once the web server takes requests (forwards may arrive right away), leave before it stops
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE;
+
+    private final StringRedisTemplate redisTemplate;
+    private final Environment environment;
+    private final String configuredNodeUrl;
+    private final long leaseTtlMs;
+    private final int virtualNodes;
+    private volatile String nodeUrl;
+    private volatile ConsistentHashRing ring;
+    private volatile boolean running;
+
+    public IngestMembership(
+            StringRedisTemplate redisTemplate,
+            Environment environment,
+            @Value("${nba.ingest.partitioned.node-url:}") String configuredNodeUrl,
+            @Value("${nba.ingest.partitioned.lease-ttl-ms:10000}") long leaseTtlMs,
+            @Value("${nba.ingest.partitioned.virtual-nodes:128}") int virtualNodes) {
+
+        this.redisTemplate = redisTemplate;
+        this.environment = environment;
+        this.configuredNodeUrl = configuredNodeUrl;
+        this.leaseTtlMs = leaseTtlMs;
+        this.virtualNodes = virtualNodes;
+        this.ring = ConsistentHashRing.of(List.of(), virtualNodes);
+    }
+
+    /**
+     * URL of the instance owning a game when that is another instance, null when it is this one -
+     * or when no membership is known yet, so ingest never stalls on Redis being unreachable
+     */
+    public String remoteOwnerOf(int gameId) {
+        String owner = ring.ownerOf(gameId);
+        return owner == null || owner.equals(nodeUrl) ? null : owner;
+    }
+
+    /**
+     * Members of the current view, this instance included once its lease is written
+     */
+    public Set<String> members() {
+        return ring.members();
+    }
+
+    public String getNodeUrl() {
+        return nodeUrl;
+    }
+
+    /**
+     * Renew this instance's lease, drop expired ones and rebuild the ring from the live members
+     */
+    @Scheduled(fixedDelayString = "${nba.ingest.partitioned.heartbeat-interval-ms:3000}")
+    public void heartbeat() {
+        if (!running) {
+            return;
+        }
+        try {
+            renewLease();
+        } catch (DataAccessException e) {
+            // Keep the last view: the other instances keep routing here until the lease runs out
+            log.warn("Failed to renew ingest lease of {}, keeping {} members: {}",
+                    nodeUrl, ring.members().size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        nodeUrl = configuredNodeUrl.isBlank() ? defaultNodeUrl() : configuredNodeUrl;
+        running = true;
+        try {
+            renewLease();
+        } catch (DataAccessException e) {
+            log.warn("Failed to join partitioned ingest as {}, retrying on the next heartbeat: {}",
+                    nodeUrl, e.getMessage());
+        }
+        log.info("Joined partitioned ingest as {} with {} members", nodeUrl, ring.members().size());
+    }
+
+    /**
+     * Give up the lease so the other instances take over this one's games right away
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            redisTemplate.opsForZSet().remove(RedisKeys.ingestMembers(), nodeUrl);
+            log.info("Left partitioned ingest as {}", nodeUrl);
+        } catch (DataAccessException e) {
+            log.warn("Failed to release ingest lease of {}, it expires in {} ms: {}",
+                    nodeUrl, leaseTtlMs, e.getMessage());
+        }
+        ring = ConsistentHashRing.of(List.of(), virtualNodes);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void renewLease() {
+        String key = RedisKeys.ingestMembers();
+        long now = System.currentTimeMillis();
+
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) {
+                operations.opsForZSet().add(key, nodeUrl, now + leaseTtlMs);
+                operations.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, now);
+                operations.opsForZSet().rangeByScore(key, now, Double.POSITIVE_INFINITY);
+                return null;
+            }
+        });
+
+        Set<String> members = (Set<String>) results.get(2);
+        if (!members.equals(ring.members())) {
+            log.info("Partitioned ingest members changed: {}", members);
+            ring = ConsistentHashRing.of(members, virtualNodes);
+        }
+    }
+
+    /**
+     * http://{host address}:{port}, read once the web server runs so a random port is known
+     */
+    private String defaultNodeUrl() {
+        String port = environment.getProperty("local.server.port", environment.getProperty("server.port", "8080"));
+        try {
+            return "http://" + InetAddress.getLocalHost().getHostAddress() + ":" + port;
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot resolve the host address, set nba.ingest.partitioned.node-url", e);
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package com.nba.stats.service;
 
+import java.util.List;
+
 import com.nba.stats.dto.LiveStatDto;
 
 public interface LiveStatService {
     void processLiveStat(LiveStatDto stat);
+
+    /**
+     * Process a batch of cumulative stat lines; only the newest line per (game, player) is applied
+     */
+    void processLiveStats(List<LiveStatDto> stats);
+
+    /**
+     * Apply lines recovered from the write-ahead log at startup, like a batch but without logging them again
+     */
+    void replayLiveStats(List<LiveStatDto> stats);
 }
 
@@ -1,17 +1,32 @@
 package com.nba.stats.service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.nba.stats.dto.LiveStatDto;
 import com.nba.stats.dto.PlayerStatsDelta;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.dto.StatLineResult;
 import com.nba.stats.event.FirstPlayerStatEvent;
+import com.nba.stats.event.PostIngestEventBus;
 import com.nba.stats.repository.DbStatsRepository;
 import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
+import com.nba.stats.wal.WriteAheadLog;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -20,101 +35,197 @@ public class LiveStatServiceImpl implements LiveStatService {
 
     private final DbStatsRepository playerStatsRepository;
     private final RedisStatsRepository redisStatsRepository;
-    private final ApplicationEventPublisher eventPublisher; // Spring event publisher
+    private final PostIngestEventBus eventBus; // side effects after the aggregates are written
     private final String currentSeason;
+    private final SeasonDeltaCoalescer seasonDeltaCoalescer; // null unless nba.write-behind.enabled
+    private final WriteAheadLog writeAheadLog; // null unless nba.wal.enabled
+    private final IngestMetrics singleLineMetrics;
+    private final IngestMetrics batchMetrics;
 
     /** Constructor required because of `@Value` + final */
     public LiveStatServiceImpl(
             DbStatsRepository playerStatsRepository,
             RedisStatsRepository redisStatsRepository,
-            ApplicationEventPublisher eventPublisher,
-            @Value("${nba.current-season}") String currentSeason) {
+            PostIngestEventBus eventBus,
+            @Value("${nba.current-season}") String currentSeason,
+            Optional<SeasonDeltaCoalescer> seasonDeltaCoalescer,
+            Optional<WriteAheadLog> writeAheadLog,
+            MeterRegistry meterRegistry) {
 
         this.playerStatsRepository = playerStatsRepository;
         this.redisStatsRepository = redisStatsRepository;
-        this.eventPublisher = eventPublisher;
+        this.eventBus = eventBus;
         this.currentSeason = currentSeason; // final now safe
+        this.seasonDeltaCoalescer = seasonDeltaCoalescer.orElse(null);
+        this.writeAheadLog = writeAheadLog.orElse(null);
+        this.singleLineMetrics = IngestMetrics.register(meterRegistry, "single");
+        this.batchMetrics = IngestMetrics.register(meterRegistry, "batch");
     }
 
     @Override
     public void processLiveStat(LiveStatDto liveStat) {
-        // Step 1: Update player stats and get delta
-        PlayerStatsDelta delta = updatePlayerStats(liveStat);
+        if (writeAheadLog == null) {
+            applyLiveStat(liveStat);
+            return;
+        }
+        // Logged before it is applied - after a Redis loss the line is replayed from the log
+        long sequence = writeAheadLog.append(liveStat);
+        writeAheadLog.apply(sequence, List.of(liveStat), () -> applyLiveStat(liveStat));
+    }
+
+    @Override
+    public void processLiveStats(List<LiveStatDto> liveStats) {
+        Map<String, LiveStatDto> latestLines = coalesce(liveStats);
+        if (latestLines.isEmpty()) {
+            return;
+        }
+        if (writeAheadLog == null) {
+            applyLiveStats(latestLines, liveStats.size());
+            return;
+        }
+        long firstSequence = writeAheadLog.appendAll(latestLines.values());
+        writeAheadLog.apply(firstSequence, latestLines.values(), () -> applyLiveStats(latestLines, liveStats.size()));
+    }
+
+    @Override
+    public void replayLiveStats(List<LiveStatDto> liveStats) {
+        Map<String, LiveStatDto> latestLines = coalesce(liveStats);
+        if (!latestLines.isEmpty()) {
+            applyLiveStats(latestLines, liveStats.size());
+        }
+    }
+
+    private void applyLiveStat(LiveStatDto liveStat) {
+        IngestMetrics metrics = singleLineMetrics;
+        Timer.Sample request = Timer.start();
+
+        // Step 1: Ensure player and team season stats are loaded in Redis
+        metrics.seasonLoad.record(() -> {
+            ensurePlayerSeasonStatsLoaded(getPlayerSeasonKey(liveStat.getPlayerId()), liveStat.getPlayerId());
+            ensureTeamSeasonStatsLoaded(getTeamSeasonKey(liveStat.getTeamId()), liveStat.getTeamId());
+        });
 
-        // Step 2: Update team stats using the same delta
-        updateTeamStats(liveStat.getTeamId(), delta, liveStat.getGameId());
-        
+        // Step 2: Delta, player + team increments and snapshot in one atomic script call
+        // (team increment deferred to the write-behind coalescer when it is enabled)
+        StatLineResult result = metrics.statLine.record(
+                () -> redisStatsRepository.applyStatLine(currentSeason, liveStat, !isWriteBehindEnabled()));
+        handleStatLineResult(liveStat, result, metrics);
+
+        metrics.lines.increment();
+        request.stop(metrics.total);
         log.info("Processed live stat for player {} in game {}", liveStat.getPlayerId(), liveStat.getGameId());
     }
 
     /**
-     * Update player statistics and return the delta
+     * Lines are cumulative, so the newest one per (game, player) wins
      */
-    private PlayerStatsDelta updatePlayerStats(LiveStatDto liveStat) {
-        String seasonKey = getPlayerSeasonKey(liveStat.getPlayerId());
-        String gameKey = getPlayerGameKey(liveStat.getPlayerId(), liveStat.getGameId());
+    private Map<String, LiveStatDto> coalesce(List<LiveStatDto> liveStats) {
+        Map<String, LiveStatDto> latestLines = new LinkedHashMap<>();
+        for (LiveStatDto liveStat : liveStats) {
+            latestLines.put(getPlayerGameKey(liveStat.getPlayerId(), liveStat.getGameId()), liveStat);
+        }
+        return latestLines;
+    }
 
-       
-        ensurePlayerSeasonStatsLoaded(seasonKey, liveStat.getPlayerId());
+    private void applyLiveStats(Map<String, LiveStatDto> latestLines, int received) {
+        IngestMetrics metrics = batchMetrics;
+        Timer.Sample request = Timer.start();
 
-        // Get previous game stats for delta calculation
-        LiveStatDto previousStats = redisStatsRepository.getPreviousGameStats(gameKey);
-        
-     // Publish event if this is first stat for this player in this game
-        if (previousStats == null) {
-            eventPublisher.publishEvent(new FirstPlayerStatEvent(
-                liveStat.getPlayerId(), 
-                liveStat.getGameId()
-            ));
-            log.debug("Published FirstPlayerStatEvent for player {} in game {}", 
-                     liveStat.getPlayerId(), liveStat.getGameId());
+        // Step 1: Make sure every touched season hash is in Redis
+        metrics.seasonLoad.record(() -> ensureSeasonStatsLoaded(latestLines.values()));
+
+        // Step 2: One pipelined script call per line - a single round trip for the batch
+        List<StatLineResult> results = metrics.statLine.record(() -> redisStatsRepository.applyStatLines(
+                currentSeason, latestLines.values(), !isWriteBehindEnabled()));
+        Iterator<StatLineResult> resultIterator = results.iterator();
+        for (LiveStatDto liveStat : latestLines.values()) {
+            handleStatLineResult(liveStat, resultIterator.next(), metrics);
         }
-        
 
-        // Calculate delta
-        PlayerStatsDelta delta = calculateDelta(previousStats, liveStat);
+        metrics.lines.increment(latestLines.size());
+        request.stop(metrics.total);
+        log.info("Processed batch of {} live stats ({} after coalescing)", received, latestLines.size());
+    }
 
-        // Update season aggregates with delta
-        redisStatsRepository.updateSeasonAggregates(seasonKey, delta);
-        // Store current game stats for next delta calculation
-        redisStatsRepository.storeCurrentGameStats(gameKey, liveStat);
+    /**
+     * Follow-up work for an applied line: hand the team delta to the write-behind stage when enabled,
+     * subscribe the player on their first line in the game
+     */
+    private void handleStatLineResult(LiveStatDto liveStat, StatLineResult result, IngestMetrics metrics) {
+        if (isWriteBehindEnabled()) {
+            metrics.teamWriteBehind.record(() -> coalesceTeamDelta(liveStat, result));
+        }
+        if (result.isFirstPlayerLine()) {
+            publishFirstPlayerStat(liveStat);
+        }
+        if (result.isFirstTeamLine()) {
+            log.debug("First player processed for team {} in game {} - incremented team games",
+                    liveStat.getTeamId(), liveStat.getGameId());
+        }
+    }
 
-        return delta;
+    /**
+     * The team season hash gets the player's delta, but counts the game once per team, not per player
+     */
+    private void coalesceTeamDelta(LiveStatDto liveStat, StatLineResult result) {
+        PlayerStatsDelta delta = result.getDelta();
+        seasonDeltaCoalescer.add(currentSeason, getTeamSeasonKey(liveStat.getTeamId()), new PlayerStatsDelta(
+                delta.getPoints(),
+                delta.getRebounds(),
+                delta.getAssists(),
+                delta.getSteals(),
+                delta.getBlocks(),
+                delta.getFouls(),
+                delta.getTurnovers(),
+                delta.getMinutesPlayed(),
+                result.isFirstTeamLine() ? 1 : 0));
+    }
+
+    private boolean isWriteBehindEnabled() {
+        return seasonDeltaCoalescer != null;
+    }
+
+    /**
+     * Publish that this player sent their first stat line for this game - the subscription
+     * is written by the event bus, off the ingest thread
+     */
+    private void publishFirstPlayerStat(LiveStatDto liveStat) {
+        eventBus.publish(new FirstPlayerStatEvent(
+            liveStat.getPlayerId(), 
+            liveStat.getGameId()
+        ));
+        log.debug("Published FirstPlayerStatEvent for player {} in game {}", 
+                 liveStat.getPlayerId(), liveStat.getGameId());
     }
 
     /**
-     * Update team statistics using player delta with proper game counting
+     * Batch variant of the ensure-loaded checks: one pipelined existence check for all
+     * player and team season keys, DB reads only for the missing ones, one pipelined store
      */
-    private void updateTeamStats(int teamId, PlayerStatsDelta delta, int gameId) {
-        String teamSeasonKey = getTeamSeasonKey(teamId);
-        String teamGameKey = "team_game:" + teamId + ":" + gameId;
-
-        // Ensure team stats are loaded in Redis
-        ensureTeamSeasonStatsLoaded(teamSeasonKey, teamId);
-
-        // Check if this is the first player processed for this team in this game
-        boolean isFirstPlayerInGame = !redisStatsRepository.seasonStatsExist(teamGameKey);
-
-        // Create team delta
-        PlayerStatsDelta teamDelta = new PlayerStatsDelta(
-            delta.getPoints(),
-            delta.getRebounds(),
-            delta.getAssists(),
-            delta.getSteals(),
-            delta.getBlocks(),
-            delta.getFouls(),
-            delta.getTurnovers(),
-            delta.getMinutesPlayed(),
-            isFirstPlayerInGame ? 1 : 0  //Only count game once per team
-        );
-
-        // Update team aggregates
-        redisStatsRepository.updateSeasonAggregates(teamSeasonKey, teamDelta);
-        // Mark this team-game combination as processed
-        if (isFirstPlayerInGame) {
-        	redisStatsRepository.markTeamGameProcessed(teamId, gameId);
-            log.debug("First player processed for team {} in game {} - incremented team games", teamId, gameId);
-        } 
+    private void ensureSeasonStatsLoaded(Collection<LiveStatDto> liveStats) {
+        Map<String, Integer> playerIdBySeasonKey = new HashMap<>();
+        Map<String, Integer> teamIdBySeasonKey = new HashMap<>();
+        for (LiveStatDto liveStat : liveStats) {
+            playerIdBySeasonKey.put(getPlayerSeasonKey(liveStat.getPlayerId()), liveStat.getPlayerId());
+            teamIdBySeasonKey.put(getTeamSeasonKey(liveStat.getTeamId()), liveStat.getTeamId());
+        }
+
+        Set<String> allSeasonKeys = new HashSet<>(playerIdBySeasonKey.keySet());
+        allSeasonKeys.addAll(teamIdBySeasonKey.keySet());
+        allSeasonKeys.removeAll(redisStatsRepository.findExistingKeys(allSeasonKeys));
+        if (allSeasonKeys.isEmpty()) {
+            return;
+        }
+
+        Map<String, SeasonTotals> missingStats = new HashMap<>();
+        for (String seasonKey : allSeasonKeys) {
+            Integer playerId = playerIdBySeasonKey.get(seasonKey);
+            missingStats.put(seasonKey, playerId != null
+                    ? playerStatsRepository.getPlayerSeasonStats(playerId, currentSeason)
+                    : playerStatsRepository.getTeamSeasonStats(teamIdBySeasonKey.get(seasonKey), currentSeason));
+        }
+        redisStatsRepository.storeAllSeasonStats(missingStats);
+        log.debug("Loaded {} missing season stats into Redis", missingStats.size());
     }
 
     /**
@@ -122,7 +233,7 @@ public class LiveStatServiceImpl implements LiveStatService {
      */
     private void ensurePlayerSeasonStatsLoaded(String seasonKey, int playerId) {
         if (!redisStatsRepository.seasonStatsExist(seasonKey)) {
-            Map<String, Object> stats = playerStatsRepository.getPlayerSeasonStats(playerId, currentSeason);
+            SeasonTotals stats = playerStatsRepository.getPlayerSeasonStats(playerId, currentSeason);
             redisStatsRepository.storeSeasonStats(seasonKey, stats);
             log.debug("Loaded season stats for player {} into Redis", playerId);
         }
@@ -134,65 +245,61 @@ public class LiveStatServiceImpl implements LiveStatService {
     private void ensureTeamSeasonStatsLoaded(String teamSeasonKey, int teamId) {
         if (!redisStatsRepository.seasonStatsExist(teamSeasonKey)) {
             // Assuming you have this method in PlayerStatsRepository
-            Map<String, Object> stats = playerStatsRepository.getTeamSeasonStats(teamId,currentSeason);
+            SeasonTotals stats = playerStatsRepository.getTeamSeasonStats(teamId,currentSeason);
             redisStatsRepository.storeSeasonStats(teamSeasonKey, stats);
             log.debug("Loaded season stats for team {} into Redis", teamId);
         }
     }
 
-    /**
-     * Calculate delta between previous and current stats 
-     */
-    private PlayerStatsDelta calculateDelta(LiveStatDto previous, LiveStatDto current) {
-        if (previous == null) {
-            // First update for this game - return current stats as delta
-            return new PlayerStatsDelta(
-                current.getPoints(),
-                current.getRebounds(),
-                current.getAssists(),
-                current.getSteals(),       
-                current.getBlocks(),       
-                current.getFouls(),        
-                current.getTurnovers(),   
-                current.getMinutesPlayed(),
-                1
-            );
-        }
-
-        // Calculate difference between current and previous
-        return new PlayerStatsDelta(
-            current.getPoints() - previous.getPoints(),
-            current.getRebounds() - previous.getRebounds(),
-            current.getAssists() - previous.getAssists(),
-            current.getSteals() - previous.getSteals(), 
-            current.getBlocks() - previous.getBlocks(), 
-            current.getFouls() - previous.getFouls(),   
-            current.getTurnovers() - previous.getTurnovers(),
-            current.getMinutesPlayed() - previous.getMinutesPlayed(),
-            0
-        );
-    }
-
     /**
      * Generate Redis key for player season stats
      */
     private String getPlayerSeasonKey(int playerId) {
-        // e.g. s:24_25:p:23 (slashes replaced)
-        return "s:%s:p:%d".formatted(currentSeason.replace('/', '_'), playerId);
+        return RedisKeys.playerSeason(currentSeason, playerId);
     }
 
     /**
      * Generate Redis key for team season stats
      */
     private String getTeamSeasonKey(int teamId) {
-        return "s:%s:t:%d".formatted(currentSeason.replace('/', '_'), teamId);
+        return RedisKeys.teamSeason(currentSeason, teamId);
     }
 
     /**
      * Generate Redis key for player game stats
      */
     private String getPlayerGameKey(int playerId, int gameId) {
-        // e.g. g:8123:p:23
-        return "g:%d:p:%d".formatted(gameId, playerId);
+        return RedisKeys.playerGame(gameId, playerId);
+    }
+
+    /**
+     * Ingest meters of one request mode (single line or batch). The stages follow processLiveStat:
+     * season_load (season hashes present in Redis, DB fallback), stat_line (the script call that reads
+     * the game snapshot, computes the delta and increments the season hashes - for a batch the whole
+     * pipeline) and team_write_behind (per line, only with write-behind, where the team update leaves the script).
+     */
+    private record IngestMetrics(Timer total, Timer seasonLoad, Timer statLine, Timer teamWriteBehind, Counter lines) {
+
+        static IngestMetrics register(MeterRegistry registry, String mode) {
+            return new IngestMetrics(
+                    Timer.builder("nba.ingest")
+                            .description("Live stat ingest requests, end to end")
+                            .tag("mode", mode)
+                            .register(registry),
+                    stageTimer(registry, mode, "season_load"),
+                    stageTimer(registry, mode, "stat_line"),
+                    stageTimer(registry, mode, "team_write_behind"),
+                    Counter.builder("nba.ingest.lines")
+                            .description("Stat lines applied (batches after coalescing)")
+                            .tag("mode", mode)
+                            .register(registry));
+        }
+
+        private static Timer stageTimer(MeterRegistry registry, String mode, String stage) {
+            return Timer.builder("nba.ingest.stage")
+                    .description("Live stat ingest, per processing stage")
+                    .tags("mode", mode, "stage", stage)
+                    .register(registry);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,216 @@
+package com.nba.stats.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.nba.stats.dto.LiveStatDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Partitioned ingest: every game is owned by one instance ({@link IngestMembership}), and the
+ * lines and completion of a game are applied there on a single writer thread - one writer per
+ * game id modulo the writer count, so a game's requests never run concurrently and keep their
+ * arrival order. Requests for games owned elsewhere are forwarded to the owner.
+ *
+ * Forwarded requests carry {@link #FORWARDED_HEADER} and are applied wherever they land, so two
+ * instances with a different view during a membership change never bounce a request between
+ * them. When the owner cannot be reached the request is applied here: lines are cumulative and
+ * every line is applied by one script call, so a line applied twice or by two instances still
+ * counts once.
+ */
+@Service
+@ConditionalOnProperty(name = "nba.ingest.partitioned.enabled", havingValue = "true")
+@Slf4j
+public class PartitionedIngestService {
+
+    public static final String FORWARDED_HEADER = "X-Ingest-Forwarded";
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final LiveStatService liveStatService;
+    private final GameCompletionManager gameCompletionManager;
+    private final IngestMembership membership;
+    private final RestTemplate restTemplate;
+    private final ExecutorService[] writers;
+    private final Counter localLines;
+    private final Counter forwardedLines;
+    private final Counter forwardFailures;
+
+    public PartitionedIngestService(
+            LiveStatService liveStatService,
+            GameCompletionManager gameCompletionManager,
+            IngestMembership membership,
+            RestTemplateBuilder restTemplateBuilder,
+            @Value("${nba.ingest.partitioned.writers:8}") int writerCount,
+            @Value("${nba.ingest.partitioned.forward-timeout-ms:2000}") long forwardTimeoutMs,
+            @Value("${nba.virtual-threads.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+
+        this.liveStatService = liveStatService;
+        this.gameCompletionManager = gameCompletionManager;
+        this.membership = membership;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(forwardTimeoutMs))
+                .setReadTimeout(Duration.ofMillis(forwardTimeoutMs))
+                .build();
+        this.writers = new ExecutorService[writerCount];
+        for (int i = 0; i < writerCount; i++) {
+            Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+            ThreadFactory factory = builder.name("game-writer-" + i).factory();
+            writers[i] = Executors.newSingleThreadExecutor(factory);
+        }
+        this.localLines = Counter.builder("nba.ingest.partitioned.lines")
+                .description("Stat lines applied by a game writer of this instance")
+                .tag("route", "local")
+                .register(meterRegistry);
+        this.forwardedLines = Counter.builder("nba.ingest.partitioned.lines")
+                .description("Stat lines forwarded to the instance owning their game")
+                .tag("route", "forwarded")
+                .register(meterRegistry);
+        this.forwardFailures = Counter.builder("nba.ingest.partitioned.forward.failures")
+                .description("Forwards to a game owner that failed and were applied here instead")
+                .register(meterRegistry);
+    }
+
+    public void processLiveStat(LiveStatDto stat, boolean forwarded) {
+        String owner = forwarded ? null : membership.remoteOwnerOf(stat.getGameId());
+        if (owner != null && forward(owner, "/stat/live/game", stat, 1)) {
+            return;
+        }
+        await(writerFor(stat.getGameId()).submit(() -> liveStatService.processLiveStat(stat)));
+        localLines.increment();
+    }
+
+    /**
+     * Split a batch by owner: one forwarded batch per other owner, and the local lines as one
+     * batch per writer so each writer still applies its games' lines in one pipelined call
+     */
+    public void processLiveStats(List<LiveStatDto> stats, boolean forwarded) {
+        Map<String, List<LiveStatDto>> byOwner = new LinkedHashMap<>();
+        Map<Integer, List<LiveStatDto>> byWriter = new LinkedHashMap<>();
+        for (LiveStatDto stat : stats) {
+            String owner = forwarded ? null : membership.remoteOwnerOf(stat.getGameId());
+            if (owner != null) {
+                byOwner.computeIfAbsent(owner, k -> new ArrayList<>()).add(stat);
+            } else {
+                byWriter.computeIfAbsent(writerIndex(stat.getGameId()), k -> new ArrayList<>()).add(stat);
+            }
+        }
+
+        for (Map.Entry<String, List<LiveStatDto>> entry : byOwner.entrySet()) {
+            List<LiveStatDto> lines = entry.getValue();
+            if (!forward(entry.getKey(), "/stat/live/game/batch", lines, lines.size())) {
+                for (LiveStatDto stat : lines) {
+                    byWriter.computeIfAbsent(writerIndex(stat.getGameId()), k -> new ArrayList<>()).add(stat);
+                }
+            }
+        }
+
+        // Submit to all writers first, then wait - the writers run in parallel
+        List<Future<?>> pending = new ArrayList<>(byWriter.size());
+        for (Map.Entry<Integer, List<LiveStatDto>> entry : byWriter.entrySet()) {
+            List<LiveStatDto> lines = entry.getValue();
+            pending.add(writers[entry.getKey()].submit(() -> liveStatService.processLiveStats(lines)));
+        }
+        for (Future<?> future : pending) {
+            await(future);
+        }
+        localLines.increment(byWriter.values().stream().mapToInt(List::size).sum());
+    }
+
+    /**
+     * Complete a game on its owner, behind every line of the game already queued on its writer
+     */
+    public void markGameAsCompleted(int gameId, boolean forwarded) {
+        String owner = forwarded ? null : membership.remoteOwnerOf(gameId);
+        if (owner != null && forward(owner, "/stat/live/game/" + gameId + "/complete", null, 0)) {
+            return;
+        }
+        await(writerFor(gameId).submit(() -> gameCompletionManager.markGameAsCompleted(gameId)));
+    }
+
+    /**
+     * Let the writers finish what is queued before the Redis connection factory is closed
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService writer : writers) {
+            writer.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        for (ExecutorService writer : writers) {
+            try {
+                if (!writer.awaitTermination(Math.max(deadline - System.currentTimeMillis(), 1), TimeUnit.MILLISECONDS)) {
+                    log.warn("Game writer did not finish its queued requests within {} ms", SHUTDOWN_TIMEOUT_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private boolean forward(String owner, String path, Object body, int lines) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(FORWARDED_HEADER, "true");
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            restTemplate.exchange(owner + path, HttpMethod.PUT, new HttpEntity<>(body, headers), Void.class);
+            forwardedLines.increment(lines);
+            return true;
+        } catch (RestClientException e) {
+            log.warn("Failed to forward {} to game owner {}, applying it here: {}", path, owner, e.getMessage());
+            forwardFailures.increment();
+            return false;
+        }
+    }
+
+    private ExecutorService writerFor(int gameId) {
+        return writers[writerIndex(gameId)];
+    }
+
+    private int writerIndex(int gameId) {
+        return Math.floorMod(gameId, writers.length);
+    }
+
+    /**
+     * Wait for a writer task and rethrow its failure on the request thread
+     */
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the game writer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Game writer failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.nba.stats.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.nba.stats.repository.RedisStatsRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rewrites Redis keys left in the legacy layout (long field names, decimal minutes) into the
+ * compact one once at startup, before the event bus and the web server start - no stat line is
+ * applied and no season hash is read while keys are still in the old layout. Already compact
+ * keys are skipped, so the scan can stay enabled until every instance runs this version.
+ */
+@Component
+@ConditionalOnProperty(name = "nba.redis.migrate-legacy-format", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class RedisFormatMigration implements SmartLifecycle {
+
+    // Before the post-ingest event bus and the web server
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private final RedisStatsRepository redisRepository;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        running = true;
+        long start = System.currentTimeMillis();
+        // Fails startup on error: a legacy hash reads as missing, and reloading it from the DB next
+        // to the legacy fields would count those twice when the migration runs again
+        long migrated = redisRepository.migrateLegacyFormat();
+        log.info("Migrated {} Redis keys to the compact format in {} ms", migrated, System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
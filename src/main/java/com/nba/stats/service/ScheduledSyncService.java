@@ -1,27 +1,58 @@
 package com.nba.stats.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.nba.stats.dto.SeasonTotals;
 import com.nba.stats.repository.DbStatsRepository;
 import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.wal.WriteAheadLog;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ScheduledSyncService {
 
     private final RedisStatsRepository redisRepository;
     private final DbStatsRepository dbRepository;
+    private final WriteAheadLog writeAheadLog; // null unless nba.wal.enabled
+    private final SeasonDeltaCoalescer seasonDeltaCoalescer; // null unless nba.write-behind.enabled
+    private final TransactionTemplate transactionTemplate;
+    private final Timer syncTimer;
+    private final Timer prioritySyncTimer;
+    private final Counter syncedKeys;
+    private final Counter failedKeys;
+    // Dirty keys seen at the start of the last run
+    private final AtomicLong backlog = new AtomicLong();
+    // Start of the last run that drained every key dirtied before it - the DB holds all changes up to here
+    private final AtomicLong lastCompleteSyncMillis = new AtomicLong(System.currentTimeMillis());
+    // Season keys of finished games, synced ahead of the regular interval
+    private final Set<String> prioritySeasonKeys = ConcurrentHashMap.newKeySet();
+    // Regular and priority runs never overlap - a slower run could otherwise write older totals last
+    private final ReentrantLock syncLock = new ReentrantLock();
     
     @Value("${nba.current-season}")
     private String currentSeason;
@@ -29,9 +60,49 @@ public class ScheduledSyncService {
     @Value("${nba.sync.enabled:true}")
     private boolean syncEnabled;
 
+    @Value("${nba.sync.batch-size:500}")
+    private int batchSize;
+
+    public ScheduledSyncService(RedisStatsRepository redisRepository, DbStatsRepository dbRepository,
+            Optional<WriteAheadLog> writeAheadLog, Optional<SeasonDeltaCoalescer> seasonDeltaCoalescer,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.redisRepository = redisRepository;
+        this.dbRepository = dbRepository;
+        this.writeAheadLog = writeAheadLog.orElse(null);
+        this.seasonDeltaCoalescer = seasonDeltaCoalescer.orElse(null);
+        this.transactionTemplate = transactionTemplate;
+        this.syncTimer = Timer.builder("nba.sync")
+                .description("Duration of a Redis to database sync run")
+                .tag("trigger", "interval")
+                .register(meterRegistry);
+        this.prioritySyncTimer = Timer.builder("nba.sync")
+                .description("Duration of a Redis to database sync run")
+                .tag("trigger", "game_final")
+                .register(meterRegistry);
+        this.syncedKeys = Counter.builder("nba.sync.keys")
+                .description("Dirty season keys handled by the sync, by whether the database write succeeded")
+                .tag("result", "synced")
+                .register(meterRegistry);
+        this.failedKeys = Counter.builder("nba.sync.keys")
+                .description("Dirty season keys handled by the sync, by whether the database write succeeded")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        Gauge.builder("nba.sync.backlog", backlog, AtomicLong::get)
+                .description("Dirty season keys waiting for the sync, at the start of the last run")
+                .register(meterRegistry);
+        Gauge.builder("nba.sync.lag", lastCompleteSyncMillis,
+                        last -> (System.currentTimeMillis() - last.get()) / 1000.0)
+                .description("Age of the oldest change that may not be in the database yet")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
     /**
      * Sync Redis season stats to database every minute (configurable)
-     * Only syncs keys that have been marked as dirty (modified since last sync)
+     * Only syncs keys that have been marked as dirty (modified since last sync).
+     * Dirty keys are drained in chunks taken from every slot bucket, oldest version first,
+     * up to each bucket's dirty version seen when the run started - keys dirtied during
+     * the run wait for the next one. With the write-ahead log, see {@link #syncToCheckpoint}.
      */
     @Scheduled(fixedRateString = "${nba.sync.interval-ms:60000}") // Default: 1 minute
     @ConditionalOnProperty(name = "nba.sync.enabled", havingValue = "true", matchIfMissing = true)
@@ -40,128 +111,241 @@ public class ScheduledSyncService {
             return;
         }
         log.debug("Starting scheduled Redis-DB sync...");
+        syncLock.lock();
+        long runStartMillis = System.currentTimeMillis();
+        Timer.Sample run = Timer.start();
         
         try {
-            // Find dirty keys (only these need syncing)
-            String dirtyPlayerPattern = "dirty:s:" + currentSeason.replace('/', '_') + ":p:*";
-            String dirtyTeamPattern = "dirty:s:" + currentSeason.replace('/', '_') + ":t:*";
-            
-            Set<String> dirtyPlayerKeys = redisRepository.getKeysByPattern(dirtyPlayerPattern);
-            Set<String> dirtyTeamKeys = redisRepository.getKeysByPattern(dirtyTeamPattern);
-            
-            if (dirtyPlayerKeys.isEmpty() && dirtyTeamKeys.isEmpty()) {
-                log.debug("No dirty keys found - nothing to sync");
+            if (writeAheadLog != null) {
+                if (syncToCheckpoint()) {
+                    lastCompleteSyncMillis.set(runStartMillis);
+                }
                 return;
             }
-            
-            log.info("Syncing {} dirty player and {} dirty team keys to database", 
-                     dirtyPlayerKeys.size(), dirtyTeamKeys.size());
-            
-            // Sync dirty player stats
-            for (String dirtyKey : dirtyPlayerKeys) {
-                try {
-                    // Extract original season key: "dirty:s:2024_25:p:123" -> "s:2024_25:p:123"
-                    String seasonKey = dirtyKey.substring("dirty:".length());
-                    int playerId = extractPlayerIdFromKey(seasonKey);
-                    
-                    syncPlayerSeasonStats(playerId);
-                    
-                    // Remove dirty flag after successful sync
-                    redisRepository.deleteDirtyFlag(dirtyKey);
-                    
-                } catch (Exception e) {
-                    log.error("Failed to sync dirty player key {}", dirtyKey, e);
+            long[] maxVersions = redisRepository.getDirtyVersionCounters(currentSeason);
+            backlog.set(redisRepository.countDirtySeasonKeys(currentSeason));
+            int synced = 0;
+            boolean complete = true;
+
+            while (true) {
+                Map<String, Long> dirtyKeys = redisRepository.getDirtySeasonKeys(currentSeason, maxVersions, batchSize);
+                if (dirtyKeys.isEmpty()) {
+                    break;
                 }
-            }
-            
-            // Sync dirty team stats  
-            for (String dirtyKey : dirtyTeamKeys) {
-                try {
-                    // Extract original season key: "dirty:s:2024_25:t:456" -> "s:2024_25:t:456"
-                    String seasonKey = dirtyKey.substring("dirty:".length());
-                    int teamId = extractTeamIdFromKey(seasonKey);
-                    
-                    syncTeamSeasonStats(teamId);
-                    
-                    // Remove dirty flag after successful sync
-                    redisRepository.deleteDirtyFlag(dirtyKey);
-                    
-                } catch (Exception e) {
-                    log.error("Failed to sync dirty team key {}", dirtyKey, e);
+
+                Map<String, Long> syncedVersions = syncChunk(dirtyKeys);
+                redisRepository.clearDirtySeasonKeys(currentSeason, syncedVersions);
+                synced += syncedVersions.size();
+                syncedKeys.increment(syncedVersions.size());
+
+                if (syncedVersions.size() < dirtyKeys.size()) {
+                    // Failed keys stay dirty - retry them on the next run instead of spinning on them now
+                    log.warn("Synced {} of {} dirty keys in chunk, stopping this run", syncedVersions.size(), dirtyKeys.size());
+                    failedKeys.increment(dirtyKeys.size() - syncedVersions.size());
+                    complete = false;
+                    break;
                 }
             }
-            
-            log.debug("Completed scheduled Redis-DB sync - processed {} player and {} team dirty keys", 
-                     dirtyPlayerKeys.size(), dirtyTeamKeys.size());
-                     
+
+            if (complete) {
+                lastCompleteSyncMillis.set(runStartMillis);
+            }
+
+            if (synced == 0) {
+                log.debug("No dirty keys found - nothing to sync");
+            } else {
+                log.info("Synced {} dirty season keys to database", synced);
+            }
+
         } catch (Exception e) {
             log.error("Error during scheduled Redis-DB sync", e);
+        } finally {
+            run.stop(syncTimer);
+            syncLock.unlock();
         }
     }
 
     /**
-     * Sync specific player's season stats from Redis to Database
+     * Queue season keys for the next priority run (e.g. the players and teams of a finished game)
      */
-    @Transactional
-    private void syncPlayerSeasonStats(int playerId) {
-        String seasonKey = buildPlayerSeasonKey(playerId);
-        
-        Map<String, Object> redisStats = redisRepository.getSeasonStats(seasonKey);
-        if (redisStats == null || redisStats.isEmpty()) {
-            log.debug("No Redis stats found for player {} current season", playerId);
+    public void requestPrioritySync(Collection<String> seasonKeys) {
+        prioritySeasonKeys.addAll(seasonKeys);
+    }
+
+    /**
+     * Sync the queued priority keys that are still dirty, at their current dirty version.
+     * Keys that fail stay dirty and are picked up by the regular run. With the write-ahead log
+     * the database may not get ahead of its checkpoint, so every dirty key is synced instead.
+     */
+    @Scheduled(fixedDelayString = "${nba.sync.priority-interval-ms:1000}")
+    public void syncPriorityKeys() {
+        if (!syncEnabled || prioritySeasonKeys.isEmpty()) {
             return;
         }
+        List<String> seasonKeys = new ArrayList<>();
+        for (Iterator<String> it = prioritySeasonKeys.iterator(); it.hasNext(); ) {
+            seasonKeys.add(it.next());
+            it.remove();
+        }
 
+        syncLock.lock();
+        Timer.Sample run = Timer.start();
         try {
-            dbRepository.upsertPlayerSeasonStats(playerId, currentSeason, redisStats);
-            log.debug("Synced player {} current season stats to database", playerId);
+            if (writeAheadLog != null) {
+                syncToCheckpoint();
+                return;
+            }
+            int synced = 0;
+            for (int from = 0; from < seasonKeys.size(); from += batchSize) {
+                List<String> chunk = seasonKeys.subList(from, Math.min(from + batchSize, seasonKeys.size()));
+                Map<String, Long> dirtyKeys = redisRepository.getDirtyVersions(currentSeason, chunk);
+                if (dirtyKeys.isEmpty()) {
+                    continue;
+                }
+                Map<String, Long> syncedVersions = syncChunk(dirtyKeys);
+                redisRepository.clearDirtySeasonKeys(currentSeason, syncedVersions);
+                synced += syncedVersions.size();
+                syncedKeys.increment(syncedVersions.size());
+                failedKeys.increment(dirtyKeys.size() - syncedVersions.size());
+            }
+            log.info("Priority sync of {} season keys, {} were dirty and synced", seasonKeys.size(), synced);
         } catch (Exception e) {
-            log.error("Failed to sync player {} current season stats", playerId, e);
-            throw e;
+            log.error("Error during priority Redis-DB sync of {} keys", seasonKeys.size(), e);
+        } finally {
+            run.stop(prioritySyncTimer);
+            syncLock.unlock();
         }
     }
 
     /**
-     * Sync specific team's season stats from Redis to Database
+     * Run a task that writes season totals to Redis and the database itself, with no sync run
+     * in between - a run could otherwise read the hashes before the task and write them after it
      */
-    @Transactional
-    private void syncTeamSeasonStats(int teamId) {
-        String seasonKey = buildTeamSeasonKey(teamId);
-        
-        Map<String, Object> redisStats = redisRepository.getSeasonStats(seasonKey);
-        if (redisStats == null || redisStats.isEmpty()) {
-            log.debug("No Redis stats found for team {} current season", teamId);
-            return;
+    public <T> T runExclusively(Supplier<T> task) {
+        syncLock.lock();
+        try {
+            return task.get();
+        } finally {
+            syncLock.unlock();
         }
+    }
 
+    /**
+     * Sync every dirty key as of one point in the write-ahead log and checkpoint it there.
+     * The hashes are read with no stat line being applied, after the write-behind deltas are
+     * flushed, so the database gets exactly the lines the checkpoint covers - nothing a replay
+     * after a Redis loss adds again, nothing it leaves out. The upserts share one transaction:
+     * a failed run writes nothing and keeps every key dirty. Returns whether the run completed.
+     */
+    private boolean syncToCheckpoint() {
+        Map<String, Long> dirtyKeys = new LinkedHashMap<>();
+        Map<String, SeasonTotals> statsByKey = new HashMap<>();
+        WriteAheadLog.Checkpoint checkpoint = writeAheadLog.pauseApplying(() -> {
+            if (seasonDeltaCoalescer != null && !seasonDeltaCoalescer.drain()) {
+                throw new IllegalStateException("Season deltas could not be flushed to Redis");
+            }
+            long[] maxVersions = redisRepository.getDirtyVersionCounters(currentSeason);
+            dirtyKeys.putAll(redisRepository.getDirtySeasonKeys(currentSeason, maxVersions, Integer.MAX_VALUE));
+            List<String> seasonKeys = new ArrayList<>(dirtyKeys.keySet());
+            for (int from = 0; from < seasonKeys.size(); from += batchSize) {
+                statsByKey.putAll(redisRepository.getAllSeasonStats(
+                        seasonKeys.subList(from, Math.min(from + batchSize, seasonKeys.size()))));
+            }
+        });
+        backlog.set(dirtyKeys.size());
+
+        Map<Integer, SeasonTotals> playerStats = new LinkedHashMap<>();
+        Map<Integer, SeasonTotals> teamStats = new LinkedHashMap<>();
+        statsByKey.forEach((seasonKey, stats) ->
+                (isPlayerKey(seasonKey) ? playerStats : teamStats).put(extractIdFromKey(seasonKey), stats));
         try {
-            dbRepository.upsertTeamSeasonStats(teamId, currentSeason, redisStats);
-            log.debug("Synced team {} current season stats to database", teamId);
+            transactionTemplate.executeWithoutResult(status -> {
+                upsertInBatches(playerStats, dbRepository::upsertPlayerSeasonStats);
+                upsertInBatches(teamStats, dbRepository::upsertTeamSeasonStats);
+            });
         } catch (Exception e) {
-            log.error("Failed to sync team {} current season stats", teamId, e);
-            throw e;
+            log.error("Failed to sync {} dirty season keys, keeping them for the next run", dirtyKeys.size(), e);
+            failedKeys.increment(dirtyKeys.size());
+            return false;
+        }
+
+        // Hashes gone from Redis (flushed or evicted) have nothing left to sync, their flags are dropped too
+        redisRepository.clearDirtySeasonKeys(currentSeason, dirtyKeys);
+        syncedKeys.increment(dirtyKeys.size());
+        writeAheadLog.checkpoint(checkpoint);
+        if (!dirtyKeys.isEmpty()) {
+            log.info("Synced {} dirty season keys to database, checkpoint {}", dirtyKeys.size(), checkpoint.sequence());
         }
+        return true;
     }
 
-    // ========== HELPER METHODS ==========
-    
-    private String buildPlayerSeasonKey(int playerId) {
-        return "s:%s:p:%d".formatted(currentSeason.replace('/', '_'), playerId);
+    private void upsertInBatches(Map<Integer, SeasonTotals> statsById,
+            BiConsumer<String, Map<Integer, SeasonTotals>> upsert) {
+        Map<Integer, SeasonTotals> batch = new LinkedHashMap<>();
+        for (Map.Entry<Integer, SeasonTotals> stats : statsById.entrySet()) {
+            batch.put(stats.getKey(), stats.getValue());
+            if (batch.size() == batchSize) {
+                upsert.accept(currentSeason, batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        upsert.accept(currentSeason, batch);
     }
-    
-    private String buildTeamSeasonKey(int teamId) {
-        return "s:%s:t:%d".formatted(currentSeason.replace('/', '_'), teamId);
+
+    /**
+     * Read one chunk of dirty season hashes in a single pipelined round trip and upsert them
+     * with one JDBC batch for players and one for teams.
+     * Returns the keys that were synced, with the dirty version they had when read.
+     */
+    private Map<String, Long> syncChunk(Map<String, Long> dirtyKeys) {
+        Map<String, SeasonTotals> statsByKey = redisRepository.getAllSeasonStats(dirtyKeys.keySet());
+        Map<Integer, SeasonTotals> playerStats = new LinkedHashMap<>();
+        Map<Integer, SeasonTotals> teamStats = new LinkedHashMap<>();
+        Map<String, Long> playerVersions = new LinkedHashMap<>();
+        Map<String, Long> teamVersions = new LinkedHashMap<>();
+        Map<String, Long> syncedVersions = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Long> dirtyKey : dirtyKeys.entrySet()) {
+            String seasonKey = dirtyKey.getKey();
+            SeasonTotals redisStats = statsByKey.get(seasonKey);
+            if (redisStats == null) {
+                // Hash is gone (flushed or evicted) - nothing left to sync, just drop the flag
+                log.debug("No Redis stats found for dirty key {}", seasonKey);
+                syncedVersions.put(seasonKey, dirtyKey.getValue());
+            } else if (isPlayerKey(seasonKey)) {
+                playerStats.put(extractIdFromKey(seasonKey), redisStats);
+                playerVersions.put(seasonKey, dirtyKey.getValue());
+            } else {
+                teamStats.put(extractIdFromKey(seasonKey), redisStats);
+                teamVersions.put(seasonKey, dirtyKey.getValue());
+            }
+        }
+
+        try {
+            dbRepository.upsertPlayerSeasonStats(currentSeason, playerStats);
+            syncedVersions.putAll(playerVersions);
+        } catch (Exception e) {
+            log.error("Failed to sync {} dirty player keys", playerStats.size(), e);
+        }
+        try {
+            dbRepository.upsertTeamSeasonStats(currentSeason, teamStats);
+            syncedVersions.putAll(teamVersions);
+        } catch (Exception e) {
+            log.error("Failed to sync {} dirty team keys", teamStats.size(), e);
+        }
+        return syncedVersions;
     }
 
-    private int extractPlayerIdFromKey(String key) {
-        // Extract from "s:2024_25:p:23" -> 23
-        String[] parts = key.split(":");
-        return Integer.parseInt(parts[3]);
+    // ========== HELPER METHODS ==========
+
+    private boolean isPlayerKey(String key) {
+        // "s:2024_25:p:23:{b23}" -> player, "s:2024_25:t:10:{b10}" -> team
+        return "p".equals(key.split(":")[2]);
     }
 
-    private int extractTeamIdFromKey(String key) {
-        // Extract from "s:2024_25:t:10" -> 10
+    private int extractIdFromKey(String key) {
+        // Extract from "s:2024_25:p:23:{b23}" -> 23
         String[] parts = key.split(":");
         return Integer.parseInt(parts[3]);
     }
-}
\ No newline at end of file
+}
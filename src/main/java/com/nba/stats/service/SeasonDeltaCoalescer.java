@@ -0,0 +1,242 @@
+package com.nba.stats.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.nba.stats.dto.PlayerStatsDelta;
+import com.nba.stats.repository.RedisStatsRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional write-behind stage for hot season keys (the team season hashes, which get one
+ * increment per player line). Deltas are summed in memory per season key and written with
+ * one script call per key every flush interval, after max-updates deltas, or once the oldest
+ * pending delta of a key is older than max staleness - whichever comes first.
+ */
+@Component
+@ConditionalOnProperty(name = "nba.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class SeasonDeltaCoalescer {
+
+    private static final int STRIPES = 16;
+
+    private final RedisStatsRepository redisStatsRepository;
+    private final int maxUpdates;
+    private final long maxStalenessNanos;
+    private final int shutdownAttempts;
+    private final long shutdownBackoffMs;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // The scheduled flush and a drain for the sync run one at a time
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public SeasonDeltaCoalescer(
+            RedisStatsRepository redisStatsRepository,
+            @Value("${nba.write-behind.max-updates:64}") int maxUpdates,
+            @Value("${nba.write-behind.max-staleness-ms:250}") long maxStalenessMs,
+            @Value("${nba.write-behind.shutdown-attempts:5}") int shutdownAttempts,
+            @Value("${nba.write-behind.shutdown-backoff-ms:100}") long shutdownBackoffMs) {
+
+        this.redisStatsRepository = redisStatsRepository;
+        this.maxUpdates = maxUpdates;
+        this.maxStalenessNanos = maxStalenessMs * 1_000_000L;
+        this.shutdownAttempts = Math.max(shutdownAttempts, 1);
+        this.shutdownBackoffMs = shutdownBackoffMs;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Add a delta for a season key; flushes that key right away when it hits max updates or max staleness
+     */
+    public void add(String season, String seasonKey, PlayerStatsDelta delta) {
+        Stripe stripe = stripeFor(seasonKey);
+        long now = System.nanoTime();
+        PendingDelta ready = null;
+
+        synchronized (stripe) {
+            PendingDelta pending = stripe.pending.computeIfAbsent(seasonKey, k -> new PendingDelta(season, now));
+            pending.add(delta);
+            if (pending.updates >= maxUpdates || now - pending.firstUpdateNanos >= maxStalenessNanos) {
+                ready = stripe.pending.remove(seasonKey);
+            }
+        }
+
+        if (ready != null) {
+            flush(seasonKey, ready);
+        }
+    }
+
+    /**
+     * Flush everything currently held, every flush interval
+     */
+    @Scheduled(fixedDelayString = "${nba.write-behind.flush-interval-ms:50}")
+    public void flushAll() {
+        drain();
+    }
+
+    /**
+     * Flush everything currently held, after any flush already in progress - once it returns
+     * true, every delta added before the call is in Redis
+     */
+    public boolean drain() {
+        flushLock.lock();
+        try {
+            boolean flushed = true;
+            for (Stripe stripe : stripes) {
+                Map<String, PendingDelta> drained;
+                synchronized (stripe) {
+                    if (stripe.pending.isEmpty()) {
+                        continue;
+                    }
+                    drained = stripe.pending;
+                    stripe.pending = new HashMap<>();
+                }
+                for (Map.Entry<String, PendingDelta> pending : drained.entrySet()) {
+                    flushed &= flush(pending.getKey(), pending.getValue());
+                }
+            }
+            return flushed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Drain on graceful shutdown - runs before the Redis connection factory is closed. Failed
+     * flushes are retried with doubling backoff up to shutdown-attempts; what is still pending
+     * after the last attempt is dropped and logged per season key.
+     */
+    @PreDestroy
+    public void shutdown() {
+        log.info("Flushing pending season deltas before shutdown");
+        long backoffMs = shutdownBackoffMs;
+        for (int attempt = 1; !drain(); attempt++) {
+            if (attempt == shutdownAttempts) {
+                break;
+            }
+            log.warn("Failed to flush season deltas before shutdown (attempt {} of {}), retrying in {} ms",
+                    attempt, shutdownAttempts, backoffMs);
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMs *= 2;
+        }
+
+        Map<String, PlayerStatsDelta> dropped = new TreeMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.pending.forEach((seasonKey, pending) -> dropped.put(seasonKey, pending.toDelta()));
+                stripe.pending = new HashMap<>();
+            }
+        }
+        if (!dropped.isEmpty()) {
+            log.error("Dropped pending season deltas of {} keys at shutdown, not in Redis: {}", dropped.size(), dropped);
+        }
+    }
+
+    private boolean flush(String seasonKey, PendingDelta pending) {
+        try {
+            redisStatsRepository.updateSeasonAggregates(pending.season, seasonKey, pending.toDelta());
+            log.debug("Flushed {} coalesced deltas for {}", pending.updates, seasonKey);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to flush {} coalesced deltas for {}, keeping them for the next flush",
+                    pending.updates, seasonKey, e);
+            requeue(seasonKey, pending);
+            return false;
+        }
+    }
+
+    private void requeue(String seasonKey, PendingDelta failed) {
+        Stripe stripe = stripeFor(seasonKey);
+        synchronized (stripe) {
+            PendingDelta pending = stripe.pending.get(seasonKey);
+            if (pending == null) {
+                stripe.pending.put(seasonKey, failed);
+            } else {
+                pending.merge(failed);
+            }
+        }
+    }
+
+    private Stripe stripeFor(String seasonKey) {
+        return stripes[(seasonKey.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private static final class Stripe {
+        private Map<String, PendingDelta> pending = new HashMap<>();
+    }
+
+    /**
+     * Summed deltas for one season key, kept as primitives - guarded by the owning stripe
+     */
+    private static final class PendingDelta {
+        private final String season;
+        private long firstUpdateNanos;
+        private int points;
+        private int rebounds;
+        private int assists;
+        private int steals;
+        private int blocks;
+        private int fouls;
+        private int turnovers;
+        private double minutesPlayed;
+        private int gamesPlayed;
+        private int updates;
+
+        private PendingDelta(String season, long firstUpdateNanos) {
+            this.season = season;
+            this.firstUpdateNanos = firstUpdateNanos;
+        }
+
+        private void add(PlayerStatsDelta delta) {
+            points += delta.getPoints();
+            rebounds += delta.getRebounds();
+            assists += delta.getAssists();
+            steals += delta.getSteals();
+            blocks += delta.getBlocks();
+            fouls += delta.getFouls();
+            turnovers += delta.getTurnovers();
+            minutesPlayed += delta.getMinutesPlayed();
+            gamesPlayed += delta.getGamesPlayed();
+            updates++;
+        }
+
+        /**
+         * Keeps the earlier first update, so staleness counts from the oldest delta held
+         */
+        private void merge(PendingDelta other) {
+            if (other.firstUpdateNanos - firstUpdateNanos < 0) {
+                firstUpdateNanos = other.firstUpdateNanos;
+            }
+            points += other.points;
+            rebounds += other.rebounds;
+            assists += other.assists;
+            steals += other.steals;
+            blocks += other.blocks;
+            fouls += other.fouls;
+            turnovers += other.turnovers;
+            minutesPlayed += other.minutesPlayed;
+            gamesPlayed += other.gamesPlayed;
+            updates += other.updates;
+        }
+
+        private PlayerStatsDelta toDelta() {
+            return new PlayerStatsDelta(points, rebounds, assists, steals, blocks, fouls, turnovers,
+                    minutesPlayed, gamesPlayed);
+        }
+    }
+}
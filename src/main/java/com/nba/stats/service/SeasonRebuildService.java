@@ -0,0 +1,339 @@
+package com.nba.stats.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.dto.SeasonRebuildResultDto;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.repository.DbStatsRepository;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recomputes the season totals of players and teams from the game-level history: the final
+ * lines of completed games in stat_player_game plus, for the current season, the snapshot lines
+ * of games still live in Redis. Players and teams are rebuilt in separate fork/join passes that
+ * split the ids into partitions; each partition reads its lines in one query, sums them, upserts
+ * the totals as one JDBC batch and reloads the season hashes in one Redis pipeline.
+ * Players and teams without any line keep what they have, and so do those whose lines cover
+ * fewer games than their current totals or whose season hash changed while the rebuild ran.
+ */
+@Service
+@Slf4j
+public class SeasonRebuildService {
+
+    private static final double SECONDS_PER_MINUTE = 60.0;
+
+    private final DbStatsRepository dbRepository;
+    private final RedisStatsRepository redisRepository;
+    private final ScheduledSyncService syncService;
+    private final SeasonDeltaCoalescer seasonDeltaCoalescer; // null unless nba.write-behind.enabled
+    private final String currentSeason;
+    private final int parallelism;
+    private final int partitionSize;
+    private final Timer rebuildTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SeasonRebuildService(
+            DbStatsRepository dbRepository,
+            RedisStatsRepository redisRepository,
+            ScheduledSyncService syncService,
+            Optional<SeasonDeltaCoalescer> seasonDeltaCoalescer,
+            @Value("${nba.current-season}") String currentSeason,
+            @Value("${nba.rebuild.parallelism:8}") int parallelism,
+            @Value("${nba.rebuild.partition-size:50}") int partitionSize,
+            MeterRegistry meterRegistry) {
+
+        this.dbRepository = dbRepository;
+        this.redisRepository = redisRepository;
+        this.syncService = syncService;
+        this.seasonDeltaCoalescer = seasonDeltaCoalescer.orElse(null);
+        this.currentSeason = currentSeason;
+        this.parallelism = parallelism;
+        this.partitionSize = Math.max(1, partitionSize);
+        this.rebuildTimer = Timer.builder("nba.rebuild")
+                .description("Duration of a season aggregate rebuild")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuild the player and team totals of a season. Runs with the Redis to database sync held
+     * off; a second rebuild while one is running is refused with a RebuildAlreadyRunningException.
+     * A failed rebuild may leave some partitions rewritten and others not - run it again.
+     */
+    public SeasonRebuildResultDto rebuild(String season) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RebuildAlreadyRunningException();
+        }
+        try {
+            return rebuildTimer.record(() -> syncService.runExclusively(() -> rebuildSeason(season)));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private SeasonRebuildResultDto rebuildSeason(String season) {
+        long start = System.nanoTime();
+        boolean live = season.equals(currentSeason);
+        List<Integer> playerIds = dbRepository.getSeasonPlayerIds(season);
+
+        Set<Integer> teamIds = new TreeSet<>(dbRepository.getSeasonTeamIds(season));
+        if (live) {
+            // Teams playing their first games of the season have no stored line yet
+            teamIds.addAll(groupBy(redisRepository.getLiveGameLines(playerIds), LiveStatDto::getTeamId).keySet());
+        }
+
+        // Dirty versions before the live lines: a line applied after this read bumps the version of the
+        // hashes it changes, and their compare-and-set store is refused. The sync is held off, so no
+        // version is cleared in the meantime.
+        List<String> seasonKeys = new ArrayList<>(playerIds.size() + teamIds.size());
+        playerIds.forEach(id -> seasonKeys.add(RedisKeys.playerSeason(season, id)));
+        teamIds.forEach(id -> seasonKeys.add(RedisKeys.teamSeason(season, id)));
+        if (seasonDeltaCoalescer != null) {
+            // Pending team deltas belong to lines read next - apply them before the versions are read
+            seasonDeltaCoalescer.flushAll();
+        }
+        Map<String, Long> versions = redisRepository.getDirtyVersions(season, seasonKeys);
+
+        List<LiveStatDto> liveLines = live ? redisRepository.getLiveGameLines(playerIds) : List.of();
+        Map<Integer, List<LiveStatDto>> liveByPlayer = groupBy(liveLines, LiveStatDto::getPlayerId);
+        Map<Integer, List<LiveStatDto>> liveByTeam = groupBy(liveLines, LiveStatDto::getTeamId);
+
+        AtomicInteger gameLines = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ForkJoinTask<Integer> teams = pool.submit(new PartitionTask(
+                    new Pass(season, live, true, liveByTeam, versions, null, skipped), new ArrayList<>(teamIds)));
+            int players = pool.invoke(new PartitionTask(
+                    new Pass(season, live, false, liveByPlayer, versions, gameLines, skipped), playerIds));
+            int rebuiltTeams = teams.join();
+
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Rebuilt season {} totals of {} players and {} teams from {} game lines and {} live lines in {} ms, {} skipped",
+                    season, players, rebuiltTeams, gameLines.get(), liveLines.size(), durationMillis, skipped.get());
+            return new SeasonRebuildResultDto(season, players, rebuiltTeams, gameLines.get(), liveLines.size(),
+                    skipped.get(), durationMillis);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Rebuild one partition of players or teams; returns the number of totals rewritten.
+     * The season hashes are stored first, each only if unchanged since the pass read its version,
+     * and only the ids stored there, or not held in Redis, are upserted to the database.
+     */
+    private int rebuildPartition(Pass pass, List<Integer> ids) {
+        String season = pass.season();
+        List<LiveStatDto> lines = pass.teams()
+                ? dbRepository.getTeamGameLines(season, ids)
+                : dbRepository.getPlayerGameLines(season, ids);
+        if (pass.gameLines() != null) {
+            pass.gameLines().addAndGet(lines.size());
+        }
+        List<LiveStatDto> liveLines = new ArrayList<>();
+        for (int id : ids) {
+            liveLines.addAll(pass.liveById().getOrDefault(id, List.of()));
+        }
+
+        Map<Integer, SeasonTotals> totals = sumGames(lines, liveLines,
+                pass.teams() ? LiveStatDto::getTeamId : LiveStatDto::getPlayerId);
+        if (totals.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Integer> idByKey = new LinkedHashMap<>();
+        totals.keySet().forEach(id -> idByKey.put(pass.seasonKey(id), id));
+        Map<Integer, SeasonTotals> current = pass.teams()
+                ? dbRepository.getTeamSeasonStats(totals.keySet(), season)
+                : dbRepository.getPlayerSeasonStats(totals.keySet(), season);
+        Map<String, SeasonTotals> cached = redisRepository.getAllSeasonStats(idByKey.keySet());
+        idByKey.forEach((seasonKey, id) -> {
+            int gamesPlayed = Math.max(current.getOrDefault(id, SeasonTotals.EMPTY).getGamesPlayed(),
+                    cached.getOrDefault(seasonKey, SeasonTotals.EMPTY).getGamesPlayed());
+            if (totals.get(id).getGamesPlayed() < gamesPlayed) {
+                // Games from before lines were stored, or lines that are gone - summing would drop them
+                log.warn("Not rebuilding {}: {} games in the stored lines, {} in its totals",
+                        seasonKey, totals.get(id).getGamesPlayed(), gamesPlayed);
+                totals.remove(id);
+            }
+        });
+
+        Map<String, SeasonTotals> totalsByKey = new LinkedHashMap<>();
+        totals.forEach((id, stats) -> totalsByKey.put(pass.seasonKey(id), stats));
+        if (!pass.live()) {
+            // Past seasons are read from the database - only refresh hashes that happen to be in Redis
+            totalsByKey.keySet().retainAll(cached.keySet());
+        }
+        if (pass.teams() && seasonDeltaCoalescer != null) {
+            // Team deltas still in memory would be added on top of the stored totals - apply them
+            // first, those of lines counted here bump the version and refuse the store
+            seasonDeltaCoalescer.flushAll();
+        }
+        Set<String> stored = redisRepository.storeUnchangedSeasonStats(totalsByKey, pass.versions());
+        totalsByKey.keySet().forEach(seasonKey -> {
+            if (!stored.contains(seasonKey)) {
+                log.warn("Not rebuilding {}: its season hash changed during the rebuild", seasonKey);
+                totals.remove(idByKey.get(seasonKey));
+            }
+        });
+        pass.skipped().addAndGet(idByKey.size() - totals.size());
+        if (totals.isEmpty()) {
+            return 0;
+        }
+
+        if (pass.teams()) {
+            dbRepository.upsertTeamSeasonStats(season, totals);
+        } else {
+            dbRepository.upsertPlayerSeasonStats(season, totals);
+        }
+        return totals.size();
+    }
+
+    /**
+     * Season totals per id (player or team, by idOf) from final lines of completed games and
+     * current lines of live games. A live line replaces the final line of the same player and game.
+     * Every game with a line counts once per id; minutes are summed as whole seconds per line,
+     * the way the live path adds them to the season hash.
+     */
+    static Map<Integer, SeasonTotals> sumGames(Collection<LiveStatDto> finalLines, Collection<LiveStatDto> liveLines,
+            ToIntFunction<LiveStatDto> idOf) {
+
+        Map<Long, LiveStatDto> lineByPlayerGame = new HashMap<>();
+        for (LiveStatDto line : finalLines) {
+            lineByPlayerGame.put(playerGame(line), line);
+        }
+        for (LiveStatDto line : liveLines) {
+            lineByPlayerGame.put(playerGame(line), line);
+        }
+
+        Map<Integer, Sums> sumsById = new HashMap<>();
+        for (LiveStatDto line : lineByPlayerGame.values()) {
+            sumsById.computeIfAbsent(idOf.applyAsInt(line), id -> new Sums()).add(line);
+        }
+        Map<Integer, SeasonTotals> totals = new HashMap<>();
+        sumsById.forEach((id, sums) -> totals.put(id, sums.toTotals()));
+        return totals;
+    }
+
+    private static long playerGame(LiveStatDto line) {
+        return ((long) line.getPlayerId() << 32) | (line.getGameId() & 0xffffffffL);
+    }
+
+    private static Map<Integer, List<LiveStatDto>> groupBy(List<LiveStatDto> lines, ToIntFunction<LiveStatDto> idOf) {
+        Map<Integer, List<LiveStatDto>> linesById = new HashMap<>();
+        for (LiveStatDto line : lines) {
+            linesById.computeIfAbsent(idOf.applyAsInt(line), id -> new ArrayList<>()).add(line);
+        }
+        return linesById;
+    }
+
+    /**
+     * What every partition of the player or the team pass shares
+     */
+    private record Pass(
+            String season,
+            boolean live,
+            boolean teams,
+            Map<Integer, List<LiveStatDto>> liveById,
+            Map<String, Long> versions, // dirty versions read before the live lines
+            AtomicInteger gameLines, // counted by the player pass only
+            AtomicInteger skipped) {
+
+        String seasonKey(int id) {
+            return teams ? RedisKeys.teamSeason(season, id) : RedisKeys.playerSeason(season, id);
+        }
+    }
+
+    /**
+     * Halves its ids until a partition fits partitionSize, then rebuilds that partition
+     */
+    private class PartitionTask extends RecursiveTask<Integer> {
+
+        private final Pass pass;
+        private final List<Integer> ids;
+
+        PartitionTask(Pass pass, List<Integer> ids) {
+            this.pass = pass;
+            this.ids = ids;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (ids.size() <= partitionSize) {
+                return ids.isEmpty() ? 0 : rebuildPartition(pass, ids);
+            }
+            int middle = ids.size() / 2;
+            PartitionTask left = new PartitionTask(pass, ids.subList(0, middle));
+            PartitionTask right = new PartitionTask(pass, ids.subList(middle, ids.size()));
+            left.fork();
+            int rebuilt = right.compute();
+            return rebuilt + left.join();
+        }
+    }
+
+    /**
+     * Thrown when a rebuild is requested while another one is running
+     */
+    public static class RebuildAlreadyRunningException extends RuntimeException {
+        RebuildAlreadyRunningException() {
+            super("A season rebuild is already running");
+        }
+    }
+
+    /**
+     * Running sums of one player or team
+     */
+    private static final class Sums {
+        private final Set<Integer> games = new HashSet<>();
+        private int points;
+        private int rebounds;
+        private int assists;
+        private int steals;
+        private int blocks;
+        private int fouls;
+        private int turnovers;
+        private long seconds;
+
+        void add(LiveStatDto line) {
+            games.add(line.getGameId());
+            points += line.getPoints();
+            rebounds += line.getRebounds();
+            assists += line.getAssists();
+            steals += line.getSteals();
+            blocks += line.getBlocks();
+            fouls += line.getFouls();
+            turnovers += line.getTurnovers();
+            seconds += Math.round(line.getMinutesPlayed() * SECONDS_PER_MINUTE);
+        }
+
+        SeasonTotals toTotals() {
+            return new SeasonTotals(games.size(), points, rebounds, assists, steals, blocks, fouls, turnovers,
+                    seconds / SECONDS_PER_MINUTE);
+        }
+    }
+}
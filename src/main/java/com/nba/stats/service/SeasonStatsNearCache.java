@@ -0,0 +1,140 @@
+package com.nba.stats.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import com.nba.stats.dto.SeasonTotals;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded LRU cache of parsed season totals per season key, in front of Redis.
+ * Entries are dropped when a season-stats:changed message names their key and are never
+ * served older than max staleness - the bound also covers messages lost while the
+ * pub/sub connection was down, and a load racing an invalidation.
+ */
+@Component
+@Slf4j
+public class SeasonStatsNearCache implements MessageListener {
+
+    private final boolean enabled;
+    private final long maxStalenessNanos;
+    private final Map<String, CachedStats> entries;
+
+    public SeasonStatsNearCache(
+            @Value("${nba.near-cache.enabled:false}") boolean enabled,
+            @Value("${nba.near-cache.max-size:1000}") int maxSize,
+            @Value("${nba.near-cache.max-staleness-ms:1000}") long maxStalenessMs) {
+
+        this.enabled = enabled;
+        this.maxStalenessNanos = maxStalenessMs * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStats> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Cached totals for the key, or the loader's result (cached when not null)
+     */
+    public SeasonTotals get(String seasonKey, Function<String, SeasonTotals> loader) {
+        if (!enabled) {
+            return loader.apply(seasonKey);
+        }
+
+        long now = System.nanoTime();
+        synchronized (entries) {
+            CachedStats cached = entries.get(seasonKey);
+            if (cached != null && now - cached.loadedAtNanos < maxStalenessNanos) {
+                return cached.stats;
+            }
+        }
+
+        SeasonTotals stats = loader.apply(seasonKey);
+        if (stats != null) {
+            put(seasonKey, stats, now);
+        }
+        return stats;
+    }
+
+    /**
+     * Cached totals for the keys; the misses are loaded with one call of the bulk loader
+     * (e.g. a pipelined read). Keys the loader has no totals for are absent from the result.
+     */
+    public Map<String, SeasonTotals> getAll(Collection<String> seasonKeys,
+            Function<Collection<String>, Map<String, SeasonTotals>> loader) {
+        if (!enabled) {
+            return loader.apply(seasonKeys);
+        }
+
+        long now = System.nanoTime();
+        Map<String, SeasonTotals> statsByKey = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        synchronized (entries) {
+            for (String seasonKey : seasonKeys) {
+                CachedStats cached = entries.get(seasonKey);
+                if (cached != null && now - cached.loadedAtNanos < maxStalenessNanos) {
+                    statsByKey.put(seasonKey, cached.stats);
+                } else {
+                    misses.add(seasonKey);
+                }
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Map<String, SeasonTotals> loaded = loader.apply(misses);
+            loaded.forEach((seasonKey, stats) -> put(seasonKey, stats, now));
+            statsByKey.putAll(loaded);
+        }
+        return statsByKey;
+    }
+
+    /**
+     * Cache totals that were just loaded from elsewhere (e.g. the DB fallback)
+     */
+    public void put(String seasonKey, SeasonTotals stats) {
+        if (enabled) {
+            put(seasonKey, stats, System.nanoTime());
+        }
+    }
+
+    public void invalidate(String seasonKey) {
+        synchronized (entries) {
+            entries.remove(seasonKey);
+        }
+    }
+
+    /**
+     * Invalidation message from the stat scripts: space separated season keys
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (String seasonKey : body.split(" ")) {
+            invalidate(seasonKey);
+        }
+        log.trace("Invalidated near-cache entries: {}", body);
+    }
+
+    private void put(String seasonKey, SeasonTotals stats, long loadedAtNanos) {
+        synchronized (entries) {
+            entries.put(seasonKey, new CachedStats(stats, loadedAtNanos));
+        }
+    }
+
+    private record CachedStats(SeasonTotals stats, long loadedAtNanos) {
+    }
+}
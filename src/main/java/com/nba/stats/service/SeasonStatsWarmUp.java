@@ -0,0 +1,128 @@
+package com.nba.stats.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.repository.DbStatsRepository;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads current season totals from the database into Redis ahead of the first stat lines, so the
+ * ingest path does not fall back to a database read per new player or team. At startup every
+ * player and team row of the season is loaded - one query and one pipelined store - before the
+ * web server starts, so the instance reports ready only once it is done. At tip-off the same is
+ * done for both teams and their rosters. Hashes already in Redis are left alone: they may hold
+ * changes the sync has not written to the database yet. Each hash is checked and stored by one
+ * script call, so a stat line applied after the database read is not overwritten.
+ */
+@Service
+@Slf4j
+public class SeasonStatsWarmUp implements SmartLifecycle {
+
+    // After the legacy format migration, before write-ahead log replay, the event bus and the web server
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 7168;
+
+    private final DbStatsRepository dbRepository;
+    private final RedisStatsRepository redisRepository;
+    private final String currentSeason;
+    private final boolean onStartup;
+    private final Timer startupTimer;
+    private final Timer tipOffTimer;
+    private volatile boolean running;
+
+    public SeasonStatsWarmUp(
+            DbStatsRepository dbRepository,
+            RedisStatsRepository redisRepository,
+            @Value("${nba.current-season}") String currentSeason,
+            @Value("${nba.warm-up.on-startup:true}") boolean onStartup,
+            MeterRegistry meterRegistry) {
+
+        this.dbRepository = dbRepository;
+        this.redisRepository = redisRepository;
+        this.currentSeason = currentSeason;
+        this.onStartup = onStartup;
+        this.startupTimer = Timer.builder("nba.warm-up")
+                .description("Duration of loading season totals from the database into Redis")
+                .tag("trigger", "startup")
+                .register(meterRegistry);
+        this.tipOffTimer = Timer.builder("nba.warm-up")
+                .description("Duration of loading season totals from the database into Redis")
+                .tag("trigger", "tip_off")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!onStartup) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            int loaded = startupTimer.record(this::warmUpSeason);
+            log.info("Warmed up {} season hashes of {} in {} ms", loaded, currentSeason, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            // Not fatal - the ingest path still loads missing season hashes itself
+            log.warn("Season warm-up failed, season hashes load on first use instead", e);
+        }
+    }
+
+    /**
+     * Load every player and team row of the current season that Redis does not hold.
+     * Returns the number of hashes stored.
+     */
+    public int warmUpSeason() {
+        Map<String, SeasonTotals> statsByKey = new LinkedHashMap<>();
+        dbRepository.forEachSeasonStats(currentSeason,
+                (playerId, stats) -> statsByKey.put(RedisKeys.playerSeason(currentSeason, playerId), stats),
+                (teamId, stats) -> statsByKey.put(RedisKeys.teamSeason(currentSeason, teamId), stats));
+        return storeMissing(statsByKey);
+    }
+
+    /**
+     * Load the teams of a game and every player on their rosters, players without a row as all
+     * zero. Returns the number of hashes stored.
+     */
+    public int warmUpGame(int gameId, Collection<Integer> teamIds) {
+        return tipOffTimer.record(() -> {
+            Map<String, SeasonTotals> statsByKey = new LinkedHashMap<>();
+            dbRepository.getRosterSeasonStats(teamIds, currentSeason).forEach(
+                    (playerId, stats) -> statsByKey.put(RedisKeys.playerSeason(currentSeason, playerId), stats));
+            dbRepository.getTeamSeasonStats(teamIds, currentSeason).forEach(
+                    (teamId, stats) -> statsByKey.put(RedisKeys.teamSeason(currentSeason, teamId), stats));
+            int loaded = storeMissing(statsByKey);
+            log.info("Warmed up {} season hashes for game {} of teams {}", loaded, gameId, teamIds);
+            return loaded;
+        });
+    }
+
+    private int storeMissing(Map<String, SeasonTotals> statsByKey) {
+        return (int) redisRepository.storeAbsentSeasonStats(statsByKey);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -1,16 +1,58 @@
 package com.nba.stats.service;
 
-import java.util.Map;
+import java.util.Collection;
+import java.util.List;
+
+import com.nba.stats.dto.PlayerCareerStatsDto;
+import com.nba.stats.dto.PlayerGameLogDto;
+import com.nba.stats.dto.PlayerSeasonStatsDto;
+import com.nba.stats.dto.StatLeaderDto;
+import com.nba.stats.dto.TeamSeasonStatsDto;
+import com.nba.stats.enums.LeaderboardStat;
 
 public interface StatsRetrievalService {
     
     /**
      * Get season stats for a player
      */
-    Map<String, Object> getPlayerSeasonStats(int playerId, String season);
+    PlayerSeasonStatsDto getPlayerSeasonStats(int playerId, String season);
+
+    /**
+     * Get season stats for a player together with the averages of their last window completed
+     * games; window is one of RedisKeys.RECENT_FORM_WINDOWS
+     */
+    PlayerSeasonStatsDto getPlayerSeasonStats(int playerId, String season, int window);
     
     /**
      * Get season stats for a team
      */
-    Map<String, Object> getTeamSeasonStats(int teamId, String season);
+    TeamSeasonStatsDto getTeamSeasonStats(int teamId, String season);
+
+    /**
+     * Get per-season averages and career totals of a player; currentSeason is read live,
+     * all other seasons are complete
+     */
+    PlayerCareerStatsDto getPlayerCareerStats(int playerId, String currentSeason);
+
+    /**
+     * Get one page of a player's completed games in a season, newest first, starting
+     * below the given game id (null for the first page)
+     */
+    PlayerGameLogDto getPlayerGameLog(int playerId, String season, Integer beforeGameId, int limit);
+
+    /**
+     * Get season stats for several players in request order - one Redis round trip,
+     * one DB query for the players Redis does not hold
+     */
+    List<PlayerSeasonStatsDto> getPlayersSeasonStats(Collection<Integer> playerIds, String season);
+
+    /**
+     * Get season stats for several teams in request order
+     */
+    List<TeamSeasonStatsDto> getTeamsSeasonStats(Collection<Integer> teamIds, String season);
+
+    /**
+     * Get the top players of a season in one stat, by per-game average or by total
+     */
+    List<StatLeaderDto> getStatLeaders(LeaderboardStat stat, boolean perGame, String season, int limit);
 }
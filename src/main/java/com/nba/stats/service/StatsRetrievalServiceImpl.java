@@ -1,18 +1,35 @@
 package com.nba.stats.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.nba.stats.constants.RedisFields;
-import com.nba.stats.constants.ResponseFields;
+import com.nba.stats.dto.CareerSeasonDto;
+import com.nba.stats.dto.PlayerCareerStatsDto;
+import com.nba.stats.dto.PlayerGameLineDto;
+import com.nba.stats.dto.PlayerGameLogDto;
+import com.nba.stats.dto.PlayerSeasonStatsDto;
+import com.nba.stats.dto.RecentFormDto;
+import com.nba.stats.dto.SeasonAverages;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.dto.StatLeaderDto;
+import com.nba.stats.dto.TeamSeasonStatsDto;
+import com.nba.stats.enums.LeaderboardStat;
 import com.nba.stats.repository.DbStatsRepository;
 import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-@RequiredArgsConstructor
 @Service
 @Slf4j
 public class StatsRetrievalServiceImpl implements StatsRetrievalService {
@@ -20,162 +37,296 @@ public class StatsRetrievalServiceImpl implements StatsRetrievalService {
     private final RedisStatsRepository redisStatsRepository;
     private final DbStatsRepository playerStatsRepository;
     private final RosterService rosterService;
-    
-    private static final Map<String, Object> EMPTY_PLAYER_STATS = Map.ofEntries(
-    	    Map.entry(ResponseFields.GAMES_PLAYED, 0),
-    	    Map.entry(ResponseFields.AVG_POINTS, 0.0),
-    	    Map.entry(ResponseFields.AVG_REBOUNDS, 0.0),
-    	    Map.entry(ResponseFields.AVG_ASSISTS, 0.0),
-    	    Map.entry(ResponseFields.AVG_STEALS, 0.0),
-    	    Map.entry(ResponseFields.AVG_BLOCKS, 0.0),
-    	    Map.entry(ResponseFields.AVG_FOULS, 0.0),
-    	    Map.entry(ResponseFields.AVG_TURNOVERS, 0.0),
-    	    Map.entry(ResponseFields.AVG_MINUTES, 0.0)
-    	);
-
-    private static final Map<String, Object> EMPTY_TEAM_STATS = Map.ofEntries(  // Change to ofEntries
-    	    Map.entry(ResponseFields.GAMES_PLAYED, 0),
-    	    Map.entry(ResponseFields.AVG_POINTS, 0.0),
-    	    Map.entry(ResponseFields.AVG_REBOUNDS, 0.0),
-    	    Map.entry(ResponseFields.AVG_ASSISTS, 0.0),
-    	    Map.entry(ResponseFields.AVG_STEALS, 0.0),
-    	    Map.entry(ResponseFields.AVG_BLOCKS, 0.0),
-    	    Map.entry(ResponseFields.AVG_FOULS, 0.0),
-    	    Map.entry(ResponseFields.AVG_TURNOVERS, 0.0)
-    	);
+    private final SeasonStatsNearCache nearCache;
+    // Read latency by where the season totals came from: near-cache/Redis hit or DB fallback
+    private final Timer playerRedisTimer;
+    private final Timer playerDbTimer;
+    private final Timer teamRedisTimer;
+    private final Timer teamDbTimer;
+    private final Timer playersRedisTimer;
+    private final Timer playersDbTimer;
+    private final Timer teamsRedisTimer;
+    private final Timer teamsDbTimer;
+    private final Timer leadersTimer;
+    private final Timer careerTimer;
+    private final Timer gameLogTimer;
+    // Completed seasons per player, LRU - they no longer change, so entries never go stale
+    private final Map<Integer, Map<String, SeasonTotals>> completedSeasons;
 
+    public StatsRetrievalServiceImpl(
+            RedisStatsRepository redisStatsRepository,
+            DbStatsRepository playerStatsRepository,
+            RosterService rosterService,
+            SeasonStatsNearCache nearCache,
+            MeterRegistry meterRegistry,
+            @Value("${nba.career-cache.max-size:2000}") int careerCacheMaxSize) {
 
+        this.redisStatsRepository = redisStatsRepository;
+        this.playerStatsRepository = playerStatsRepository;
+        this.rosterService = rosterService;
+        this.nearCache = nearCache;
+        this.playerRedisTimer = queryTimer(meterRegistry, "player", "redis");
+        this.playerDbTimer = queryTimer(meterRegistry, "player", "db");
+        this.teamRedisTimer = queryTimer(meterRegistry, "team", "redis");
+        this.teamDbTimer = queryTimer(meterRegistry, "team", "db");
+        this.playersRedisTimer = queryTimer(meterRegistry, "players", "redis");
+        this.playersDbTimer = queryTimer(meterRegistry, "players", "db");
+        this.teamsRedisTimer = queryTimer(meterRegistry, "teams", "redis");
+        this.teamsDbTimer = queryTimer(meterRegistry, "teams", "db");
+        this.leadersTimer = queryTimer(meterRegistry, "leaders", "redis");
+        this.careerTimer = queryTimer(meterRegistry, "career", "redis");
+        this.gameLogTimer = queryTimer(meterRegistry, "game_log", "db");
+        this.completedSeasons = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Map<String, SeasonTotals>> eldest) {
+                return size() > careerCacheMaxSize;
+            }
+        };
+    }
     
     @Override
-    public Map<String, Object> getPlayerSeasonStats(int playerId, String season) {
-    	log.info("TEST: Received season parameter: '{}'", season);
-        String seasonKey = getRosterSeasonKey(playerId, season, ResponseFields.PLATER_TYPE);//s:2024_25:p:2
+    public PlayerSeasonStatsDto getPlayerSeasonStats(int playerId, String season) {
+        Timer.Sample sample = Timer.start();
+        String seasonKey = RedisKeys.playerSeason(season, playerId);
         
-        // Try Redis first (hot path)
-        Map<String, Object> stats = redisStatsRepository.getSeasonStats(seasonKey);
+        // Try the near-cache, then Redis (hot path)
+        SeasonTotals stats = nearCache.get(seasonKey, redisStatsRepository::getSeasonStats);
+        Timer timer = playerRedisTimer;
         
         if (stats == null) {
             // Fallback to database and load into Redis
             log.debug("Stats not in Redis, loading from DB for player {}", playerId);
             stats = playerStatsRepository.getPlayerSeasonStats(playerId, season);
-            
-            if (stats != null && !stats.isEmpty()) {
-                redisStatsRepository.storeSeasonStats(seasonKey, stats);
-            }
+            redisStatsRepository.storeSeasonStats(seasonKey, stats);
+            nearCache.put(seasonKey, stats);
+            timer = playerDbTimer;
         }
         
         // Calculate averages for response
-        return calculatePlayerAverages(stats,playerId);
+        PlayerSeasonStatsDto response = calculatePlayerAverages(stats,playerId);
+        sample.stop(timer);
+        return response;
     }
 
     @Override
-    public Map<String, Object> getTeamSeasonStats(int teamId, String season) {
-    	log.info("TEST: Received season parameter: '{}'", season);
-        String seasonKey = getRosterSeasonKey(teamId, season, ResponseFields.TEAM_TYPE);
+    public PlayerSeasonStatsDto getPlayerSeasonStats(int playerId, String season, int window) {
+        PlayerSeasonStatsDto seasonStats = getPlayerSeasonStats(playerId, season);
+        // Running sums kept at game completion - no scan of the game history
+        SeasonTotals recent = redisStatsRepository.getRecentForm(season, playerId, window);
+        RecentFormDto recentForm = new RecentFormDto(window, SeasonAverages.of(recent, recent.getGamesPlayed()));
+        return new PlayerSeasonStatsDto(seasonStats.getPlayerId(), seasonStats.getPlayerName(),
+                seasonStats.isHasLiveGame(), seasonStats.getAverages(), recentForm);
+    }
+
+    @Override
+    public TeamSeasonStatsDto getTeamSeasonStats(int teamId, String season) {
+        Timer.Sample sample = Timer.start();
+        String seasonKey = RedisKeys.teamSeason(season, teamId);
         
-        // Try Redis first
-        Map<String, Object> stats = redisStatsRepository.getSeasonStats(seasonKey);
+        // Try the near-cache, then Redis
+        SeasonTotals stats = nearCache.get(seasonKey, redisStatsRepository::getSeasonStats);
+        Timer timer = teamRedisTimer;
         
         if (stats == null) {
             // Fallback to database
             log.debug("Stats not in Redis, loading from DB for team {}", teamId);
             stats = playerStatsRepository.getTeamSeasonStats(teamId, season);
-            
-            if (stats != null && !stats.isEmpty()) {
-                redisStatsRepository.storeSeasonStats(seasonKey, stats);
-            }
+            redisStatsRepository.storeSeasonStats(seasonKey, stats);
+            nearCache.put(seasonKey, stats);
+            timer = teamDbTimer;
         }
         
-        return calculateTeamAverages(stats,teamId);
+        TeamSeasonStatsDto response = calculateTeamAverages(stats,teamId);
+        sample.stop(timer);
+        return response;
+    }
+
+    @Override
+    public PlayerCareerStatsDto getPlayerCareerStats(int playerId, String currentSeason) {
+        Timer.Sample sample = Timer.start();
+        Map<String, SeasonTotals> completed;
+        synchronized (completedSeasons) {
+            completed = completedSeasons.get(playerId);
+        }
+        if (completed == null) {
+            // One query for every completed season; concurrent misses for the same player may both query
+            completed = playerStatsRepository.getPlayerCareerStats(playerId, currentSeason);
+            synchronized (completedSeasons) {
+                completedSeasons.put(playerId, completed);
+            }
+        }
+
+        // The current season goes through the regular hot path (near-cache, Redis, DB fallback)
+        String seasonKey = RedisKeys.playerSeason(currentSeason, playerId);
+        SeasonTotals current = nearCache.get(seasonKey, redisStatsRepository::getSeasonStats);
+        if (current == null) {
+            current = playerStatsRepository.getPlayerSeasonStats(playerId, currentSeason);
+            redisStatsRepository.storeSeasonStats(seasonKey, current);
+            nearCache.put(seasonKey, current);
+        }
+        boolean hasLiveGame = redisStatsRepository.hasLiveGame(playerId);
+
+        List<CareerSeasonDto> seasons = new ArrayList<>(completed.size() + 1);
+        SeasonTotals careerTotals = SeasonTotals.EMPTY;
+        for (Map.Entry<String, SeasonTotals> season : completed.entrySet()) {
+            seasons.add(new CareerSeasonDto(season.getKey(),
+                    SeasonAverages.of(season.getValue(), season.getValue().getGamesPlayed())));
+            careerTotals = careerTotals.plus(season.getValue());
+        }
+        if (current.getGamesPlayed() > 0) {
+            seasons.add(new CareerSeasonDto(currentSeason,
+                    SeasonAverages.of(current, completedGames(current, hasLiveGame))));
+            careerTotals = careerTotals.plus(current);
+        }
+
+        PlayerCareerStatsDto response = new PlayerCareerStatsDto(playerId, rosterService.getPlayerName(playerId),
+                hasLiveGame, seasons, careerTotals, SeasonAverages.of(careerTotals, completedGames(careerTotals, hasLiveGame)));
+        sample.stop(careerTimer);
+        return response;
+    }
+
+    @Override
+    public PlayerGameLogDto getPlayerGameLog(int playerId, String season, Integer beforeGameId, int limit) {
+        Timer.Sample sample = Timer.start();
+        // One extra row tells whether there is a next page
+        List<PlayerGameLineDto> games = playerStatsRepository.getPlayerGameLog(playerId, season,
+                beforeGameId != null ? beforeGameId : Integer.MAX_VALUE, limit + 1);
+        Integer nextBefore = null;
+        if (games.size() > limit) {
+            games = games.subList(0, limit);
+            nextBefore = games.get(limit - 1).getGameId();
+        }
+        PlayerGameLogDto response = new PlayerGameLogDto(playerId, rosterService.getPlayerName(playerId), season,
+                games, nextBefore);
+        sample.stop(gameLogTimer);
+        return response;
+    }
+
+    @Override
+    public List<PlayerSeasonStatsDto> getPlayersSeasonStats(Collection<Integer> playerIds, String season) {
+        Timer.Sample sample = Timer.start();
+        Map<Integer, String> seasonKeys = getRosterSeasonKeys(playerIds, season, RedisKeys::playerSeason);
+        Map<String, SeasonTotals> stats = new HashMap<>();
+        boolean dbFallback = loadAllSeasonStats(seasonKeys, season, stats, playerStatsRepository::getPlayerSeasonStats);
+
+        Set<Integer> withLiveGame = redisStatsRepository.findPlayersWithLiveGame(seasonKeys.keySet());
+        List<PlayerSeasonStatsDto> response = new ArrayList<>(seasonKeys.size());
+        seasonKeys.forEach((playerId, seasonKey) -> response.add(
+                toPlayerStatsDto(stats.get(seasonKey), playerId, withLiveGame.contains(playerId))));
+        sample.stop(dbFallback ? playersDbTimer : playersRedisTimer);
+        return response;
+    }
+
+    @Override
+    public List<TeamSeasonStatsDto> getTeamsSeasonStats(Collection<Integer> teamIds, String season) {
+        Timer.Sample sample = Timer.start();
+        Map<Integer, String> seasonKeys = getRosterSeasonKeys(teamIds, season, RedisKeys::teamSeason);
+        Map<String, SeasonTotals> stats = new HashMap<>();
+        boolean dbFallback = loadAllSeasonStats(seasonKeys, season, stats, playerStatsRepository::getTeamSeasonStats);
+
+        List<TeamSeasonStatsDto> response = new ArrayList<>(seasonKeys.size());
+        seasonKeys.forEach((teamId, seasonKey) -> response.add(calculateTeamAverages(stats.get(seasonKey), teamId)));
+        sample.stop(dbFallback ? teamsDbTimer : teamsRedisTimer);
+        return response;
+    }
+
+    @Override
+    public List<StatLeaderDto> getStatLeaders(LeaderboardStat stat, boolean perGame, String season, int limit) {
+        Timer.Sample sample = Timer.start();
+        Map<Integer, Double> leaders = redisStatsRepository.getLeaders(season, stat, perGame, limit);
+
+        List<StatLeaderDto> response = new ArrayList<>(leaders.size());
+        int rank = 0;
+        for (Map.Entry<Integer, Double> leader : leaders.entrySet()) {
+            response.add(new StatLeaderDto(++rank, leader.getKey(),
+                    rosterService.getPlayerName(leader.getKey()), leader.getValue()));
+        }
+        sample.stop(leadersTimer);
+        return response;
     }
 
     /**
-     * Calculate per-game averages for player stats
+     * Bulk read path: near-cache and one pipelined Redis read for all keys, one DB query for
+     * the misses, which are written back to Redis in one pipeline. Fills statsByKey and
+     * returns whether the DB was needed.
      */
-    private Map<String, Object> calculatePlayerAverages(Map<String, Object> stats, int playerId) {
-    	log.info("TEST DEBUG - Retrieved stats: {}", stats); 
-    	log.info("TEST DEBUG - games_played value: {}", stats.get(RedisFields.GAMES_PLAYED));
-        if (stats == null || stats.isEmpty()) {
-        	Map<String, Object> emptyStats = new HashMap<>(EMPTY_PLAYER_STATS);
-            emptyStats.put(ResponseFields.PLAYER_ID, playerId);
-            emptyStats.put(ResponseFields.PLAYER_NAME, rosterService.getPlayerName(playerId));        	
-            return emptyStats;
+    private boolean loadAllSeasonStats(Map<Integer, String> seasonKeys, String season, Map<String, SeasonTotals> statsByKey,
+            BiFunction<Collection<Integer>, String, Map<Integer, SeasonTotals>> dbLoader) {
+        statsByKey.putAll(nearCache.getAll(seasonKeys.values(), redisStatsRepository::getAllSeasonStats));
+
+        List<Integer> missingIds = new ArrayList<>();
+        seasonKeys.forEach((id, seasonKey) -> {
+            if (!statsByKey.containsKey(seasonKey)) {
+                missingIds.add(id);
+            }
+        });
+        if (missingIds.isEmpty()) {
+            return false;
         }
-        int totalGames = (Integer) stats.getOrDefault(RedisFields.GAMES_PLAYED, 0);
+
+        log.debug("{} of {} season stats not in Redis, loading from DB", missingIds.size(), seasonKeys.size());
+        Map<String, SeasonTotals> loaded = new HashMap<>();
+        dbLoader.apply(missingIds, season).forEach((id, stats) -> loaded.put(seasonKeys.get(id), stats));
+        redisStatsRepository.storeAllSeasonStats(loaded);
+        loaded.forEach(nearCache::put);
+        statsByKey.putAll(loaded);
+        return true;
+    }
+
+    /**
+     * Calculate per-game averages for player stats
+     */
+    private PlayerSeasonStatsDto calculatePlayerAverages(SeasonTotals stats, int playerId) {
         // Check if player has a live game
-        boolean hasLiveGame = redisStatsRepository.hasLiveGame(playerId);
-        int completedGames = hasLiveGame ? totalGames - 1 : totalGames;
+        return toPlayerStatsDto(stats, playerId, redisStatsRepository.hasLiveGame(playerId));
+    }
+
+    private PlayerSeasonStatsDto toPlayerStatsDto(SeasonTotals stats, int playerId, boolean hasLiveGame) {
         // Use completed games for average calculation
-        int divisor = Math.max(completedGames, 1);
-        log.debug("Player {}: totalGames={}, hasLiveGame={}, completedGames={}, divisor={}", 
-                playerId, totalGames, hasLiveGame, completedGames, divisor);
-        return Map.ofEntries(
-        	    Map.entry(ResponseFields.PLAYER_ID, playerId),
-        	    Map.entry(ResponseFields.PLAYER_NAME, rosterService.getPlayerName(playerId)),
-        	    Map.entry(ResponseFields.GAMES_PLAYED, totalGames),
-        	    Map.entry(ResponseFields.HAS_LIVE_GAME, hasLiveGame), // Boolean flag
-        	    Map.entry(ResponseFields.AVG_POINTS, divide(stats.get(RedisFields.SUM_POINTS), divisor)),
-        	    Map.entry(ResponseFields.AVG_REBOUNDS, divide(stats.get(RedisFields.SUM_REBOUNDS), divisor)),
-        	    Map.entry(ResponseFields.AVG_ASSISTS, divide(stats.get(RedisFields.SUM_ASSISTS), divisor)),
-        	    Map.entry(ResponseFields.AVG_STEALS, divide(stats.get(RedisFields.SUM_STEALS), divisor)),
-        	    Map.entry(ResponseFields.AVG_BLOCKS, divide(stats.get(RedisFields.SUM_BLOCKS), divisor)),
-        	    Map.entry(ResponseFields.AVG_FOULS, divide(stats.get(RedisFields.SUM_FOULS), divisor)),
-        	    Map.entry(ResponseFields.AVG_TURNOVERS, divide(stats.get(RedisFields.SUM_TURNOVERS), divisor)),
-        	    Map.entry(ResponseFields.AVG_MINUTES, divide(stats.get(RedisFields.SUM_MINUTES), divisor))
-        	);
+        int divisor = completedGames(stats, hasLiveGame);
+        log.debug("Player {}: totalGames={}, hasLiveGame={}, divisor={}",
+                playerId, stats.getGamesPlayed(), hasLiveGame, divisor);
+        return new PlayerSeasonStatsDto(playerId, rosterService.getPlayerName(playerId), hasLiveGame,
+                SeasonAverages.of(stats, divisor), null);
     }
 
     /**
-     * Calculate per-game averages for team stats
+     * Divisor for a player's averages: games played without the live one, at least 1
      */
-    private Map<String, Object> calculateTeamAverages(Map<String, Object> stats, int teamId) {
-        if (stats == null || stats.isEmpty()) {
-            Map<String, Object> emptyStats = new HashMap<>(EMPTY_TEAM_STATS);
-            emptyStats.put(ResponseFields.TEAM_ID, teamId);
-            emptyStats.put(ResponseFields.TEAM_NAME, rosterService.getTeamName(teamId));
-            return emptyStats;
-        }
+    private static int completedGames(SeasonTotals stats, boolean hasLiveGame) {
+        int completedGames = hasLiveGame ? stats.getGamesPlayed() - 1 : stats.getGamesPlayed();
+        return Math.max(completedGames, 1);
+    }
 
-        int totalGames = (Integer) stats.getOrDefault(RedisFields.GAMES_PLAYED, 0);
+    /**
+     * Calculate per-game averages for team stats
+     */
+    private TeamSeasonStatsDto calculateTeamAverages(SeasonTotals stats, int teamId) {
+        int totalGames = stats.getGamesPlayed();
         int completedGames = totalGames - 1;  // Subtract current live game
         // Use completedGames for average if > 0, otherwise use totalGames
         int divisor = completedGames > 0 ? completedGames : totalGames;
 
-        return Map.ofEntries(
-        	    Map.entry(ResponseFields.TEAM_ID, teamId),
-        	    Map.entry(ResponseFields.TEAM_NAME, rosterService.getTeamName(teamId)),
-        	    Map.entry(ResponseFields.GAMES_PLAYED, totalGames),
-        	    Map.entry(ResponseFields.AVG_POINTS, divide(stats.get(RedisFields.SUM_POINTS), divisor)),
-        	    Map.entry(ResponseFields.AVG_REBOUNDS, divide(stats.get(RedisFields.SUM_REBOUNDS), divisor)),
-        	    Map.entry(ResponseFields.AVG_ASSISTS, divide(stats.get(RedisFields.SUM_ASSISTS), divisor)),
-        	    Map.entry(ResponseFields.AVG_STEALS, divide(stats.get(RedisFields.SUM_STEALS), divisor)),
-        	    Map.entry(ResponseFields.AVG_BLOCKS, divide(stats.get(RedisFields.SUM_BLOCKS), divisor)),
-        	    Map.entry(ResponseFields.AVG_FOULS, divide(stats.get(RedisFields.SUM_FOULS), divisor)),
-        	    Map.entry(ResponseFields.AVG_TURNOVERS, divide(stats.get(RedisFields.SUM_TURNOVERS), divisor))
-        	);
+        return new TeamSeasonStatsDto(teamId, rosterService.getTeamName(teamId), SeasonAverages.of(stats, divisor));
     }
 
-    /**
-     * Safe division that handles nulls and zeros
-     */
-    private double divide(Object numerator, int denominator) {
-        if (numerator == null || denominator == 0) {
-            return 0.0;
-        }
-        
-        if (numerator instanceof Number num) {
-            return num.doubleValue() / denominator;
-        }
-        
-        return 0.0;
+    private static Timer queryTimer(MeterRegistry registry, String type, String source) {
+        return Timer.builder("nba.query")
+                .description("Season stats reads, by where the season totals were found")
+                .tags("type", type, "source", source)
+                .register(registry);
     }
 
-
     /**
-     * Generate Redis key for roaster member season stats
+     * Season keys of several roster members, in the given order without duplicates
      */
-    private String getRosterSeasonKey(int id, String season, String type) {
-        return "s:%s:%s:%d".formatted(season.replace('/', '_'),type, id);
+    private Map<Integer, String> getRosterSeasonKeys(Collection<Integer> ids, String season,
+            BiFunction<String, Integer, String> seasonKeyOf) {
+        Map<Integer, String> seasonKeys = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            seasonKeys.computeIfAbsent(id, key -> seasonKeyOf.apply(season, key));
+        }
+        return seasonKeys;
     }
 
 }
\ No newline at end of file
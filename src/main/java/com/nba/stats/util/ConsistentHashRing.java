@@ -0,0 +1,84 @@
+package com.nba.stats.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Consistent hash ring over a set of members, each placed at a number of virtual points.
+ * A key belongs to the first point at or after its hash (wrapping around), so adding or
+ * removing a member only moves the keys of that member. Immutable - build a new ring when
+ * the members change.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> points;
+    private final Set<String> members;
+
+    private ConsistentHashRing(NavigableMap<Long, String> points, Set<String> members) {
+        this.points = points;
+        this.members = members;
+    }
+
+    /**
+     * Ring with virtualNodes points per member; the same members give the same ring in any order
+     */
+    public static ConsistentHashRing of(Collection<String> members, int virtualNodes) {
+        Set<String> sorted = new TreeSet<>(members);
+        NavigableMap<Long, String> points = new TreeMap<>();
+        for (String member : sorted) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // On the (unlikely) collision of two points the smaller member keeps it
+                points.putIfAbsent(hash(member + "#" + i), member);
+            }
+        }
+        return new ConsistentHashRing(points, Set.copyOf(sorted));
+    }
+
+    /**
+     * Member owning a key, or null when the ring is empty
+     */
+    public String ownerOf(long key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(mix(key));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    public Set<String> members() {
+        return members;
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes, finished with the mixer so nearby strings land far apart
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * MurmurHash3 finalizer - spreads consecutive ids (game 8123, 8124, ...) over the whole ring
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
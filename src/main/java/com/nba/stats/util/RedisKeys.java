@@ -0,0 +1,157 @@
+package com.nba.stats.util;
+
+import java.util.List;
+
+import com.nba.stats.enums.LeaderboardStat;
+
+/**
+ * Builds the Redis key layout shared by ingestion, retrieval and sync.
+ *
+ * Every key owned by a player or team ends in the hash tag of its slot bucket, e.g. {b23}:
+ * Redis Cluster hashes only the tag, so all keys of a bucket live in one slot. A player's
+ * season hash, game snapshots, live-game index, recent games and form sums share the player's
+ * bucket together with that bucket's dirty set and leaderboards - each script call stays
+ * within one slot. Team keys are in the team's bucket.
+ */
+public final class RedisKeys {
+
+    /**
+     * Last-N windows with running sums per player, ascending - the largest is the size of the
+     * recent-games ring buffer
+     */
+    public static final List<Integer> RECENT_FORM_WINDOWS = List.of(5, 10);
+
+    /**
+     * Slot buckets players and teams are spread over (id modulo). Changing it moves every key.
+     */
+    public static final int SLOT_BUCKETS = 64;
+
+    private RedisKeys() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Slot bucket of a player or team id
+     */
+    public static int slotBucket(int id) {
+        return Math.floorMod(id, SLOT_BUCKETS);
+    }
+
+    /**
+     * Slot bucket from the hash tag a key ends with (s:2024_25:p:23:{b23} -> 23)
+     */
+    public static int slotBucketOf(String key) {
+        int tag = key.lastIndexOf("{b");
+        if (tag < 0 || !key.endsWith("}")) {
+            throw new IllegalArgumentException("Key without slot tag: " + key);
+        }
+        return Integer.parseInt(key, tag + 2, key.length() - 1, 10);
+    }
+
+    /**
+     * Player season stats, e.g. s:2024_25:p:23:{b23} (slashes replaced)
+     */
+    public static String playerSeason(String season, int playerId) {
+        return "s:%s:p:%d:%s".formatted(season.replace('/', '_'), playerId, slotTag(playerId));
+    }
+
+    /**
+     * Team season stats, e.g. s:2024_25:t:10:{b10}
+     */
+    public static String teamSeason(String season, int teamId) {
+        return "s:%s:t:%d:%s".formatted(season.replace('/', '_'), teamId, slotTag(teamId));
+    }
+
+    /**
+     * Latest cumulative line of a player in a game, e.g. g:8123:p:23:{b23} - in the player's bucket
+     */
+    public static String playerGame(int gameId, int playerId) {
+        return "g:%d:p:%d:%s".formatted(gameId, playerId, slotTag(playerId));
+    }
+
+    /**
+     * Marker that a team's game has already been counted, e.g. team_game:10:8123:{b10}
+     */
+    public static String teamGame(int teamId, int gameId) {
+        return "team_game:" + teamId + ":" + gameId + ":" + slotTag(teamId);
+    }
+
+    /**
+     * Live-game index of a player: game ids scored by snapshot expiry, e.g. live:p:23:{b23}
+     */
+    public static String playerLiveGames(int playerId) {
+        return "live:p:" + playerId + ":" + slotTag(playerId);
+    }
+
+    /**
+     * Players subscribed to a game's completion, e.g. game:8123:players - only ever used on its own
+     */
+    public static String gamePlayers(int gameId) {
+        return "game:" + gameId + ":players";
+    }
+
+    /**
+     * Season keys of a bucket changed since their last Postgres sync, scored by dirty version,
+     * e.g. dirty:s:2024_25:{b23}
+     */
+    public static String dirtySeasonKeys(String season, int bucket) {
+        return "dirty:s:" + season.replace('/', '_') + ":{b" + bucket + "}";
+    }
+
+    /**
+     * Change counter that versions the entries of a bucket's dirty set, e.g. dirty:s:2024_25:{b23}:version
+     */
+    public static String dirtyVersion(String season, int bucket) {
+        return dirtySeasonKeys(season, bucket) + ":version";
+    }
+
+    /**
+     * Ring buffer of a player's last completed games in a season, newest first, e.g. recent:s:2024_25:p:23:{b23}
+     */
+    public static String playerRecentGames(String season, int playerId) {
+        return "recent:s:%s:p:%d:%s".formatted(season.replace('/', '_'), playerId, slotTag(playerId));
+    }
+
+    /**
+     * Running sums of a player's last window games, same fields as the season hash,
+     * e.g. form:s:2024_25:p:23:5:{b23}
+     */
+    public static String playerRecentForm(String season, int playerId, int window) {
+        return "form:s:%s:p:%d:%d:%s".formatted(season.replace('/', '_'), playerId, window, slotTag(playerId));
+    }
+
+    /**
+     * Players of a bucket ranked by their season total of a stat, e.g. lead:2024_25:points:total:{b23}
+     */
+    public static String leaderboardTotal(String season, LeaderboardStat stat, int bucket) {
+        return "lead:%s:%s:total:{b%d}".formatted(season.replace('/', '_'), stat.getParam(), bucket);
+    }
+
+    /**
+     * Players of a bucket ranked by their per-game average of a stat, e.g. lead:2024_25:points:avg:{b23}
+     */
+    public static String leaderboardAverage(String season, LeaderboardStat stat, int bucket) {
+        return "lead:%s:%s:avg:{b%d}".formatted(season.replace('/', '_'), stat.getParam(), bucket);
+    }
+
+    /**
+     * Pub/sub channel announcing changed season keys (space separated) to the near-caches
+     */
+    public static String seasonStatsChannel() {
+        return "season-stats:changed";
+    }
+
+    /**
+     * Instances taking part in partitioned ingest: node URLs scored by lease expiry (epoch millis)
+     */
+    public static String ingestMembers() {
+        return "ingest:members";
+    }
+
+    /**
+     * Hash tag of an id's slot bucket, the last segment of its keys, e.g. {b23}
+     */
+    public static String slotTag(int id) {
+        return "{b" + slotBucket(id) + "}";
+    }
+}
@@ -68,28 +68,6 @@ public final class RedisValueConverter {
         return convertToDouble(value);
     }
 
-    /**
-     * Safely convert value to integer from Map<String, Object> (processed data for DB)
-     * @param stats Map with String keys (from processed Redis data)
-     * @param key The key to get value for
-     * @return Integer value or 0 if conversion fails
-     */
-    public static int getIntFromStatsMap(Map<String, Object> stats, String key) {
-        Object value = stats.get(key);
-        return convertToInt(value);
-    }
-
-    /**
-     * Safely convert value to double from Map<String, Object> (processed data for DB)
-     * @param stats Map with String keys (from processed Redis data)
-     * @param key The key to get value for
-     * @return Double value or 0.0 if conversion fails
-     */
-    public static double getDoubleFromStatsMap(Map<String, Object> stats, String key) {
-        Object value = stats.get(key);
-        return convertToDouble(value);
-    }
-
     /**
      * Safely convert any Object to integer
      * @param value The value to convert
@@ -145,19 +123,4 @@ public final class RedisValueConverter {
                 value.getClass().getSimpleName(), value);
         return 0.0;
     }
-
-    /**
-     * Safe division with null checking (commonly used in stats calculations)
-     * @param numerator The numerator (can be Object from Redis)
-     * @param denominator The denominator
-     * @return Division result or 0.0 if invalid
-     */
-    public static double safeDivide(Object numerator, int denominator) {
-        if (numerator == null || denominator == 0) {
-            return 0.0;
-        }
-        
-        double num = convertToDouble(numerator);
-        return num / denominator;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.nba.stats.wal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+import com.nba.stats.dto.LiveStatDto;
+
+/**
+ * Fixed-width binary layout of one write-ahead log record, 64 bytes (big-endian):
+ *
+ * <pre>
+ *  0  int   CRC32C of bytes 4..63
+ *  4  long  sequence
+ * 12  long  append time (epoch millis)
+ * 20  int   gameId, teamId, playerId
+ * 32  int   points, rebounds, assists, steals, blocks, fouls, turnovers
+ * 60  int   minutes played in thousandths of a minute
+ * </pre>
+ *
+ * A zero-filled slot (the preallocated rest of a segment) or a torn write fails the checksum,
+ * which is how a reader finds the end of a segment.
+ */
+final class WalRecordCodec {
+
+    static final int RECORD_SIZE = 64;
+
+    private static final int CHECKSUM_OFFSET = 0;
+    private static final int SEQUENCE_OFFSET = 4;
+    private static final int TIMESTAMP_OFFSET = 12;
+    private static final int LINE_OFFSET = 20;
+    private static final double MINUTE_SCALE = 1000.0;
+
+    private WalRecordCodec() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Write a record into a RECORD_SIZE scratch buffer
+     */
+    static void encode(LiveStatDto line, long sequence, long timestampMillis, byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putLong(SEQUENCE_OFFSET, sequence);
+        buffer.putLong(TIMESTAMP_OFFSET, timestampMillis);
+        buffer.putInt(LINE_OFFSET, line.getGameId());
+        buffer.putInt(LINE_OFFSET + 4, line.getTeamId());
+        buffer.putInt(LINE_OFFSET + 8, line.getPlayerId());
+        buffer.putInt(LINE_OFFSET + 12, line.getPoints());
+        buffer.putInt(LINE_OFFSET + 16, line.getRebounds());
+        buffer.putInt(LINE_OFFSET + 20, line.getAssists());
+        buffer.putInt(LINE_OFFSET + 24, line.getSteals());
+        buffer.putInt(LINE_OFFSET + 28, line.getBlocks());
+        buffer.putInt(LINE_OFFSET + 32, line.getFouls());
+        buffer.putInt(LINE_OFFSET + 36, line.getTurnovers());
+        buffer.putInt(LINE_OFFSET + 40, (int) Math.round(line.getMinutesPlayed() * MINUTE_SCALE));
+        buffer.putInt(CHECKSUM_OFFSET, checksum(buffer));
+    }
+
+    /**
+     * Whether the RECORD_SIZE bytes at the buffer's position hold a complete record
+     */
+    static boolean isValid(ByteBuffer record) {
+        return record.getInt(record.position() + CHECKSUM_OFFSET) == checksum(record);
+    }
+
+    static long sequence(ByteBuffer record) {
+        return record.getLong(record.position() + SEQUENCE_OFFSET);
+    }
+
+    static long timestampMillis(ByteBuffer record) {
+        return record.getLong(record.position() + TIMESTAMP_OFFSET);
+    }
+
+    static LiveStatDto decode(ByteBuffer record) {
+        int base = record.position() + LINE_OFFSET;
+        return LiveStatDto.builder()
+                .gameId(record.getInt(base))
+                .teamId(record.getInt(base + 4))
+                .playerId(record.getInt(base + 8))
+                .points(record.getInt(base + 12))
+                .rebounds(record.getInt(base + 16))
+                .assists(record.getInt(base + 20))
+                .steals(record.getInt(base + 24))
+                .blocks(record.getInt(base + 28))
+                .fouls(record.getInt(base + 32))
+                .turnovers(record.getInt(base + 36))
+                .minutesPlayed(record.getInt(base + 40) / MINUTE_SCALE)
+                .build();
+    }
+
+    private static int checksum(ByteBuffer record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.slice(record.position() + SEQUENCE_OFFSET, RECORD_SIZE - SEQUENCE_OFFSET));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,723 @@
+package com.nba.stats.wal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.service.LiveStatService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of the accepted stat lines, so the season deltas applied to Redis since the
+ * last complete Postgres sync survive losing Redis.
+ *
+ * Records are fixed-width ({@link WalRecordCodec}) and written into memory-mapped segment files
+ * of segment-records records each, preallocated and named after their first sequence. An append
+ * is a copy into the mapped page under a lock; the fsync policy decides when it reaches the disk:
+ * <ul>
+ * <li>PERIODIC - the flusher forces the active segment every fsync interval, the append returns
+ * right away. A crash of the application or of Redis loses nothing, a power loss up to one interval.</li>
+ * <li>GROUP - the append waits for the next force of the flusher, which covers every record
+ * appended since the previous one.</li>
+ * <li>ALWAYS - every append forces its own record.</li>
+ * </ul>
+ *
+ * Lines are applied to Redis through {@link #apply}, which the sync excludes while it reads the
+ * season hashes ({@link #pauseApplying}). Every complete sync run then checkpoints exactly the
+ * lines that were applied when it read: every sequence up to the last one appended, except the
+ * appends still in flight. An append whose apply failed stays in flight until a later line of
+ * each of its players and games is applied. At startup, before the event bus and the web server,
+ * the newest line per game and player the checkpoint does not cover is applied again. Lines are
+ * cumulative, so that is a no-op for lines Redis still has. When Redis lost the game snapshot, it
+ * is first restored from the newest covered line - the part the database already counts.
+ * Segments are deleted once the checkpoint covers them and they are older than the retention,
+ * which keeps those base lines for games that are still live.
+ */
+@Component
+@ConditionalOnProperty(name = "nba.wal.enabled", havingValue = "true")
+@Slf4j
+public class WriteAheadLog implements SmartLifecycle {
+
+    public enum FsyncPolicy { PERIODIC, GROUP, ALWAYS }
+
+    // After the legacy migration, before the post-ingest event bus and the web server
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 6144;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOCK_FILE = "lock";
+    private static final long SNAPSHOT_TTL_MS = TimeUnit.HOURS.toMillis(RedisStatsRepository.GAME_STATS_TTL_HOURS);
+
+    private final ObjectProvider<LiveStatService> liveStatServiceProvider;
+    private final RedisStatsRepository redisStatsRepository;
+    private final Path directory;
+    private final int segmentRecords;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMs;
+    private final long retentionMs;
+    private final int replayBatchSize;
+    private final Timer appendTimer;
+    private final Counter appendedRecords;
+    private final Counter replayedLines;
+
+    // Appends, the active segment and the in-flight sequences are guarded by the lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition forcedUpdated = lock.newCondition();
+    // Held shared while lines are applied to Redis, exclusively while the sync reads what they wrote
+    private final ReentrantReadWriteLock applyGate = new ReentrantReadWriteLock();
+    private final byte[] scratch = new byte[WalRecordCodec.RECORD_SIZE];
+    // First sequence -> record count of appends whose lines are not applied to Redis yet
+    private final NavigableMap<Long, Integer> inFlight = new TreeMap<>();
+    // First sequence of a failed append -> sequence of its line per game and player, until a later line is applied
+    private final Map<Long, Map<Long, Long>> failed = new HashMap<>();
+    // Game and player -> sequence of the newest line applied; entries the checkpoint covers are dropped
+    private final Map<Long, Long> appliedByPlayerGame = new HashMap<>();
+    private final Deque<SegmentInfo> closedSegments = new ArrayDeque<>();
+    private Segment active;
+    private long nextSequence = 1;
+    // Every record up to here is on disk
+    private volatile long forcedSequence;
+    private volatile Checkpoint checkpoint = Checkpoint.EMPTY;
+    private volatile boolean running;
+    private FileChannel lockChannel;
+    private FileLock directoryLock;
+    private Thread flusher;
+
+    public WriteAheadLog(
+            ObjectProvider<LiveStatService> liveStatServiceProvider,
+            RedisStatsRepository redisStatsRepository,
+            @Value("${nba.wal.directory:data/wal}") String directory,
+            @Value("${nba.wal.segment-records:1048576}") int segmentRecords,
+            @Value("${nba.wal.fsync:periodic}") String fsyncPolicy,
+            @Value("${nba.wal.fsync-interval-ms:5}") long fsyncIntervalMs,
+            @Value("${nba.wal.retention-hours:6}") long retentionHours,
+            @Value("${nba.sync.batch-size:500}") int replayBatchSize,
+            MeterRegistry meterRegistry) {
+
+        // Resolved on replay - the ingest service itself depends on the log
+        this.liveStatServiceProvider = liveStatServiceProvider;
+        this.redisStatsRepository = redisStatsRepository;
+        this.directory = Path.of(directory);
+        this.segmentRecords = segmentRecords;
+        this.fsyncPolicy = FsyncPolicy.valueOf(fsyncPolicy.toUpperCase(Locale.ROOT));
+        this.fsyncIntervalMs = fsyncIntervalMs;
+        this.retentionMs = TimeUnit.HOURS.toMillis(retentionHours);
+        this.replayBatchSize = replayBatchSize;
+        this.appendTimer = Timer.builder("nba.wal.append")
+                .description("Append of stat lines to the write-ahead log, including the wait for fsync")
+                .tag("fsync", this.fsyncPolicy.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        this.appendedRecords = Counter.builder("nba.wal.records")
+                .description("Records appended to the write-ahead log")
+                .register(meterRegistry);
+        this.replayedLines = Counter.builder("nba.wal.replayed")
+                .description("Stat lines applied again from the write-ahead log at startup")
+                .register(meterRegistry);
+        Gauge.builder("nba.wal.unsynced", this, wal -> wal.nextSequence - 1 - wal.checkpoint.sequence())
+                .description("Records appended after the last sync checkpoint")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Log one line; returns its sequence, to be passed to {@link #apply}
+     */
+    public long append(LiveStatDto line) {
+        return appendAll(List.of(line));
+    }
+
+    /**
+     * Log lines as consecutive records; returns the first sequence, to be passed to {@link #apply}
+     */
+    public long appendAll(Collection<LiveStatDto> lines) {
+        long start = System.nanoTime();
+        long first;
+        long last;
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Write-ahead log is not open");
+            }
+            first = nextSequence;
+            int fromRecord = active.records;
+            long now = System.currentTimeMillis();
+            for (LiveStatDto line : lines) {
+                if (active.records == active.capacity) {
+                    roll();
+                    fromRecord = 0;
+                }
+                WalRecordCodec.encode(line, nextSequence, now, scratch);
+                active.buffer.put(active.records * WalRecordCodec.RECORD_SIZE, scratch);
+                active.records++;
+                active.lastTimestamp = now;
+                nextSequence++;
+            }
+            last = nextSequence - 1;
+            inFlight.put(first, lines.size());
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                active.buffer.force(fromRecord * WalRecordCodec.RECORD_SIZE,
+                        (active.records - fromRecord) * WalRecordCodec.RECORD_SIZE);
+                forcedSequence = last;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (fsyncPolicy == FsyncPolicy.GROUP) {
+            awaitForced(last);
+        }
+        appendedRecords.increment(lines.size());
+        appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return first;
+    }
+
+    /**
+     * Apply the logged lines of one append to Redis. On success they count as applied; when
+     * apply throws, the append stays in flight - and is replayed after a Redis loss - until a
+     * later line of each of its games and players is applied.
+     */
+    public void apply(long firstSequence, Collection<LiveStatDto> lines, Runnable apply) {
+        applyGate.readLock().lock();
+        try {
+            apply.run();
+            applied(firstSequence, lines);
+        } catch (RuntimeException e) {
+            failed(firstSequence, lines);
+            throw e;
+        } finally {
+            applyGate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run read with no line being applied to Redis and return what it saw: every appended line
+     * except those still in flight. Checkpointed once the database holds what read returned.
+     */
+    public Checkpoint pauseApplying(Runnable read) {
+        applyGate.writeLock().lock();
+        try {
+            read.run();
+            lock.lock();
+            try {
+                return new Checkpoint(nextSequence - 1, new TreeMap<>(inFlight));
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            applyGate.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record that the database holds the lines the checkpoint covers, and delete the segments
+     * it covers that are past the retention
+     */
+    public void checkpoint(Checkpoint synced) {
+        if (synced.sequence() <= checkpoint.sequence() && synced.inFlight().equals(checkpoint.inFlight())) {
+            return;
+        }
+        StringBuilder content = new StringBuilder().append(synced.sequence());
+        synced.inFlight().forEach((first, count) -> content.append('\n').append(first).append(' ').append(count));
+        try {
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.US_ASCII)));
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpoint = synced;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the write-ahead log checkpoint", e);
+        }
+        lock.lock();
+        try {
+            // Lines the database holds supersede no failed append any more
+            appliedByPlayerGame.values().removeIf(synced::covers);
+        } finally {
+            lock.unlock();
+        }
+        deleteExpiredSegments();
+    }
+
+    public long getCheckpointSequence() {
+        return checkpoint.sequence();
+    }
+
+    private void applied(long firstSequence, Collection<LiveStatDto> lines) {
+        lock.lock();
+        try {
+            inFlight.remove(firstSequence);
+            long sequence = firstSequence;
+            for (LiveStatDto line : lines) {
+                appliedByPlayerGame.merge(playerGame(line), sequence++, Math::max);
+            }
+            if (failed.isEmpty()) {
+                return;
+            }
+            for (Iterator<Map.Entry<Long, Map<Long, Long>>> it = failed.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Long, Map<Long, Long>> append = it.next();
+                sequence = firstSequence;
+                for (LiveStatDto line : lines) {
+                    long applied = sequence++;
+                    append.getValue().computeIfPresent(playerGame(line), (key, pending) -> pending < applied ? null : pending);
+                }
+                if (append.getValue().isEmpty()) {
+                    inFlight.remove(append.getKey());
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void failed(long firstSequence, Collection<LiveStatDto> lines) {
+        lock.lock();
+        try {
+            Map<Long, Long> pending = new HashMap<>();
+            long sequence = firstSequence;
+            for (LiveStatDto line : lines) {
+                long key = playerGame(line);
+                // A later line of the same game and player may have been applied already
+                if (appliedByPlayerGame.getOrDefault(key, 0L) < sequence) {
+                    pending.put(key, sequence);
+                }
+                sequence++;
+            }
+            if (pending.isEmpty()) {
+                inFlight.remove(firstSequence);
+            } else {
+                failed.put(firstSequence, pending);
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.warn("Failed to apply {} stat lines from sequence {}, kept for replay until newer lines arrive",
+                lines.size(), firstSequence);
+    }
+
+    private static long playerGame(LiveStatDto line) {
+        return ((long) line.getGameId() << 32) | (line.getPlayerId() & 0xffffffffL);
+    }
+
+    /**
+     * Recover the segments, replay what the last checkpoint does not cover and open for appends.
+     * Fails startup when the replay fails - taking requests first could apply newer lines
+     * before the ones that were lost.
+     */
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(directory);
+            lockDirectory();
+            checkpoint = readCheckpoint();
+            recoverAndReplay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the write-ahead log in " + directory, e);
+        }
+        running = true;
+        if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+            flusher = Thread.ofPlatform().daemon().name("wal-flusher").start(this::runFlusher);
+        }
+        log.info("Opened write-ahead log in {} at sequence {}, checkpoint {}, fsync {}",
+                directory, nextSequence, checkpoint.sequence(), fsyncPolicy);
+    }
+
+    /**
+     * Force what is appended and close - after the web server and the event bus stopped
+     */
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            if (active != null) {
+                active.buffer.force();
+                forcedSequence = nextSequence - 1;
+                active.channel.close();
+            }
+            forcedUpdated.signalAll();
+        } catch (IOException e) {
+            log.error("Failed to close write-ahead log segment {}", active.path, e);
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            directoryLock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to release write-ahead log directory lock", e);
+        }
+        log.info("Closed write-ahead log at sequence {}", forcedSequence);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * One log per directory - a second instance appending to the same segments would corrupt them
+     */
+    private void lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            directoryLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another log in this JVM
+            directoryLock = null;
+        }
+        if (directoryLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Write-ahead log directory " + directory + " is used by another process");
+        }
+    }
+
+    private void recoverAndReplay() throws IOException {
+        List<Path> segmentPaths;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentPaths = files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        // Newest line per game and player, covered by the checkpoint and not
+        Map<Long, LoggedLine> baseLines = new HashMap<>();
+        Map<Long, LoggedLine> latestLines = new LinkedHashMap<>();
+        Segment last = null;
+        long lastSequence = checkpoint.sequence();
+        for (Path path : segmentPaths) {
+            if (last != null) {
+                last.channel.close();
+                closedSegments.add(last.info());
+            }
+            last = openSegment(path, firstSequenceOf(path));
+            ByteBuffer record = last.buffer.duplicate();
+            for (int i = 0; i < last.capacity; i++) {
+                record.position(i * WalRecordCodec.RECORD_SIZE);
+                if (!WalRecordCodec.isValid(record) || WalRecordCodec.sequence(record) != last.firstSequence + i) {
+                    break;
+                }
+                long sequence = WalRecordCodec.sequence(record);
+                LoggedLine line = new LoggedLine(WalRecordCodec.decode(record), sequence,
+                        WalRecordCodec.timestampMillis(record));
+                if (checkpoint.covers(sequence)) {
+                    baseLines.put(playerGame(line.line()), line);
+                } else {
+                    latestLines.put(playerGame(line.line()), line);
+                }
+                last.records = i + 1;
+                last.lastTimestamp = WalRecordCodec.timestampMillis(record);
+                lastSequence = Math.max(lastSequence, sequence);
+            }
+        }
+
+        replay(baseLines, latestLines);
+
+        nextSequence = lastSequence + 1;
+        forcedSequence = lastSequence;
+        if (last != null && last.records < last.capacity && last.firstSequence + last.records == nextSequence) {
+            // Keep appending to the last segment, over a torn record at its end if there is one
+            active = last;
+        } else {
+            if (last != null) {
+                last.channel.close();
+                closedSegments.add(last.info());
+            }
+            active = openSegment(segmentPath(nextSequence), nextSequence);
+        }
+    }
+
+    /**
+     * Apply the newest lines the checkpoint does not cover again, on top of their restored base
+     * lines. Skipped are lines behind a newer covered line of their game and player, lines older
+     * than the game snapshot TTL - their snapshot expired with Redis
+     * intact, so the line would count as a first line and add the game and every stat a second
+     * time - and lines of games whose snapshot is marked finished. A base line older than the
+     * snapshot TTL when its newer line arrived had expired by then and is not restored either.
+     */
+    private void replay(Map<Long, LoggedLine> baseLines, Map<Long, LoggedLine> latestLines) {
+        long start = System.currentTimeMillis();
+        long expiredBefore = start - SNAPSHOT_TTL_MS;
+        List<LiveStatDto> lines = new ArrayList<>();
+        List<LiveStatDto> bases = new ArrayList<>();
+        int superseded = 0;
+        for (Map.Entry<Long, LoggedLine> latest : latestLines.entrySet()) {
+            LoggedLine line = latest.getValue();
+            LoggedLine base = baseLines.get(latest.getKey());
+            if (base != null && base.sequence() > line.sequence()) {
+                // Still in flight at the checkpoint, a newer line of the same game counted since
+                superseded++;
+                continue;
+            }
+            if (line.timestampMillis() < expiredBefore) {
+                continue;
+            }
+            lines.add(line.line());
+            if (base != null && line.timestampMillis() - base.timestampMillis() <= SNAPSHOT_TTL_MS) {
+                bases.add(base.line());
+            }
+        }
+        int expired = latestLines.size() - superseded - lines.size();
+        if (!lines.isEmpty()) {
+            Set<Integer> finishedGames = redisStatsRepository.findFinishedGames(lines);
+            if (!finishedGames.isEmpty()) {
+                lines.removeIf(line -> finishedGames.contains(line.getGameId()));
+                bases.removeIf(line -> finishedGames.contains(line.getGameId()));
+            }
+        }
+        if (lines.isEmpty()) {
+            if (!latestLines.isEmpty()) {
+                log.info("Skipped {} stat lines after checkpoint {} in the write-ahead log, expired, superseded or of finished games",
+                        latestLines.size(), checkpoint.sequence());
+            }
+            return;
+        }
+        long restored = bases.isEmpty() ? 0 : redisStatsRepository.restoreGameSnapshots(bases);
+
+        LiveStatService liveStatService = liveStatServiceProvider.getObject();
+        for (int from = 0; from < lines.size(); from += replayBatchSize) {
+            liveStatService.replayLiveStats(lines.subList(from, Math.min(from + replayBatchSize, lines.size())));
+        }
+        replayedLines.increment(lines.size());
+        log.info("Replayed {} stat lines after checkpoint {} from the write-ahead log ({} game snapshots restored, "
+                + "{} expired, {} superseded and {} of finished games skipped) in {} ms",
+                lines.size(), checkpoint.sequence(), restored, expired, superseded,
+                latestLines.size() - superseded - expired - lines.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Close the full active segment and start the next one - called under the lock
+     */
+    private void roll() {
+        try {
+            active.buffer.force();
+            forcedSequence = nextSequence - 1;
+            active.channel.close();
+            closedSegments.add(active.info());
+            active = openSegment(segmentPath(nextSequence), nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll write-ahead log segment", e);
+        }
+        forcedUpdated.signalAll();
+        log.debug("Rolled write-ahead log to segment {}", active.path);
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                Thread.sleep(fsyncIntervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Segment segment;
+            long target;
+            lock.lock();
+            try {
+                segment = active;
+                target = nextSequence - 1;
+            } finally {
+                lock.unlock();
+            }
+            if (target <= forcedSequence) {
+                continue;
+            }
+            // Outside the lock - appends go on while the pages are written back; a roll in
+            // between forced this segment already
+            segment.buffer.force();
+            lock.lock();
+            try {
+                forcedSequence = Math.max(forcedSequence, target);
+                forcedUpdated.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void awaitForced(long sequence) {
+        lock.lock();
+        try {
+            while (forcedSequence < sequence && running) {
+                forcedUpdated.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write-ahead log fsync", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteExpiredSegments() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        long covered = checkpoint.coveredPrefix();
+        List<SegmentInfo> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (!closedSegments.isEmpty()) {
+                SegmentInfo oldest = closedSegments.peekFirst();
+                if (oldest.lastSequence() > covered || oldest.lastTimestamp() >= cutoff) {
+                    break;
+                }
+                expired.add(closedSegments.pollFirst());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (SegmentInfo segment : expired) {
+            try {
+                Files.deleteIfExists(segment.path());
+                log.debug("Deleted write-ahead log segment {}", segment.path());
+            } catch (IOException e) {
+                log.warn("Failed to delete write-ahead log segment {}", segment.path(), e);
+            }
+        }
+    }
+
+    /**
+     * The checkpoint file holds the sequence on its first line and an in-flight append per
+     * further line, as first sequence and record count
+     */
+    private Checkpoint readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return Checkpoint.EMPTY;
+        }
+        List<String> lines = Files.readString(path, StandardCharsets.US_ASCII).strip().lines().toList();
+        NavigableMap<Long, Integer> inFlight = new TreeMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] append = line.split(" ");
+            inFlight.put(Long.parseLong(append[0]), Integer.parseInt(append[1]));
+        }
+        return new Checkpoint(Long.parseLong(lines.get(0)), inFlight);
+    }
+
+    /**
+     * Map a segment file, creating and preallocating it when it does not exist
+     */
+    private Segment openSegment(Path path, long firstSequence) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), (long) segmentRecords * WalRecordCodec.RECORD_SIZE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new Segment(path, firstSequence, channel, buffer, (int) (size / WalRecordCodec.RECORD_SIZE));
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", firstSequence) + SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long firstSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int records;
+        private long lastTimestamp;
+
+        private Segment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        private SegmentInfo info() {
+            return new SegmentInfo(path, firstSequence + records - 1, lastTimestamp);
+        }
+    }
+
+    private record SegmentInfo(Path path, long lastSequence, long lastTimestamp) {
+    }
+
+    /**
+     * Lines the database holds after a sync: every sequence up to sequence, except the appends
+     * in flight at the time (first sequence -> record count)
+     */
+    public record Checkpoint(long sequence, NavigableMap<Long, Integer> inFlight) {
+
+        static final Checkpoint EMPTY = new Checkpoint(0, new TreeMap<>());
+
+        public boolean covers(long lineSequence) {
+            if (lineSequence > sequence) {
+                return false;
+            }
+            Map.Entry<Long, Integer> append = inFlight.floorEntry(lineSequence);
+            return append == null || lineSequence >= append.getKey() + append.getValue();
+        }
+
+        /**
+         * Highest sequence up to which every line is covered
+         */
+        long coveredPrefix() {
+            return inFlight.isEmpty() ? sequence : Math.min(sequence, inFlight.firstKey() - 1);
+        }
+    }
+
+    private record LoggedLine(LiveStatDto line, long sequence, long timestampMillis) {
+    }
+}
@@ -0,0 +1,45 @@
+-- Increments one season hash by a delta and marks it dirty for the Postgres sync.
+-- For a player hash the caller also passes the season leaderboards, and the
+-- player's total and per-game average of every stat are rewritten from the hash.
+-- All keys are in the slot bucket of the hash's player or team.
+--
+-- KEYS[1] season hash            s:{season}:p:{playerId}:{bN} or s:{season}:t:{teamId}:{bN}
+-- KEYS[2] dirty set              dirty:s:{season}:{bN}
+-- KEYS[3] dirty version counter  dirty:s:{season}:{bN}:version
+-- KEYS[4..19] optional, player hashes only: leaderboards lead:{season}:{stat}:total:{bN}
+--             and :avg:{bN} in pairs, in the order of apply_stat_line.lua
+-- ARGV[1..7] points, rebounds, assists, steals, blocks, fouls, turnovers
+-- ARGV[8] seconds played, whole seconds
+-- ARGV[9] gamesPlayed
+-- ARGV[10] near-cache invalidation channel
+-- ARGV[11] playerId, the leaderboard member - only with the leaderboard keys
+--
+-- Field codes mirror RedisFields.
+
+local STAT_FIELDS = { 'pt', 'rb', 'as', 'st', 'bk', 'pf', 'to' }
+
+for i, field in ipairs(STAT_FIELDS) do
+    redis.call('HINCRBY', KEYS[1], field, ARGV[i])
+end
+redis.call('HINCRBY', KEYS[1], 'sec', ARGV[8])
+redis.call('HINCRBY', KEYS[1], 'gp', ARGV[9])
+
+if #KEYS > 3 then
+    local sums = redis.call('HMGET', KEYS[1], 'gp', 'pt', 'rb', 'as', 'st', 'bk', 'pf', 'to', 'sec')
+    local games = tonumber(sums[1]) or 0
+    for i = 1, 8 do
+        local total = tonumber(sums[i + 1]) or 0
+        if i == 8 then
+            -- Minutes leaderboards rank minutes, the hash holds seconds
+            total = total / 60
+        end
+        redis.call('ZADD', KEYS[2 + 2 * i], total, ARGV[11])
+        if games > 0 then
+            redis.call('ZADD', KEYS[3 + 2 * i], total / games, ARGV[11])
+        end
+    end
+end
+
+redis.call('ZADD', KEYS[2], redis.call('INCR', KEYS[3]), KEYS[1])
+redis.call('PUBLISH', ARGV[10], KEYS[1])
+return 1
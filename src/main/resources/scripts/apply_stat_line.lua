@@ -0,0 +1,134 @@
+-- Applies one cumulative stat line atomically: compares it with the player's
+-- previous snapshot for the game, increments the player and team season hashes
+-- by the difference, counts the game once per player and once per team, and
+-- stores the line as the new snapshot. The game is (re)registered in the
+-- player's live-game index with the snapshot's expiry as score - unless the
+-- snapshot is marked finished (gs = F), a late correction or a write-ahead log
+-- replay must not make a finished game live again - and season
+-- hashes that changed are marked dirty for the Postgres sync. With only the
+-- team-game marker (KEYS[22]) or no team key at all the team season hash is
+-- left alone - the caller applies the team delta itself, through the
+-- write-behind coalescer or, on a Redis Cluster where the team's keys live in
+-- another slot, with apply_season_delta; on a cluster the caller also sets the
+-- team-game marker itself.
+-- The player's entries in the season leaderboards are moved with the hash:
+-- total and per-game average of every stat that changed, all of them when the
+-- line adds a game.
+--
+-- KEYS[1..21] are all in the player's slot bucket:
+-- KEYS[1] player game snapshot    g:{gameId}:p:{playerId}:{bN}
+-- KEYS[2] player season hash      s:{season}:p:{playerId}:{bN}
+-- KEYS[3] player live-game index  live:p:{playerId}:{bN}
+-- KEYS[4] dirty set               dirty:s:{season}:{bN}
+-- KEYS[5] dirty version counter   dirty:s:{season}:{bN}:version
+-- KEYS[6..21] leaderboards lead:{season}:{stat}:total:{bN} and :avg:{bN}, in pairs
+--             for points, rebounds, assists, steals, blocks, fouls, turnovers, minutes
+-- KEYS[22..25] optional, in the team's slot bucket - standalone Redis only:
+-- KEYS[22] team season hash       s:{season}:t:{teamId}:{bM}
+-- KEYS[23] team-game marker       team_game:{teamId}:{gameId}:{bM}
+-- KEYS[24] team dirty set         dirty:s:{season}:{bM}
+-- KEYS[25] team dirty version     dirty:s:{season}:{bM}:version
+-- or KEYS[22] alone, the team-game marker, when the caller applies the team delta
+-- ARGV[1] snapshot and marker TTL in seconds
+-- ARGV[2..4] gameId, teamId, playerId
+-- ARGV[5..11] points, rebounds, assists, steals, blocks, fouls, turnovers
+-- ARGV[12] seconds played, whole seconds
+-- ARGV[13] snapshot expiry, epoch millis - score of the game in the live index
+-- ARGV[14] near-cache invalidation channel, gets the changed season keys
+--
+-- Returns { firstPlayerLine, firstTeamLine, 7 integer deltas, seconds delta };
+-- firstTeamLine is always 0 without a team key.
+-- Field codes mirror RedisFields; the snapshot leaves game and player id to its key.
+
+local STAT_FIELDS = { 'pt', 'rb', 'as', 'st', 'bk', 'pf', 'to' }
+local LEADERBOARD_KEYS = 5
+local TEAM_KEYS = 22
+
+local ttl = tonumber(ARGV[1])
+local applyTeam = #KEYS > TEAM_KEYS
+local teamGameMarker = applyTeam and KEYS[TEAM_KEYS + 1] or KEYS[TEAM_KEYS]
+local previous = redis.call('HMGET', KEYS[1], 'pt', 'rb', 'as', 'st', 'bk', 'pf', 'to', 'sec', 'gs')
+local firstPlayerLine = not previous[1]
+local finished = previous[9] == 'F'
+
+local result = { firstPlayerLine and 1 or 0, 0 }
+local changed = firstPlayerLine
+local snapshot = { 'tid', ARGV[3] }
+local statChanged = {}
+
+for i, field in ipairs(STAT_FIELDS) do
+    local delta = tonumber(ARGV[4 + i]) - (tonumber(previous[i]) or 0)
+    if delta ~= 0 then
+        redis.call('HINCRBY', KEYS[2], field, delta)
+        if applyTeam then
+            redis.call('HINCRBY', KEYS[TEAM_KEYS], field, delta)
+        end
+        changed = true
+    end
+    statChanged[i] = delta ~= 0
+    result[2 + i] = delta
+    snapshot[#snapshot + 1] = field
+    snapshot[#snapshot + 1] = ARGV[4 + i]
+end
+
+local secondsDelta = tonumber(ARGV[12]) - (tonumber(previous[8]) or 0)
+if secondsDelta ~= 0 then
+    redis.call('HINCRBY', KEYS[2], 'sec', secondsDelta)
+    if applyTeam then
+        redis.call('HINCRBY', KEYS[TEAM_KEYS], 'sec', secondsDelta)
+    end
+    changed = true
+end
+statChanged[8] = secondsDelta ~= 0
+result[10] = secondsDelta
+snapshot[#snapshot + 1] = 'sec'
+snapshot[#snapshot + 1] = ARGV[12]
+
+if firstPlayerLine then
+    redis.call('HINCRBY', KEYS[2], 'gp', 1)
+end
+if changed then
+    local sums = redis.call('HMGET', KEYS[2], 'gp', 'pt', 'rb', 'as', 'st', 'bk', 'pf', 'to', 'sec')
+    local games = tonumber(sums[1]) or 0
+    for i = 1, 8 do
+        if firstPlayerLine or statChanged[i] then
+            local total = tonumber(sums[i + 1]) or 0
+            if i == 8 then
+                -- Minutes leaderboards rank minutes, the hash holds seconds
+                total = total / 60
+            end
+            redis.call('ZADD', KEYS[LEADERBOARD_KEYS + 2 * i - 1], total, ARGV[4])
+            if games > 0 then
+                redis.call('ZADD', KEYS[LEADERBOARD_KEYS + 2 * i], total / games, ARGV[4])
+            end
+        end
+    end
+end
+if teamGameMarker and redis.call('SET', teamGameMarker, '1', 'EX', ttl, 'NX') then
+    if applyTeam then
+        redis.call('HINCRBY', KEYS[TEAM_KEYS], 'gp', 1)
+    end
+    result[2] = 1
+end
+
+if changed then
+    redis.call('ZADD', KEYS[4], redis.call('INCR', KEYS[5]), KEYS[2])
+    if applyTeam then
+        redis.call('ZADD', KEYS[TEAM_KEYS + 2], redis.call('INCR', KEYS[TEAM_KEYS + 3]), KEYS[TEAM_KEYS])
+        redis.call('PUBLISH', ARGV[14], KEYS[2] .. ' ' .. KEYS[TEAM_KEYS])
+    else
+        redis.call('PUBLISH', ARGV[14], KEYS[2])
+    end
+end
+
+redis.call('HMSET', KEYS[1], unpack(snapshot))
+redis.call('EXPIRE', KEYS[1], ttl)
+
+if not finished then
+    local expiresAt = tonumber(ARGV[13])
+    redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', expiresAt - ttl * 1000)
+    redis.call('ZADD', KEYS[3], expiresAt, ARGV[2])
+    redis.call('EXPIRE', KEYS[3], ttl)
+end
+
+return result
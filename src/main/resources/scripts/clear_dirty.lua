@@ -0,0 +1,18 @@
+-- Removes synced season keys from the dirty set, but only those whose dirty
+-- version is still the one read before the sync - a key changed in between
+-- stays dirty for the next run.
+--
+-- KEYS[1] dirty set of one slot bucket  dirty:s:{season}:{bN}
+-- ARGV    pairs of season key, version read before the sync
+--
+-- Returns the number of keys removed
+
+local cleared = 0
+for i = 1, #ARGV, 2 do
+    local version = redis.call('ZSCORE', KEYS[1], ARGV[i])
+    if version and tonumber(version) == tonumber(ARGV[i + 1]) then
+        redis.call('ZREM', KEYS[1], ARGV[i])
+        cleared = cleared + 1
+    end
+end
+return cleared
@@ -0,0 +1,65 @@
+-- Finishes one player's game at the buzzer: drops the game from the player's
+-- live-game index and marks the game snapshot FINISHED - only when the
+-- snapshot still exists, so an expired one is not recreated without a TTL.
+-- The first time a game is finished its final line is pushed onto the player's
+-- recent-games ring buffer, and the running sums of every last-N window take
+-- the new line in and the line that fell out of the window out.
+--
+-- All keys are in the player's slot bucket:
+-- KEYS[1] player game snapshot    g:{gameId}:p:{playerId}:{bN}
+-- KEYS[2] player live-game index  live:p:{playerId}:{bN}
+-- KEYS[3] recent games, newest first, "gameId points ... secondsPlayed"
+--                                 recent:s:{season}:p:{playerId}:{bN}
+-- KEYS[4..] running sums of the last ARGV[2..] games, one season-hash layout each
+--                                 form:s:{season}:p:{playerId}:{window}:{bN}
+-- ARGV[1] gameId
+-- ARGV[2..] window sizes, ascending - the largest is the ring buffer size
+--
+-- Returns the snapshot's final line { teamId, points, rebounds, assists, steals,
+-- blocks, fouls, turnovers, secondsPlayed }, or false when there is no snapshot
+-- Field codes mirror RedisFields.
+
+local STAT_FIELDS = { 'pt', 'rb', 'as', 'st', 'bk', 'pf', 'to', 'sec' }
+
+redis.call('ZREM', KEYS[2], ARGV[1])
+local line = redis.call('HMGET', KEYS[1], 'tid', 'pt', 'rb', 'as', 'st', 'bk', 'pf', 'to', 'sec', 'gs')
+if not line[1] then
+    return false
+end
+local alreadyFinished = line[10] == 'F'
+line[10] = nil
+
+if not alreadyFinished then
+    redis.call('HSET', KEYS[1], 'gs', 'F')
+
+    local entry = { ARGV[1] }
+    for i = 2, 9 do
+        entry[i] = line[i] or '0'
+    end
+    redis.call('LPUSH', KEYS[3], table.concat(entry, ' '))
+    local length = redis.call('LLEN', KEYS[3])
+
+    local window = 0
+    for w = 2, #ARGV do
+        window = tonumber(ARGV[w])
+        local sums = KEYS[2 + w]
+        for i, field in ipairs(STAT_FIELDS) do
+            redis.call('HINCRBY', sums, field, entry[i + 1])
+        end
+
+        if length > window then
+            -- The line at index window just left this window
+            local evicted = {}
+            for value in string.gmatch(redis.call('LINDEX', KEYS[3], window), '%S+') do
+                evicted[#evicted + 1] = value
+            end
+            for i, field in ipairs(STAT_FIELDS) do
+                redis.call('HINCRBY', sums, field, -tonumber(evicted[i + 1]))
+            end
+        end
+        redis.call('HSET', sums, 'gp', math.min(length, window))
+    end
+    redis.call('LTRIM', KEYS[3], 0, window - 1)
+end
+
+return line
@@ -0,0 +1,78 @@
+-- Rewrites one key written in the legacy layout (long field names, decimal
+-- minutes) into the compact one of RedisFields. Safe to run while stat lines
+-- are applied: legacy sums are added onto the compact fields and then deleted,
+-- so increments that already went to the compact fields are kept. Keys that
+-- are already compact are left untouched.
+--
+-- KEYS[1] key to migrate
+-- ARGV[1] layout of the key:
+--         sums      season hash s:* or recent-form hash form:*
+--         snapshot  player game snapshot g:{gameId}:p:{playerId}:{bN}
+--         recent    recent games list recent:*
+--
+-- Returns 1 when the key was rewritten, 0 otherwise
+
+local SUM_FIELDS = {
+    { 'games_played', 'gp' }, { 'sum_points', 'pt' }, { 'sum_rebounds', 'rb' },
+    { 'sum_assists', 'as' }, { 'sum_steals', 'st' }, { 'sum_blocks', 'bk' },
+    { 'sum_fouls', 'pf' }, { 'sum_turnovers', 'to' }
+}
+local SNAPSHOT_FIELDS = {
+    { 'teamId', 'tid' }, { 'points', 'pt' }, { 'rebounds', 'rb' }, { 'assists', 'as' },
+    { 'steals', 'st' }, { 'blocks', 'bk' }, { 'fouls', 'pf' }, { 'turnovers', 'to' }
+}
+
+local function toSeconds(minutes)
+    return math.floor(tonumber(minutes) * 60 + 0.5)
+end
+
+local key = KEYS[1]
+local layout = ARGV[1]
+local migrated = 0
+
+if layout == 'sums' then
+    for _, field in ipairs(SUM_FIELDS) do
+        local value = redis.call('HGET', key, field[1])
+        if value then
+            redis.call('HINCRBY', key, field[2], value)
+            redis.call('HDEL', key, field[1])
+            migrated = 1
+        end
+    end
+    local minutes = redis.call('HGET', key, 'sum_minutes')
+    if minutes then
+        redis.call('HINCRBY', key, 'sec', toSeconds(minutes))
+        redis.call('HDEL', key, 'sum_minutes')
+        migrated = 1
+    end
+elseif layout == 'snapshot' then
+    -- A snapshot is a cumulative line, not a sum - a compact value written since wins
+    local minutes = redis.call('HGET', key, 'minutesPlayed')
+    if minutes then
+        for _, field in ipairs(SNAPSHOT_FIELDS) do
+            local value = redis.call('HGET', key, field[1])
+            if value then
+                redis.call('HSETNX', key, field[2], value)
+            end
+        end
+        redis.call('HSETNX', key, 'sec', toSeconds(minutes))
+        if redis.call('HGET', key, 'gameStatus') == 'FINISHED' then
+            redis.call('HSETNX', key, 'gs', 'F')
+        end
+        redis.call('HDEL', key, 'gameId', 'teamId', 'playerId', 'points', 'rebounds', 'assists',
+            'steals', 'blocks', 'fouls', 'turnovers', 'minutesPlayed', 'gameStatus')
+        migrated = 1
+    end
+elseif layout == 'recent' then
+    -- Legacy entries end in decimal minutes ("35.5", "20.0"), compact ones in whole seconds
+    local entries = redis.call('LRANGE', key, 0, -1)
+    for i, entry in ipairs(entries) do
+        local head, minutes = string.match(entry, '^(.* )(%S+)$')
+        if minutes and string.find(minutes, '.', 1, true) then
+            redis.call('LSET', key, i - 1, head .. toSeconds(minutes))
+            migrated = 1
+        end
+    end
+end
+
+return migrated
@@ -0,0 +1,23 @@
+-- Restores a player's game snapshot from the write-ahead log after Redis lost
+-- it - only when the snapshot does not exist, so a newer one is never replaced.
+-- The restored line is the one the database already counts, so replaying the
+-- lines logged after it applies just the difference.
+--
+-- Both keys are in the player's slot bucket:
+-- KEYS[1] player game snapshot    g:{gameId}:p:{playerId}:{bN}
+-- KEYS[2] player live-game index  live:p:{playerId}:{bN}
+-- ARGV[1] gameId
+-- ARGV[2] snapshot TTL in seconds
+-- ARGV[3] live-game index expiry (epoch millis)
+-- ARGV[4..] field, value pairs of the snapshot
+--
+-- Returns 1 when the snapshot was restored, 0 when it exists
+
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+redis.call('HMSET', KEYS[1], unpack(ARGV, 4))
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1])
+redis.call('EXPIRE', KEYS[2], ARGV[2])
+return 1
@@ -0,0 +1,22 @@
+-- Stores a season hash loaded from the database only when Redis has none, and
+-- puts the player into the season leaderboards with it. Existence check and
+-- store are one step, so a stat line applied after the database read is never
+-- overwritten with the older totals.
+--
+-- All keys are in the season hash's slot bucket:
+-- KEYS[1] season hash             s:{season}:p|t:{id}:{bN}
+-- KEYS[2..] optional leaderboards lead:{season}:{stat}:total|avg:{bN}
+-- ARGV[1] leaderboard member, the player id - unused without leaderboards
+-- ARGV[2..#KEYS] score of the player in KEYS[2..#KEYS]
+-- ARGV[#KEYS + 1..] field, value pairs of the hash
+--
+-- Returns 1 when the hash was stored, 0 when it exists
+
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+redis.call('HMSET', KEYS[1], unpack(ARGV, #KEYS + 1))
+for i = 2, #KEYS do
+    redis.call('ZADD', KEYS[i], ARGV[i], ARGV[1])
+end
+return 1
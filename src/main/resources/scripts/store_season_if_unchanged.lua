@@ -0,0 +1,28 @@
+-- Stores a recomputed season hash and moves the player's leaderboard entries
+-- with it, only when the hash's dirty version is still the one read before the
+-- totals were computed. Every write to a season hash bumps its dirty version,
+-- and the sync is held off while this runs, so a stat line or delta applied in
+-- the meantime makes the store a no-op instead of being overwritten.
+--
+-- All keys are in the season hash's slot bucket:
+-- KEYS[1] season hash             s:{season}:p|t:{id}:{bN}
+-- KEYS[2] dirty set               dirty:s:{season}:{bN}
+-- KEYS[3..] optional leaderboards lead:{season}:{stat}:total|avg:{bN}
+-- ARGV[1] leaderboard member, the player id - unused without leaderboards
+-- ARGV[2] dirty version read before, empty when the hash was not dirty
+-- ARGV[3..#KEYS] score of the player in KEYS[3..#KEYS]
+-- ARGV[#KEYS + 1..] field, value pairs of the hash
+--
+-- Returns 1 when the hash was stored, 0 when it changed since the read
+
+local version = redis.call('ZSCORE', KEYS[2], KEYS[1])
+local current = version and tonumber(version) or -1
+local expected = tonumber(ARGV[2]) or -1
+if current ~= expected then
+    return 0
+end
+redis.call('HMSET', KEYS[1], unpack(ARGV, #KEYS + 1))
+for i = 3, #KEYS do
+    redis.call('ZADD', KEYS[i], ARGV[i], ARGV[1])
+end
+return 1
@@ -29,8 +29,8 @@ public abstract class IntegrationTestBase {
 
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
-        registry.add("spring.redis.host", () -> "localhost");
-        registry.add("spring.redis.port", () -> 6370);
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", () -> 6370);
         registry.add("nba.current-season", () -> "2024/25");
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.nba.stats.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import com.nba.stats.service.GameSubscriptionService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameEventListenerTest {
+
+    @Mock
+    private GameSubscriptionService gameSubscriptionService;
+
+    private GameEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new GameEventListener(gameSubscriptionService, 3, 1);
+    }
+
+    @Test
+    void shouldRetryFailedSubscriptionWrite() {
+        // Given - Redis drops the first write
+        doThrow(new RedisConnectionFailureException("connection reset"))
+            .doNothing()
+            .when(gameSubscriptionService).subscribePlayersToGames(any());
+
+        // When
+        listener.onEvents(List.of(new FirstPlayerStatEvent(23, 8123), new FirstPlayerStatEvent(24, 8123)));
+
+        // Then - The same players are written again
+        verify(gameSubscriptionService, times(2)).subscribePlayersToGames(Map.of(8123, List.of(23, 24)));
+    }
+
+    @Test
+    void shouldReportPlayersLeftOutWhenEveryAttemptFails() {
+        doThrow(new RedisConnectionFailureException("connection refused"))
+            .when(gameSubscriptionService).subscribePlayersToGames(any());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> listener.onEvents(List.of(new FirstPlayerStatEvent(23, 8123))));
+
+        assertTrue(e.getMessage().contains("{8123=[23]}"));
+        verify(gameSubscriptionService, times(3)).subscribePlayersToGames(any());
+    }
+}
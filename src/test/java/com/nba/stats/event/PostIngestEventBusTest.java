@@ -0,0 +1,133 @@
+package com.nba.stats.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostIngestEventBusTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingListener listener = new RecordingListener();
+    private PostIngestEventBus eventBus;
+
+    @AfterEach
+    void tearDown() {
+        listener.release.countDown();
+        if (eventBus != null && eventBus.isRunning()) {
+            eventBus.stop();
+        }
+    }
+
+    @Test
+    void shouldKeepPerGameOrderAndDeliverQueuedEventsInBatches() throws Exception {
+        // Given - Two partitions, the first delivery held so later events queue up behind it
+        eventBus = newEventBus(2);
+        eventBus.start();
+        eventBus.publish(new FirstPlayerStatEvent(0, 1000));
+        assertTrue(listener.firstDelivery.await(5, TimeUnit.SECONDS));
+
+        // When - Interleaved events of four games
+        for (int playerId = 1; playerId <= 200; playerId++) {
+            eventBus.publish(new FirstPlayerStatEvent(playerId, 1000 + playerId % 4));
+        }
+        assertTrue(meterRegistry.get("nba.events.queue.depth").gauge().value() > 0);
+        listener.release.countDown();
+
+        // Then - Everything delivered, each game's players in publish order
+        for (int gameId = 1000; gameId < 1004; gameId++) {
+            assertTrue(eventBus.flush(gameId, 5_000));
+        }
+        assertEquals(0, eventBus.queueDepth());
+        assertEquals(201, listener.events.size());
+        for (int gameId = 1000; gameId < 1004; gameId++) {
+            int lastPlayerId = -1;
+            for (FirstPlayerStatEvent event : listener.events) {
+                if (event.getGameId() == gameId) {
+                    assertTrue(event.getPlayerId() > lastPlayerId, "out of order in game " + gameId);
+                    lastPlayerId = event.getPlayerId();
+                }
+            }
+        }
+        assertTrue(listener.largestBatch > 1, "queued events should be delivered as one batch");
+        assertEquals(201.0, meterRegistry.get("nba.events.delivered").counter().count(), 0.0);
+    }
+
+    @Test
+    void shouldDeliverOnCallerThreadWhenNotRunning() {
+        // Given
+        listener.release.countDown();
+        eventBus = newEventBus(4);
+
+        // When
+        eventBus.publish(new FirstPlayerStatEvent(23, 1001));
+
+        // Then
+        assertEquals(1, listener.events.size());
+        assertEquals(Thread.currentThread().getName(), listener.lastThreadName);
+        assertTrue(eventBus.flush(1001, 0));
+    }
+
+    @Test
+    void shouldKeepDeliveringWhenListenerFails() {
+        // Given
+        listener.release.countDown();
+        listener.failNext = true;
+        eventBus = newEventBus(1);
+        eventBus.start();
+
+        // When
+        eventBus.publish(new FirstPlayerStatEvent(23, 1001));
+        assertTrue(eventBus.flush(1001, 5_000));
+        eventBus.publish(new FirstPlayerStatEvent(24, 1001));
+        assertTrue(eventBus.flush(1001, 5_000));
+
+        // Then
+        assertEquals(24, listener.events.get(listener.events.size() - 1).getPlayerId());
+    }
+
+    private PostIngestEventBus newEventBus(int partitions) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("recordingListener", listener));
+        return new PostIngestEventBus(beanFactory.getBeanProvider(PostIngestEventListener.class),
+                partitions, 256, 256, false, meterRegistry);
+    }
+
+    private static class RecordingListener implements PostIngestEventListener {
+
+        private final List<FirstPlayerStatEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch firstDelivery = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile int largestBatch;
+        private volatile String lastThreadName;
+        private volatile boolean failNext;
+
+        @Override
+        public void onEvents(List<GameEvent> batch) {
+            firstDelivery.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lastThreadName = Thread.currentThread().getName();
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("Redis down");
+            }
+            largestBatch = Math.max(largestBatch, batch.size());
+            for (GameEvent event : batch) {
+                events.add((FirstPlayerStatEvent) event);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.nba.stats.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import com.nba.stats.IntegrationTestBase;
+import com.nba.stats.util.RedisKeys;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ingest then read through the HTTP API against the embedded Redis: the read side must find the
+ * season hashes the ingest scripts write, and see later lines once the near-cache is invalidated.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:readdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=PostgreSQL",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:test-schema.sql",
+    // The Postgres upsert does not run on H2
+    "nba.sync.enabled=false"
+})
+class LiveStatReadIntegrationTest extends IntegrationTestBase {
+
+    private static final String SEASON = "2024/25";
+    private static final long INVALIDATION_WAIT_MS = 2000;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReadLiveTotalsWrittenByIngest() throws Exception {
+        // Given
+        putLine(8123, 10, 23, 25, 30.0);
+
+        // When
+        Map<String, Object> player = get("/stat/player/23");
+        Map<String, Object> team = get("/stat/team/10");
+
+        // Then - Read from the tagged hashes the stat line script incremented
+        assertEquals(25.0, player.get("avgPoints"));
+        assertEquals(true, player.get("hasLiveGame"));
+        assertEquals(25.0, team.get("avgPoints"));
+        assertTrue(redisTemplate.hasKey(RedisKeys.playerSeason(SEASON, 23)));
+        assertTrue(redisTemplate.keys("s:2024_25:p:23").isEmpty());
+
+        // When - A later line of the same game, after the first read cached the totals
+        putLine(8123, 10, 23, 31, 36.0);
+
+        // Then - The ingest's invalidation reaches the cached key
+        assertEquals(31.0, awaitPlayerPoints(23, 31.0));
+        Map<String, Object> bulkPlayer = (Map<String, Object>) restTemplate.getForObject("/stat/players?ids=23", List.class).get(0);
+        Map<String, Object> bulkTeam = (Map<String, Object>) restTemplate.getForObject("/stat/teams?ids=10", List.class).get(0);
+        assertEquals(31.0, bulkPlayer.get("avgPoints"));
+        assertEquals(31.0, bulkTeam.get("avgPoints"));
+    }
+
+    private double awaitPlayerPoints(int playerId, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + INVALIDATION_WAIT_MS;
+        double points;
+        do {
+            points = ((Number) get("/stat/player/" + playerId).get("avgPoints")).doubleValue();
+            if (points == expected) {
+                break;
+            }
+            Thread.sleep(20);
+        } while (System.currentTimeMillis() < deadline);
+        return points;
+    }
+
+    private void putLine(int gameId, int teamId, int playerId, int points, double minutes) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String json = """
+            { "gameId": %d, "teamId": %d, "playerId": %d, "points": %d, "minutesPlayed": %s }
+            """.formatted(gameId, teamId, playerId, points, minutes);
+        assertTrue(restTemplate.exchange("/stat/live/game", HttpMethod.PUT, new HttpEntity<>(json, headers), Void.class)
+                .getStatusCode().is2xxSuccessful());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> get(String path) {
+        return restTemplate.getForObject(path, Map.class);
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.test.context.TestPropertySource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -261,4 +262,79 @@ class NBAStatsIntegrationTest {
         Double avgPoints = (Double) stats.get("avgPoints");
         assertTrue(avgPoints > 25.0 && avgPoints < 26.0); // 1800/71 ≈ 25.35
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRetrieveStatsOfSeveralPlayersInOneRequest() throws Exception {
+        // Given: LeBron has historical data, Curry plays his first game of the season
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.exchange(
+            "http://localhost:" + port + "/stat/live/game",
+            HttpMethod.PUT,
+            new HttpEntity<>("""
+                { "gameId": 4001, "teamId": 15, "playerId": 30, "points": 31, "minutesPlayed": 36.0 }
+                """, headers),
+            Void.class
+        );
+
+        // When: Both players and an unknown one in one request
+        ResponseEntity<List> response = restTemplate.getForEntity(
+            "http://localhost:" + port + "/stat/players?ids=30,23,999",
+            List.class
+        );
+
+        // Then: One entry per id, in request order
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        List<Map<String, Object>> players = response.getBody();
+        assertNotNull(players);
+        assertEquals(3, players.size());
+        assertEquals(30, players.get(0).get("playerId"));
+        assertEquals(31.0, players.get(0).get("avgPoints"));
+        assertEquals(true, players.get(0).get("hasLiveGame"));
+        assertEquals(23, players.get(1).get("playerId"));
+        assertEquals(0, players.get(1).get("gamesPlayed")); // no 2024/25 games yet
+        assertEquals("Unknown Player", players.get(2).get("playerName"));
+
+        // And: Too many ids are rejected
+        String tooMany = "1" + ",1".repeat(500);
+        assertEquals(400, restTemplate.getForEntity(
+            "http://localhost:" + port + "/stat/players?ids=" + tooMany, String.class).getStatusCode().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldMergeCompletedSeasonsWithLiveSeasonInCareer() throws Exception {
+        // Given: LeBron has 2023/24 in the DB and a live game in 2024/25
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.exchange(
+            "http://localhost:" + port + "/stat/live/game",
+            HttpMethod.PUT,
+            new HttpEntity<>("""
+                { "gameId": 4002, "teamId": 10, "playerId": 23, "points": 29, "rebounds": 10, "minutesPlayed": 38.0 }
+                """, headers),
+            Void.class
+        );
+
+        // When
+        ResponseEntity<Map> response = restTemplate.getForEntity(
+            "http://localhost:" + port + "/stat/player/23/career",
+            Map.class
+        );
+
+        // Then: Both seasons, oldest first, and totals over the whole career
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        Map<String, Object> career = response.getBody();
+        assertNotNull(career);
+        assertEquals(true, career.get("hasLiveGame"));
+        List<Map<String, Object>> seasons = (List<Map<String, Object>>) career.get("seasons");
+        assertEquals(2, seasons.size());
+        assertEquals("2023/24", seasons.get(0).get("season"));
+        assertEquals(71, seasons.get(0).get("gamesPlayed"));
+        assertEquals("2024/25", seasons.get(1).get("season"));
+        assertEquals(29.0, seasons.get(1).get("avgPoints"));
+        Map<String, Object> totals = (Map<String, Object>) career.get("careerTotals");
+        assertEquals(72, totals.get("gamesPlayed"));
+        assertEquals(1829, totals.get("sumPoints"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.nba.stats.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import com.nba.stats.IntegrationTestBase;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end game-night load against the embedded Redis and H2. Not part of the regular build:
+ * mvn test -Dtest=LiveGameLoadTest -Dnba.load.enabled=true [-Dnba.load.games=16 -Dnba.load.duration-s=120 ...]
+ * Run once with and once without -Dnba.load.virtual-threads=true to compare virtual threads with the Tomcat pool;
+ * the README records the results.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:loaddb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=PostgreSQL",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:test-schema.sql",
+    // The Postgres upsert does not run on H2 - the sync is left out of the measured path
+    "nba.sync.enabled=false",
+    // Per-request INFO/DEBUG logging would dominate the latencies
+    "logging.level.com.nba.stats=WARN",
+    "nba.virtual-threads.enabled=${nba.load.virtual-threads:false}"
+})
+@EnabledIfSystemProperty(named = "nba.load.enabled", matches = "true")
+class LiveGameLoadTest extends IntegrationTestBase {
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${nba.virtual-threads.enabled}")
+    private boolean virtualThreads;
+
+    @Test
+    void shouldSustainConcurrentLiveGamesWithReaders() throws Exception {
+        // Given
+        LiveGameSimulator.Config config = new LiveGameSimulator.Config(
+                Integer.getInteger("nba.load.games", 8),
+                Integer.getInteger("nba.load.readers", 4),
+                Duration.ofSeconds(Integer.getInteger("nba.load.duration-s", 30)),
+                Duration.ofMillis(Integer.getInteger("nba.load.tick-ms", 2000)),
+                Integer.getInteger("nba.load.ticks-per-game", 10),
+                Boolean.getBoolean("nba.load.batch"));
+
+        // When
+        LiveGameSimulator.Report report = new LiveGameSimulator("http://localhost:" + port, config).run();
+        System.out.println((virtualThreads ? "[virtual threads] " : "[platform thread pool] ") + report);
+
+        // Then
+        assertTrue(report.ingest().count() > 0, "no stat lines were ingested");
+        assertTrue(config.readers() == 0 || report.query().count() > 0, "no reads completed");
+        assertEquals(0, report.errors(), "failed requests during the run");
+    }
+}
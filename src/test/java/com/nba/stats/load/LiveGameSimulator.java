@@ -0,0 +1,323 @@
+package com.nba.stats.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nba.stats.dto.LiveStatDto;
+
+/**
+ * Synthetic game night against a running instance. Each of N game slots plays a game between
+ * two teams of a 30-team league (12-man rosters, 9-man rotation, player ids teamId * 100 + n),
+ * sends a cumulative line per rotation player every tick, and completes the game through
+ * /stat/live/game/{id}/complete after a fixed number of ticks - then tips off the next one.
+ * Readers poll player and team season stats at the same time. Latency is recorded per request type.
+ */
+public class LiveGameSimulator {
+
+    private static final int TEAMS = 30;
+    private static final int ROSTER_SIZE = 12;
+    private static final int ROTATION = 9;
+    private static final double GAME_MINUTES = 48.0;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * @param games        concurrent games
+     * @param readers      threads polling the query endpoints
+     * @param duration     how long to keep tipping off games and reading
+     * @param tick         interval between stat lines of a game
+     * @param ticksPerGame lines per player before the game is completed
+     * @param batch        send a game's lines of a tick to the batch endpoint instead of one PUT per line
+     */
+    public record Config(int games, int readers, Duration duration, Duration tick, int ticksPerGame, boolean batch) {
+    }
+
+    /**
+     * Recorded latencies per request type plus the number of games played to completion
+     */
+    public record Report(Duration elapsed, int completedGames, LatencyRecorder ingest, LatencyRecorder query,
+            LatencyRecorder complete) {
+
+        public long errors() {
+            return ingest.errors() + query.errors() + complete.errors();
+        }
+
+        @Override
+        public String toString() {
+            return "Live game load over %ds, %d games completed%n%s%n%s%n%s".formatted(
+                    elapsed.toSeconds(), completedGames,
+                    ingest.summary(elapsed), query.summary(elapsed), complete.summary(elapsed));
+        }
+    }
+
+    private final String baseUrl;
+    private final Config config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final LatencyRecorder ingest = new LatencyRecorder("ingest");
+    private final LatencyRecorder query = new LatencyRecorder("query");
+    private final LatencyRecorder complete = new LatencyRecorder("complete");
+    private final AtomicInteger nextGameId = new AtomicInteger(100_000);
+    private final AtomicInteger completedGames = new AtomicInteger();
+    private volatile long deadlineNanos;
+
+    public LiveGameSimulator(String baseUrl, Config config) {
+        this.baseUrl = baseUrl;
+        this.config = config;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Run the configured load and block until it finished; games still running at the deadline
+     * are completed before returning
+     */
+    public Report run() throws InterruptedException {
+        long start = System.nanoTime();
+        deadlineNanos = start + config.duration().toNanos();
+
+        ScheduledExecutorService games = Executors.newScheduledThreadPool(config.games());
+        List<GameSlot> slots = new ArrayList<>();
+        for (int i = 0; i < config.games(); i++) {
+            GameSlot slot = new GameSlot(i);
+            slots.add(slot);
+            // Stagger tip-offs across one tick so the games do not send in lockstep
+            long offset = config.tick().toMillis() * i / config.games();
+            games.scheduleAtFixedRate(slot::tick, offset, config.tick().toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        ExecutorService readers = Executors.newFixedThreadPool(Math.max(config.readers(), 1));
+        for (int i = 0; i < config.readers(); i++) {
+            readers.execute(this::readUntilDeadline);
+        }
+
+        readers.shutdown();
+        readers.awaitTermination(config.duration().toMillis() + REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+        games.shutdown();
+        games.awaitTermination(config.tick().toMillis() + REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        for (GameSlot slot : slots) {
+            slot.finish();
+        }
+
+        return new Report(Duration.ofNanos(System.nanoTime() - start), completedGames.get(), ingest, query, complete);
+    }
+
+    private void readUntilDeadline() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadlineNanos) {
+            int teamId = 1 + random.nextInt(TEAMS);
+            String path = random.nextBoolean()
+                    ? "/stat/player/" + playerId(teamId, random.nextInt(ROSTER_SIZE))
+                    : "/stat/team/" + teamId;
+            send(query, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+        }
+    }
+
+    private void send(LatencyRecorder recorder, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request.timeout(REQUEST_TIMEOUT).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                recorder.recordError();
+                return;
+            }
+            recorder.record(System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recorder.recordError();
+        } catch (Exception e) {
+            recorder.recordError();
+        }
+    }
+
+    private void put(LatencyRecorder recorder, String path, String json) {
+        send(recorder, HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize stat line", e);
+        }
+    }
+
+    private static int playerId(int teamId, int rosterSlot) {
+        return teamId * 100 + rosterSlot + 1;
+    }
+
+    /**
+     * One concurrent game at a time; ticks of a slot never overlap (fixed-rate scheduling)
+     */
+    private final class GameSlot {
+
+        private final Random random;
+        private Game game;
+
+        private GameSlot(int slot) {
+            this.random = new Random(31L * slot + 7);
+        }
+
+        private void tick() {
+            try {
+                if (game == null) {
+                    if (System.nanoTime() >= deadlineNanos) {
+                        return;
+                    }
+                    game = new Game(nextGameId.getAndIncrement(), random);
+                }
+                if (game.ticks == config.ticksPerGame()) {
+                    finish();
+                    return;
+                }
+                sendLines(game.nextLines(config.ticksPerGame()));
+            } catch (RuntimeException e) {
+                // Keep the slot scheduled - an exception would cancel it
+                ingest.recordError();
+            }
+        }
+
+        private void sendLines(List<LiveStatDto> lines) {
+            if (config.batch()) {
+                put(ingest, "/stat/live/game/batch", toJson(lines));
+                return;
+            }
+            for (LiveStatDto line : lines) {
+                put(ingest, "/stat/live/game", toJson(line));
+            }
+        }
+
+        private void finish() {
+            if (game != null) {
+                put(complete, "/stat/live/game/" + game.gameId + "/complete", "");
+                completedGames.incrementAndGet();
+                game = null;
+            }
+        }
+    }
+
+    /**
+     * Cumulative box score of one game: the rotation of two distinct teams
+     */
+    private static final class Game {
+
+        private final int gameId;
+        private final Random random;
+        private final List<PlayerLine> players = new ArrayList<>();
+        private int ticks;
+
+        private Game(int gameId, Random random) {
+            this.gameId = gameId;
+            this.random = random;
+            int home = 1 + random.nextInt(TEAMS);
+            int away = 1 + (home + random.nextInt(TEAMS - 1)) % TEAMS;
+            addRotation(home);
+            addRotation(away);
+        }
+
+        private void addRotation(int teamId) {
+            for (int slot = 0; slot < ROTATION; slot++) {
+                // Starters play about two thirds of the game, the bench less
+                double share = slot < 5 ? 0.7 : 0.35;
+                players.add(new PlayerLine(teamId, playerId(teamId, slot), share));
+            }
+        }
+
+        private List<LiveStatDto> nextLines(int ticksPerGame) {
+            ticks++;
+            List<LiveStatDto> lines = new ArrayList<>(players.size());
+            for (PlayerLine player : players) {
+                player.advance(random, GAME_MINUTES / ticksPerGame);
+                lines.add(player.toDto(gameId));
+            }
+            return lines;
+        }
+    }
+
+    private static final class PlayerLine {
+
+        private final int teamId;
+        private final int playerId;
+        private final double minutesShare;
+        private int points;
+        private int rebounds;
+        private int assists;
+        private int steals;
+        private int blocks;
+        private int fouls;
+        private int turnovers;
+        private double minutesPlayed;
+
+        private PlayerLine(int teamId, int playerId, double minutesShare) {
+            this.teamId = teamId;
+            this.playerId = playerId;
+            this.minutesShare = minutesShare;
+        }
+
+        /**
+         * One tick of game time - per-minute rates roughly those of a rotation player
+         */
+        private void advance(Random random, double gameMinutes) {
+            double minutes = gameMinutes * minutesShare;
+            minutesPlayed = Math.min(GAME_MINUTES, Math.round((minutesPlayed + minutes) * 10) / 10.0);
+            points += 2 * events(random, minutes * 0.17) + 3 * events(random, minutes * 0.05)
+                    + events(random, minutes * 0.10);
+            rebounds += events(random, minutes * 0.18);
+            assists += events(random, minutes * 0.10);
+            steals += events(random, minutes * 0.03);
+            blocks += events(random, minutes * 0.02);
+            fouls = Math.min(6, fouls + events(random, minutes * 0.06));
+            turnovers += events(random, minutes * 0.05);
+        }
+
+        // Poisson-ish count of events with the given mean
+        private static int events(Random random, double mean) {
+            int count = 0;
+            double remaining = mean;
+            while (remaining > 0) {
+                if (random.nextDouble() < Math.min(remaining, 1.0)) {
+                    count++;
+                }
+                remaining -= 1.0;
+            }
+            return count;
+        }
+
+        private LiveStatDto toDto(int gameId) {
+            return LiveStatDto.builder()
+                    .gameId(gameId)
+                    .teamId(teamId)
+                    .playerId(playerId)
+                    .points(points)
+                    .rebounds(rebounds)
+                    .assists(assists)
+                    .steals(steals)
+                    .blocks(blocks)
+                    .fouls(fouls)
+                    .turnovers(turnovers)
+                    .minutesPlayed(minutesPlayed)
+                    .build();
+        }
+    }
+}
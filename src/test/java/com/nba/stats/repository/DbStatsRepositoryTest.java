@@ -3,10 +3,19 @@ package com.nba.stats.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.dto.PlayerGameLineDto;
+import com.nba.stats.dto.SeasonTotals;
+
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,7 +27,11 @@ import static org.junit.jupiter.api.Assertions.*;
     "spring.datasource.password=",
     "spring.sql.init.mode=always",
     "spring.sql.init.schema-locations=classpath:test-schema.sql",
-    "nba.current-season=2024/25"
+    "nba.current-season=2024/25",
+    // H2 only - nothing at startup may need Redis
+    "nba.redis.migrate-legacy-format=false",
+    "nba.warm-up.on-startup=false",
+    "nba.near-cache.enabled=false"
 })
 @Transactional
 class DbStatsRepositoryTest {
@@ -26,49 +39,156 @@ class DbStatsRepositoryTest {
     @Autowired
     private DbStatsRepository repository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void shouldReturnEmptyStatsForNewPlayer() {
-        Map<String, Object> stats = repository.getPlayerSeasonStats(999, "2024/25");
+        SeasonTotals stats = repository.getPlayerSeasonStats(999, "2024/25");
         
         assertNotNull(stats);
-        assertEquals(0, stats.get("games_played"));
-        assertEquals(0, stats.get("sum_points"));
-        assertEquals(0, stats.get("sum_rebounds"));
-        assertEquals(0, stats.get("sum_assists"));
-        assertEquals(0.0, stats.get("sum_minutes"));
+        assertEquals(0, stats.getGamesPlayed());
+        assertEquals(0, stats.getSumPoints());
+        assertEquals(0, stats.getSumRebounds());
+        assertEquals(0, stats.getSumAssists());
+        assertEquals(0.0, stats.getSumMinutes());
     }
 
     @Test
     void shouldReturnExistingPlayerStats() {
         // LeBron has test data: 71 games, 1800 points in 2023/24
-        Map<String, Object> stats = repository.getPlayerSeasonStats(23, "2023/24");
+        SeasonTotals stats = repository.getPlayerSeasonStats(23, "2023/24");
         
         assertNotNull(stats);
-        assertEquals(71, stats.get("games_played"));
-        assertEquals(1800, stats.get("sum_points"));
-        assertEquals(550, stats.get("sum_rebounds"));
-        assertEquals(600, stats.get("sum_assists"));
+        assertEquals(71, stats.getGamesPlayed());
+        assertEquals(1800, stats.getSumPoints());
+        assertEquals(550, stats.getSumRebounds());
+        assertEquals(600, stats.getSumAssists());
     }
 
     @Test
     void shouldReturnEmptyStatsForNewTeam() {
-        Map<String, Object> stats = repository.getTeamSeasonStats(999, "2024/25");
+        SeasonTotals stats = repository.getTeamSeasonStats(999, "2024/25");
         
         assertNotNull(stats);
-        assertEquals(0, stats.get("games_played"));
-        assertEquals(0, stats.get("sum_points"));
+        assertEquals(0, stats.getGamesPlayed());
+        assertEquals(0, stats.getSumPoints());
     }
 
     @Test
     void shouldHandleDifferentSeasons() {
         // Same player, different seasons should be independent
-        Map<String, Object> currentSeason = repository.getPlayerSeasonStats(23, "2024/25");
-        Map<String, Object> lastSeason = repository.getPlayerSeasonStats(23, "2023/24");
+        SeasonTotals currentSeason = repository.getPlayerSeasonStats(23, "2024/25");
+        SeasonTotals lastSeason = repository.getPlayerSeasonStats(23, "2023/24");
         
         // Current season should be empty
-        assertEquals(0, currentSeason.get("games_played"));
+        assertEquals(0, currentSeason.getGamesPlayed());
         
         // Last season should have data
-        assertEquals(71, lastSeason.get("games_played"));
+        assertEquals(71, lastSeason.getGamesPlayed());
+    }
+
+    @Test
+    void shouldReturnSeasonStatsOfManyPlayersInOneQuery() {
+        // When - Two players with data and one without
+        Map<Integer, SeasonTotals> stats = repository.getPlayerSeasonStats(List.of(23, 30, 999), "2023/24");
+
+        // Then - Every requested player is present, the unknown one all zero
+        assertEquals(3, stats.size());
+        assertEquals(1800, stats.get(23).getSumPoints());
+        assertEquals(74, stats.get(30).getGamesPlayed());
+        assertEquals(SeasonTotals.EMPTY, stats.get(999));
+        assertTrue(repository.getTeamSeasonStats(List.of(10, 15), "2024/25").values().stream()
+                .allMatch(SeasonTotals.EMPTY::equals));
+    }
+
+    @Test
+    void shouldReturnCompletedSeasonsOfCareerInOneQuery() {
+        // When - 2023/24 is the only recorded season, the live one is excluded
+        Map<String, SeasonTotals> career = repository.getPlayerCareerStats(23, "2024/25");
+
+        // Then
+        assertEquals(List.of("2023/24"), List.copyOf(career.keySet()));
+        assertEquals(71, career.get("2023/24").getGamesPlayed());
+        assertTrue(repository.getPlayerCareerStats(23, "2023/24").isEmpty());
+    }
+
+    @Test
+    void shouldPageGameLogNewestFirst() {
+        // Given - A full season of box score lines for one player, one line of another season
+        for (int gameId = 1; gameId <= 82; gameId++) {
+            jdbcTemplate.update("INSERT INTO stat_player_game (player_id, game_id, team_id, season, points, minutes_played) "
+                    + "VALUES (30, ?, 15, '2024/25', ?, 34.5)", 20_000 + gameId, gameId % 40);
+        }
+        jdbcTemplate.update("INSERT INTO stat_player_game (player_id, game_id, team_id, season, points) "
+                + "VALUES (30, 10001, 15, '2023/24', 50)");
+
+        // When - First page, then the page after its last game
+        List<PlayerGameLineDto> firstPage = repository.getPlayerGameLog(30, "2024/25", Integer.MAX_VALUE, 20);
+        List<PlayerGameLineDto> secondPage = repository.getPlayerGameLog(30, "2024/25",
+                firstPage.get(firstPage.size() - 1).getGameId(), 20);
+        List<PlayerGameLineDto> lastPage = repository.getPlayerGameLog(30, "2024/25", 20_003, 20);
+
+        // Then
+        assertEquals(20, firstPage.size());
+        assertEquals(20_082, firstPage.get(0).getGameId());
+        assertEquals(2, firstPage.get(0).getPoints());
+        assertEquals(34.5, firstPage.get(0).getMinutesPlayed());
+        assertNotNull(firstPage.get(0).getFinishedAt());
+        assertEquals(20_062, secondPage.get(0).getGameId());
+        assertEquals(List.of(20_002, 20_001), lastPage.stream().map(PlayerGameLineDto::getGameId).toList());
+    }
+    @Test
+    void shouldReadGameLinesOfSeasonByPlayerAndByTeam() {
+        // Given - Player 30 traded from team 15 to team 25, one line of another season
+        jdbcTemplate.update("INSERT INTO stat_player_game (player_id, game_id, team_id, season, points, minutes_played) "
+                + "VALUES (30, 20001, 15, '2024/25', 28, 34.5), (30, 20002, 25, '2024/25', 31, 36.0), "
+                + "(35, 20001, 15, '2024/25', 12, 20.0), (30, 10001, 15, '2023/24', 50, 40.0)");
+
+        // When
+        List<LiveStatDto> playerLines = repository.getPlayerGameLines("2024/25", List.of(30));
+        List<LiveStatDto> teamLines = repository.getTeamGameLines("2024/25", List.of(15));
+
+        // Then
+        assertEquals(Set.of(20001, 20002), playerLines.stream().map(LiveStatDto::getGameId).collect(Collectors.toSet()));
+        assertEquals(Set.of(30, 35), teamLines.stream().map(LiveStatDto::getPlayerId).collect(Collectors.toSet()));
+        assertEquals(List.of(20001, 20001), teamLines.stream().map(LiveStatDto::getGameId).toList());
+        assertEquals(34.5, playerLines.stream().filter(line -> line.getGameId() == 20001).findFirst().orElseThrow()
+                .getMinutesPlayed());
+        assertEquals(Set.of(15, 25), Set.copyOf(repository.getSeasonTeamIds("2024/25")));
+        assertTrue(repository.getSeasonPlayerIds("2024/25").containsAll(List.of(23, 30, 35)));
+        assertTrue(repository.getPlayerGameLines("2024/25", List.of()).isEmpty());
+    }
+    @Test
+    void shouldHandEverySeasonRowToItsHandler() {
+        // Given
+        jdbcTemplate.update("INSERT INTO stat_team_sum (team_id, season, games_played, sum_points) VALUES (10, '2024/25', 5, 560)");
+        jdbcTemplate.update("INSERT INTO stat_player_sum (player_id, season, games_played, sum_points) VALUES (23, '2024/25', 5, 130)");
+
+        // When
+        Map<Integer, SeasonTotals> players = new HashMap<>();
+        Map<Integer, SeasonTotals> teams = new HashMap<>();
+        repository.forEachSeasonStats("2024/25", players::put, teams::put);
+
+        // Then - The 2023/24 rows are not read
+        assertEquals(Set.of(23), players.keySet());
+        assertEquals(130, players.get(23).getSumPoints());
+        assertEquals(Set.of(10), teams.keySet());
+        assertEquals(560, teams.get(10).getSumPoints());
+    }
+
+    @Test
+    void shouldReturnSeasonStatsOfWholeRosters() {
+        // Given - LeBron (team 10) has a row, Curry (team 15) has none yet
+        jdbcTemplate.update("INSERT INTO stat_player_sum (player_id, season, games_played, sum_points) VALUES (23, '2024/25', 5, 130)");
+
+        // When
+        Map<Integer, SeasonTotals> stats = repository.getRosterSeasonStats(List.of(10, 15), "2024/25");
+
+        // Then
+        assertEquals(Set.of(23, 30), stats.keySet());
+        assertEquals(130, stats.get(23).getSumPoints());
+        assertEquals(SeasonTotals.EMPTY, stats.get(30));
+        assertTrue(repository.getRosterSeasonStats(List.of(), "2024/25").isEmpty());
     }
 }
@@ -0,0 +1,165 @@
+package com.nba.stats.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.nba.stats.IntegrationTestBase;
+import com.nba.stats.constants.RedisFields;
+import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.util.RedisKeys;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Bytes per player in Redis before and after the compact format: the same season totals and
+ * game line of 1000 players written once with the legacy field names and decimal minutes, once
+ * through the repository. Prints the growth of used_memory per player and the OBJECT ENCODING
+ * of the hashes - INFO works on every Redis version, MEMORY USAGE only from Redis 4.
+ */
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=PostgreSQL",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:test-schema.sql",
+    "nba.redis.migrate-legacy-format=false"
+})
+class RedisMemoryFootprintTest extends IntegrationTestBase {
+
+    private static final int PLAYERS = 1000;
+
+    @Autowired
+    private RedisStatsRepository redisRepository;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        try {
+            redisTemplate.getConnectionFactory().getConnection().flushAll();
+        } catch (Exception e) {
+            System.out.println("Redis not available for test cleanup: " + e.getMessage());
+        }
+    }
+
+    @Test
+    void shouldTakeLessMemoryPerPlayerInCompactFormat() {
+        // INFO and OBJECT ENCODING are sent as raw commands, not routed to the key's node
+        assumeFalse(redisRepository.isClusterMode(), "measured on a single node");
+
+        // Given - A starter deep into the season and the line of the current game, per player
+        SeasonTotals totals = new SeasonTotals(71, 1800, 550, 600, 120, 80, 180, 200, 2500.5);
+
+        // When - Legacy layout as the old code wrote it, compact layout through the repository;
+        // used_memory before and after each layout, on an emptied Redis
+        long legacySeason = bytesPerPlayer(() -> {
+            for (int playerId = 1; playerId <= PLAYERS; playerId++) {
+                redisTemplate.opsForHash().putAll("s:2024_25:p:" + playerId, Map.of(
+                    RedisFields.LEGACY_GAMES_PLAYED, "71",
+                    RedisFields.LEGACY_SUM_POINTS, "1800",
+                    RedisFields.LEGACY_SUM_REBOUNDS, "550",
+                    RedisFields.LEGACY_SUM_ASSISTS, "600",
+                    RedisFields.LEGACY_SUM_STEALS, "120",
+                    RedisFields.LEGACY_SUM_BLOCKS, "80",
+                    RedisFields.LEGACY_SUM_FOULS, "180",
+                    RedisFields.LEGACY_SUM_TURNOVERS, "200",
+                    RedisFields.LEGACY_SUM_MINUTES, "2500.5"));
+            }
+        });
+        String legacySeasonEncoding = encoding("s:2024_25:p:1");
+        long legacySnapshot = bytesPerPlayer(() -> {
+            for (int playerId = 1; playerId <= PLAYERS; playerId++) {
+                redisTemplate.opsForHash().putAll("g:1001:p:" + playerId, Map.ofEntries(
+                    Map.entry(RedisFields.LEGACY_GAME_ID, "1001"),
+                    Map.entry(RedisFields.LEGACY_TEAM_ID, "10"),
+                    Map.entry(RedisFields.LEGACY_PLAYER_ID, String.valueOf(playerId)),
+                    Map.entry(RedisFields.LEGACY_POINTS, "31"),
+                    Map.entry(RedisFields.LEGACY_REBOUNDS, "9"),
+                    Map.entry(RedisFields.LEGACY_ASSISTS, "7"),
+                    Map.entry(RedisFields.LEGACY_STEALS, "2"),
+                    Map.entry(RedisFields.LEGACY_BLOCKS, "1"),
+                    Map.entry(RedisFields.LEGACY_FOULS, "3"),
+                    Map.entry(RedisFields.LEGACY_TURNOVERS, "4"),
+                    Map.entry(RedisFields.LEGACY_MINUTES_PLAYED, "36.5")));
+            }
+        });
+        long compactSeason = bytesPerPlayer(() -> {
+            Map<String, SeasonTotals> statsByKey = new HashMap<>();
+            for (int playerId = 1; playerId <= PLAYERS; playerId++) {
+                statsByKey.put(RedisKeys.playerSeason("2024/25", playerId), totals);
+            }
+            redisRepository.storeAllSeasonStats(statsByKey);
+            // Only the hashes are compared - the leaderboard entries are new with the compact format
+            redisTemplate.delete(redisTemplate.keys("lead:*"));
+        });
+        String compactSeasonEncoding = encoding(RedisKeys.playerSeason("2024/25", 1));
+        long compactSnapshot = bytesPerPlayer(() -> {
+            List<LiveStatDto> lines = new ArrayList<>();
+            for (int playerId = 1; playerId <= PLAYERS; playerId++) {
+                lines.add(LiveStatDto.builder()
+                    .gameId(1001).teamId(10).playerId(playerId)
+                    .points(31).rebounds(9).assists(7).steals(2).blocks(1).fouls(3).turnovers(4)
+                    .minutesPlayed(36.5)
+                    .build());
+            }
+            redisRepository.restoreGameSnapshots(lines);
+            // Only the snapshots are compared - drop the live-game index and team-game marker
+            redisTemplate.delete(redisTemplate.keys("live:*"));
+            redisTemplate.delete(redisTemplate.keys("team_game:*"));
+        });
+        String compactSnapshotEncoding = encoding(RedisKeys.playerGame(1001, 1));
+
+        // Then
+        System.out.printf("Redis bytes per player (%d players)   legacy  compact%n", PLAYERS);
+        System.out.printf("  season hash (%-8s -> %-8s)  %6d   %6d%n",
+                legacySeasonEncoding, compactSeasonEncoding, legacySeason, compactSeason);
+        System.out.printf("  game snapshot (%-8s)            %6d   %6d%n",
+                compactSnapshotEncoding, legacySnapshot, compactSnapshot);
+        System.out.printf("  total                               %6d   %6d%n",
+                legacySeason + legacySnapshot, compactSeason + compactSnapshot);
+
+        // ziplist up to Redis 6, listpack from Redis 7
+        assertTrue(Set.of("ziplist", "listpack").contains(compactSeasonEncoding), compactSeasonEncoding);
+        assertTrue(Set.of("ziplist", "listpack").contains(compactSnapshotEncoding), compactSnapshotEncoding);
+        assertTrue(compactSeason < legacySeason, "season hash " + compactSeason + " vs " + legacySeason + " bytes");
+        assertTrue(compactSnapshot < legacySnapshot, "snapshot " + compactSnapshot + " vs " + legacySnapshot + " bytes");
+    }
+
+    /**
+     * Growth of used_memory per player while writing, starting from an empty Redis
+     */
+    private long bytesPerPlayer(Runnable write) {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        long before = usedMemory();
+        write.run();
+        return (usedMemory() - before) / PLAYERS;
+    }
+
+    private long usedMemory() {
+        Properties info = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("memory"));
+        return Long.parseLong(info.getProperty("used_memory"));
+    }
+
+    private String encoding(String key) {
+        Object encoding = redisTemplate.execute((RedisCallback<Object>) connection ->
+                connection.execute("OBJECT", "ENCODING".getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8)));
+        return new String((byte[]) encoding, StandardCharsets.US_ASCII);
+    }
+}
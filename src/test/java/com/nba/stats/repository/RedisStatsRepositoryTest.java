@@ -7,13 +7,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.test.context.TestPropertySource;
 
+import com.nba.stats.constants.RedisFields;
 import com.nba.stats.dto.LiveStatDto;
 import com.nba.stats.dto.PlayerStatsDelta;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.dto.StatLineResult;
+import com.nba.stats.enums.LeaderboardStat;
+import com.nba.stats.util.RedisKeys;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
 @SpringBootTest
 @TestPropertySource(properties = {
@@ -47,36 +55,34 @@ class RedisStatsRepositoryTest {
     @Test
     void shouldStoreAndRetrieveSeasonStats() {
         // Given
-        String seasonKey = "s:2024_25:p:23";
-        Map<String, Object> stats = Map.of(
-            "player_id", 23,
-            "games_played", 5,
-            "sum_points", 125,
-            "sum_rebounds", 40,
-            "sum_assists", 30
-        );
+        String seasonKey = RedisKeys.playerSeason("2024/25", 23);
+        SeasonTotals stats = SeasonTotals.builder()
+            .gamesPlayed(5)
+            .sumPoints(125)
+            .sumRebounds(40)
+            .sumAssists(30)
+            .sumMinutes(170.5)
+            .build();
 
         // When
         redisRepository.storeSeasonStats(seasonKey, stats);
 
         // Then
-        Map<String, Object> retrieved = redisRepository.getSeasonStats(seasonKey);
-        assertNotNull(retrieved);
-        assertEquals("23", retrieved.get("player_id").toString());
-        assertEquals("5", retrieved.get("games_played").toString());
-        assertEquals("125", retrieved.get("sum_points").toString());
+        SeasonTotals retrieved = redisRepository.getSeasonStats(seasonKey);
+        assertEquals(stats, retrieved);
+        assertNull(redisRepository.getSeasonStats(RedisKeys.playerSeason("2024/25", 24)));
     }
 
     @Test
     void shouldCheckSeasonStatsExistence() {
         // Given
-        String seasonKey = "s:2024_25:p:30";
+        String seasonKey = RedisKeys.playerSeason("2024/25", 30);
 
         // When/Then - Initially doesn't exist
         assertFalse(redisRepository.seasonStatsExist(seasonKey));
 
         // When - Store stats
-        redisRepository.storeSeasonStats(seasonKey, Map.of("games_played", 1));
+        redisRepository.storeSeasonStats(seasonKey, SeasonTotals.builder().gamesPlayed(1).build());
 
         // Then - Now exists
         assertTrue(redisRepository.seasonStatsExist(seasonKey));
@@ -85,13 +91,13 @@ class RedisStatsRepositoryTest {
     @Test
     void shouldUpdateSeasonAggregates() {
         // Given - Initial stats
-        String seasonKey = "s:2024_25:p:35";
-        Map<String, Object> initialStats = Map.of(
-            "games_played", 1,
-            "sum_points", 20,
-            "sum_rebounds", 8,
-            "sum_assists", 5
-        );
+        String seasonKey = RedisKeys.playerSeason("2024/25", 35);
+        SeasonTotals initialStats = SeasonTotals.builder()
+            .gamesPlayed(1)
+            .sumPoints(20)
+            .sumRebounds(8)
+            .sumAssists(5)
+            .build();
         redisRepository.storeSeasonStats(seasonKey, initialStats);
 
         // When - Apply delta
@@ -103,55 +109,15 @@ class RedisStatsRepositoryTest {
             12.5, // +12.5 minutes
             0  // no new games (live game update)
         );
-        redisRepository.updateSeasonAggregates(seasonKey, delta);
+        redisRepository.updateSeasonAggregates("2024/25", seasonKey, delta);
 
         // Then - Stats should be updated
-        Map<String, Object> updated = redisRepository.getSeasonStats(seasonKey);
-        assertEquals("35", updated.get("sum_points").toString()); // 20 + 15
-        assertEquals("13", updated.get("sum_rebounds").toString()); // 8 + 5
-        assertEquals("8", updated.get("sum_assists").toString()); // 5 + 3
-        assertEquals("1", updated.get("games_played").toString()); // 1 + 0 (no new game)
-    }
-
-    @Test
-    void shouldStoreAndRetrieveGameStats() {
-        // Given
-        LiveStatDto gameStats = LiveStatDto.builder()
-            .gameId(1001)
-            .teamId(10)
-            .playerId(23)
-            .points(25)
-            .rebounds(8)
-            .assists(6)
-            .steals(2)
-            .blocks(1)
-            .fouls(3)
-            .turnovers(2)
-            .minutesPlayed(35.5)
-            .build();
-
-        String gameKey = "g:1001:p:23";
-
-        // When
-        redisRepository.storeCurrentGameStats(gameKey, gameStats);
-
-        // Then
-        LiveStatDto retrieved = redisRepository.getPreviousGameStats(gameKey);
-        assertNotNull(retrieved);
-        assertEquals(1001, retrieved.getGameId());
-        assertEquals(25, retrieved.getPoints());
-        assertEquals(8, retrieved.getRebounds());
-        assertEquals(35.5, retrieved.getMinutesPlayed());
-    }
-
-    @Test
-    void shouldReturnNullForNonExistentGameStats() {
-        // Given
-        String nonExistentKey = "g:9999:p:999";
-
-        // When/Then
-        LiveStatDto stats = redisRepository.getPreviousGameStats(nonExistentKey);
-        assertNull(stats);
+        SeasonTotals updated = redisRepository.getSeasonStats(seasonKey);
+        assertEquals(35, updated.getSumPoints()); // 20 + 15
+        assertEquals(13, updated.getSumRebounds()); // 8 + 5
+        assertEquals(8, updated.getSumAssists()); // 5 + 3
+        assertEquals(1, updated.getGamesPlayed()); // 1 + 0 (no new game)
+        assertEquals(12.5, updated.getSumMinutes(), 0.001);
     }
 
     @Test
@@ -175,43 +141,351 @@ class RedisStatsRepositoryTest {
         // When - No live game initially
         assertFalse(redisRepository.hasLiveGame(playerId));
 
-        // When - Store game stats (creates live game)
-        String gameKey = "g:2001:p:" + playerId;
-        redisRepository.storeCurrentGameStats(gameKey, gameStats);
+        // When - Apply a stat line (creates live game)
+        redisRepository.applyStatLine("2024/25", gameStats);
 
         // Then - Should detect live game
         assertTrue(redisRepository.hasLiveGame(playerId));
     }
 
     @Test
-    void shouldCompleteGame() {
-        // Given - Player has a live game
-        int gameId = 3001;
-        int playerId = 50;
-        String gameKey = "g:" + gameId + ":p:" + playerId;
-        
-        LiveStatDto gameStats = LiveStatDto.builder()
-            .gameId(gameId)
-            .playerId(playerId)
-            .teamId(30)
-            .points(28)
-            .rebounds(6)
-            .assists(8)
-            .steals(1)
-            .blocks(0)
-            .fouls(2)
-            .turnovers(4)
-            .minutesPlayed(42.0)
+    void shouldFinishGameForAllPlayersAndReturnTheirFinalLines() {
+        // Given - Two players with a line in game 3002, a third whose snapshot has expired
+        redisRepository.applyStatLine("2024/25", LiveStatDto.builder()
+            .gameId(3002).teamId(30).playerId(50).points(12).minutesPlayed(20.0).build());
+        redisRepository.applyStatLine("2024/25", LiveStatDto.builder()
+            .gameId(3002).teamId(31).playerId(60).points(8).minutesPlayed(18.0).build());
+        redisTemplate.opsForSet().add(RedisKeys.gamePlayers(3002), "50", "60", "70");
+
+        // When
+        List<LiveStatDto> finalLines = redisRepository.finishGame("2024/25", 3002, List.of(50, 60, 70));
+
+        // Then - Snapshots finished, live index cleared, no snapshot created for the third player
+        assertEquals(3, finalLines.size());
+        assertEquals(30, finalLines.get(0).getTeamId());
+        assertEquals(12, finalLines.get(0).getPoints());
+        assertEquals(20.0, finalLines.get(0).getMinutesPlayed(), 0.001);
+        assertEquals(31, finalLines.get(1).getTeamId());
+        assertEquals(60, finalLines.get(1).getPlayerId());
+        assertNull(finalLines.get(2));
+        assertEquals(RedisFields.GAME_STATUS_FINISHED, redisTemplate.opsForHash().get(RedisKeys.playerGame(3002, 50), RedisFields.GAME_STATUS));
+        assertEquals(RedisFields.GAME_STATUS_FINISHED, redisTemplate.opsForHash().get(RedisKeys.playerGame(3002, 60), RedisFields.GAME_STATUS));
+        assertFalse(redisTemplate.hasKey(RedisKeys.playerGame(3002, 70)));
+        assertFalse(redisRepository.hasLiveGame(50));
+        assertFalse(redisRepository.hasLiveGame(60));
+        // The player set is dropped by the completion once the box score is stored
+        assertTrue(redisTemplate.hasKey(RedisKeys.gamePlayers(3002)));
+        assertEquals(Set.of(3002), redisRepository.findFinishedGames(List.of(
+            LiveStatDto.builder().gameId(3002).playerId(50).build(),
+            LiveStatDto.builder().gameId(3003).playerId(50).build())));
+
+        // A late correction still counts, but does not make the game live again
+        redisRepository.applyStatLine("2024/25", LiveStatDto.builder()
+            .gameId(3002).teamId(30).playerId(50).points(14).minutesPlayed(20.0).build());
+        assertEquals(14, redisRepository.getSeasonStats(RedisKeys.playerSeason("2024/25", 50)).getSumPoints());
+        assertEquals(1, redisRepository.getSeasonStats(RedisKeys.playerSeason("2024/25", 50)).getGamesPlayed());
+        assertFalse(redisRepository.hasLiveGame(50));
+
+        // Both season hashes are still dirty - the priority sync reads their versions
+        String playerKey = RedisKeys.playerSeason("2024/25", 50);
+        String teamKey = RedisKeys.teamSeason("2024/25", 30);
+        assertEquals(Set.of(playerKey, teamKey), redisRepository.getDirtyVersions("2024/25",
+            List.of(playerKey, teamKey, RedisKeys.playerSeason("2024/25", 99))).keySet());
+    }
+
+    @Test
+    void shouldApplyStatLinesAtomicallyWithScript() {
+        // Given - Loaded season hashes for a player and their team
+        redisRepository.storeSeasonStats(RedisKeys.playerSeason("2024/25", 41), SeasonTotals.EMPTY);
+        redisRepository.storeSeasonStats(RedisKeys.playerSeason("2024/25", 40), SeasonTotals.EMPTY);
+        redisRepository.storeSeasonStats(RedisKeys.teamSeason("2024/25", 25), SeasonTotals.EMPTY);
+
+        LiveStatDto firstLine = LiveStatDto.builder()
+            .gameId(5001).teamId(25).playerId(41)
+            .points(10).rebounds(4).minutesPlayed(12.5)
+            .build();
+        LiveStatDto secondLine = LiveStatDto.builder()
+            .gameId(5001).teamId(25).playerId(41)
+            .points(16).rebounds(4).minutesPlayed(20.0)
+            .build();
+        LiveStatDto teammateLine = LiveStatDto.builder()
+            .gameId(5001).teamId(25).playerId(40)
+            .points(3).minutesPlayed(5.0)
             .build();
 
-        redisRepository.storeCurrentGameStats(gameKey, gameStats);
-        assertTrue(redisRepository.hasLiveGame(playerId));
+        // When - First line of the player and of the team
+        StatLineResult first = redisRepository.applyStatLine("2024/25", firstLine);
 
-        // When - Complete the game
-        redisRepository.completeGame(gameId, playerId);
+        // Then
+        assertTrue(first.isFirstPlayerLine());
+        assertTrue(first.isFirstTeamLine());
+        assertEquals(10, first.getDelta().getPoints());
+        assertEquals(1, first.getDelta().getGamesPlayed());
+
+        // When - Follow-up line and a teammate's first line, pipelined
+        List<StatLineResult> results = redisRepository.applyStatLines("2024/25", List.of(secondLine, teammateLine));
+
+        // Then - Deltas against the snapshot, team game counted only once
+        assertFalse(results.get(0).isFirstPlayerLine());
+        assertEquals(6, results.get(0).getDelta().getPoints());
+        assertEquals(0, results.get(0).getDelta().getRebounds());
+        assertEquals(7.5, results.get(0).getDelta().getMinutesPlayed(), 0.001);
+        assertTrue(results.get(1).isFirstPlayerLine());
+        assertFalse(results.get(1).isFirstTeamLine());
+
+        SeasonTotals player = redisRepository.getSeasonStats(RedisKeys.playerSeason("2024/25", 41));
+        assertEquals(16, player.getSumPoints());
+        assertEquals(1, player.getGamesPlayed());
+        assertEquals(20.0, player.getSumMinutes(), 0.001);
+
+        SeasonTotals team = redisRepository.getSeasonStats(RedisKeys.teamSeason("2024/25", 25));
+        assertEquals(19, team.getSumPoints());
+        assertEquals(1, team.getGamesPlayed());
+        assertEquals(25.0, team.getSumMinutes(), 0.001);
+        assertEquals("16", redisTemplate.opsForHash().get(RedisKeys.playerGame(5001, 41), RedisFields.POINTS));
+        assertTrue(redisRepository.hasLiveGame(41));
+        assertTrue(redisRepository.hasLiveGame(40));
+    }
 
-        // Then - Should no longer have live game
-        assertFalse(redisRepository.hasLiveGame(playerId));
-        assertNull(redisRepository.getPreviousGameStats(gameKey));
+    @Test
+    void shouldReportFirstTeamLineWhenScriptCacheWasFlushed() {
+        // Given - Redis lost its script cache, e.g. after a restart
+        redisRepository.storeSeasonStats(RedisKeys.playerSeason("2024/25", 41), SeasonTotals.EMPTY);
+        redisRepository.storeSeasonStats(RedisKeys.playerSeason("2024/25", 40), SeasonTotals.EMPTY);
+        redisTemplate.getConnectionFactory().getConnection().scriptingCommands().scriptFlush();
+
+        // When - Team side left to the caller, as with write-behind
+        List<StatLineResult> results = redisRepository.applyStatLines("2024/25", List.of(
+            LiveStatDto.builder().gameId(5002).teamId(25).playerId(41).points(10).minutesPlayed(12.0).build(),
+            LiveStatDto.builder().gameId(5002).teamId(25).playerId(40).points(4).minutesPlayed(6.0).build()),
+            false);
+
+        // Then - The retry after loading the script still counts the team's game once
+        assertTrue(results.get(0).isFirstPlayerLine());
+        assertTrue(results.get(0).isFirstTeamLine());
+        assertFalse(results.get(1).isFirstTeamLine());
+        assertEquals(10, results.get(0).getDelta().getPoints());
+        assertTrue(redisTemplate.hasKey(RedisKeys.teamGame(25, 5002)));
+        assertFalse(redisTemplate.hasKey(RedisKeys.teamSeason("2024/25", 25)));
+    }
+
+    @Test
+    void shouldClearDirtyKeysOnlyWhenVersionUnchanged() {
+        // Given - A stat line marks both season hashes dirty
+        redisRepository.applyStatLine("2024/25", LiveStatDto.builder()
+            .gameId(6001).teamId(30).playerId(50)
+            .points(8).minutesPlayed(10.0)
+            .build());
+        String playerKey = RedisKeys.playerSeason("2024/25", 50);
+        String teamKey = RedisKeys.teamSeason("2024/25", 30);
+        long[] maxVersions = redisRepository.getDirtyVersionCounters("2024/25");
+        assertEquals(2, redisRepository.countDirtySeasonKeys("2024/25"));
+        Map<String, Long> dirtyKeys = redisRepository.getDirtySeasonKeys("2024/25", maxVersions, 10);
+        assertEquals(Set.of(playerKey, teamKey), dirtyKeys.keySet());
+        assertEquals(2, redisRepository.getAllSeasonStats(dirtyKeys.keySet()).size());
+
+        // When - The player changes again while the sync is in flight
+        redisRepository.updateSeasonAggregates("2024/25", playerKey,
+            new PlayerStatsDelta(2, 0, 0, 0, 0, 0, 0, 1.0, 0));
+        long cleared = redisRepository.clearDirtySeasonKeys("2024/25", dirtyKeys);
+
+        // Then - Only the unchanged team key is cleared, the player waits for the next run
+        assertEquals(1, cleared);
+        assertTrue(redisRepository.getDirtySeasonKeys("2024/25", maxVersions, 10).isEmpty());
+        Map<String, Long> remaining = redisRepository.getDirtySeasonKeys("2024/25",
+            redisRepository.getDirtyVersionCounters("2024/25"), 10);
+        assertEquals(Set.of(playerKey), remaining.keySet());
+    }
+
+    @Test
+    void shouldNotOverwriteSeasonHashIngestedAfterWarmUpRead() {
+        // Given - The warm-up read both players from the DB, then player 70's first line landed
+        // and loaded and incremented the hash before the warm-up stored its rows
+        SeasonTotals fromDb = SeasonTotals.builder()
+            .gamesPlayed(2).sumPoints(30).sumRebounds(20).sumMinutes(60.0)
+            .build();
+        String ingestedKey = RedisKeys.playerSeason("2024/25", 70);
+        String absentKey = RedisKeys.playerSeason("2024/25", 72);
+        redisRepository.storeSeasonStats(ingestedKey, fromDb);
+        redisRepository.applyStatLine("2024/25", LiveStatDto.builder()
+            .gameId(7001).teamId(35).playerId(70)
+            .points(6).rebounds(1).minutesPlayed(10.0)
+            .build());
+
+        // When
+        long stored = redisRepository.storeAbsentSeasonStats(Map.of(ingestedKey, fromDb, absentKey, fromDb));
+
+        // Then - Only the absent hash is stored, the ingested totals and their ranks stay
+        assertEquals(1, stored);
+        SeasonTotals ingested = redisRepository.getSeasonStats(ingestedKey);
+        assertEquals(3, ingested.getGamesPlayed());
+        assertEquals(36, ingested.getSumPoints());
+        assertEquals(30, redisRepository.getSeasonStats(absentKey).getSumPoints());
+        Map<Integer, Double> pointsTotal = redisRepository.getLeaders("2024/25", LeaderboardStat.POINTS, false, 10);
+        assertEquals(36.0, pointsTotal.get(70), 0.001);
+        assertEquals(30.0, pointsTotal.get(72), 0.001);
+        assertEquals(15.0, redisRepository.getLeaders("2024/25", LeaderboardStat.POINTS, true, 10).get(72), 0.001);
+    }
+
+    @Test
+    void shouldNotOverwriteSeasonHashChangedAfterVersionRead() {
+        // Given - Versions read for a dirty and a clean player, then a stat line lands for the dirty one
+        String changedKey = RedisKeys.playerSeason("2024/25", 70);
+        String cleanKey = RedisKeys.playerSeason("2024/25", 72);
+        redisRepository.applyStatLine("2024/25", LiveStatDto.builder()
+            .gameId(7001).teamId(35).playerId(70)
+            .points(6).rebounds(1).minutesPlayed(10.0)
+            .build());
+        Map<String, Long> versions = redisRepository.getDirtyVersions("2024/25", List.of(changedKey, cleanKey));
+        redisRepository.applyStatLine("2024/25", LiveStatDto.builder()
+            .gameId(7001).teamId(35).playerId(70)
+            .points(9).rebounds(1).minutesPlayed(12.0)
+            .build());
+        SeasonTotals rebuilt = SeasonTotals.builder()
+            .gamesPlayed(1).sumPoints(6).sumRebounds(1).sumMinutes(10.0)
+            .build();
+
+        // When
+        Set<String> stored = redisRepository.storeUnchangedSeasonStats(
+                Map.of(changedKey, rebuilt, cleanKey, rebuilt), versions);
+
+        // Then - The changed hash keeps the later line, the clean one is stored with its ranks
+        assertEquals(Set.of(cleanKey), stored);
+        assertEquals(9, redisRepository.getSeasonStats(changedKey).getSumPoints());
+        assertEquals(6, redisRepository.getSeasonStats(cleanKey).getSumPoints());
+        Map<Integer, Double> pointsTotal = redisRepository.getLeaders("2024/25", LeaderboardStat.POINTS, false, 10);
+        assertEquals(9.0, pointsTotal.get(70), 0.001);
+        assertEquals(6.0, pointsTotal.get(72), 0.001);
+    }
+
+    @Test
+    void shouldKeepLeaderboardsInStepWithSeasonAggregates() {
+        // Given - One player loaded from the DB with two games, another playing their first game
+        redisRepository.storeSeasonStats(RedisKeys.playerSeason("2024/25", 70), SeasonTotals.builder()
+            .gamesPlayed(2).sumPoints(30).sumRebounds(20).sumMinutes(60.0)
+            .build());
+        redisRepository.storeSeasonStats(RedisKeys.playerSeason("2024/25", 71), SeasonTotals.EMPTY);
+
+        // When - Live lines for both, then a correction applied as a delta
+        redisRepository.applyStatLine("2024/25", LiveStatDto.builder()
+            .gameId(7001).teamId(35).playerId(70)
+            .points(6).rebounds(1).minutesPlayed(10.0)
+            .build());
+        redisRepository.applyStatLines("2024/25", List.of(LiveStatDto.builder()
+            .gameId(7001).teamId(36).playerId(71)
+            .points(28).rebounds(3).minutesPlayed(30.0)
+            .build()));
+        redisRepository.updateSeasonAggregates("2024/25", RedisKeys.playerSeason("2024/25", 70),
+            new PlayerStatsDelta(0, 3, 0, 0, 0, 0, 0, 0.0, 0));
+
+        // Then - Totals and per-game averages ranked highest first
+        Map<Integer, Double> pointsTotal = redisRepository.getLeaders("2024/25", LeaderboardStat.POINTS, false, 10);
+        assertEquals(List.of(70, 71), List.copyOf(pointsTotal.keySet()));
+        assertEquals(36.0, pointsTotal.get(70), 0.001);
+        assertEquals(28.0, pointsTotal.get(71), 0.001);
+
+        Map<Integer, Double> pointsAverage = redisRepository.getLeaders("2024/25", LeaderboardStat.POINTS, true, 10);
+        assertEquals(List.of(71, 70), List.copyOf(pointsAverage.keySet()));
+        assertEquals(12.0, pointsAverage.get(70), 0.001);
+
+        Map<Integer, Double> reboundsAverage = redisRepository.getLeaders("2024/25", LeaderboardStat.REBOUNDS, true, 1);
+        assertEquals(1, reboundsAverage.size());
+        assertEquals(8.0, reboundsAverage.get(70), 0.001);
+
+        // Team hashes are not ranked - each player is in their own bucket's leaderboard
+        assertEquals(Set.of("70"), redisTemplate.opsForZSet().range(
+            RedisKeys.leaderboardTotal("2024/25", LeaderboardStat.MINUTES, RedisKeys.slotBucket(70)), 0, -1));
+        assertEquals(Set.of("71"), redisTemplate.opsForZSet().range(
+            RedisKeys.leaderboardTotal("2024/25", LeaderboardStat.MINUTES, RedisKeys.slotBucket(71)), 0, -1));
+    }
+
+    @Test
+    void shouldKeepRunningSumsOfLastGamesAtCompletion() {
+        // Given - Twelve completed games, game n with n points and 30 minutes
+        for (int game = 1; game <= 12; game++) {
+            redisRepository.applyStatLine("2024/25", LiveStatDto.builder()
+                .gameId(8000 + game).teamId(40).playerId(80)
+                .points(game).rebounds(2).minutesPlayed(30.0)
+                .build());
+            redisRepository.finishGame("2024/25", 8000 + game, List.of(80));
+        }
+
+        // When - The last game is completed a second time
+        redisRepository.finishGame("2024/25", 8012, List.of(80));
+
+        // Then - Windows hold only their newest games, counted once
+        SeasonTotals lastFive = redisRepository.getRecentForm("2024/25", 80, 5);
+        assertEquals(5, lastFive.getGamesPlayed());
+        assertEquals(8 + 9 + 10 + 11 + 12, lastFive.getSumPoints());
+        assertEquals(10, lastFive.getSumRebounds());
+        assertEquals(150.0, lastFive.getSumMinutes(), 0.001);
+
+        SeasonTotals lastTen = redisRepository.getRecentForm("2024/25", 80, 10);
+        assertEquals(10, lastTen.getGamesPlayed());
+        assertEquals(3 + 4 + 5 + 6 + 7 + 8 + 9 + 10 + 11 + 12, lastTen.getSumPoints());
+        assertEquals(10L, redisTemplate.opsForList().size(RedisKeys.playerRecentGames("2024/25", 80)));
+
+        // A player without completed games has an empty form
+        assertEquals(SeasonTotals.EMPTY, redisRepository.getRecentForm("2024/25", 81, 5));
+    }
+
+    @Test
+    void shouldMigrateLegacyKeysToCompactFormat() {
+        assumeFalse(redisRepository.isClusterMode(), "the migration runs on a single node only");
+
+        // Given - Untagged keys as the old layout named them: a season hash with drifted decimal
+        // minutes that already took one compact increment, a finished legacy snapshot, a legacy
+        // recent-games entry, and the season-wide dirty set and leaderboard
+        redisTemplate.opsForHash().putAll("s:2024_25:p:90", Map.of(
+            RedisFields.LEGACY_GAMES_PLAYED, "3",
+            RedisFields.LEGACY_SUM_POINTS, "60",
+            RedisFields.LEGACY_SUM_REBOUNDS, "15",
+            RedisFields.LEGACY_SUM_MINUTES, "100.30000000000001"));
+        redisTemplate.opsForHash().increment("s:2024_25:p:90", RedisFields.POINTS, 5);
+        redisTemplate.opsForHash().putAll("g:9001:p:90", Map.of(
+            RedisFields.LEGACY_GAME_ID, "9001",
+            RedisFields.LEGACY_TEAM_ID, "45",
+            RedisFields.LEGACY_PLAYER_ID, "90",
+            RedisFields.LEGACY_POINTS, "20",
+            RedisFields.LEGACY_REBOUNDS, "5",
+            RedisFields.LEGACY_MINUTES_PLAYED, "33.5",
+            RedisFields.LEGACY_GAME_STATUS, "FINISHED"));
+        redisTemplate.opsForList().leftPush("recent:s:2024_25:p:90", "9001 20 5 0 0 0 0 0 33.5");
+        redisTemplate.opsForZSet().add("dirty:s:2024_25", "s:2024_25:p:90", 7);
+        redisTemplate.opsForValue().set("dirty:s:2024_25:version", "7");
+        redisTemplate.opsForZSet().add("lead:2024_25:points:total", "90", 65);
+
+        // When
+        long migrated = redisRepository.migrateLegacyFormat();
+
+        // Then - Keys renamed into the player's bucket, dirty set and leaderboard split,
+        // sums merged, minutes in whole seconds, legacy fields gone
+        assertEquals(8, migrated);
+        String seasonKey = RedisKeys.playerSeason("2024/25", 90);
+        String gameKey = RedisKeys.playerGame(9001, 90);
+        assertFalse(redisTemplate.hasKey("s:2024_25:p:90"));
+        SeasonTotals totals = redisRepository.getSeasonStats(seasonKey);
+        assertEquals(3, totals.getGamesPlayed());
+        assertEquals(65, totals.getSumPoints());
+        assertEquals(15, totals.getSumRebounds());
+        assertEquals(100.3, totals.getSumMinutes(), 0.0);
+        assertEquals("6018", redisTemplate.opsForHash().get(seasonKey, RedisFields.SECONDS_PLAYED));
+        assertFalse(redisTemplate.opsForHash().hasKey(seasonKey, RedisFields.LEGACY_SUM_POINTS));
+
+        assertEquals("45", redisTemplate.opsForHash().get(gameKey, RedisFields.TEAM_ID));
+        assertEquals("20", redisTemplate.opsForHash().get(gameKey, RedisFields.POINTS));
+        assertEquals("2010", redisTemplate.opsForHash().get(gameKey, RedisFields.SECONDS_PLAYED));
+        assertEquals(RedisFields.GAME_STATUS_FINISHED, redisTemplate.opsForHash().get(gameKey, RedisFields.GAME_STATUS));
+        assertFalse(redisTemplate.opsForHash().hasKey(gameKey, RedisFields.LEGACY_GAME_ID));
+        assertEquals("9001 20 5 0 0 0 0 0 2010",
+            redisTemplate.opsForList().index(RedisKeys.playerRecentGames("2024/25", 90), 0));
+
+        assertEquals(Set.of(seasonKey), redisRepository.getDirtyVersions("2024/25", List.of(seasonKey)).keySet());
+        assertFalse(redisTemplate.hasKey("dirty:s:2024_25"));
+        assertEquals(Map.of(90, 65.0), redisRepository.getLeaders("2024/25", LeaderboardStat.POINTS, false, 10));
+        assertFalse(redisTemplate.hasKey("lead:2024_25:points:total"));
+
+        // Migrated keys are left alone
+        assertEquals(0, redisRepository.migrateLegacyFormat());
     }
 }
@@ -0,0 +1,155 @@
+package com.nba.stats.repository;
+
+import org.junit.jupiter.api.Test;
+
+import com.nba.stats.dto.SeasonAverages;
+import com.nba.stats.dto.SeasonTotals;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SeasonTotalsCodecTest {
+
+    private static final int ITERATIONS = 200_000;
+
+    // Keeps the measured results reachable so the JIT cannot drop the work
+    private double sink;
+
+    @Test
+    void shouldRoundTripTotalsThroughHashValues() {
+        // Given
+        SeasonTotals totals = new SeasonTotals(71, 1800, 550, 600, 120, 80, 180, 200, 2500.5);
+
+        // When - Encode as HMSET would, read back in HMGET field order
+        Map<byte[], byte[]> hash = SeasonTotalsCodec.encode(totals);
+        List<byte[]> values = new ArrayList<>();
+        for (byte[] field : SeasonTotalsCodec.fields()) {
+            values.add(hash.get(field));
+        }
+
+        // Then
+        assertEquals(totals, SeasonTotalsCodec.decode(values));
+    }
+
+    @Test
+    void shouldStoreMinutesAsWholeSeconds() {
+        // Given - Minutes as a sum of decimal increments that do not add up exactly in binary
+        double minutes = 0.1 + 0.2 + 35.2;
+
+        // When
+        Map<byte[], byte[]> hash = SeasonTotalsCodec.encode(new SeasonTotals(1, 0, 0, 0, 0, 0, 0, 0, minutes));
+
+        // Then
+        assertEquals("2130", new String(hash.get(SeasonTotalsCodec.fields()[8]), StandardCharsets.US_ASCII));
+        assertEquals(35.5, SeasonTotalsCodec.toMinutes(SeasonTotalsCodec.toSeconds(minutes)), 0.0);
+    }
+
+    @Test
+    void shouldTreatMissingHashAsNullAndMissingFieldsAsZero() {
+        assertNull(SeasonTotalsCodec.decode(Arrays.asList(new byte[9][])));
+
+        // HINCRBY on a fresh hash only creates the fields it touches
+        List<byte[]> values = Arrays.asList(new byte[9][]);
+        values.set(1, bytes("-4"));
+        values.set(8, bytes("750"));
+        SeasonTotals totals = SeasonTotalsCodec.decode(values);
+
+        assertEquals(0, totals.getGamesPlayed());
+        assertEquals(-4, totals.getSumPoints());
+        assertEquals(12.5, totals.getSumMinutes(), 0.001);
+
+        // Unparseable values fall back to the lenient converter
+        values.set(1, bytes("oops"));
+        assertEquals(0, SeasonTotalsCodec.decode(values).getSumPoints());
+    }
+
+    @Test
+    void shouldAllocateLessThanMapBasedReadPath() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean sunThreads
+                && sunThreads.isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+
+        // Given - The same season hash as HGETALL strings and as HMGET bytes
+        Map<Object, Object> rawHash = new HashMap<>();
+        List<byte[]> rawValues = new ArrayList<>();
+        String[] fields = { "games_played", "sum_points", "sum_rebounds", "sum_assists", "sum_steals",
+                "sum_blocks", "sum_fouls", "sum_turnovers", "sum_minutes" };
+        String[] values = { "71", "1800", "550", "600", "120", "80", "180", "200", "150030" };
+        for (int i = 0; i < fields.length; i++) {
+            rawHash.put(fields[i], values[i]);
+            rawValues.add(bytes(values[i]));
+        }
+
+        // Warm up both paths so the measurement sees compiled code
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapBasedRead(rawHash);
+            sink += typedRead(rawValues);
+        }
+
+        // When
+        long threadId = Thread.currentThread().getId();
+        long start = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapBasedRead(rawHash);
+        }
+        long mapBytes = allocations.getThreadAllocatedBytes(threadId) - start;
+
+        start = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += typedRead(rawValues);
+        }
+        long typedBytes = allocations.getThreadAllocatedBytes(threadId) - start;
+
+        // Then
+        System.out.printf("Season stats read path: map-based %d B/op, typed %d B/op%n",
+                mapBytes / ITERATIONS, typedBytes / ITERATIONS);
+        assertTrue(typedBytes < mapBytes,
+                "typed read allocated " + typedBytes + " bytes, map-based " + mapBytes);
+    }
+
+    /**
+     * Decode + average as the typed read path does it
+     */
+    private double typedRead(List<byte[]> rawValues) {
+        SeasonTotals totals = SeasonTotalsCodec.decode(rawValues);
+        return SeasonAverages.of(totals, totals.getGamesPlayed()).getAvgPoints();
+    }
+
+    /**
+     * Decode + average the way the read path did it before the typed model:
+     * boxed values in a HashMap, then a map of boxed averages
+     */
+    private double mapBasedRead(Map<Object, Object> rawHash) {
+        Map<String, Object> stats = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : rawHash.entrySet()) {
+            String key = entry.getKey().toString();
+            String value = entry.getValue().toString();
+            stats.put(key, key.contains("minutes") ? (Object) Double.parseDouble(value) : (Object) Integer.parseInt(value));
+        }
+        int games = (Integer) stats.get("games_played");
+        Map<String, Object> averages = Map.ofEntries(
+                Map.entry("gamesPlayed", games),
+                Map.entry("avgPoints", ((Number) stats.get("sum_points")).doubleValue() / games),
+                Map.entry("avgRebounds", ((Number) stats.get("sum_rebounds")).doubleValue() / games),
+                Map.entry("avgAssists", ((Number) stats.get("sum_assists")).doubleValue() / games),
+                Map.entry("avgSteals", ((Number) stats.get("sum_steals")).doubleValue() / games),
+                Map.entry("avgBlocks", ((Number) stats.get("sum_blocks")).doubleValue() / games),
+                Map.entry("avgFouls", ((Number) stats.get("sum_fouls")).doubleValue() / games),
+                Map.entry("avgTurnovers", ((Number) stats.get("sum_turnovers")).doubleValue() / games),
+                Map.entry("avgMinutes", ((Number) stats.get("sum_minutes")).doubleValue() / games));
+        return (Double) averages.get("avgPoints");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,89 @@
+package com.nba.stats.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.event.PostIngestEventBus;
+import com.nba.stats.repository.DbStatsRepository;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameCompletionServiceImplTest {
+
+    private static final String SEASON = "2024/25";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private RedisStatsRepository redisStatsRepository;
+
+    @Mock
+    private DbStatsRepository dbStatsRepository;
+
+    @Mock
+    private PostIngestEventBus eventBus;
+
+    @Mock
+    private ScheduledSyncService scheduledSyncService;
+
+    private GameCompletionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new GameCompletionServiceImpl(redisTemplate, redisStatsRepository, dbStatsRepository,
+                eventBus, scheduledSyncService, Optional.empty());
+        ReflectionTestUtils.setField(service, "currentSeason", SEASON);
+        when(eventBus.flush(anyInt(), anyLong())).thenReturn(true);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    }
+
+    @Test
+    void shouldKeepPlayerSetUntilBoxScoreIsStored() {
+        // Given - Game 8123 with two players, the first box score batch fails
+        String gamePlayers = RedisKeys.gamePlayers(8123);
+        List<LiveStatDto> finalLines = List.of(
+            LiveStatDto.builder().gameId(8123).teamId(10).playerId(23).points(31).minutesPlayed(36.5).build(),
+            LiveStatDto.builder().gameId(8123).teamId(10).playerId(30).points(18).minutesPlayed(34.0).build());
+        when(setOperations.members(gamePlayers)).thenReturn(Set.of("23", "30"));
+        when(redisStatsRepository.finishGame(eq(SEASON), eq(8123), anyList()))
+                .thenReturn(finalLines);
+        doThrow(new DataAccessResourceFailureException("connection reset"))
+                .doNothing()
+                .when(dbStatsRepository).upsertPlayerGameLines(SEASON, finalLines);
+
+        // When - The game is completed, then completed again
+        service.markGameAsCompleted(8123);
+
+        // Then - The failed batch leaves the player set for the retry
+        verify(redisTemplate, never()).delete(gamePlayers);
+
+        service.markGameAsCompleted(8123);
+
+        // Then - The second completion stores the same lines and only then drops the set
+        verify(dbStatsRepository, times(2)).upsertPlayerGameLines(SEASON, finalLines);
+        verify(redisTemplate).delete(gamePlayers);
+    }
+}
@@ -8,19 +8,25 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.dto.PlayerStatsDelta;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.dto.StatLineResult;
 import com.nba.stats.event.FirstPlayerStatEvent;
+import com.nba.stats.event.GameEvent;
+import com.nba.stats.event.PostIngestEventBus;
 import com.nba.stats.repository.DbStatsRepository;
 import com.nba.stats.repository.RedisStatsRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
-import java.util.Map;
+import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
 class LiveStatServiceEventTest {
@@ -32,19 +38,25 @@ class LiveStatServiceEventTest {
     private RedisStatsRepository redisStatsRepository;
     
     @Mock
-    private ApplicationEventPublisher eventPublisher;
+    private PostIngestEventBus eventBus;
     
     
     private LiveStatServiceImpl liveStatService;
+
+    private SimpleMeterRegistry meterRegistry;
     
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
         // Manually create the service with currentSeason
         liveStatService = new LiveStatServiceImpl(
             playerStatsRepository,
             redisStatsRepository, 
-            eventPublisher,
-            "2024/25" // ← Provide currentSeason directly
+            eventBus,
+            "2024/25", // ← Provide currentSeason directly
+            Optional.empty(),
+            Optional.empty(),
+            meterRegistry
         );
     }
     
@@ -65,17 +77,19 @@ class LiveStatServiceEventTest {
             .minutesPlayed(35.5)
             .build();
             
-        when(redisStatsRepository.getPreviousGameStats(anyString())).thenReturn(null);
-        when(playerStatsRepository.getPlayerSeasonStats(anyInt(), anyString())).thenReturn(Map.of());
+        // Script reports no previous snapshot for this player in this game
+        when(redisStatsRepository.applyStatLine(anyString(), any(LiveStatDto.class), anyBoolean()))
+            .thenReturn(new StatLineResult(true, true, new PlayerStatsDelta(25, 8, 6, 2, 1, 3, 2, 35.5, 1)));
+        when(playerStatsRepository.getPlayerSeasonStats(anyInt(), anyString())).thenReturn(SeasonTotals.EMPTY);
         
         // When: Process the stat
         liveStatService.processLiveStat(liveStat);
         
         // Then: Event should be published
-        ArgumentCaptor<FirstPlayerStatEvent> eventCaptor = ArgumentCaptor.forClass(FirstPlayerStatEvent.class);
-        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        ArgumentCaptor<GameEvent> eventCaptor = ArgumentCaptor.forClass(GameEvent.class);
+        verify(eventBus).publish(eventCaptor.capture());
         
-        FirstPlayerStatEvent publishedEvent = eventCaptor.getValue();
+        FirstPlayerStatEvent publishedEvent = (FirstPlayerStatEvent) eventCaptor.getValue();
         assertEquals(23, publishedEvent.getPlayerId());
         assertEquals(1001, publishedEvent.getGameId());
     }
@@ -97,26 +111,40 @@ class LiveStatServiceEventTest {
             .minutesPlayed(38.0)
             .build();
             
-        LiveStatDto previousStats = LiveStatDto.builder()
-            .gameId(1001)
-            .playerId(23)
-            .teamId(10)
-            .points(25)
-            .rebounds(8)
-            .assists(6)
-            .steals(2)
-            .blocks(1)
-            .fouls(3)
-            .turnovers(2)
-            .minutesPlayed(35.5)
-            .build();
+        // Script found the previous snapshot and returned the difference
+        when(redisStatsRepository.applyStatLine(anyString(), any(LiveStatDto.class), anyBoolean()))
+            .thenReturn(new StatLineResult(false, false, new PlayerStatsDelta(5, 2, 1, 1, 1, 1, -1, 2.5, 0)));
             
-        when(redisStatsRepository.getPreviousGameStats(anyString())).thenReturn(previousStats);
-        
         // When: Process the stat
         liveStatService.processLiveStat(liveStat);
         
         // Then: No event should be published
-        verify(eventPublisher, never()).publishEvent(any(FirstPlayerStatEvent.class));
+        verify(eventBus, never()).publish(any(GameEvent.class));
+    }
+
+    @Test
+    void shouldRecordIngestStageTimings() {
+        // Given
+        LiveStatDto liveStat = LiveStatDto.builder()
+            .gameId(1001)
+            .playerId(23)
+            .teamId(10)
+            .points(12)
+            .minutesPlayed(20.0)
+            .build();
+        when(redisStatsRepository.seasonStatsExist(anyString())).thenReturn(true);
+        when(redisStatsRepository.applyStatLine(anyString(), any(LiveStatDto.class), anyBoolean()))
+            .thenReturn(new StatLineResult(false, false, new PlayerStatsDelta(2, 0, 0, 0, 0, 0, 0, 1.5, 0)));
+
+        // When
+        liveStatService.processLiveStat(liveStat);
+        liveStatService.processLiveStat(liveStat);
+
+        // Then: One sample per request and stage, write-behind stage unused without the coalescer
+        assertEquals(2, meterRegistry.get("nba.ingest").tag("mode", "single").timer().count());
+        assertEquals(2, meterRegistry.get("nba.ingest.stage").tags("mode", "single", "stage", "season_load").timer().count());
+        assertEquals(2, meterRegistry.get("nba.ingest.stage").tags("mode", "single", "stage", "stat_line").timer().count());
+        assertEquals(0, meterRegistry.get("nba.ingest.stage").tags("mode", "single", "stage", "team_write_behind").timer().count());
+        assertEquals(2.0, meterRegistry.get("nba.ingest.lines").tag("mode", "single").counter().count(), 0.0);
     }
 }
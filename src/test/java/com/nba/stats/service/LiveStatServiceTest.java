@@ -8,9 +8,14 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.test.context.TestPropertySource;
 
 import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.dto.PlayerSeasonStatsDto;
+import com.nba.stats.dto.TeamSeasonStatsDto;
+import com.nba.stats.event.PostIngestEventBus;
 import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
 
-import java.util.Map;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,6 +42,12 @@ class LiveStatServiceTest {
     @Autowired
     private RedisStatsRepository redisStatsRepository;
 
+    @Autowired
+    private GameCompletionManager gameCompletionManager;
+
+    @Autowired
+    private PostIngestEventBus postIngestEventBus;
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
@@ -71,20 +82,20 @@ class LiveStatServiceTest {
         liveStatService.processLiveStat(firstGame);
 
         // Then: Player stats should reflect the game
-        Map<String, Object> playerStats = statsRetrievalService.getPlayerSeasonStats(23, "2024/25");
+        PlayerSeasonStatsDto playerStats = statsRetrievalService.getPlayerSeasonStats(23, "2024/25");
         
-        assertEquals(1, playerStats.get("gamesPlayed"));
-        assertEquals(25.0, playerStats.get("avgPoints"));
-        assertEquals(8.0, playerStats.get("avgRebounds"));
-        assertEquals(6.0, playerStats.get("avgAssists"));
-        assertEquals(35.5, playerStats.get("avgMinutes"));
+        assertEquals(1, playerStats.getAverages().getGamesPlayed());
+        assertEquals(25.0, playerStats.getAverages().getAvgPoints());
+        assertEquals(8.0, playerStats.getAverages().getAvgRebounds());
+        assertEquals(6.0, playerStats.getAverages().getAvgAssists());
+        assertEquals(35.5, playerStats.getAverages().getAvgMinutes());
 
         // And: Team stats should also be updated
-        Map<String, Object> teamStats = statsRetrievalService.getTeamSeasonStats(10, "2024/25");
+        TeamSeasonStatsDto teamStats = statsRetrievalService.getTeamSeasonStats(10, "2024/25");
         
-        assertEquals(1, teamStats.get("gamesPlayed"));
-        assertEquals(25.0, teamStats.get("avgPoints"));
-        assertEquals(8.0, teamStats.get("avgRebounds"));
+        assertEquals(1, teamStats.getAverages().getGamesPlayed());
+        assertEquals(25.0, teamStats.getAverages().getAvgPoints());
+        assertEquals(8.0, teamStats.getAverages().getAvgRebounds());
     }
 
     @Test
@@ -108,9 +119,9 @@ class LiveStatServiceTest {
         liveStatService.processLiveStat(firstUpdate);
 
         // Then: Stats should reflect first update
-        Map<String, Object> stats = statsRetrievalService.getPlayerSeasonStats(30, "2024/25");
-        assertEquals(1, stats.get("gamesPlayed"));
-        assertEquals(10.0, stats.get("avgPoints"));
+        PlayerSeasonStatsDto stats = statsRetrievalService.getPlayerSeasonStats(30, "2024/25");
+        assertEquals(1, stats.getAverages().getGamesPlayed());
+        assertEquals(10.0, stats.getAverages().getAvgPoints());
 
         // Given: Second update in same game (player scored more)
         LiveStatDto secondUpdate = LiveStatDto.builder()
@@ -132,10 +143,10 @@ class LiveStatServiceTest {
 
         // Then: Games played should still be 1, but stats updated
         stats = statsRetrievalService.getPlayerSeasonStats(30, "2024/25");
-        assertEquals(1, stats.get("gamesPlayed")); // Still 1 game
-        assertEquals(18.0, stats.get("avgPoints")); // Updated to latest
-        assertEquals(5.0, stats.get("avgRebounds")); // Updated
-        assertEquals(20.0, stats.get("avgMinutes")); // Updated
+        assertEquals(1, stats.getAverages().getGamesPlayed()); // Still 1 game
+        assertEquals(18.0, stats.getAverages().getAvgPoints()); // Updated to latest
+        assertEquals(5.0, stats.getAverages().getAvgRebounds()); // Updated
+        assertEquals(20.0, stats.getAverages().getAvgMinutes()); // Updated
     }
 
     @Test
@@ -158,7 +169,7 @@ class LiveStatServiceTest {
         // When: Process first game
         liveStatService.processLiveStat(game1);
         // And: Complete first game directly via repository
-        redisStatsRepository.completeGame(2001, 35);
+        redisStatsRepository.finishGame("2024/25", 2001, List.of(35));
         // Given: Second completed game
         LiveStatDto game2 = LiveStatDto.builder()
                 .gameId(2002)
@@ -177,19 +188,91 @@ class LiveStatServiceTest {
         // When: Process second game
         liveStatService.processLiveStat(game2);
         // And: Complete second game directly via repository
-        redisStatsRepository.completeGame(2002, 35);
+        redisStatsRepository.finishGame("2024/25", 2002, List.of(35));
         // Then: Should calculate averages across both games
-        Map<String, Object> stats = statsRetrievalService.getPlayerSeasonStats(35, "2024/25");
+        PlayerSeasonStatsDto stats = statsRetrievalService.getPlayerSeasonStats(35, "2024/25");
         
-        assertEquals(2, stats.get("gamesPlayed"));
+        assertEquals(2, stats.getAverages().getGamesPlayed());
         
         // 50 total points / 2 games = 25.0 average
-        assertEquals(25.0, (Double) stats.get("avgPoints"), 0.01);
+        assertEquals(25.0, stats.getAverages().getAvgPoints(), 0.01);
         // 16 total rebounds / 2 games = 8.0 average
-        assertEquals(8.0, (Double) stats.get("avgRebounds"), 0.01);
+        assertEquals(8.0, stats.getAverages().getAvgRebounds(), 0.01);
         // 13 total assists / 2 games = 6.5 average
-        assertEquals(6.5, (Double) stats.get("avgAssists"), 0.01);
+        assertEquals(6.5, stats.getAverages().getAvgAssists(), 0.01);
         // 75 total minutes / 2 games = 37.5 average
-        assertEquals(37.5, (Double) stats.get("avgMinutes"), 0.01);
+        assertEquals(37.5, stats.getAverages().getAvgMinutes(), 0.01);
+    }
+
+    @Test
+    void shouldCoalesceBatchToNewestLinePerPlayer() {
+        // Given: Two cumulative lines for Tatum (older first) and one for a teammate in the same batch
+        LiveStatDto olderLine = LiveStatDto.builder()
+                .gameId(3001).teamId(25).playerId(41)
+                .points(10).rebounds(2).assists(1)
+                .minutesPlayed(10.0)
+                .build();
+        LiveStatDto newerLine = LiveStatDto.builder()
+                .gameId(3001).teamId(25).playerId(41)
+                .points(14).rebounds(3).assists(2)
+                .minutesPlayed(15.0)
+                .build();
+        LiveStatDto teammateLine = LiveStatDto.builder()
+                .gameId(3001).teamId(25).playerId(40)
+                .points(6).rebounds(4).assists(0)
+                .minutesPlayed(12.0)
+                .build();
+
+        // When: Process the batch
+        liveStatService.processLiveStats(List.of(olderLine, newerLine, teammateLine));
+
+        // Then: Only the newest line counts for the player
+        PlayerSeasonStatsDto playerStats = statsRetrievalService.getPlayerSeasonStats(41, "2024/25");
+        assertEquals(1, playerStats.getAverages().getGamesPlayed());
+        assertEquals(14.0, playerStats.getAverages().getAvgPoints());
+        assertEquals(15.0, playerStats.getAverages().getAvgMinutes());
+
+        // And: The team game is counted once with both players' lines
+        TeamSeasonStatsDto teamStats = statsRetrievalService.getTeamSeasonStats(25, "2024/25");
+        assertEquals(1, teamStats.getAverages().getGamesPlayed());
+        assertEquals(20.0, teamStats.getAverages().getAvgPoints());
+
+        // When: A later single line for the same player arrives
+        liveStatService.processLiveStat(LiveStatDto.builder()
+                .gameId(3001).teamId(25).playerId(41)
+                .points(20).rebounds(3).assists(2)
+                .minutesPlayed(20.0)
+                .build());
+
+        // Then: The delta is taken against the batch snapshot
+        playerStats = statsRetrievalService.getPlayerSeasonStats(41, "2024/25");
+        assertEquals(1, playerStats.getAverages().getGamesPlayed());
+        assertEquals(20.0, playerStats.getAverages().getAvgPoints());
+        teamStats = statsRetrievalService.getTeamSeasonStats(25, "2024/25");
+        assertEquals(1, teamStats.getAverages().getGamesPlayed());
+        assertEquals(26.0, teamStats.getAverages().getAvgPoints());
+    }
+
+    @Test
+    void shouldClearLiveGameWhenGameIsCompleted() {
+        // Given: A player with a live game
+        liveStatService.processLiveStat(LiveStatDto.builder()
+                .gameId(6001).teamId(10).playerId(23)
+                .points(12).rebounds(5).assists(4)
+                .minutesPlayed(18.0)
+                .build());
+        assertTrue(redisStatsRepository.hasLiveGame(23));
+        // The subscription is written off the ingest thread by the post-ingest bus
+        assertTrue(postIngestEventBus.flush(6001, 5_000));
+        assertEquals(Set.of("23"), redisTemplate.opsForSet().members(RedisKeys.gamePlayers(6001)));
+
+        // When: The game is completed
+        gameCompletionManager.markGameAsCompleted(6001);
+
+        // Then: The live-game index no longer lists it
+        assertFalse(redisStatsRepository.hasLiveGame(23));
+        PlayerSeasonStatsDto stats = statsRetrievalService.getPlayerSeasonStats(23, "2024/25");
+        assertFalse(stats.isHasLiveGame());
+        assertEquals(12.0, stats.getAverages().getAvgPoints());
     }
 }
@@ -0,0 +1,144 @@
+package com.nba.stats.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import com.nba.stats.dto.LiveStatDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionedIngestServiceTest {
+
+    // Nothing listens there, forwards fail right away
+    private static final String UNREACHABLE_OWNER = "http://127.0.0.1:1";
+
+    @Mock
+    private LiveStatService liveStatService;
+
+    @Mock
+    private GameCompletionManager gameCompletionManager;
+
+    @Mock
+    private IngestMembership membership;
+
+    private PartitionedIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PartitionedIngestService(liveStatService, gameCompletionManager, membership,
+                new RestTemplateBuilder(), 4, 500, false, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void shouldApplyLinesOfOneGameOneAtATime() throws Exception {
+        // Given - Many request threads sending lines of the same game
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            inFlight.decrementAndGet();
+            return null;
+        }).when(liveStatService).processLiveStat(any());
+        ExecutorService requests = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            LiveStatDto line = line(8123, i);
+            futures.add(requests.submit(() -> {
+                start.await();
+                service.processLiveStat(line, false);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        requests.shutdown();
+
+        // Then
+        verify(liveStatService, times(40)).processLiveStat(any());
+        assertEquals(1, maxInFlight.get());
+    }
+
+    @Test
+    void shouldGroupLocalBatchByWriter() {
+        // Given - Games 1 and 5 share writer 1 of 4, game 2 has its own
+        List<LiveStatDto> batch = List.of(line(1, 23), line(2, 24), line(5, 25), line(1, 26));
+
+        // When
+        service.processLiveStats(batch, false);
+
+        // Then
+        verify(liveStatService).processLiveStats(List.of(batch.get(0), batch.get(2), batch.get(3)));
+        verify(liveStatService).processLiveStats(List.of(batch.get(1)));
+    }
+
+    @Test
+    void shouldApplyForwardedRequestsWithoutRoutingAgain() {
+        // When
+        service.processLiveStat(line(8123, 23), true);
+        service.markGameAsCompleted(8123, true);
+
+        // Then
+        verifyNoInteractions(membership);
+        verify(liveStatService).processLiveStat(any());
+        verify(gameCompletionManager).markGameAsCompleted(8123);
+    }
+
+    @Test
+    void shouldApplyHereWhenOwnerIsUnreachable() {
+        // Given
+        when(membership.remoteOwnerOf(anyInt())).thenReturn(UNREACHABLE_OWNER);
+        List<LiveStatDto> batch = List.of(line(8123, 23), line(8123, 24));
+
+        // When
+        service.processLiveStats(batch, false);
+        service.markGameAsCompleted(8123, false);
+
+        // Then
+        verify(liveStatService).processLiveStats(batch);
+        verify(gameCompletionManager).markGameAsCompleted(8123);
+    }
+
+    @Test
+    void shouldRethrowWriterFailureOnRequestThread() {
+        doThrow(new IllegalArgumentException("bad line")).when(liveStatService).processLiveStat(any());
+
+        assertThrows(IllegalArgumentException.class, () -> service.processLiveStat(line(8123, 23), false));
+    }
+
+    private static LiveStatDto line(int gameId, int playerId) {
+        return LiveStatDto.builder()
+            .gameId(gameId).teamId(10).playerId(playerId)
+            .points(10).minutesPlayed(12.0)
+            .build();
+    }
+}
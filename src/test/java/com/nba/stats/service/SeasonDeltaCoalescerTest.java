@@ -0,0 +1,113 @@
+package com.nba.stats.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.nba.stats.dto.PlayerStatsDelta;
+import com.nba.stats.repository.RedisStatsRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeasonDeltaCoalescerTest {
+
+    @Mock
+    private RedisStatsRepository redisStatsRepository;
+
+    private SeasonDeltaCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        // Flush after 3 updates, staleness bound out of the way
+        coalescer = new SeasonDeltaCoalescer(redisStatsRepository, 3, 60_000, 3, 1);
+    }
+
+    @Test
+    void shouldSumDeltasPerKeyUntilFlushed() {
+        // Given
+        coalescer.add("2024/25", "s:2024_25:t:10", new PlayerStatsDelta(2, 1, 0, 0, 0, 0, 0, 1.5, 1));
+        coalescer.add("2024/25", "s:2024_25:t:10", new PlayerStatsDelta(3, 0, 1, 0, 0, 1, 0, 2.0, 0));
+        coalescer.add("2024/25", "s:2024_25:t:15", new PlayerStatsDelta(1, 0, 0, 0, 0, 0, 0, 0.5, 1));
+        verifyNoInteractions(redisStatsRepository);
+
+        // When
+        coalescer.flushAll();
+
+        // Then - One write per key with the summed delta
+        ArgumentCaptor<PlayerStatsDelta> captor = ArgumentCaptor.forClass(PlayerStatsDelta.class);
+        verify(redisStatsRepository).updateSeasonAggregates(eq("2024/25"), eq("s:2024_25:t:10"), captor.capture());
+        assertEquals(new PlayerStatsDelta(5, 1, 1, 0, 0, 1, 0, 3.5, 1), captor.getValue());
+        verify(redisStatsRepository).updateSeasonAggregates(eq("2024/25"), eq("s:2024_25:t:15"), any());
+
+        // Nothing left to flush
+        coalescer.shutdown();
+        verifyNoMoreInteractions(redisStatsRepository);
+    }
+
+    @Test
+    void shouldFlushKeyInlineAtMaxUpdatesAndKeepFailedDeltas() {
+        // Given - First flush fails
+        doThrow(new RuntimeException("Redis down")).doNothing()
+            .when(redisStatsRepository).updateSeasonAggregates(any(), any(), any());
+        PlayerStatsDelta delta = new PlayerStatsDelta(2, 0, 0, 0, 0, 0, 0, 1.0, 0);
+
+        // When - Third update hits max updates
+        coalescer.add("2024/25", "s:2024_25:t:10", delta);
+        coalescer.add("2024/25", "s:2024_25:t:10", delta);
+        coalescer.add("2024/25", "s:2024_25:t:10", delta);
+        coalescer.add("2024/25", "s:2024_25:t:10", delta);
+        coalescer.flushAll();
+
+        // Then - The failed deltas are written together with the later one
+        ArgumentCaptor<PlayerStatsDelta> captor = ArgumentCaptor.forClass(PlayerStatsDelta.class);
+        verify(redisStatsRepository, times(2)).updateSeasonAggregates(eq("2024/25"), eq("s:2024_25:t:10"), captor.capture());
+        assertEquals(8, captor.getAllValues().get(1).getPoints());
+        assertEquals(4.0, captor.getAllValues().get(1).getMinutesPlayed(), 0.001);
+    }
+
+    @Test
+    void shouldKeepOldestFirstUpdateWhenRequeueingFailedDeltas() throws Exception {
+        // Given - 200 ms staleness, a flush of the key fails while a new delta for it comes in
+        SeasonDeltaCoalescer stale = new SeasonDeltaCoalescer(redisStatsRepository, 64, 200, 3, 1);
+        PlayerStatsDelta delta = new PlayerStatsDelta(2, 0, 0, 0, 0, 0, 0, 1.0, 0);
+        stale.add("2024/25", "s:2024_25:t:10", delta);
+        Thread.sleep(120);
+        doAnswer(invocation -> {
+            stale.add("2024/25", "s:2024_25:t:10", delta);
+            throw new RuntimeException("Redis down");
+        }).doNothing().when(redisStatsRepository).updateSeasonAggregates(any(), any(), any());
+        stale.flushAll();
+
+        // When - 100 ms after the new delta, 220 ms after the failed one
+        Thread.sleep(100);
+        stale.add("2024/25", "s:2024_25:t:10", delta);
+
+        // Then - Staleness counts from the failed delta, all three go out inline
+        ArgumentCaptor<PlayerStatsDelta> captor = ArgumentCaptor.forClass(PlayerStatsDelta.class);
+        verify(redisStatsRepository, times(2)).updateSeasonAggregates(eq("2024/25"), eq("s:2024_25:t:10"), captor.capture());
+        assertEquals(6, captor.getAllValues().get(1).getPoints());
+    }
+
+    @Test
+    void shouldRetryFlushAtShutdownAndThenDropPendingDeltas() {
+        // Given - Redis stays down
+        doThrow(new RuntimeException("Redis down"))
+            .when(redisStatsRepository).updateSeasonAggregates(any(), any(), any());
+        coalescer.add("2024/25", "s:2024_25:t:10", new PlayerStatsDelta(2, 0, 0, 0, 0, 0, 0, 1.0, 0));
+
+        // When
+        coalescer.shutdown();
+
+        // Then - Three attempts, then nothing is left to flush
+        verify(redisStatsRepository, times(3)).updateSeasonAggregates(eq("2024/25"), eq("s:2024_25:t:10"), any());
+        coalescer.flushAll();
+        verifyNoMoreInteractions(redisStatsRepository);
+    }
+}
@@ -0,0 +1,226 @@
+package com.nba.stats.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.dto.SeasonRebuildResultDto;
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.repository.DbStatsRepository;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeasonRebuildServiceTest {
+
+    private static final String SEASON = "2024/25";
+
+    @Mock
+    private DbStatsRepository dbRepository;
+
+    @Mock
+    private RedisStatsRepository redisRepository;
+
+    @Mock
+    private ScheduledSyncService syncService;
+
+    private SeasonRebuildService service;
+
+    @BeforeEach
+    void setUp() {
+        // One id per partition - every player and team is its own fork/join leaf
+        service = new SeasonRebuildService(dbRepository, redisRepository, syncService, Optional.empty(),
+                SEASON, 4, 1, new SimpleMeterRegistry());
+        lenient().when(syncService.runExclusively(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        // No hash changes while the rebuild runs unless a test says so
+        lenient().when(redisRepository.storeUnchangedSeasonStats(anyMap(), anyMap()))
+                .thenAnswer(invocation -> invocation.<Map<String, SeasonTotals>>getArgument(0).keySet());
+    }
+
+    @Test
+    void shouldSumGamesPerPlayerAndTeamWithLiveLineReplacingFinalLine() {
+        // Given - Two players of team 10 in game 1, player 23 also in game 2, which is live again
+        List<LiveStatDto> finalLines = List.of(
+                line(1, 10, 23, 30, 36.5),
+                line(1, 10, 24, 12, 30.0),
+                line(2, 10, 23, 20, 33.0));
+        List<LiveStatDto> liveLines = List.of(line(2, 10, 23, 25, 35.0), line(3, 10, 23, 8, 10.0));
+
+        // When
+        Map<Integer, SeasonTotals> players = SeasonRebuildService.sumGames(finalLines, liveLines, LiveStatDto::getPlayerId);
+        Map<Integer, SeasonTotals> teams = SeasonRebuildService.sumGames(finalLines, liveLines, LiveStatDto::getTeamId);
+
+        // Then
+        assertEquals(3, players.get(23).getGamesPlayed());
+        assertEquals(30 + 25 + 8, players.get(23).getSumPoints());
+        assertEquals(36.5 + 35.0 + 10.0, players.get(23).getSumMinutes(), 1e-9);
+        assertEquals(1, players.get(24).getGamesPlayed());
+        assertEquals(3, teams.get(10).getGamesPlayed());
+        assertEquals(30 + 12 + 25 + 8, teams.get(10).getSumPoints());
+    }
+
+    @Test
+    void shouldUpsertAndReloadEveryPartition() {
+        // Given - Player 30 has only a live game, player 99 has no line at all
+        when(dbRepository.getSeasonPlayerIds(SEASON)).thenReturn(List.of(23, 30, 99));
+        when(dbRepository.getSeasonTeamIds(SEASON)).thenReturn(List.of(10));
+        when(redisRepository.getLiveGameLines(List.of(23, 30, 99))).thenReturn(List.of(line(5, 15, 30, 11, 20.0)));
+        when(dbRepository.getPlayerGameLines(eq(SEASON), anyCollection())).thenAnswer(invocation ->
+                invocation.<List<Integer>>getArgument(1).contains(23) ? List.of(line(1, 10, 23, 30, 36.0)) : List.of());
+        when(dbRepository.getTeamGameLines(eq(SEASON), anyCollection())).thenAnswer(invocation ->
+                invocation.<List<Integer>>getArgument(1).contains(10) ? List.of(line(1, 10, 23, 30, 36.0)) : List.of());
+
+        // When
+        SeasonRebuildResultDto result = service.rebuild(SEASON);
+
+        // Then
+        assertEquals(2, result.getPlayers());
+        assertEquals(2, result.getTeams());
+        assertEquals(1, result.getGameLines());
+        assertEquals(1, result.getLiveLines());
+        verify(dbRepository).upsertPlayerSeasonStats(SEASON, Map.of(23, totals(1, 30, 36.0)));
+        verify(dbRepository).upsertPlayerSeasonStats(SEASON, Map.of(30, totals(1, 11, 20.0)));
+        verify(dbRepository).upsertTeamSeasonStats(SEASON, Map.of(10, totals(1, 30, 36.0)));
+        verify(dbRepository).upsertTeamSeasonStats(SEASON, Map.of(15, totals(1, 11, 20.0)));
+        verify(dbRepository, times(2)).upsertPlayerSeasonStats(eq(SEASON), any());
+
+        Map<String, SeasonTotals> reloaded = reloadedHashes();
+        assertEquals(Set.of(RedisKeys.playerSeason(SEASON, 23), RedisKeys.playerSeason(SEASON, 30),
+                RedisKeys.teamSeason(SEASON, 10), RedisKeys.teamSeason(SEASON, 15)), reloaded.keySet());
+    }
+
+    @Test
+    void shouldOnlyRefreshCachedHashesOfPastSeason() {
+        // Given
+        String pastSeason = "2023/24";
+        when(dbRepository.getSeasonPlayerIds(pastSeason)).thenReturn(List.of(23, 24));
+        when(dbRepository.getSeasonTeamIds(pastSeason)).thenReturn(List.of());
+        when(dbRepository.getPlayerGameLines(eq(pastSeason), anyCollection())).thenAnswer(invocation ->
+                List.of(line(1, 10, invocation.<List<Integer>>getArgument(1).get(0), 10, 30.0)));
+        when(redisRepository.getAllSeasonStats(anyCollection())).thenAnswer(invocation ->
+                invocation.<Set<String>>getArgument(0).contains(RedisKeys.playerSeason(pastSeason, 23))
+                        ? Map.of(RedisKeys.playerSeason(pastSeason, 23), totals(1, 8, 30.0)) : Map.of());
+
+        // When
+        service.rebuild(pastSeason);
+
+        // Then - Both rows are rewritten, only the cached hash is reloaded, live games are not read
+        verify(dbRepository).upsertPlayerSeasonStats(pastSeason, Map.of(23, totals(1, 10, 30.0)));
+        verify(dbRepository).upsertPlayerSeasonStats(pastSeason, Map.of(24, totals(1, 10, 30.0)));
+        assertEquals(Set.of(RedisKeys.playerSeason(pastSeason, 23)), reloadedHashes().keySet());
+        verify(redisRepository, never()).getLiveGameLines(any());
+    }
+
+    @Test
+    void shouldSkipPlayerWhoseLinesCoverFewerGamesThanTheirTotals() {
+        // Given - Player 23 played 71 games before game lines were stored, player 24 has all of them
+        when(dbRepository.getSeasonPlayerIds(SEASON)).thenReturn(List.of(23, 24));
+        when(dbRepository.getSeasonTeamIds(SEASON)).thenReturn(List.of());
+        List<LiveStatDto> finalLines = List.of(line(1, 10, 23, 30, 36.0), line(1, 10, 24, 12, 30.0));
+        when(dbRepository.getPlayerGameLines(eq(SEASON), anyCollection())).thenAnswer(invocation -> finalLines.stream()
+                .filter(line -> invocation.<List<Integer>>getArgument(1).contains(line.getPlayerId()))
+                .toList());
+        when(dbRepository.getPlayerSeasonStats(anyCollection(), eq(SEASON)))
+                .thenReturn(Map.of(23, totals(71, 1800, 2500.0), 24, totals(1, 12, 30.0)));
+
+        // When
+        SeasonRebuildResultDto result = service.rebuild(SEASON);
+
+        // Then - Only player 24 is rewritten
+        assertEquals(1, result.getPlayers());
+        assertEquals(1, result.getSkipped());
+        verify(dbRepository).upsertPlayerSeasonStats(SEASON, Map.of(24, totals(1, 12, 30.0)));
+        assertEquals(Set.of(RedisKeys.playerSeason(SEASON, 24)), reloadedHashes().keySet());
+    }
+
+    @Test
+    void shouldLeaveHashChangedDuringRebuildAndItsRow() {
+        // Given - Player 23 is dirty at version 7 when the rebuild starts, then a stat line changes that hash
+        String player23 = RedisKeys.playerSeason(SEASON, 23);
+        String player24 = RedisKeys.playerSeason(SEASON, 24);
+        when(dbRepository.getSeasonPlayerIds(SEASON)).thenReturn(List.of(23, 24));
+        when(dbRepository.getSeasonTeamIds(SEASON)).thenReturn(List.of());
+        when(redisRepository.getDirtyVersions(eq(SEASON), anyCollection())).thenReturn(Map.of(player23, 7L));
+        List<LiveStatDto> finalLines = List.of(line(1, 10, 23, 30, 36.0), line(1, 10, 24, 12, 30.0));
+        when(dbRepository.getPlayerGameLines(eq(SEASON), anyCollection())).thenAnswer(invocation -> finalLines.stream()
+                .filter(line -> invocation.<List<Integer>>getArgument(1).contains(line.getPlayerId()))
+                .toList());
+        when(redisRepository.storeUnchangedSeasonStats(anyMap(), eq(Map.of(player23, 7L)))).thenReturn(Set.of(player24));
+
+        // When
+        SeasonRebuildResultDto result = service.rebuild(SEASON);
+
+        // Then - The versions are read before the live lines counted, player 23 keeps hash and row
+        InOrder inOrder = inOrder(redisRepository);
+        inOrder.verify(redisRepository).getDirtyVersions(eq(SEASON), anyCollection());
+        inOrder.verify(redisRepository).getLiveGameLines(List.of(23, 24));
+        assertEquals(1, result.getPlayers());
+        assertEquals(1, result.getSkipped());
+        verify(dbRepository).upsertPlayerSeasonStats(SEASON, Map.of(24, totals(1, 12, 30.0)));
+    }
+
+    @Test
+    void shouldRefuseSecondRebuildWhileOneIsRunning() throws Exception {
+        // Given - A rebuild waiting for the sync lock
+        CountDownLatch waiting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            waiting.countDown();
+            release.await();
+            return null;
+        }).when(syncService).runExclusively(any());
+        CompletableFuture<SeasonRebuildResultDto> first = CompletableFuture.supplyAsync(() -> service.rebuild(SEASON));
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+
+        // When / Then
+        assertThrows(SeasonRebuildService.RebuildAlreadyRunningException.class, () -> service.rebuild(SEASON));
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, SeasonTotals> reloadedHashes() {
+        ArgumentCaptor<Map<String, SeasonTotals>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(redisRepository, atLeastOnce()).storeUnchangedSeasonStats(captor.capture(), anyMap());
+        Map<String, SeasonTotals> reloaded = new HashMap<>();
+        captor.getAllValues().forEach(reloaded::putAll);
+        return reloaded;
+    }
+
+    private static SeasonTotals totals(int games, int points, double minutes) {
+        return new SeasonTotals(games, points, 3, 2, 0, 0, 1, 0, minutes);
+    }
+
+    private static LiveStatDto line(int gameId, int teamId, int playerId, int points, double minutes) {
+        return LiveStatDto.builder()
+            .gameId(gameId).teamId(teamId).playerId(playerId)
+            .points(points).rebounds(3).assists(2).fouls(1)
+            .minutesPlayed(minutes)
+            .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.nba.stats.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import com.nba.stats.dto.SeasonTotals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeasonStatsNearCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, SeasonTotals> loader = key ->
+            SeasonTotals.builder().gamesPlayed(loads.incrementAndGet()).build();
+
+    @Test
+    void shouldServeRepeatReadsUntilInvalidated() {
+        // Given
+        SeasonStatsNearCache cache = new SeasonStatsNearCache(true, 10, 60_000);
+        cache.get("s:2024_25:p:23", loader);
+
+        // When - Repeat read
+        SeasonTotals cached = cache.get("s:2024_25:p:23", loader);
+
+        // Then - Served from memory
+        assertEquals(1, loads.get());
+        assertEquals(1, cached.getGamesPlayed());
+
+        // When - Ingest publishes a change of the player and his team
+        cache.onMessage(message("s:2024_25:p:23 s:2024_25:t:10"), null);
+
+        // Then - Next read goes back to Redis
+        assertEquals(2, cache.get("s:2024_25:p:23", loader).getGamesPlayed());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedAndExpireStaleEntries() {
+        // Given - Room for two keys
+        SeasonStatsNearCache cache = new SeasonStatsNearCache(true, 2, 60_000);
+        cache.get("s:2024_25:p:1", loader);
+        cache.get("s:2024_25:p:2", loader);
+        cache.get("s:2024_25:p:1", loader); // p:2 is now least recently used
+
+        // When
+        cache.get("s:2024_25:p:3", loader);
+        cache.get("s:2024_25:p:1", loader);
+        assertEquals(3, loads.get());
+        cache.get("s:2024_25:p:2", loader);
+
+        // Then - p:2 was evicted and loaded again
+        assertEquals(4, loads.get());
+
+        // Zero staleness bound never serves from memory
+        SeasonStatsNearCache expiring = new SeasonStatsNearCache(true, 10, 0);
+        expiring.get("s:2024_25:p:1", loader);
+        expiring.get("s:2024_25:p:1", loader);
+        assertEquals(6, loads.get());
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage("season-stats:changed".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package com.nba.stats.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.nba.stats.dto.SeasonTotals;
+import com.nba.stats.repository.DbStatsRepository;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.util.RedisKeys;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeasonStatsWarmUpTest {
+
+    private static final String SEASON = "2024/25";
+    private static final SeasonTotals LEBRON = new SeasonTotals(10, 250, 80, 70, 10, 5, 20, 30, 350.0);
+    private static final SeasonTotals LAKERS = new SeasonTotals(10, 1150, 440, 260, 70, 50, 190, 140, 2400.0);
+
+    @Mock
+    private DbStatsRepository dbRepository;
+
+    @Mock
+    private RedisStatsRepository redisRepository;
+
+    private SeasonStatsWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        warmUp = new SeasonStatsWarmUp(dbRepository, redisRepository, SEASON, true, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldStoreSeasonRowsRedisDoesNotHoldAtStartup() {
+        // Given
+        doAnswer(invocation -> {
+            BiConsumer<Integer, SeasonTotals> players = invocation.getArgument(1);
+            BiConsumer<Integer, SeasonTotals> teams = invocation.getArgument(2);
+            players.accept(23, LEBRON);
+            players.accept(30, LEBRON);
+            teams.accept(10, LAKERS);
+            return null;
+        }).when(dbRepository).forEachSeasonStats(eq(SEASON), any(), any());
+        when(redisRepository.storeAbsentSeasonStats(anyMap())).thenReturn(2L);
+
+        // When
+        warmUp.start();
+
+        // Then - Every row goes to the store, which skips the hashes Redis holds
+        verify(redisRepository).storeAbsentSeasonStats(Map.of(
+                RedisKeys.playerSeason(SEASON, 23), LEBRON,
+                RedisKeys.playerSeason(SEASON, 30), LEBRON,
+                RedisKeys.teamSeason(SEASON, 10), LAKERS));
+        verify(redisRepository, never()).storeAllSeasonStats(any());
+        assertTrue(warmUp.isRunning());
+    }
+
+    @Test
+    void shouldWarmUpBothRostersAndTeamsAtTipOff() {
+        // Given
+        when(dbRepository.getRosterSeasonStats(List.of(10, 15), SEASON))
+                .thenReturn(Map.of(23, LEBRON, 30, SeasonTotals.EMPTY));
+        when(dbRepository.getTeamSeasonStats(List.of(10, 15), SEASON))
+                .thenReturn(Map.of(10, LAKERS, 15, SeasonTotals.EMPTY));
+        when(redisRepository.storeAbsentSeasonStats(anyMap())).thenReturn(4L);
+
+        // When
+        int loaded = warmUp.warmUpGame(8123, List.of(10, 15));
+
+        // Then
+        assertEquals(4, loaded);
+        verify(redisRepository).storeAbsentSeasonStats(Map.of(
+                RedisKeys.playerSeason(SEASON, 23), LEBRON,
+                RedisKeys.playerSeason(SEASON, 30), SeasonTotals.EMPTY,
+                RedisKeys.teamSeason(SEASON, 10), LAKERS,
+                RedisKeys.teamSeason(SEASON, 15), SeasonTotals.EMPTY));
+    }
+
+    @Test
+    void shouldStartEvenWhenWarmUpFails() {
+        doThrow(new IllegalStateException("database down")).when(dbRepository).forEachSeasonStats(eq(SEASON), any(), any());
+
+        assertDoesNotThrow(() -> warmUp.start());
+        verifyNoInteractions(redisRepository);
+    }
+}
@@ -0,0 +1,73 @@
+package com.nba.stats.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> MEMBERS = List.of(
+            "http://10.0.0.1:8080", "http://10.0.0.2:8080", "http://10.0.0.3:8080", "http://10.0.0.4:8080");
+    private static final int GAMES = 10_000;
+
+    @Test
+    void shouldAssignSameOwnerWhateverTheMemberOrder() {
+        ConsistentHashRing ring = ConsistentHashRing.of(MEMBERS, 128);
+        ConsistentHashRing reversed = ConsistentHashRing.of(MEMBERS.reversed(), 128);
+
+        for (int gameId = 1; gameId <= GAMES; gameId++) {
+            assertEquals(ring.ownerOf(gameId), reversed.ownerOf(gameId));
+        }
+    }
+
+    @Test
+    void shouldSpreadConsecutiveGamesOverAllMembers() {
+        // Given
+        ConsistentHashRing ring = ConsistentHashRing.of(MEMBERS, 128);
+
+        // When
+        Map<String, Integer> games = new HashMap<>();
+        for (int gameId = 1; gameId <= GAMES; gameId++) {
+            games.merge(ring.ownerOf(gameId), 1, Integer::sum);
+        }
+
+        // Then - Each of the four members owns roughly a quarter
+        assertEquals(MEMBERS.size(), games.size());
+        for (Map.Entry<String, Integer> entry : games.entrySet()) {
+            assertTrue(entry.getValue() > GAMES * 0.18 && entry.getValue() < GAMES * 0.32,
+                    entry.getKey() + " owns " + entry.getValue() + " of " + GAMES + " games");
+        }
+    }
+
+    @Test
+    void shouldOnlyMoveGamesOfTheMemberThatLeft() {
+        // Given
+        ConsistentHashRing ring = ConsistentHashRing.of(MEMBERS, 128);
+        String leaving = MEMBERS.get(3);
+
+        // When
+        ConsistentHashRing shrunk = ConsistentHashRing.of(MEMBERS.subList(0, 3), 128);
+
+        // Then
+        for (int gameId = 1; gameId <= GAMES; gameId++) {
+            String owner = ring.ownerOf(gameId);
+            if (owner.equals(leaving)) {
+                assertNotEquals(leaving, shrunk.ownerOf(gameId));
+            } else {
+                assertEquals(owner, shrunk.ownerOf(gameId), "game " + gameId);
+            }
+        }
+    }
+
+    @Test
+    void shouldHaveNoOwnerWithoutMembers() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of(), 128);
+
+        assertTrue(ring.isEmpty());
+        assertNull(ring.ownerOf(8123));
+    }
+}
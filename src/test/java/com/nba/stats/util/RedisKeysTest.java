@@ -0,0 +1,73 @@
+package com.nba.stats.util;
+
+import org.junit.jupiter.api.Test;
+
+import com.nba.stats.enums.LeaderboardStat;
+
+import io.lettuce.core.cluster.SlotHash;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisKeysTest {
+
+    @Test
+    void shouldPutEveryKeyOfAPlayerScriptCallInOneSlot() {
+        // Given - The keys apply_stat_line and finish_player_game touch for player 87
+        int bucket = RedisKeys.slotBucket(87);
+        List<String> keys = new ArrayList<>(List.of(
+            RedisKeys.playerGame(8123, 87),
+            RedisKeys.playerSeason("2024/25", 87),
+            RedisKeys.playerLiveGames(87),
+            RedisKeys.playerRecentGames("2024/25", 87),
+            RedisKeys.dirtySeasonKeys("2024/25", bucket),
+            RedisKeys.dirtyVersion("2024/25", bucket)));
+        for (int window : RedisKeys.RECENT_FORM_WINDOWS) {
+            keys.add(RedisKeys.playerRecentForm("2024/25", 87, window));
+        }
+        for (LeaderboardStat stat : LeaderboardStat.values()) {
+            keys.add(RedisKeys.leaderboardTotal("2024/25", stat, bucket));
+            keys.add(RedisKeys.leaderboardAverage("2024/25", stat, bucket));
+        }
+
+        // When
+        Set<Integer> slots = new HashSet<>();
+        for (String key : keys) {
+            slots.add(SlotHash.getSlot(key));
+        }
+
+        // Then
+        assertEquals(1, slots.size(), "slots " + slots + " of " + keys);
+    }
+
+    @Test
+    void shouldPutTeamKeysInTheTeamsSlot() {
+        int slot = SlotHash.getSlot(RedisKeys.teamSeason("2024/25", 10));
+
+        assertEquals(slot, SlotHash.getSlot(RedisKeys.teamGame(10, 8123)));
+        assertEquals(slot, SlotHash.getSlot(RedisKeys.dirtySeasonKeys("2024/25", RedisKeys.slotBucket(10))));
+    }
+
+    @Test
+    void shouldSpreadBucketsOverDistinctSlots() {
+        Set<Integer> slots = new HashSet<>();
+        for (int bucket = 0; bucket < RedisKeys.SLOT_BUCKETS; bucket++) {
+            slots.add(SlotHash.getSlot(RedisKeys.dirtySeasonKeys("2024/25", bucket)));
+        }
+
+        assertEquals(RedisKeys.SLOT_BUCKETS, slots.size());
+    }
+
+    @Test
+    void shouldReadBucketBackFromKey() {
+        assertEquals("s:2024_25:p:87:{b23}", RedisKeys.playerSeason("2024/25", 87));
+        assertEquals(23, RedisKeys.slotBucketOf(RedisKeys.playerSeason("2024/25", 87)));
+        assertEquals(10, RedisKeys.slotBucketOf(RedisKeys.teamGame(10, 8123)));
+        assertEquals(RedisKeys.slotBucket(-5), RedisKeys.slotBucketOf(RedisKeys.playerGame(1, -5)));
+        assertThrows(IllegalArgumentException.class, () -> RedisKeys.slotBucketOf("s:2024_25:p:87"));
+    }
+}
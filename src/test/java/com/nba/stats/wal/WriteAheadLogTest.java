@@ -0,0 +1,329 @@
+package com.nba.stats.wal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.nba.stats.dto.LiveStatDto;
+import com.nba.stats.repository.RedisStatsRepository;
+import com.nba.stats.service.LiveStatService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ObjectProvider<LiveStatService> liveStatServiceProvider;
+
+    @Mock
+    private LiveStatService liveStatService;
+
+    @Mock
+    private RedisStatsRepository redisStatsRepository;
+
+    private final List<WriteAheadLog> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(liveStatServiceProvider.getObject()).thenReturn(liveStatService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (WriteAheadLog wal : opened) {
+            if (wal.isRunning()) {
+                wal.stop();
+            }
+        }
+    }
+
+    @Test
+    void shouldRoundTripRecordThroughFixedWidthLayout() {
+        // Given
+        LiveStatDto line = line(8123, 23, 31, 36.3);
+        byte[] record = new byte[WalRecordCodec.RECORD_SIZE];
+
+        // When
+        WalRecordCodec.encode(line, 42, 1_700_000_000_000L, record);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+
+        // Then
+        assertTrue(WalRecordCodec.isValid(buffer));
+        assertEquals(42, WalRecordCodec.sequence(buffer));
+        assertEquals(1_700_000_000_000L, WalRecordCodec.timestampMillis(buffer));
+        assertEquals(line, WalRecordCodec.decode(buffer));
+
+        // A zero-filled slot and a flipped bit both fail the checksum
+        assertFalse(WalRecordCodec.isValid(ByteBuffer.wrap(new byte[WalRecordCodec.RECORD_SIZE])));
+        record[40] ^= 1;
+        assertFalse(WalRecordCodec.isValid(buffer));
+    }
+
+    @Test
+    void shouldReplayNewestLinesAfterCheckpointOnTopOfRestoredSnapshots() {
+        // Given - Player 23's first line is synced, the next two lines and player 24's are not
+        WriteAheadLog wal = open("group", 1024, 6);
+        LiveStatDto synced = line(8123, 23, 10, 12.0);
+        LiveStatDto newer = line(8123, 23, 14, 15.5);
+        LiveStatDto newest = line(8123, 23, 18, 20.0);
+        LiveStatDto otherPlayer = line(8123, 24, 5, 8.0);
+        apply(wal, synced);
+        wal.checkpoint(wal.pauseApplying(() -> { }));
+        apply(wal, newer, otherPlayer);
+        apply(wal, newest);
+        wal.stop();
+
+        // When
+        WriteAheadLog reopened = open("group", 1024, 6);
+
+        // Then - The synced line becomes the snapshot, only the newest line per player is applied
+        verify(redisStatsRepository).restoreGameSnapshots(List.of(synced));
+        verify(liveStatService).replayLiveStats(List.of(newest, otherPlayer));
+        assertEquals(1, reopened.getCheckpointSequence());
+        assertEquals(5, reopened.append(line(8123, 25, 2, 3.0)));
+    }
+
+    @Test
+    void shouldNotReplayWhenEverythingIsCheckpointed() {
+        WriteAheadLog wal = open("always", 1024, 6);
+        apply(wal, line(1, 23, 10, 12.0), line(1, 24, 8, 10.0));
+        wal.checkpoint(wal.pauseApplying(() -> { }));
+        wal.stop();
+
+        open("always", 1024, 6);
+
+        verifyNoInteractions(redisStatsRepository, liveStatService);
+    }
+
+    @Test
+    void shouldLeaveLinesStillBeingAppliedOutOfCheckpoint() {
+        WriteAheadLog wal = open("periodic", 1024, 6);
+
+        long first = wal.append(line(1, 23, 10, 12.0));
+        apply(wal, line(1, 24, 8, 10.0));
+        WriteAheadLog.Checkpoint checkpoint = wal.pauseApplying(() -> { });
+
+        assertEquals(2, checkpoint.sequence());
+        assertFalse(checkpoint.covers(first));
+        assertTrue(checkpoint.covers(first + 1));
+    }
+
+    @Test
+    void shouldKeepFailedLineInFlightUntilNewerLineOfSamePlayerIsApplied() {
+        // Given - Player 23's line fails to apply, player 24's line goes through
+        WriteAheadLog wal = open("periodic", 1024, 6);
+        LiveStatDto failed = line(8123, 23, 10, 12.0);
+        long failedSequence = wal.append(failed);
+        assertThrows(IllegalStateException.class, () -> wal.apply(failedSequence, List.of(failed), () -> {
+            throw new IllegalStateException("Redis down");
+        }));
+        apply(wal, line(8123, 24, 8, 10.0));
+
+        // Then - The failed line is left out of the checkpoint
+        assertFalse(wal.pauseApplying(() -> { }).covers(failedSequence));
+
+        // When - A newer line of player 23 is applied
+        apply(wal, line(8123, 23, 14, 15.5));
+
+        // Then - It supersedes the failed line
+        assertTrue(wal.pauseApplying(() -> { }).covers(failedSequence));
+    }
+
+    @Test
+    void shouldNotReplayFailedLineSupersededAfterCheckpoint() {
+        // Given - Checkpointed while player 23's failed line was in flight, a newer line follows
+        WriteAheadLog wal = open("always", 1024, 6);
+        LiveStatDto failed = line(8123, 23, 10, 12.0);
+        long failedSequence = wal.append(failed);
+        assertThrows(IllegalStateException.class, () -> wal.apply(failedSequence, List.of(failed), () -> {
+            throw new IllegalStateException("Redis down");
+        }));
+        LiveStatDto newer = line(8123, 23, 14, 15.5);
+        apply(wal, newer);
+        wal.checkpoint(wal.pauseApplying(() -> { }));
+        wal.stop();
+
+        // When
+        WriteAheadLog reopened = open("always", 1024, 6);
+
+        // Then - The newer line is in the database, the failed one is not applied on top of it
+        verifyNoInteractions(redisStatsRepository, liveStatService);
+        assertEquals(2, reopened.getCheckpointSequence());
+    }
+
+    @Test
+    void shouldBlockApplyWhileSyncReads() throws Exception {
+        // Given
+        WriteAheadLog wal = open("periodic", 1024, 6);
+        LiveStatDto line = line(1, 23, 10, 12.0);
+        long sequence = wal.append(line);
+        List<String> events = new CopyOnWriteArrayList<>();
+        Thread applier = new Thread(() -> wal.apply(sequence, List.of(line), () -> events.add("apply")));
+
+        // When - A line is applied while the sync reads
+        wal.pauseApplying(() -> {
+            applier.start();
+            try {
+                applier.join(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add("read");
+        });
+        applier.join();
+
+        // Then - It waits for the read to finish
+        assertEquals(List.of("read", "apply"), events);
+    }
+
+    @Test
+    void shouldRollSegmentsAndDeleteThoseBehindCheckpoint() throws Exception {
+        // Given - Four records per segment, no retention beyond the checkpoint
+        WriteAheadLog wal = open("periodic", 4, 0);
+        for (int i = 0; i < 10; i++) {
+            apply(wal, line(1, i, i, 1.0));
+        }
+        assertEquals(3, segmentFiles().size());
+
+        // When
+        Thread.sleep(5);
+        wal.checkpoint(wal.pauseApplying(() -> { }));
+
+        // Then - Only the active segment is left
+        assertEquals(List.of("wal-00000000000000000009.log"), segmentFiles());
+    }
+
+    @Test
+    void shouldStopRecoveryAtTornRecordAndAppendOverIt() throws Exception {
+        // Given - The third record is only partly on disk
+        WriteAheadLog wal = open("always", 1024, 6);
+        LiveStatDto first = line(1, 23, 10, 12.0);
+        LiveStatDto second = line(1, 24, 8, 10.0);
+        wal.append(first);
+        wal.append(second);
+        wal.append(line(1, 25, 6, 9.0));
+        wal.stop();
+        try (RandomAccessFile segment = new RandomAccessFile(
+                directory.resolve("wal-00000000000000000001.log").toFile(), "rw")) {
+            segment.seek(2L * WalRecordCodec.RECORD_SIZE + 30);
+            segment.write(0xff);
+        }
+
+        // When
+        WriteAheadLog reopened = open("always", 1024, 6);
+
+        // Then
+        verify(liveStatService).replayLiveStats(List.of(first, second));
+        assertEquals(3, reopened.append(line(1, 25, 6, 9.0)));
+    }
+
+    @Test
+    void shouldSkipLinesOlderThanSnapshotTtl() throws Exception {
+        // Given - Player 23's line was logged five hours ago, its snapshot expired with Redis intact
+        WriteAheadLog wal = open("always", 1024, 6);
+        LiveStatDto expired = line(8123, 23, 10, 12.0);
+        LiveStatDto recent = line(8123, 24, 8, 10.0);
+        wal.append(expired);
+        wal.append(recent);
+        wal.stop();
+        backdate(1, expired, TimeUnit.HOURS.toMillis(5));
+
+        // When
+        open("always", 1024, 6);
+
+        // Then
+        verify(redisStatsRepository).findFinishedGames(List.of(recent));
+        verify(liveStatService).replayLiveStats(List.of(recent));
+    }
+
+    @Test
+    void shouldSkipLinesOfFinishedGames() {
+        // Given - Game 8123 finished after its lines were logged
+        WriteAheadLog wal = open("always", 1024, 6);
+        LiveStatDto finished = line(8123, 23, 10, 12.0);
+        LiveStatDto live = line(8124, 24, 8, 10.0);
+        wal.append(finished);
+        wal.append(live);
+        wal.stop();
+        when(redisStatsRepository.findFinishedGames(List.of(finished, live))).thenReturn(Set.of(8123));
+
+        // When
+        open("always", 1024, 6);
+
+        // Then
+        verify(liveStatService).replayLiveStats(List.of(live));
+        verify(redisStatsRepository, never()).restoreGameSnapshots(any());
+    }
+
+    @Test
+    void shouldRefuseDirectoryUsedByAnotherLog() {
+        open("periodic", 1024, 6);
+
+        assertThrows(IllegalStateException.class, () -> open("periodic", 1024, 6));
+    }
+
+    private WriteAheadLog open(String fsync, int segmentRecords, long retentionHours) {
+        WriteAheadLog wal = new WriteAheadLog(liveStatServiceProvider, redisStatsRepository, directory.toString(),
+                segmentRecords, fsync, 1, retentionHours, 500, new SimpleMeterRegistry());
+        opened.add(wal);
+        wal.start();
+        return wal;
+    }
+
+    private static void apply(WriteAheadLog wal, LiveStatDto... lines) {
+        wal.apply(wal.appendAll(List.of(lines)), List.of(lines), () -> { });
+    }
+
+    /**
+     * Rewrite the record of the given sequence in the first segment as logged the given time ago
+     */
+    private void backdate(long sequence, LiveStatDto line, long ageMillis) throws Exception {
+        byte[] record = new byte[WalRecordCodec.RECORD_SIZE];
+        WalRecordCodec.encode(line, sequence, System.currentTimeMillis() - ageMillis, record);
+        try (RandomAccessFile segment = new RandomAccessFile(
+                directory.resolve("wal-00000000000000000001.log").toFile(), "rw")) {
+            segment.seek((sequence - 1) * WalRecordCodec.RECORD_SIZE);
+            segment.write(record);
+        }
+    }
+
+    private List<String> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("wal-"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static LiveStatDto line(int gameId, int playerId, int points, double minutes) {
+        return LiveStatDto.builder()
+            .gameId(gameId).teamId(10).playerId(playerId)
+            .points(points).rebounds(3).assists(2).fouls(1)
+            .minutesPlayed(minutes)
+            .build();
+    }
+}
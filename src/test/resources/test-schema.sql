@@ -1,4 +1,5 @@
 -- Drop tables if they exist (for clean test runs)
+DROP TABLE IF EXISTS stat_player_game;
 DROP TABLE IF EXISTS stat_team_sum;
 DROP TABLE IF EXISTS stat_player_sum;
 DROP TABLE IF EXISTS player;
@@ -7,7 +8,8 @@ DROP TABLE IF EXISTS team;
 -- Roster tables (for names)
 CREATE TABLE player (
     id INTEGER PRIMARY KEY,
-    name VARCHAR(255) NOT NULL
+    name VARCHAR(255) NOT NULL,
+    team_id INTEGER
 );
 
 CREATE TABLE team (
@@ -48,14 +50,33 @@ CREATE TABLE stat_team_sum (
     PRIMARY KEY (team_id, season)
 );
 
+CREATE TABLE stat_player_game (
+    player_id INTEGER NOT NULL,
+    game_id INTEGER NOT NULL,
+    team_id INTEGER NOT NULL,
+    season VARCHAR(10) NOT NULL,
+    points INTEGER DEFAULT 0,
+    rebounds INTEGER DEFAULT 0,
+    assists INTEGER DEFAULT 0,
+    steals INTEGER DEFAULT 0,
+    blocks INTEGER DEFAULT 0,
+    fouls INTEGER DEFAULT 0,
+    turnovers INTEGER DEFAULT 0,
+    minutes_played DECIMAL(5,1) DEFAULT 0.0,
+    finished_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (player_id, game_id)
+);
+
+CREATE INDEX idx_stat_player_game_log ON stat_player_game(player_id, season, game_id DESC);
+
 -- Insert test roster data
-INSERT INTO player (id, name) VALUES 
-    (23, 'LeBron James'),
-    (30, 'Stephen Curry'),
-    (40, 'Giannis Antetokounmpo'),
-    (41, 'Jayson Tatum'),
-    (50, 'Luka Doncic'),
-    (60, 'Nikola Jokic');
+INSERT INTO player (id, name, team_id) VALUES 
+    (23, 'LeBron James', 10),
+    (30, 'Stephen Curry', 15),
+    (40, 'Giannis Antetokounmpo', NULL),
+    (41, 'Jayson Tatum', 25),
+    (50, 'Luka Doncic', 30),
+    (60, 'Nikola Jokic', 35);
 
 INSERT INTO team (id, name) VALUES 
     (10, 'Los Angeles Lakers'),